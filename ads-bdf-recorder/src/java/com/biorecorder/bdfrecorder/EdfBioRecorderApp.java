@@ -1,7 +1,7 @@
 package com.biorecorder.bdfrecorder;
 
 import com.biorecorder.edflib.EdfFileWriter;
-import com.biorecorder.filters.digitalfilter.IntMovingAverage;
+import com.biorecorder.filters.digitalfilter.IntIirFilter;
 import com.biorecorder.edflib.DataRecordStream;
 import com.biorecorder.edflib.DataHeader;
 import com.biorecorder.bdfrecorder.recorder.*;
@@ -206,10 +206,10 @@ public class EdfBioRecorderApp {
                 // disable lead off detection
                 recorderConfig.setChannelLeadOffEnable(i, false);
                 if (appConfig.is50HzFilterEnabled(i)) {
-                    // Apply MovingAverage filter to the channel to reduce 50Hz noise
-                    int numberOfAveragingPoints = recorderConfig.getChannelSampleRate(i) / 50;
-                    if (numberOfAveragingPoints > 1) {
-                        bioRecorder.addChannelFilter(i, new IntMovingAverage(numberOfAveragingPoints), "MovAvg:" + numberOfAveragingPoints);
+                    // Apply notch filter to the channel to remove 50Hz noise
+                    int channelSampleRate = recorderConfig.getChannelSampleRate(i);
+                    if (channelSampleRate > 2 * 50) {
+                        bioRecorder.addChannelFilter(i, IntIirFilter.notch(channelSampleRate, 50, 30), "Notch:50Hz");
                     }
                 }
             }
@@ -15,6 +15,10 @@ public class FileStream implements DataRecordStream {
 
     public FileStream(File file) throws FileNotFoundException {
         edfFileWriter = new EdfFileWriter(file);
+        // long recordings on slow SD cards and USB disks
+        edfFileWriter.enableAsyncWriting();
+        // sidecar min/max index to open and zoom long recordings quickly
+        edfFileWriter.enablePyramid();
     }
 
     public File getFile() {
@@ -45,6 +49,11 @@ public class FileStream implements DataRecordStream {
             //msg = new Message(Message.TYPE_DATA_SUCCESSFULLY_SAVED, edfFile + "\n\n" + edfStream1.getWritingInfo());
             String logMsg = new Message(Message.TYPE_DATA_SUCCESSFULLY_SAVED, edfFileWriter.getFile() + "\n\n" + edfFileWriter.getWritingInfo()).getMessage();
             log.info(logMsg);
+            log.info("File writing: commits = " + edfFileWriter.getNumberOfCommits()
+                    + ", max queue depth = " + edfFileWriter.getMaxWritingQueueDepth()
+                    + ", waits for free buffer = " + edfFileWriter.getNumberOfWaitsForFreeBuffer()
+                    + ", average flush latency (ms) = " + edfFileWriter.getAverageFlushLatencyMs()
+                    + ", max flush latency (ms) = " + edfFileWriter.getMaxFlushLatencyMs());
         } catch (Exception e) {
             log.error(e);
         }
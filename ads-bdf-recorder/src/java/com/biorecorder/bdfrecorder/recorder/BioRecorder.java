@@ -222,6 +222,14 @@ public class BioRecorder {
         return RecorderType.valueOf(adsType);
     }
 
+    /**
+     * @return how many times the buffer between the comport reading and data records handling
+     * was full during the current (or last) recording
+     */
+    public long getRecordsBufferOverflowCount() {
+        return ads.getRecordsBufferOverflowCount();
+    }
+
     public static String[] getAvailableComportNames() {
         return Ads.getAvailableComportNames();
     }
@@ -445,6 +453,11 @@ public class BioRecorder {
             return filter.filteredValue(v);
         }
 
+        @Override
+        public void filter(int[] in, int inOff, int[] out, int outOff, int n) {
+            filter.filter(in, inOff, out, outOff, n);
+        }
+
         public String getName() {
             return filterName;
         }
@@ -68,6 +68,9 @@ public class Ads {
     private static final int ACTIVE_PERIOD_MS = 2 * SLEEP_TIME_MS;
 
     private static final int MAX_STARTING_TIME_MS = 30 * 1000;
+    private static final int MAX_DELIVERY_STOPPING_TIME_MS = 2 * 1000;
+
+    public static final int DEFAULT_RECORDS_BUFFER_DEPTH = 2048;
 
     private static final String DISCONNECTED_MSG = "Ads is disconnected and its work is finalised";
     private static final String RECORDING_MSG = "Ads is recording. Stop it first";
@@ -93,7 +96,27 @@ public class Ads {
     private volatile NumberedDataRecordListener dataListener;
     private volatile MessageListener messageListener;
 
+    // data records are passed from the comport thread to the
+    // «Data Records delivery» thread through the ring of preallocated records
+    private final int recordsBufferDepth;
+    private final OverflowPolicy overflowPolicy;
+    private volatile DataRecordRing recordsRing;
+    private volatile Thread deliveryThread;
+
     public Ads(String comportName) throws AdsConnectionRuntimeException {
+        this(comportName, DEFAULT_RECORDS_BUFFER_DEPTH, OverflowPolicy.DROP_OLDEST);
+    }
+
+    /**
+     * @param comportName name of the comport the ads is connected to
+     * @param recordsBufferDepth number of data records that may wait to be handled
+     *                           by listener without stalling the comport reading
+     * @param overflowPolicy what to do with new records when the buffer is full
+     * @throws AdsConnectionRuntimeException if connection to the comport failed
+     */
+    public Ads(String comportName, int recordsBufferDepth, OverflowPolicy overflowPolicy) throws AdsConnectionRuntimeException {
+        this.recordsBufferDepth = recordsBufferDepth;
+        this.overflowPolicy = overflowPolicy;
         try {
             comport = ComportFactory.getComport(comportName, COMPORT_SPEED);
         } catch (ComportRuntimeException ex) {
@@ -184,7 +207,9 @@ public class Ads {
         isDataReceived = false;
         // create frame decoder corresponding to the configuration
         // and set it as listener to comport
-        comport.addListener(createAndConfigureFrameDecoder(adsConfig));
+        FrameDecoder frameDecoder = createAndConfigureFrameDecoder(adsConfig);
+        startDataDelivery(frameDecoder.getDecodedFrameSize());
+        comport.addListener(frameDecoder);
         AdsState stateBeforeStart = adsStateAtomicReference.get();
         adsStateAtomicReference.set(AdsState.RECORDING);
         executorFuture = singleThreadExecutor.submit(new StartingTask(adsConfig, stateBeforeStart));
@@ -302,9 +327,43 @@ public class Ads {
                 Thread.currentThread().interrupt();
             }
         }
+        stopDataDelivery();
         return isStopOk;
     }
 
+    /**
+     * Creates the ring buffer for data records and starts the thread
+     * that takes records from it and sends them to the data listener
+     */
+    private void startDataDelivery(int recordSize) {
+        stopDataDelivery();
+        final DataRecordRing ring = new DataRecordRing(recordsBufferDepth, recordSize, overflowPolicy);
+        recordsRing = ring;
+        deliveryThread = new Thread(new DeliveryTask(ring), "«Data Records delivery» thread");
+        deliveryThread.setDaemon(true);
+        deliveryThread.start();
+    }
+
+    /**
+     * Closes the ring buffer and waits until the records remaining
+     * in it are sent to the data listener
+     */
+    private void stopDataDelivery() {
+        DataRecordRing ring = recordsRing;
+        Thread thread = deliveryThread;
+        if (ring != null) {
+            ring.close();
+        }
+        if (thread != null && thread != Thread.currentThread()) {
+            try {
+                thread.join(MAX_DELIVERY_STOPPING_TIME_MS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        deliveryThread = null;
+    }
+
     /**
      * Stops ads measurements or monitoring
      *
@@ -321,6 +380,7 @@ public class Ads {
         if(adsStateAtomicReference.get() == AdsState.RECORDING) {
             stop1();
         }
+        stopDataDelivery();
         if (!comport.isOpened()) {
             return true;
         }
@@ -340,7 +400,10 @@ public class Ads {
                 public void onDataRecordReceived(int[] dataRecord, int recordNumber) {
                     lastEventTime = System.currentTimeMillis();
                     isDataReceived = true;
-                    notifyDataListeners(dataRecord, recordNumber);
+                    DataRecordRing ring = recordsRing;
+                    if (ring != null) {
+                        ring.put(dataRecord, recordNumber);
+                    }
                 }
             });
         }
@@ -397,6 +460,31 @@ public class Ads {
         return adsType;
     }
 
+    /**
+     * @return how many times during the current (or last) recording
+     * the records buffer was full when a new data record came.
+     * In DROP_OLDEST mode it is the number of dropped records
+     */
+    public long getRecordsBufferOverflowCount() {
+        DataRecordRing ring = recordsRing;
+        if (ring == null) {
+            return 0;
+        }
+        return ring.overflowCount();
+    }
+
+    /**
+     * @return max number of data records that were waiting in the buffer
+     * to be handled during the current (or last) recording
+     */
+    public int getRecordsBufferPeakFill() {
+        DataRecordRing ring = recordsRing;
+        if (ring == null) {
+            return 0;
+        }
+        return ring.peakFill();
+    }
+
     /**
      * Ads permits to add only ONE RecordListener! So if a new listener added
      * the old one are automatically removed
@@ -731,6 +819,34 @@ public class Ads {
         return "Bit mask";
     }
 
+    class DeliveryTask implements Runnable {
+        private final DataRecordRing ring;
+        private final int[] dataRecord;
+
+        public DeliveryTask(DataRecordRing ring) {
+            this.ring = ring;
+            dataRecord = new int[ring.recordSize()];
+        }
+
+        @Override
+        public void run() {
+            while (true) {
+                int recordNumber = ring.poll(dataRecord);
+                if (recordNumber >= 0) {
+                    try {
+                        notifyDataListeners(dataRecord, recordNumber);
+                    } catch (Exception ex) {
+                        log.error("Error during data records handling", ex);
+                    }
+                } else if (ring.isClosed() && ring.isEmpty()) {
+                    break;
+                } else {
+                    ring.awaitRecords();
+                }
+            }
+        }
+    }
+
     class PingTask implements Runnable {
         @Override
         public void run() {
@@ -0,0 +1,171 @@
+package com.biorecorder.ads;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Single-producer/single-consumer ring of preallocated data records.
+ * Producer (comport thread) copies every decoded frame into a free slot
+ * and consumer (data handling thread) copies slots into its own record.
+ * So no objects are created per record and the comport thread
+ * never waits on data handling (unless policy is BLOCK).
+ * <p>
+ * In DROP_OLDEST mode the producer "steals" the oldest slot advancing
+ * the read index by CAS. The consumer takes a record only if its own CAS
+ * of the read index succeeds after copying, so a slot overwritten
+ * during copying is never handed out.
+ */
+class DataRecordRing {
+    private static final long PARK_TIME_NS = 1000 * 1000; // 1 ms
+    private final int[][] records;
+    private final int[] recordNumbers;
+    private final int recordSize;
+    private final int mask;
+    private final OverflowPolicy overflowPolicy;
+    private final AtomicLong readIndex = new AtomicLong();
+    private volatile long writeIndex;
+    private volatile boolean isClosed;
+    private volatile Thread consumerThread;
+    private final AtomicLong overflowCount = new AtomicLong();
+    private volatile int peakFill;
+
+    /**
+     * @param depth number of records the ring can hold. Rounded up to the power of 2
+     * @param recordSize size of every data record
+     */
+    DataRecordRing(int depth, int recordSize, OverflowPolicy overflowPolicy) throws IllegalArgumentException {
+        if (depth <= 0) {
+            String errMsg = "Buffer depth = " + depth + " Expected > 0";
+            throw new IllegalArgumentException(errMsg);
+        }
+        int capacity = Integer.highestOneBit(depth);
+        if (capacity < depth) {
+            capacity = capacity << 1;
+        }
+        mask = capacity - 1;
+        this.recordSize = recordSize;
+        this.overflowPolicy = overflowPolicy;
+        records = new int[capacity][recordSize];
+        recordNumbers = new int[capacity];
+    }
+
+    int recordSize() {
+        return recordSize;
+    }
+
+    int capacity() {
+        return records.length;
+    }
+
+    /**
+     * Called only from the producer thread
+     *
+     * @return false if the ring was closed and record was not put
+     */
+    boolean put(int[] record, int recordNumber) {
+        long w = writeIndex;
+        if (w - readIndex.get() > mask) {
+            if (overflowPolicy == OverflowPolicy.BLOCK) {
+                overflowCount.incrementAndGet();
+            }
+            while (w - readIndex.get() > mask) {
+                if (isClosed) {
+                    return false;
+                }
+                if (overflowPolicy == OverflowPolicy.DROP_OLDEST) {
+                    long r = readIndex.get();
+                    if (w - r > mask && readIndex.compareAndSet(r, r + 1)) {
+                        overflowCount.incrementAndGet();
+                    }
+                } else {
+                    wakeUpConsumer();
+                    LockSupport.parkNanos(this, PARK_TIME_NS);
+                }
+            }
+        }
+        int slot = (int) (w & mask);
+        System.arraycopy(record, 0, records[slot], 0, recordSize);
+        recordNumbers[slot] = recordNumber;
+        writeIndex = w + 1;
+        int fill = (int) (w + 1 - readIndex.get());
+        if (fill > peakFill) {
+            peakFill = fill;
+        }
+        wakeUpConsumer();
+        return true;
+    }
+
+    /**
+     * Called only from the consumer thread.
+     * Copies the oldest record to the given array
+     *
+     * @return number of the copied record or -1 if the ring is empty
+     */
+    int poll(int[] record) {
+        while (true) {
+            long r = readIndex.get();
+            if (r >= writeIndex) {
+                return -1;
+            }
+            int slot = (int) (r & mask);
+            System.arraycopy(records[slot], 0, record, 0, recordSize);
+            int recordNumber = recordNumbers[slot];
+            if (readIndex.compareAndSet(r, r + 1)) {
+                return recordNumber;
+            }
+            // slot was overwritten by producer during copying. Try the next one
+        }
+    }
+
+    /**
+     * Called only from the consumer thread. Waits for new records or closing
+     */
+    void awaitRecords() {
+        consumerThread = Thread.currentThread();
+        if (readIndex.get() >= writeIndex && !isClosed) {
+            LockSupport.parkNanos(this, PARK_TIME_NS * 10);
+        }
+    }
+
+    void close() {
+        isClosed = true;
+        wakeUpConsumer();
+    }
+
+    boolean isClosed() {
+        return isClosed;
+    }
+
+    boolean isEmpty() {
+        return readIndex.get() >= writeIndex;
+    }
+
+    /**
+     * @return number of records currently waiting to be handled
+     */
+    int fill() {
+        return (int) Math.max(0, writeIndex - readIndex.get());
+    }
+
+    /**
+     * @return max number of records that were waiting to be handled simultaneously
+     */
+    int peakFill() {
+        return peakFill;
+    }
+
+    /**
+     * @return how many times the ring was full when a new record came
+     * (the number of dropped records in DROP_OLDEST mode)
+     */
+    long overflowCount() {
+        return overflowCount.get();
+    }
+
+    private void wakeUpConsumer() {
+        Thread consumer = consumerThread;
+        if (consumer != null) {
+            LockSupport.unpark(consumer);
+        }
+    }
+}
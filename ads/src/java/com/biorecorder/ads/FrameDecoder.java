@@ -39,6 +39,7 @@ class FrameDecoder implements ComportListener {
     private byte[] rawFrame;
     private int[] decodedFrame;
     private int[] accPrev = new int[3];
+    private int[] accVal = new int[3];
     private final AdsConfig adsConfig;
     private volatile NumberedDataRecordListener dataListener = new NullDataListener();
     private volatile MessageListener messageListener = new NullMessageListener();
@@ -84,6 +85,29 @@ class FrameDecoder implements ComportListener {
         messageListener = new NullMessageListener();
     }
 
+    /**
+     * Bulk decoding. Data frames that are entirely contained in the buffer
+     * are decoded straight out of it. Messages, broken frames and frames
+     * split between two buffers are processed byte by byte.
+     */
+    @Override
+    public void onBytesReceived(byte[] buffer, int offset, int length) {
+        int end = offset + length;
+        int i = offset;
+        while (i < end) {
+            if (frameIndex == 0 && rowFrameSizeInByte > 0 && end - i >= rowFrameSizeInByte
+                    && buffer[i] == START_FRAME_MARKER
+                    && buffer[i + 1] == START_FRAME_MARKER
+                    && buffer[i + rowFrameSizeInByte - 1] == STOP_FRAME_MARKER) {
+                onDataRecordReceived(buffer, i);
+                i += rowFrameSizeInByte;
+            } else {
+                onByteReceived(buffer[i]);
+                i++;
+            }
+        }
+    }
+
     @Override
     public void onByteReceived(byte inByte) {
         if (frameIndex == 0 && inByte == START_FRAME_MARKER) {
@@ -138,7 +162,7 @@ class FrameDecoder implements ComportListener {
     private void onFrameReceived() {
         // Frame = \xAA\xAA... => frame[0] and frame[1] = START_FRAME_MARKER - data
         if (rawFrame[1] == START_FRAME_MARKER) {
-            onDataRecordReceived();
+            onDataRecordReceived(rawFrame, 0);
         }
         // Frame = \xAA\xA5... => frame[0] = START_FRAME_MARKER and frame[1] = MESSAGE_MARKER - massage
         if (rawFrame[1] == MESSAGE_MARKER) {
@@ -184,20 +208,24 @@ class FrameDecoder implements ComportListener {
         notifyMessageListeners(adsMessageType, info);
     }
 
-    private void onDataRecordReceived() {
-        int rawFrameOffset = 4;
+    /**
+     * @param frame array containing the data frame
+     * @param frameOffset index of the first byte (start marker) of the frame in the array
+     */
+    private void onDataRecordReceived(byte[] frame, int frameOffset) {
+        int rawFrameOffset = frameOffset + 4;
         int decodedFrameOffset = 0;
+        int noiseDivider = adsConfig.getNoiseDivider();
         for (int i = 0; i < numberOf3ByteSamples; i++) {
-            decodedFrame[decodedFrameOffset++] = bytesToSignedInt(rawFrame[rawFrameOffset], rawFrame[rawFrameOffset + 1], rawFrame[rawFrameOffset + 2]) / adsConfig.getNoiseDivider();
+            decodedFrame[decodedFrameOffset++] = littleEndian3BytesToInt(frame, rawFrameOffset) / noiseDivider;
             rawFrameOffset += 3;
         }
 
         if (adsConfig.isAccelerometerEnabled()) {
-            int[] accVal = new int[3];
             int accSum = 0;
             for (int i = 0; i < 3; i++) {
 //                decodedFrame[decodedFrameOffset++] = AdsUtils.littleEndianBytesToInt(rawFrame[rawFrameOffset], rawFrame[rawFrameOffset + 1]);
-                accVal[i] = bytesToSignedInt(rawFrame[rawFrameOffset], rawFrame[rawFrameOffset + 1]);
+                accVal[i] = littleEndian2BytesToInt(frame, rawFrameOffset);
                 rawFrameOffset += 2;
             }
             if (adsConfig.isAccelerometerOneChannelMode()) {
@@ -214,23 +242,23 @@ class FrameDecoder implements ComportListener {
         }
 
         if (adsConfig.isBatteryVoltageMeasureEnabled()) {
-            decodedFrame[decodedFrameOffset++] = bytesToSignedInt(rawFrame[rawFrameOffset], rawFrame[rawFrameOffset + 1]);
+            decodedFrame[decodedFrameOffset++] = littleEndian2BytesToInt(frame, rawFrameOffset);
             rawFrameOffset += 2;
         }
 
         if (adsConfig.isLeadOffEnabled()) {
             if (adsConfig.getAdsChannelsCount() == 8) {
                 // 2 bytes for 8 channels
-                decodedFrame[decodedFrameOffset++] = bytesToSignedInt(rawFrame[rawFrameOffset], rawFrame[rawFrameOffset + 1]);
+                decodedFrame[decodedFrameOffset++] = littleEndian2BytesToInt(frame, rawFrameOffset);
                 rawFrameOffset += 2;
             } else {
                 // 1 byte for 2 channels
-                decodedFrame[decodedFrameOffset++] = rawFrame[rawFrameOffset];
+                decodedFrame[decodedFrameOffset++] = frame[rawFrameOffset];
                 rawFrameOffset += 1;
             }
         }
 
-        int recordShortNumber = bytesToUnsignedInt(rawFrame[2], rawFrame[3]);
+        int recordShortNumber = (frame[frameOffset + 3] & 0xFF) << 8 | (frame[frameOffset + 2] & 0xFF);
         notifyDataListeners(decodedFrame, recordShortNumberToInt(recordShortNumber));
     }
 
@@ -294,7 +322,7 @@ class FrameDecoder implements ComportListener {
         return result;
     }
 
-    private int getDecodedFrameSize() {
+    int getDecodedFrameSize() {
         if (adsConfig == null) {
             return 0;
         }
@@ -339,18 +367,14 @@ class FrameDecoder implements ComportListener {
         messageListener.onMessage(adsMessageType, additionalInfo);
     }
 
-    /* Java int BIG_ENDIAN, Byte order: LITTLE_ENDIAN  */
-    private static int bytesToSignedInt(byte... b) {
-        switch (b.length) {
-            case 1:
-                return b[0];
-            case 2:
-                return (b[1] << 8) | (b[0] & 0xFF);
-            case 3:
-                return (b[2] << 16) | (b[1] & 0xFF) << 8 | (b[0] & 0xFF);
-            default:
-                return (b[3] << 24) | (b[2] & 0xFF) << 16 | (b[1] & 0xFF) << 8 | (b[0] & 0xFF);
-        }
+    /* signed int from 3 LITTLE_ENDIAN ordered bytes starting at the given offset */
+    private static int littleEndian3BytesToInt(byte[] b, int offset) {
+        return (b[offset + 2] << 16) | (b[offset + 1] & 0xFF) << 8 | (b[offset] & 0xFF);
+    }
+
+    /* signed int from 2 LITTLE_ENDIAN ordered bytes starting at the given offset */
+    private static int littleEndian2BytesToInt(byte[] b, int offset) {
+        return (b[offset + 1] << 8) | (b[offset] & 0xFF);
     }
 
     /**
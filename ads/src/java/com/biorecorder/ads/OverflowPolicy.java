@@ -0,0 +1,17 @@
+package com.biorecorder.ads;
+
+/**
+ * What to do with a new data record when the buffer between
+ * the comport thread and the data handling thread is full
+ */
+public enum OverflowPolicy {
+    /**
+     * the oldest not yet handled record is discarded.
+     * Comport reading never waits
+     */
+    DROP_OLDEST,
+    /**
+     * comport thread waits until the data handling thread frees a slot
+     */
+    BLOCK;
+}
@@ -77,6 +77,23 @@ public class BiChart {
         axisToScrollListeners.get(Orientation).add(scrollListener);
     }
 
+    /**
+     * Listener is notified (not in the EDT) when the asynchronously processed
+     * data is ready so the chart should be redrawn
+     */
+    public void addDataProcessingListener(ChangeListener listener) {
+        dataProcessor.addProcessingListener(listener);
+    }
+
+    /**
+     * Stops the asynchronous processing of the traces data and waits
+     * until it exits, so the data may be released after return.
+     * Must be called in the EDT when the chart is not drawn any more
+     */
+    public void dispose() {
+        dataProcessor.dispose();
+    }
+
     public void invalidate() {
         isValid = false;
     }
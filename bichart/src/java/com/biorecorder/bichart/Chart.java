@@ -45,6 +45,12 @@ public class Chart {
     private int width = 100;
     private int height = 100;
     private boolean isValid = false;
+    // everything except the tooltip and crosshair is drawn on the cached layer
+    // so hover repaints do not redraw axes and traces
+    private boolean isLayerCachingEnabled = true;
+    private BImage layer;
+    private boolean isLayerValid = false;
+    private long layerDataSize;
 
     private Map<Integer, List<Integer>> xAxisNumberToTraceNumbers = new HashMap<>();
     private Map<Integer, List<Integer>> yAxisNumberToTraceNumbers = new HashMap<>();
@@ -73,10 +79,12 @@ public class Chart {
 
     public void setDefaultXOrientation(Orientation defaultXOrientation) {
         this.defaultXOrientation = defaultXOrientation;
+        isLayerValid = false;
     }
 
     public void setDefaultYOrientation(Orientation defaultYOrientation) {
         this.defaultYOrientation = defaultYOrientation;
+        isLayerValid = false;
     }
 
     public boolean isXAxisUsedByStack(int xAxisNumber, int stack) {
@@ -226,6 +234,7 @@ public class Chart {
 
     private void setAxisMinMax(AxisWrapper axis, double min, double max, boolean isAutoscale) {
         axis.setMinMax(min, max, isAutoscale);
+        isLayerValid = false;
         if (!isMarginFixed && axis.isSizeDependsOnMinMax()) {
             invalidate();
         }
@@ -317,8 +326,22 @@ public class Chart {
         invalidate();
     }
 
+    /**
+     * Marks the cached layer (axes, grids, traces, legend and title) to be redrawn
+     */
+    public void invalidateLayer() {
+        isLayerValid = false;
+    }
+
+    public void setLayerCachingEnabled(boolean layerCachingEnabled) {
+        isLayerCachingEnabled = layerCachingEnabled;
+        layer = null;
+        isLayerValid = false;
+    }
+
     public void invalidate() {
         isValid = false;
+        isLayerValid = false;
         if (isLegendAttachedToStacks) {
             legend = null;
         }
@@ -406,8 +429,31 @@ public class Chart {
             return;
         }
         revalidate(canvas.getRenderContext());
-        BRectangle graphArea = graphArea(margin);
         canvas.enableAntiAliasAndHinting();
+        if (isLayerCachingEnabled) {
+            long dataSize = traceList.dataSize();
+            if (layer == null || layer.getWidth() != width || layer.getHeight() != height) {
+                layer = canvas.createImage(width, height);
+                isLayerValid = false;
+            }
+            if (!isLayerValid || layerDataSize != dataSize) {
+                layer.clear();
+                BCanvas layerCanvas = layer.getCanvas();
+                layerCanvas.enableAntiAliasAndHinting();
+                layerCanvas.translate(-x, -y);
+                drawLayer(layerCanvas);
+                isLayerValid = true;
+                layerDataSize = dataSize;
+            }
+            canvas.drawImage(layer, x, y);
+        } else {
+            drawLayer(canvas);
+        }
+        tooltip.draw(canvas, new BRectangle(x, y, width, height));
+    }
+
+    private void drawLayer(BCanvas canvas) {
+        BRectangle graphArea = graphArea(margin);
         canvas.setColor(config.getMarginColor());
         canvas.fillRect(x, y, width, height);
         //draw title
@@ -481,7 +527,6 @@ public class Chart {
         if (legend != null) {
             legend.draw(canvas);
         }
-        tooltip.draw(canvas, new BRectangle(x, y, width, height));
     }
 
     void drawRect(BCanvas canvas, int xAxisNumber, double startValue, double endValue, BColor color, int borderWidth) {
@@ -512,6 +557,7 @@ public class Chart {
 
     public void setTraceData(int traceIndex, ChartData data) {
         traceList.setData(traceIndex, data);
+        isLayerValid = false;
     }
 
     public void addStack() {
@@ -612,10 +658,12 @@ public class Chart {
 
     public void setTraceName(int traceIndex, String name) {
         traceList.setName(traceIndex, name);
+        isLayerValid = false;
     }
 
     public void setTraceColor(int traceIndex, BColor color) {
         traceList.setColor(traceIndex, color);
+        isLayerValid = false;
     }
 
     public int traceCount() {
@@ -624,6 +672,7 @@ public class Chart {
 
     public void setXPrefixAndSuffix(int xAxisNumber, @Nullable String prefix, @Nullable String suffix) {
         xAxisList.get(xAxisNumber).setTickLabelPrefixAndSuffix(prefix, suffix);
+        isLayerValid = false;
         if (!isMarginFixed) {
             invalidate();
         }
@@ -631,6 +680,7 @@ public class Chart {
 
     public void setYPrefixAndSuffix(int yAxisNumber, @Nullable String prefix, @Nullable String suffix) throws IllegalArgumentException {
         yAxisList.get(yAxisNumber).setTickLabelPrefixAndSuffix(prefix, suffix);
+        isLayerValid = false;
         if (!isMarginFixed) {
             invalidate();
         }
@@ -638,6 +688,7 @@ public class Chart {
 
     public void setXTitle(int xAxisNumber, @Nullable String title) {
         xAxisList.get(xAxisNumber).setTitle(title);
+        isLayerValid = false;
         if (!isMarginFixed) {
             invalidate();
         }
@@ -645,6 +696,7 @@ public class Chart {
 
     public void setYTitle(int yAxisNumber, @Nullable String title) throws IllegalArgumentException {
         yAxisList.get(yAxisNumber).setTitle(title);
+        isLayerValid = false;
         if (!isMarginFixed) {
             invalidate();
         }
@@ -782,10 +834,12 @@ public class Chart {
 
     public void selectTrace(int traceNumber) {
         traceList.setSelection(traceNumber);
+        isLayerValid = false;
     }
 
     void removeTraceSelection() {
         traceList.setSelection(-1);
+        isLayerValid = false;
     }
 
     /**
@@ -23,5 +23,9 @@ public interface ChartData {
     int bisect(int columnNumber, double value, int[] sorter);
 
     int[] sortedIndices(int columnNumber);
+
+    int[] sortedIndices(int columnNumber, int from, int length);
+
+    boolean isSorted(int columnNumber);
 }
 
@@ -22,6 +22,12 @@ public class ChartPanel extends JPanel {
 
     public ChartPanel(BiChart chart) {
         interactive = new InteractiveBiChart(chart);
+        chart.addDataProcessingListener(new ChangeListener() {
+            @Override
+            public void onChange() {
+                repaint();
+            }
+        });
         init();
     }
 
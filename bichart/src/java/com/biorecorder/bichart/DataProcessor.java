@@ -1,6 +1,8 @@
 package com.biorecorder.bichart;
 
+import com.biorecorder.bichart.scales.LinearScale;
 import com.biorecorder.bichart.scales.Scale;
+import com.biorecorder.datalyb.datatable.DataTable;
 import com.biorecorder.datalyb.list.IntArrayList;
 import com.biorecorder.datalyb.time.TimeInterval;
 
@@ -8,16 +10,31 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 
 public class DataProcessor {
+    static final int TILE_POINTS = 256; // number of grouped points in the cached data tile
     private ProcessingConfig config;
     private boolean isDateTime;
     private int minPointsForCrop = 10;
     private List<XYSeries> chartData = new ArrayList<>();
     private List<XYSeries> navigatorData = new ArrayList<>();
     private List<GroupedData> navigatorGroupedData = new ArrayList<>();
+    // navigator data are grouped asynchronously. While grouping is in progress the previous data is shown
+    private List<GroupedData.GroupingTask> navigatorGroupingFutures = new ArrayList<>();
+    // grouping replaced by the grouped data from the source. Still may read the data
+    private List<GroupedData.GroupingTask> cancelledGroupingFutures = new ArrayList<>();
+    private List<Boolean> navigatorTracesHaveProcessedData = new ArrayList<>();
+    private List<ChangeListener> processingListeners = new ArrayList<>();
 
     private List<Integer> chartTracesMarkSizes = new ArrayList<>();
+    private List<Boolean> chartTracesHaveProcessedData = new ArrayList<>();
     private List<Integer> navigatorTracesMarkSizes = new ArrayList<>();
 
     private Scale scale;
@@ -26,10 +43,75 @@ public class DataProcessor {
     private Range navigatorRange;
     private boolean navTracesNeedUpdate;
 
+    // async mode: range changes are coalesced in chartTracesToUpdate while the previous job is running
+    // and the processed data is swapped in atomically (for the same traces configuration only)
+    private ExecutorService chartProcessingExecutor;
+    private Future<?> chartProcessingFuture;
+    private List<Integer> chartProcessingTraces = new ArrayList<>(); // traces of the running job
+    private final AtomicReference<ProcessedTracesData> processedChartData = new AtomicReference<>();
+    private int chartTracesVersion;
+    private DataTileCache tileCache;
+
     public DataProcessor(boolean isDateTime, Scale scale, ProcessingConfig config) {
         this.config = config;
         this.isDateTime = isDateTime;
         this.scale = scale;
+        if (config.getTileCacheSize() > 0) {
+            tileCache = new DataTileCache(config.getTileCacheSize());
+        }
+    }
+
+    /**
+     * Listeners are notified (not in the EDT) when asynchronous data processing
+     * is finished and the processed data is ready to be drawn
+     */
+    public void addProcessingListener(ChangeListener listener) {
+        processingListeners.add(listener);
+    }
+
+    /**
+     * Cancels the asynchronous grouping of the navigator data, stops
+     * the chart data processing thread and waits until the running jobs exit,
+     * so after return the traces data are not read any more and may be released.
+     * The processor can not be used after that
+     */
+    public void dispose() {
+        boolean isInterrupted = false;
+        if (chartProcessingExecutor != null) {
+            chartProcessingExecutor.shutdown();
+            while (!chartProcessingExecutor.isTerminated()) {
+                try {
+                    chartProcessingExecutor.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+                } catch (InterruptedException e) {
+                    isInterrupted = true;
+                }
+            }
+        }
+        List<GroupedData.GroupingTask> groupingFutures = new ArrayList<>(navigatorGroupingFutures);
+        groupingFutures.addAll(cancelledGroupingFutures);
+        for (GroupedData.GroupingTask groupingFuture : groupingFutures) {
+            while (groupingFuture != null) {
+                try {
+                    groupingFuture.cancelAndAwait();
+                    groupingFuture = null;
+                } catch (InterruptedException e) {
+                    isInterrupted = true;
+                }
+            }
+        }
+        for (int i = 0; i < navigatorGroupingFutures.size(); i++) {
+            navigatorGroupingFutures.set(i, null);
+        }
+        cancelledGroupingFutures.clear();
+        if (isInterrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void fireDataProcessed() {
+        for (ChangeListener listener : processingListeners) {
+            listener.onChange();
+        }
     }
 
     public void onChartRangeChanged(double min, double max, List<Integer> traceNumbers) {
@@ -47,20 +129,136 @@ public class DataProcessor {
     }
 
     public Map<Integer, XYSeries> chartTracesDataToUpdate() {
-        if (!config.isProcessingEnabled() || chartTracesToUpdate.keySet().isEmpty()) {
+        if (!config.isProcessingEnabled()) {
+            return null;
+        }
+        if (config.isAsyncProcessingEnabled()) {
+            return chartTracesDataToUpdateAsync();
+        }
+        if (chartTracesToUpdate.keySet().isEmpty()) {
             return null;
         }
-        HashMap<Integer, XYSeries> tracesData = new HashMap<>(chartData.size());
+        Map<Integer, XYSeries> tracesData = processChartTraces(createChartTracesJob(), scale, xLength);
+        chartTracesToUpdate.clear();
+        return tracesData;
+    }
+
+    /**
+     * Returns the data processed by the last finished job (if any) and
+     * starts the new job for the accumulated range changes if the worker is free.
+     * Previous traces data is drawn until the processed one is ready.
+     * Traces that have no processed data yet are given empty data
+     * because raw data could be too big to draw.
+     */
+    private Map<Integer, XYSeries> chartTracesDataToUpdateAsync() {
+        Map<Integer, XYSeries> tracesData = new HashMap<>();
+        ProcessedTracesData processedData = processedChartData.getAndSet(null);
+        if (processedData != null) {
+            if (processedData.version == chartTracesVersion) {
+                tracesData.putAll(processedData.tracesData);
+                for (Integer traceNumber : processedData.tracesData.keySet()) {
+                    chartTracesHaveProcessedData.set(traceNumber, true);
+                }
+            } else {
+                // traces were changed while the job was running
+                requeueRanges(processedData.ranges);
+            }
+        }
+        boolean isWorkerFree = chartProcessingFuture == null || chartProcessingFuture.isDone();
+        if (isWorkerFree) {
+            chartProcessingTraces.clear();
+        }
+        if (isWorkerFree && !chartTracesToUpdate.keySet().isEmpty()) {
+            final List<TraceJob> job = createChartTracesJob();
+            final int version = chartTracesVersion;
+            final Scale jobScale = scale.copy();
+            final int jobXLength = xLength;
+            final Map<List<Integer>, Range> jobRanges = new HashMap<>(chartTracesToUpdate);
+            for (TraceJob traceJob : job) {
+                chartProcessingTraces.add(traceJob.traceNumber);
+            }
+            chartTracesToUpdate.clear();
+            if (chartProcessingExecutor == null) {
+                ThreadFactory namedThreadFactory = new ThreadFactory() {
+                    public Thread newThread(Runnable r) {
+                        Thread thread = new Thread(r, "«Chart data processing» thread");
+                        thread.setDaemon(true);
+                        return thread;
+                    }
+                };
+                chartProcessingExecutor = Executors.newSingleThreadExecutor(namedThreadFactory);
+            }
+            chartProcessingFuture = chartProcessingExecutor.submit(new Runnable() {
+                @Override
+                public void run() {
+                    Map<Integer, XYSeries> data = processChartTraces(job, jobScale, jobXLength);
+                    processedChartData.set(new ProcessedTracesData(version, jobRanges, data));
+                    fireDataProcessed();
+                }
+            });
+        }
+        addEmptyDataOfWaitingTraces(tracesData);
+        return tracesData.isEmpty() ? null : tracesData;
+    }
+
+    private void addEmptyDataOfWaitingTraces(Map<Integer, XYSeries> tracesData) {
+        List<Integer> waitingTraces = new ArrayList<>(chartProcessingTraces);
+        for (List<Integer> traceNumbers : chartTracesToUpdate.keySet()) {
+            waitingTraces.addAll(traceNumbers);
+        }
+        for (Integer traceNumber : waitingTraces) {
+            if (traceNumber < chartData.size() && !chartTracesHaveProcessedData.get(traceNumber) && !tracesData.containsKey(traceNumber)) {
+                tracesData.put(traceNumber, chartData.get(traceNumber).getEmptyCopy());
+            }
+        }
+    }
+
+    /**
+     * Returns the ranges of the discarded job to the queue so that
+     * its traces are processed again. Traces that already have
+     * newer range changes are skipped
+     */
+    private void requeueRanges(Map<List<Integer>, Range> ranges) {
+        List<Integer> pendingTraces = new ArrayList<>();
+        for (List<Integer> traceNumbers : chartTracesToUpdate.keySet()) {
+            pendingTraces.addAll(traceNumbers);
+        }
+        for (Map.Entry<List<Integer>, Range> entry : ranges.entrySet()) {
+            List<Integer> traceNumbers = new ArrayList<>();
+            for (Integer traceNumber : entry.getKey()) {
+                if (traceNumber < chartData.size() && !pendingTraces.contains(traceNumber)) {
+                    traceNumbers.add(traceNumber);
+                }
+            }
+            if (!traceNumbers.isEmpty()) {
+                chartTracesToUpdate.put(traceNumbers, entry.getValue());
+            }
+        }
+    }
+
+    /**
+     * Takes snapshot (data views of the current size) of the traces to process
+     * so that the job does not depend on further changes
+     */
+    private List<TraceJob> createChartTracesJob() {
+        List<TraceJob> job = new ArrayList<>();
         for (List<Integer> tracesNumbers : chartTracesToUpdate.keySet()) {
             Range range = chartTracesToUpdate.get(tracesNumbers);
-            scale.setMinMax(range.getMin(), range.getMax());
-            scale.setStartEnd(0, xLength);
             for (Integer traceNumber : tracesNumbers) {
-                XYSeries data = getProcessedChartData(traceNumber, range.getMin(), range.getMax(), xLength);
-                tracesData.put(traceNumber, data);
+                XYSeries data = chartData.get(traceNumber);
+                job.add(new TraceJob(traceNumber, data, data.view(0, data.size()), chartTracesMarkSizes.get(traceNumber), range));
             }
         }
-        chartTracesToUpdate.clear();
+        return job;
+    }
+
+    private Map<Integer, XYSeries> processChartTraces(List<TraceJob> job, Scale scale, int xLength) {
+        HashMap<Integer, XYSeries> tracesData = new HashMap<>(job.size());
+        for (TraceJob traceJob : job) {
+            Range range = traceJob.range;
+            XYSeries data = getProcessedChartData(traceJob.source, traceJob.data, traceJob.markSize, range.getMin(), range.getMax(), xLength, scale);
+            tracesData.put(traceJob.traceNumber, data);
+        }
         return tracesData;
     }
 
@@ -70,11 +268,21 @@ public class DataProcessor {
         }
         if(navigatorRange != null) {
             HashMap<Integer, XYSeries> tracesData = new HashMap<>(navigatorData.size());
+            boolean isGroupingInProgress = false;
             for (int i = 0; i < navigatorData.size(); i++) {
                 XYSeries data = getProcessedNavigatorData(i, navigatorRange.getMin(), navigatorRange.getMax(), xLength);
-                tracesData.put(i, data);
+                if (data != null) {
+                    tracesData.put(i, data);
+                    navigatorTracesHaveProcessedData.set(i, true);
+                } else {
+                    isGroupingInProgress = true;
+                    if (!navigatorTracesHaveProcessedData.get(i)) {
+                        // raw data could be too big to draw
+                        tracesData.put(i, navigatorData.get(i).getEmptyCopy());
+                    }
+                }
             }
-            navTracesNeedUpdate = false;
+            navTracesNeedUpdate = isGroupingInProgress;
             return tracesData;
         }
         return null;
@@ -102,24 +310,38 @@ public class DataProcessor {
     }
 
     public void addChartTraceData(XYSeries data, int markSize) {
+        chartTracesVersion++;
         chartData.add(data);
         chartTracesMarkSizes.add(markSize);
+        chartTracesHaveProcessedData.add(false);
     }
 
     public void addNavigatorTraceData(XYSeries data, int markSize) {
         navigatorData.add(data);
         navigatorGroupedData.add(null);
+        navigatorGroupingFutures.add(null);
+        navigatorTracesHaveProcessedData.add(false);
         navigatorTracesMarkSizes.add(markSize);
     }
 
     public void removeNavigatorTraceData(int traceNumber) {
         navigatorData.remove(traceNumber);
         navigatorGroupedData.remove(traceNumber);
+        GroupedData.GroupingTask groupingFuture = navigatorGroupingFutures.remove(traceNumber);
+        if (groupingFuture != null) {
+            groupingFuture.cancel(false);
+        }
+        navigatorTracesHaveProcessedData.remove(traceNumber);
         navigatorTracesMarkSizes.remove(traceNumber);
     }
 
     public void removeChartTraceData(int traceNumber) {
-        chartData.remove(traceNumber);
+        chartTracesVersion++;
+        XYSeries data = chartData.remove(traceNumber);
+        chartTracesHaveProcessedData.remove(traceNumber);
+        if (tileCache != null) {
+            tileCache.remove(data);
+        }
         chartTracesMarkSizes.remove(traceNumber);
     }
 
@@ -128,6 +350,7 @@ public class DataProcessor {
             XYSeries navData = navigatorData.get(i);
             navData.updateSize();
             GroupedData groupedData = navigatorGroupedData.get(i);
+            // data appended during async grouping will be added when the grouping is finished
             if (groupedData != null) {
                 int from = groupedData.processedSampleCount();
                 int length = navData.size() - from;
@@ -136,59 +359,192 @@ public class DataProcessor {
         }
         for (int i = 0; i < chartData.size(); i++) {
            chartData.get(i).updateSize();
+           if (tileCache != null) {
+               tileCache.dataAppended(chartData.get(i));
+           }
         }
     }
 
-    private XYSeries getProcessedChartData(int traceNumber, double min, double max, int minMaxLength) {
-        XYSeries data = chartData.get(traceNumber);
+    /**
+     * @param source  chart trace data
+     * @param data  snapshot (view) of the trace data to process
+     */
+    private XYSeries getProcessedChartData(XYSeries source, XYSeries data, int markSize, double min, double max, int minMaxLength, Scale scale) {
+        if (config.isGroupingEnabled()) {
+            XYSeries sourceGroupedData = getSourceGroupedData(source, markSize, min, max, minMaxLength);
+            if (sourceGroupedData != null) {
+                return sourceGroupedData;
+            }
+        }
+        if (tileCache != null && config.isCropEnabled() && config.isGroupingEnabled()
+                && config.getGroupingType() == GroupingType.EQUAL_POINTS && data.size() >= minPointsForCrop) {
+            XYSeries tiledData = getTiledChartData(source, data, markSize, min, max, minMaxLength, scale);
+            if (tiledData != null) {
+                return tiledData;
+            }
+        }
         if(config.isCropEnabled()) {
             data = cropData(data, min, max);
         }
         if (!config.isGroupingEnabled() || data.size() <= 1 ) {
             return data;
         }
-        int markSize = chartTracesMarkSizes.get(traceNumber);
-        GroupedData groupedData = groupData(data, markSize, min, max, minMaxLength, null, null);
+        GroupedData groupedData = createGroupedData(data, markSize, min, max, minMaxLength, null, null, scale);
         if (groupedData != null) {
+            groupedData.appendData(data, 0, data.size());
             return groupedData.getData(minMaxLength, markSize);
         }
         return data;
     }
 
+    /**
+     * @return processed data or null if the data grouping is still in progress
+     */
     private XYSeries getProcessedNavigatorData(int traceNumber, double min, double max, int minMaxLength) {
         if(!config.isGroupingEnabled()) {
            return navigatorData.get(traceNumber);
         }
-        GroupedData groupedData = navigatorGroupedData.get(traceNumber);
         int markSize = navigatorTracesMarkSizes.get(traceNumber);
+        XYSeries sourceGroupedData = getSourceGroupedData(navigatorData.get(traceNumber), markSize, min, max, minMaxLength);
+        if (sourceGroupedData != null) {
+            // the source may become ready when the data points are already grouped
+            GroupedData.GroupingTask runningFuture = navigatorGroupingFutures.get(traceNumber);
+            if (runningFuture != null) {
+                runningFuture.cancel(false);
+                cancelledGroupingFutures.add(runningFuture);
+                navigatorGroupingFutures.set(traceNumber, null);
+            }
+            navigatorGroupedData.set(traceNumber, null);
+            return sourceGroupedData;
+        }
+        GroupedData groupedData = navigatorGroupedData.get(traceNumber);
         if (groupedData != null) {
             return groupedData.getData(minMaxLength, markSize);
         }
         XYSeries rowData = navigatorData.get(traceNumber);
-        groupedData = groupData(rowData, markSize, min, max, minMaxLength, config.getGroupingIntervals(), config.getGroupingTimeIntervals());
-        if (groupedData != null) {
-            navigatorGroupedData.set(traceNumber, groupedData);
-            return groupedData.getData(minMaxLength, markSize);
+        GroupedData.GroupingTask groupingFuture = navigatorGroupingFutures.get(traceNumber);
+        if (groupingFuture == null) {
+            // grouping parameters depend on the scale so they are calculated here and only resampling is async
+            groupedData = createGroupedData(rowData, markSize, min, max, minMaxLength, config.getGroupingIntervals(), config.getGroupingTimeIntervals(), scale);
+            if (groupedData == null) {
+                return rowData;
+            }
+            groupingFuture = groupedData.groupAsync(rowData, new ChangeListener() {
+                @Override
+                public void onChange() {
+                    fireDataProcessed();
+                }
+            });
+            navigatorGroupingFutures.set(traceNumber, groupingFuture);
+        }
+        if (!groupingFuture.isDone()) {
+            return null;
+        }
+        navigatorGroupingFutures.set(traceNumber, null);
+        try {
+            groupedData = groupingFuture.get();
+        } catch (InterruptedException | ExecutionException e) {
+            throw new RuntimeException(e);
+        }
+        // data appended while grouping was in progress
+        int from = groupedData.processedSampleCount();
+        groupedData.appendData(rowData, from, rowData.size() - from);
+        navigatorGroupedData.set(traceNumber, groupedData);
+        return groupedData.getData(minMaxLength, markSize);
+    }
+
+    /**
+     * @return data of the range grouped by the data source or null
+     * if the data has no source or the source can not give them
+     */
+    private XYSeries getSourceGroupedData(XYSeries data, int markSize, double min, double max, int minMaxLength) {
+        GroupedDataSource groupedDataSource = data.getGroupedDataSource();
+        if (groupedDataSource == null) {
+            return null;
+        }
+        return groupedDataSource.getGroupedData(min, max, Math.max(1, minMaxLength / markSize));
+    }
+
+    /**
+     * Groups by equal points the aligned tiles covering the cropped data
+     * and joins them. Tiles are taken from the cache if possible
+     * so only the missing edges are grouped when the chart is scrolled.
+     *
+     * @return joined tiles or null if the data can not be tiled
+     */
+    private XYSeries getTiledChartData(XYSeries source, XYSeries data, int markSize, double min, double max, int minMaxLength, Scale scale) {
+        int[] cropIndexes = cropIndexes(data, min, max);
+        if (cropIndexes == null) {
+            return data.getEmptyCopy();
         }
-        return rowData;
+        int indexFrom = cropIndexes[0];
+        int indexTill = cropIndexes[1];
+        if (indexTill - indexFrom <= 1) {
+            return null;
+        }
+        int dataLength = getDataLength(data.getX(indexFrom), data.getX(indexTill - 1), min, max, minMaxLength, scale);
+        int points = bestPointsInGroup(indexTill - indexFrom, dataLength, markSize);
+        long tileRows = (long) points * TILE_POINTS;
+        if (points <= 1 || tileRows > Integer.MAX_VALUE) {
+            return null;
+        }
+        DataTable resultantData = null;
+        int firstTile = (int) (indexFrom / tileRows);
+        int lastTile = (int) ((indexTill - 1) / tileRows);
+        for (int tile = firstTile; tile <= lastTile; tile++) {
+            int tileStart = (int) (tile * tileRows);
+            int rowCount = (int) Math.min(tileRows, data.size() - tileStart);
+            DataTable tileData = tileCache.get(source, points, tile, rowCount);
+            if (tileData == null) {
+                XYSeries rowData = data.view(tileStart, rowCount);
+                GroupedData groupedData = GroupedData.createByPoints(rowData, points);
+                groupedData.appendData(rowData, 0, rowCount);
+                if (rowCount == tileRows) {
+                    // the tile ends at the group border, so its last group is complete
+                    groupedData.closeLastGroups();
+                }
+                tileData = groupedData.getData(minMaxLength, markSize).getDataTable();
+                tileCache.put(source, points, tile, rowCount, tileData);
+            }
+            resultantData = resultantData == null ? tileData : resultantData.append(tileData);
+        }
+        return new XYSeries(resultantData);
     }
 
     private XYSeries cropData(XYSeries data, double min, double max) {
         if (data.size() < minPointsForCrop) {
             return data;
         }
+        int[] cropIndexes = cropIndexes(data, min, max);
+        if (cropIndexes == null) {
+            return data.getEmptyCopy();
+        }
+        int indexFrom = cropIndexes[0];
+        int indexTill = cropIndexes[1];
+        if (indexFrom == 0 && indexTill == data.size()) {
+            return data;
+        }
+        return data.view(indexFrom, indexTill - indexFrom);
+    }
+
+    /**
+     * @return {indexFrom, indexTill} of the data to leave after crop
+     * or null if the data is out of the given range
+     */
+    private int[] cropIndexes(XYSeries data, double min, double max) {
         // suppose that data is ordered
         double dataMin = data.getX(0);
         double dataMax = data.getX(data.size() - 1);
         if (dataMin > max || dataMax < min) {
-            return data.getEmptyCopy();
+            return null;
         }
+        int indexFrom = 0;
+        int indexTill = data.size();
         if (dataMax == dataMin) {
-            return data;
+            int[] indexes = {indexFrom, indexTill};
+            return indexes;
         }
         // crop data
-        int indexFrom = 0;
-        int indexTill = data.size();
         if (dataMin < min) {
             indexFrom = data.bisectLeft(min);
         }
@@ -205,10 +561,14 @@ public class DataProcessor {
         if (indexTill > data.size()) {
             indexTill = data.size();
         }
-        return data.view(indexFrom, indexTill - indexFrom);
+        int[] indexes = {indexFrom, indexTill};
+        return indexes;
     }
 
-    private GroupedData groupData(XYSeries data, int markSize, double min, double max, int minMaxLength, double[] intervals, TimeInterval[] timeIntervals) {
+    /**
+     * Creates grouping levels suitable for the given data and scale. Data itself is not processed
+     */
+    private GroupedData createGroupedData(XYSeries data, int markSize, double min, double max, int minMaxLength, double[] intervals, TimeInterval[] timeIntervals, Scale scale) {
         int dataSize = data.size();
         if(dataSize <= 1) {
             return null;
@@ -216,17 +576,17 @@ public class DataProcessor {
         // suppose that data is ordered
         double dataMin = data.getX(0);
         double dataMax = data.getX(dataSize - 1);
-        int dataLength = getDataLength(dataMin, dataMax, min, max, minMaxLength);
+        int dataLength = getDataLength(dataMin, dataMax, min, max, minMaxLength, scale);
         if (config.getGroupingType() == GroupingType.EQUAL_INTERVALS) {
             if(isDateTime) {
                 TimeInterval[] timeIntervals1 = normalizeTimeIntervals(timeIntervals, dataMin, dataMax, dataSize, dataLength, markSize);
                 if (timeIntervals1 != null && timeIntervals1.length > 0) {
-                    return GroupedData.groupDataByTimeIntervals(data, timeIntervals);
+                    return GroupedData.createByTimeIntervals(data, timeIntervals1);
                 }
             } else {
                 double[] intervals1 = normalizeIntervals(intervals, dataMin, dataMax, dataSize, dataLength, markSize);
                 if (intervals1 != null && intervals1.length > 0) {
-                    return GroupedData.groupDataByIntervals(data, intervals);
+                    return GroupedData.createByIntervals(data, intervals1);
                 }
             }
         }
@@ -263,13 +623,13 @@ public class DataProcessor {
                 }
             }
             if(pointsList.size() != 0) {
-                return GroupedData.groupDataByPoints(data, pointsList.toArray());
+                return GroupedData.createByPoints(data, pointsList.toArray());
             }
         }
         return null;
     }
 
-    private int getDataLength(double dataMin,double dataMax,  double min, double max, int minMaxLength) {
+    private static int getDataLength(double dataMin,double dataMax,  double min, double max, int minMaxLength, Scale scale) {
         // prepare scale to calculate dataLength
         scale.setStartEnd(0, minMaxLength);
         scale.setMinMax(min, max);
@@ -322,4 +682,127 @@ public class DataProcessor {
         }
         return (dataMax - dataMin) * markSize / dataLength;
     }
+
+    /**
+     * Unit Test. Usage Example.
+     * Checks that joined data tiles are the same as the data grouped at once
+     */
+    public static void main(String[] args) {
+        int pointsInGroup = 5;
+        int size = pointsInGroup * TILE_POINTS * 3 + 7;
+        int[] xData = new int[size];
+        int[] yData = new int[size];
+        java.util.Random random = new java.util.Random(1);
+        for (int i = 0; i < size; i++) {
+            xData[i] = 2 * i;
+            yData[i] = random.nextInt(1000);
+        }
+        XYSeries regularSeries = new XYSeries(yData);
+        XYSeries envelopeSeries = new XYSeries(xData, yData);
+        envelopeSeries.setGroupingApproximationY(GroupingApproximation.ENVELOPE);
+        DataProcessor processor = new DataProcessor(false, new LinearScale(), new ProcessingConfig());
+        boolean isTestOk = true;
+        for (XYSeries series : new XYSeries[] {regularSeries, envelopeSeries}) {
+            GroupedData groupedData = GroupedData.createByPoints(series, pointsInGroup);
+            groupedData.appendData(series, 0, size);
+            XYSeries expected = groupedData.getData(1, 1);
+            // the second time tiles are taken from the cache
+            for (int i = 0; i < 2; i++) {
+                XYSeries tiled = processor.getTiledChartData(series, series, 1, series.getX(0), series.getX(size - 1),
+                        size / pointsInGroup, new LinearScale());
+                if (tiled == null || tiled.size() != expected.size() || tiled.columnCount() != expected.columnCount()) {
+                    isTestOk = false;
+                    continue;
+                }
+                for (int row = 0; row < expected.size(); row++) {
+                    for (int column = 0; column < expected.columnCount(); column++) {
+                        if (tiled.value(row, column) != expected.value(row, column)) {
+                            isTestOk = false;
+                        }
+                    }
+                }
+            }
+        }
+
+        // async mode: empty data until the first job is done, discarded job is processed again
+        ProcessingConfig asyncConfig = new ProcessingConfig();
+        asyncConfig.setAsyncProcessingEnabled(true);
+        DataProcessor asyncProcessor = new DataProcessor(false, new LinearScale(), asyncConfig);
+        asyncProcessor.onResize(size / pointsInGroup);
+        asyncProcessor.addChartTraceData(regularSeries, 1);
+        List<Integer> traces = new ArrayList<>();
+        traces.add(0);
+        asyncProcessor.onChartRangeChanged(0, size, traces);
+        Map<Integer, XYSeries> tracesData = asyncProcessor.chartTracesDataToUpdate();
+        if (tracesData == null || tracesData.get(0).size() != 0) {
+            isTestOk = false;
+        }
+        // traces changed while the job is running so its result is discarded
+        asyncProcessor.addChartTraceData(envelopeSeries, 1);
+        for (int i = 0; i < 2; i++) {
+            try {
+                asyncProcessor.chartProcessingFuture.get();
+            } catch (InterruptedException | ExecutionException e) {
+                throw new RuntimeException(e);
+            }
+            tracesData = asyncProcessor.chartTracesDataToUpdate();
+        }
+        if (tracesData == null || tracesData.get(0) == null || tracesData.get(0).size() == 0 || tracesData.get(0).size() >= size) {
+            isTestOk = false;
+        }
+
+        // grouped data are taken from the source if it gives them and grouped as usual otherwise
+        final XYSeries sourceData = new XYSeries(new int[] {0, size / 2}, new int[] {1, 2});
+        final boolean[] isSourceReady = {false};
+        XYSeries seriesWithSource = new XYSeries(yData);
+        seriesWithSource.setGroupedDataSource(new GroupedDataSource() {
+            @Override
+            public XYSeries getGroupedData(double xMin, double xMax, int maxPoints) {
+                return isSourceReady[0] ? sourceData : null;
+            }
+        });
+        DataProcessor sourceProcessor = new DataProcessor(false, new LinearScale(), new ProcessingConfig());
+        sourceProcessor.onResize(size / pointsInGroup);
+        sourceProcessor.addChartTraceData(seriesWithSource, 1);
+        sourceProcessor.onChartRangeChanged(0, size, traces);
+        tracesData = sourceProcessor.chartTracesDataToUpdate();
+        if (tracesData.get(0) == sourceData || tracesData.get(0).size() >= size) {
+            isTestOk = false;
+        }
+        isSourceReady[0] = true;
+        sourceProcessor.onChartRangeChanged(0, size, traces);
+        tracesData = sourceProcessor.chartTracesDataToUpdate();
+        if (tracesData.get(0) != sourceData) {
+            isTestOk = false;
+        }
+        System.out.println("Is test ok: " + isTestOk);
+    }
+
+    static class TraceJob {
+        private final int traceNumber;
+        private final XYSeries source;
+        private final XYSeries data;
+        private final int markSize;
+        private final Range range;
+
+        TraceJob(int traceNumber, XYSeries source, XYSeries data, int markSize, Range range) {
+            this.traceNumber = traceNumber;
+            this.source = source;
+            this.data = data;
+            this.markSize = markSize;
+            this.range = range;
+        }
+    }
+
+    static class ProcessedTracesData {
+        private final int version;
+        private final Map<List<Integer>, Range> ranges; // ranges of the job
+        private final Map<Integer, XYSeries> tracesData;
+
+        ProcessedTracesData(int version, Map<List<Integer>, Range> ranges, Map<Integer, XYSeries> tracesData) {
+            this.version = version;
+            this.ranges = ranges;
+            this.tracesData = tracesData;
+        }
+    }
 }
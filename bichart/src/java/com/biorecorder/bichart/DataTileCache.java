@@ -0,0 +1,147 @@
+package com.biorecorder.bichart;
+
+import com.biorecorder.datalyb.datatable.DataTable;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * LRU cache of the grouped data tiles. Tile is the result of grouping
+ * of the aligned block of raw data rows: tile number k with tileRows rows
+ * covers the rows [k * tileRows, (k + 1) * tileRows). Because tiles are aligned
+ * by rows (data is ordered so it is the same as x-intervals alignment)
+ * the same tiles are reused when the chart is scrolled forth and back.
+ * <p>
+ * The last tile of the data may be partial (not all its rows exist yet).
+ * Such tile is valid only while the data size is not changed.
+ * <p>
+ * Methods are synchronized because tiles may be calculated
+ * in the processing thread while the data is appended in the EDT.
+ */
+class DataTileCache {
+    private final long maxBytes;
+    private long bytes;
+    private final LinkedHashMap<TileKey, Tile> tiles = new LinkedHashMap<>(16, 0.75f, true);
+
+    /**
+     * @param maxBytes approximate memory budget for the cached data
+     */
+    DataTileCache(long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * @param rowCount number of raw rows available now for the tile
+     * @return cached tile data or null if there is no valid cached tile
+     */
+    synchronized DataTable get(XYSeries source, int pointsInGroup, int tileNumber, int rowCount) {
+        TileKey key = new TileKey(source, pointsInGroup, tileNumber);
+        Tile tile = tiles.get(key);
+        if (tile == null) {
+            return null;
+        }
+        if (tile.rowCount != rowCount) {
+            remove(key);
+            return null;
+        }
+        return tile.data;
+    }
+
+    synchronized void put(XYSeries source, int pointsInGroup, int tileNumber, int rowCount, DataTable data) {
+        TileKey key = new TileKey(source, pointsInGroup, tileNumber);
+        remove(key);
+        Tile tile = new Tile(data, rowCount);
+        tiles.put(key, tile);
+        bytes += tile.bytes;
+        // remove the least recently used tiles
+        Iterator<Tile> iterator = tiles.values().iterator();
+        while (bytes > maxBytes && iterator.hasNext()) {
+            Tile eldest = iterator.next();
+            if (eldest == tile) {
+                break;
+            }
+            bytes -= eldest.bytes;
+            iterator.remove();
+        }
+    }
+
+    /**
+     * Removes partial tail tiles of the given data. Full tiles stay valid
+     * when the data is appended.
+     */
+    synchronized void dataAppended(XYSeries source) {
+        Iterator<Map.Entry<TileKey, Tile>> iterator = tiles.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<TileKey, Tile> entry = iterator.next();
+            TileKey key = entry.getKey();
+            Tile tile = entry.getValue();
+            if (key.source == source && tile.rowCount < (long) key.pointsInGroup * DataProcessor.TILE_POINTS) {
+                bytes -= tile.bytes;
+                iterator.remove();
+            }
+        }
+    }
+
+    synchronized void remove(XYSeries source) {
+        Iterator<Map.Entry<TileKey, Tile>> iterator = tiles.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<TileKey, Tile> entry = iterator.next();
+            if (entry.getKey().source == source) {
+                bytes -= entry.getValue().bytes;
+                iterator.remove();
+            }
+        }
+    }
+
+    private void remove(TileKey key) {
+        Tile tile = tiles.remove(key);
+        if (tile != null) {
+            bytes -= tile.bytes;
+        }
+    }
+
+    static class Tile {
+        private final DataTable data;
+        private final int rowCount;
+        private final long bytes;
+
+        Tile(DataTable data, int rowCount) {
+            this.data = data;
+            this.rowCount = rowCount;
+            bytes = (long) data.rowCount() * data.columnCount() * 8;
+        }
+    }
+
+    static class TileKey {
+        private final XYSeries source;
+        private final int pointsInGroup;
+        private final int tileNumber;
+
+        TileKey(XYSeries source, int pointsInGroup, int tileNumber) {
+            this.source = source;
+            this.pointsInGroup = pointsInGroup;
+            this.tileNumber = tileNumber;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof TileKey)) {
+                return false;
+            }
+            TileKey key = (TileKey) o;
+            return source == key.source && pointsInGroup == key.pointsInGroup && tileNumber == key.tileNumber;
+        }
+
+        @Override
+        public int hashCode() {
+            int result = System.identityHashCode(source);
+            result = 31 * result + pointsInGroup;
+            result = 31 * result + tileNumber;
+            return result;
+        }
+    }
+}
@@ -1,63 +1,146 @@
 package com.biorecorder.bichart;
 
 import com.biorecorder.datalyb.datatable.DataTable;
+import com.biorecorder.datalyb.datatable.aggregation.AggFunction;
 import com.biorecorder.datalyb.datatable.aggregation.Resampler;
 import com.biorecorder.datalyb.time.TimeInterval;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
 
+/**
+ * Data grouped with several levels of grouping.
+ * <p>
+ * Levels are built as a cascade: if the grouping of a level may be
+ * obtained exactly by grouping of some previous (finer) level, the level is
+ * resampled from that level data instead of the raw data.
+ * It is possible for equal points and equal double intervals groupings
+ * when points or intervals are multiples and min/max/first functions are used.
+ * Cascaded level gets a group only when the source level closes the group
+ * so its last group appears one source group later.
+ * <p>
+ * Initial grouping of large data may be done asynchronously on the ForkJoinPool
+ * (see {@link #groupAsync(XYSeries, ChangeListener)}). Independent levels
+ * (with the raw data as the source) are processed in parallel.
+ */
 class GroupedData {
+    private static final int CHUNK_SIZE = 1 << 20; // rows resampled between cancellation checks
+    private static final ForkJoinPool GROUPING_POOL = new ForkJoinPool(Runtime.getRuntime().availableProcessors(),
+            new ForkJoinPool.ForkJoinWorkerThreadFactory() {
+                @Override
+                public ForkJoinWorkerThread newThread(ForkJoinPool pool) {
+                    ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+                    thread.setName("«Data grouping» thread");
+                    return thread;
+                }
+            }, null, false);
+
     private List<Resampler> dataList;
+    private int[] sourceLevels; // -1 means raw data
+    private int[] processedSourceRows;
     private int sampleCount;
+    private volatile boolean isCancelled;
 
-    private GroupedData(List<Resampler> dataList, int sampleCount) {
+    private GroupedData(List<Resampler> dataList, int[] sourceLevels) {
         this.dataList = dataList;
-        this.sampleCount = sampleCount;
+        this.sourceLevels = sourceLevels;
+        processedSourceRows = new int[sourceLevels.length];
     }
 
-    public static GroupedData groupDataByPoints(XYSeries xySeries, int... pointsPerGroups) {
-        int size = pointsPerGroups.length == 0 ? 1 : pointsPerGroups.length;
-        List<Resampler> dataList = new ArrayList<>(size);
-        for (int i = 0; i < pointsPerGroups.length; i++) {
-            int points = pointsPerGroups[i];
+    /**
+     * Creates grouping levels without processing any data
+     */
+    public static GroupedData createByPoints(XYSeries xySeries, int... pointsPerGroups) {
+        List<Resampler> dataList = new ArrayList<>(pointsPerGroups.length);
+        List<Integer> levelPoints = new ArrayList<>(pointsPerGroups.length);
+        for (int points : pointsPerGroups) {
             if (points > 1) {
-                Resampler resampler = Resampler.createEqualPointsResampler(points);
-                resampler.setColumnAggregations(0, xySeries.getGroupingApproximationX().getAggregation());
-                resampler.setColumnAggregations(1, xySeries.getGroupingApproximationY().getAggregation());
-                resampler.resampleAndAppend(xySeries.getDataTable());
-                dataList.add(resampler);
+                dataList.add(Resampler.createEqualPointsResampler(points));
+                levelPoints.add(points);
+            }
+        }
+        int[] sourceLevels = new int[dataList.size()];
+        for (int i = 0; i < dataList.size(); i++) {
+            sourceLevels[i] = -1;
+            int points = levelPoints.get(i);
+            if (isComposable(xySeries)) {
+                // the coarsest previous level whose groups are nested in the groups of this level
+                for (int j = 0; j < i; j++) {
+                    int sourcePoints = levelPoints.get(j);
+                    if (points > sourcePoints && points % sourcePoints == 0 &&
+                            (sourceLevels[i] < 0 || sourcePoints > levelPoints.get(sourceLevels[i]))) {
+                        sourceLevels[i] = j;
+                    }
+                }
+            }
+            if (sourceLevels[i] >= 0) {
+                int ratio = points / levelPoints.get(sourceLevels[i]);
+                Resampler resampler = Resampler.createEqualPointsResampler(ratio);
+                dataList.set(i, resampler);
             }
         }
-        return new GroupedData(dataList, xySeries.size());
+        return create(xySeries, dataList, sourceLevels);
     }
 
-
-    public static GroupedData groupDataByIntervals(XYSeries xySeries, double... intervals) {
-        int size = intervals.length == 0 ? 1 : intervals.length;
-        List<Resampler> dataList = new ArrayList<>(size);
+    public static GroupedData createByIntervals(XYSeries xySeries, double... intervals) {
+        List<Resampler> dataList = new ArrayList<>(intervals.length);
+        int[] sourceLevels = new int[intervals.length];
         for (int i = 0; i < intervals.length; i++) {
-            Resampler resampler = Resampler.createEqualIntervalResampler(intervals[i]);
-            resampler.setColumnAggregations(0, xySeries.getGroupingApproximationX().getAggregation());
-            resampler.setColumnAggregations(1, xySeries.getGroupingApproximationY().getAggregation());
-            resampler.resampleAndAppend(xySeries.getDataTable());
-            dataList.add(resampler);
-
+            sourceLevels[i] = -1;
+            if (isComposable(xySeries)) {
+                // intervals start at multiples of interval so groups of the multiple intervals are nested
+                for (int j = 0; j < i; j++) {
+                    double ratio = intervals[i] / intervals[j];
+                    if (ratio > 1.5 && Math.abs(ratio - Math.round(ratio)) < 1.0E-9 &&
+                            (sourceLevels[i] < 0 || intervals[j] > intervals[sourceLevels[i]])) {
+                        sourceLevels[i] = j;
+                    }
+                }
+            }
+            dataList.add(Resampler.createEqualIntervalResampler(intervals[i]));
         }
-        return new GroupedData(dataList, xySeries.size());
+        return create(xySeries, dataList, sourceLevels);
     }
 
-    public static GroupedData groupDataByTimeIntervals(XYSeries xySeries, TimeInterval... timeIntervals) {
-        int size = timeIntervals.length == 0 ? 1 : timeIntervals.length;
-        List<Resampler> dataList = new ArrayList<>(size);
+    public static GroupedData createByTimeIntervals(XYSeries xySeries, TimeInterval... timeIntervals) {
+        List<Resampler> dataList = new ArrayList<>(timeIntervals.length);
+        int[] sourceLevels = new int[timeIntervals.length];
         for (int i = 0; i < timeIntervals.length; i++) {
-            Resampler resampler = Resampler.createEqualTimeIntervalResampler(timeIntervals[i]);
+            // time intervals (months, weeks...) are not always nested so every level uses raw data
+            sourceLevels[i] = -1;
+            dataList.add(Resampler.createEqualTimeIntervalResampler(timeIntervals[i]));
+        }
+        return create(xySeries, dataList, sourceLevels);
+    }
+
+    private static GroupedData create(XYSeries xySeries, List<Resampler> dataList, int[] sourceLevels) {
+        for (int i = 0; i < dataList.size(); i++) {
+            Resampler resampler = dataList.get(i);
             resampler.setColumnAggregations(0, xySeries.getGroupingApproximationX().getAggregation());
-            resampler.setColumnAggregations(1, xySeries.getGroupingApproximationY().getAggregation());
-            resampler.resampleAndAppend(xySeries.getDataTable());
-            dataList.add(resampler);
+            AggFunction[] yAggregations = xySeries.getGroupingApproximationY().getAggregations();
+            if (sourceLevels[i] < 0) {
+                resampler.setColumnAggregations(1, yAggregations);
+            } else {
+                // source level has one y column for every y aggregating function
+                for (int j = 0; j < yAggregations.length; j++) {
+                    resampler.setColumnAggregations(1 + j, yAggregations[j]);
+                }
+            }
         }
-        return new GroupedData(dataList, xySeries.size());
+        return new GroupedData(dataList, sourceLevels);
+    }
+
+    /**
+     * Group of groups gives the same result as direct grouping
+     * only for first, min and max
+     */
+    private static boolean isComposable(XYSeries xySeries) {
+        return xySeries.getGroupingApproximationX() != GroupingApproximation.AVERAGE &&
+                xySeries.getGroupingApproximationY() != GroupingApproximation.AVERAGE;
     }
 
     public XYSeries getData(double xLength, int markSize) {
@@ -77,13 +160,156 @@ class GroupedData {
     }
 
     public void appendData(XYSeries data, int from, int length) {
-        for (Resampler resampler : dataList) {
-            resampler.resampleAndAppend(data.getDataTable(), from, length);
+        for (int i = 0; i < dataList.size(); i++) {
+            appendLevelData(i, data, from, length);
         }
         sampleCount += length;
     }
 
+    private void appendLevelData(int level, XYSeries data, int from, int length) {
+        Resampler resampler = dataList.get(level);
+        int sourceLevel = sourceLevels[level];
+        if (sourceLevel < 0) {
+            resampler.resampleAndAppend(data.getDataTable(), from, length);
+        } else {
+            DataTable sourceData = dataList.get(sourceLevel).resultantData();
+            int sourceRows = sourceData.rowCount();
+            resampler.resampleAndAppend(sourceData, processedSourceRows[level], sourceRows - processedSourceRows[level]);
+            processedSourceRows[level] = sourceRows;
+        }
+    }
+
+    /**
+     * Closes the last groups of all levels. Used when it is known that
+     * no more data belong to them (the data block ends at the group border
+     * of every level), so the last groups are not left open
+     */
+    public void closeLastGroups() {
+        for (int level = 0; level < dataList.size(); level++) {
+            if (sourceLevels[level] >= 0) {
+                // take the group just closed in the source level
+                appendLevelData(level, null, 0, 0);
+            }
+            dataList.get(level).closeGroup();
+        }
+    }
+
     public int processedSampleCount() {
         return sampleCount;
     }
+
+    /**
+     * Groups the current data rows asynchronously. Levels with the raw
+     * data as the source (together with the levels cascaded from them) are
+     * processed in parallel. Data are processed by chunks so that cancelling
+     * of the returned future stops the processing.
+     *
+     * @param readyListener notified (in the pool thread) when the grouping is done
+     */
+    public GroupingTask groupAsync(XYSeries data, ChangeListener readyListener) {
+        GroupingTask task = new GroupingTask(data, data.size(), readyListener);
+        GROUPING_POOL.execute(task);
+        return task;
+    }
+
+    private int rootLevel(int level) {
+        while (sourceLevels[level] >= 0) {
+            level = sourceLevels[level];
+        }
+        return level;
+    }
+
+    class GroupingTask extends RecursiveTask<GroupedData> {
+        private final XYSeries data;
+        private final int dataSize;
+        private final ChangeListener readyListener;
+        private final Object runLock = new Object();
+        private boolean isRunning;
+
+        GroupingTask(XYSeries data, int dataSize, ChangeListener readyListener) {
+            this.data = data;
+            this.dataSize = dataSize;
+            this.readyListener = readyListener;
+        }
+
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            isCancelled = true;
+            return super.cancel(mayInterruptIfRunning);
+        }
+
+        /**
+         * Cancels the grouping and waits until the running computation exits
+         * (cancelled task is done at once but its actions stop only at the
+         * next chunk), so after return the source data are not read any more
+         */
+        void cancelAndAwait() throws InterruptedException {
+            cancel(false);
+            synchronized (runLock) {
+                while (isRunning) {
+                    runLock.wait();
+                }
+            }
+        }
+
+        @Override
+        protected GroupedData compute() {
+            synchronized (runLock) {
+                if (isCancelled) {
+                    return null;
+                }
+                isRunning = true;
+            }
+            try {
+                List<LevelsGroupingAction> actions = new ArrayList<>();
+                for (int level = 0; level < dataList.size(); level++) {
+                    if (sourceLevels[level] < 0) {
+                        actions.add(new LevelsGroupingAction(level, data, dataSize));
+                    }
+                }
+                invokeAll(actions);
+                if (isCancelled) {
+                    return null;
+                }
+                sampleCount = dataSize;
+                if (readyListener != null) {
+                    readyListener.onChange();
+                }
+                return GroupedData.this;
+            } finally {
+                synchronized (runLock) {
+                    isRunning = false;
+                    runLock.notifyAll();
+                }
+            }
+        }
+    }
+
+    /**
+     * Groups the data by the given level and all levels cascaded from it
+     */
+    class LevelsGroupingAction extends RecursiveAction {
+        private final int rootLevel;
+        private final XYSeries data;
+        private final int dataSize;
+
+        LevelsGroupingAction(int rootLevel, XYSeries data, int dataSize) {
+            this.rootLevel = rootLevel;
+            this.data = data;
+            this.dataSize = dataSize;
+        }
+
+        @Override
+        protected void compute() {
+            for (int from = 0; from < dataSize && !isCancelled; from += CHUNK_SIZE) {
+                int length = Math.min(CHUNK_SIZE, dataSize - from);
+                // source levels always precede cascaded ones
+                for (int level = rootLevel; level < dataList.size(); level++) {
+                    if (rootLevel(level) == rootLevel) {
+                        appendLevelData(level, data, from, length);
+                    }
+                }
+            }
+        }
+    }
 }
@@ -0,0 +1,22 @@
+package com.biorecorder.bichart;
+
+/**
+ * Source of the already grouped data of the trace (for example the min/max index
+ * stored together with the data file). If the trace data has such source
+ * the grouped data of the shown range are taken from it instead of grouping
+ * all data points of the range, so the time depends only on the number of pixels.
+ * <p>
+ * Methods may be called not in the EDT (by the data processing thread).
+ */
+public interface GroupedDataSource {
+    /**
+     * @param xMin      min x of the shown range
+     * @param xMax      max x of the shown range
+     * @param maxPoints max number of points that can be drawn
+     * @return data of the range grouped to no more than maxPoints points
+     * (with the same columns as the trace data grouped by its approximation)
+     * or null if the source can not give them (is not ready or the range
+     * contains not so many points), then the trace data are grouped as usual
+     */
+    XYSeries getGroupedData(double xMin, double xMax, int maxPoints);
+}
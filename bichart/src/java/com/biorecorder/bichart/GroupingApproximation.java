@@ -9,12 +9,23 @@ public enum GroupingApproximation {
     AVERAGE,
     OPEN,
     LOW,
-    HIGH;
+    HIGH,
+    // min and max of every group (paired columns) to draw the envelope
+    ENVELOPE;
     //CLOSE,
     //RANGE,
    // OHLC;
 
 
+    public AggFunction[] getAggregations() {
+        if(this == ENVELOPE) {
+            AggFunction[] envelope = {new Min(), new Max()};
+            return envelope;
+        }
+        AggFunction[] aggregations = {getAggregation()};
+        return aggregations;
+    }
+
     public AggFunction getAggregation() {
         switch (this) {
             case OPEN:
@@ -12,6 +12,10 @@ public class ProcessingConfig {
     private GroupingType groupingType = GroupingType.EQUAL_POINTS;
     private boolean isCropEnabled = true;
     private boolean isGroupingEnabled = true;
+    // chart data is cropped and grouped in the separate thread (not in the paint one)
+    private boolean isAsyncProcessingEnabled = false;
+    // memory budget (bytes) for the cached grouped chart data tiles. 0 - no cache
+    private long tileCacheSize = 32 * 1024 * 1024;
 
 
     public boolean isProcessingEnabled() {
@@ -40,6 +44,22 @@ public class ProcessingConfig {
         isGroupingEnabled = groupingEnabled;
     }
 
+    public boolean isAsyncProcessingEnabled() {
+        return isAsyncProcessingEnabled;
+    }
+
+    public void setAsyncProcessingEnabled(boolean asyncProcessingEnabled) {
+        isAsyncProcessingEnabled = asyncProcessingEnabled;
+    }
+
+    public long getTileCacheSize() {
+        return tileCacheSize;
+    }
+
+    public void setTileCacheSize(long tileCacheSize) {
+        this.tileCacheSize = tileCacheSize;
+    }
+
     public int getCropShoulder() {
         return cropShoulder;
     }
@@ -0,0 +1,306 @@
+package com.biorecorder.bichart;
+
+import com.biorecorder.bichart.graphics.*;
+import com.biorecorder.datalyb.list.IntRingBuffer;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Live "sweep" display (like ECG monitors) for the data received during recording.
+ * Every trace keeps only the last window of samples in a ring buffer so
+ * memory does not grow however long the recording lasts.
+ * <p>
+ * Sample number n is drawn at the x position (n % windowSamples) so the
+ * drawing point sweeps from the left to the right and then starts again
+ * from the left overwriting the old data. Traces are drawn on the cached
+ * image and at every draw only the samples received since the previous
+ * draw are painted, so the cost of the update depends only
+ * on the number of new samples.
+ * <p>
+ * Optional erase bar - the blank gap in front of the drawing point which
+ * separates new data from the old ones.
+ * <p>
+ * Data may be appended from any thread. Drawing should be done in one thread (EDT).
+ */
+public class SweepChart {
+    private final double windowLength;
+    private final List<SweepTrace> traces = new ArrayList<>();
+    private BColor backgroundColor = BColor.BLACK_LIGHT;
+    private BColor textColor = BColor.GRAY_LIGHT;
+    private TextStyle textStyle = new TextStyle(TextStyle.DEFAULT, TextStyle.NORMAL, 12);
+    private int eraseBarWidth = 0;
+    private int x;
+    private int y;
+    private int width;
+    private int height;
+    private BImage layer;
+    private volatile boolean isLayerValid;
+    private int[] buffer = new int[0];
+
+    /**
+     * @param windowLength length of the displayed x interval (in the same units as trace sample steps)
+     */
+    public SweepChart(double windowLength) throws IllegalArgumentException {
+        if (windowLength <= 0) {
+            String errMsg = "Window length must be > 0: " + windowLength;
+            throw new IllegalArgumentException(errMsg);
+        }
+        this.windowLength = windowLength;
+    }
+
+    /**
+     * @return number of the added trace
+     */
+    public int addTrace(String name, double sampleStep, double yMin, double yMax, BColor color) throws IllegalArgumentException {
+        if (sampleStep <= 0) {
+            String errMsg = "Sample step must be > 0: " + sampleStep;
+            throw new IllegalArgumentException(errMsg);
+        }
+        int windowSamples = Math.max(2, (int) Math.round(windowLength / sampleStep));
+        synchronized (traces) {
+            traces.add(new SweepTrace(name, windowSamples, yMin, yMax, color));
+            isLayerValid = false;
+            return traces.size() - 1;
+        }
+    }
+
+    public int traceCount() {
+        synchronized (traces) {
+            return traces.size();
+        }
+    }
+
+    public void setYMinMax(int trace, double yMin, double yMax) {
+        SweepTrace sweepTrace = getTrace(trace);
+        sweepTrace.yMin = yMin;
+        sweepTrace.yMax = yMax;
+        isLayerValid = false;
+    }
+
+    public void appendData(int trace, int value) {
+        SweepTrace sweepTrace = getTrace(trace);
+        synchronized (sweepTrace) {
+            sweepTrace.data.add(value);
+        }
+    }
+
+    public void appendData(int trace, int[] values, int from, int length) {
+        SweepTrace sweepTrace = getTrace(trace);
+        synchronized (sweepTrace) {
+            sweepTrace.data.add(values, from, length);
+        }
+    }
+
+    /**
+     * Removes all trace data and starts the sweep from the left
+     */
+    public void clearData() {
+        synchronized (traces) {
+            for (SweepTrace trace : traces) {
+                synchronized (trace) {
+                    trace.data.clear();
+                }
+            }
+            isLayerValid = false;
+        }
+    }
+
+    private SweepTrace getTrace(int trace) {
+        synchronized (traces) {
+            return traces.get(trace);
+        }
+    }
+
+    public double getWindowLength() {
+        return windowLength;
+    }
+
+    /**
+     * @param eraseBarWidth width in pixels of the blank bar in front of the drawing point
+     */
+    public void setEraseBarWidth(int eraseBarWidth) {
+        this.eraseBarWidth = Math.max(0, eraseBarWidth);
+        isLayerValid = false;
+    }
+
+    public void setBackgroundColor(BColor backgroundColor) {
+        this.backgroundColor = backgroundColor;
+        isLayerValid = false;
+    }
+
+    public void setTextColor(BColor textColor) {
+        this.textColor = textColor;
+    }
+
+    public void setTextStyle(TextStyle textStyle) {
+        this.textStyle = textStyle;
+    }
+
+    public BRectangle getBounds() {
+        return new BRectangle(x, y, width, height);
+    }
+
+    public void setBounds(int x, int y, int width, int height) throws IllegalArgumentException {
+        if (width == 0 || height == 0) {
+            String errMsg = "Width and height must be > 0";
+            throw new IllegalArgumentException(errMsg);
+        }
+        this.x = x;
+        this.y = y;
+        this.width = width;
+        this.height = height;
+    }
+
+    public void draw(BCanvas canvas) {
+        if (width <= 0 || height <= 0) {
+            return;
+        }
+        if (layer == null || layer.getWidth() != width || layer.getHeight() != height) {
+            layer = canvas.createImage(width, height);
+            isLayerValid = false;
+        }
+        BCanvas layerCanvas = layer.getCanvas();
+        layerCanvas.setStroke(1, DashStyle.SOLID);
+        List<SweepTrace> traceList;
+        synchronized (traces) {
+            traceList = new ArrayList<>(traces);
+        }
+        boolean isRedraw = !isLayerValid;
+        if (isRedraw) {
+            layerCanvas.setColor(backgroundColor);
+            layerCanvas.fillRect(0, 0, width, height);
+            isLayerValid = true;
+        }
+        int rowHeight = traceList.isEmpty() ? height : height / traceList.size();
+        for (int i = 0; i < traceList.size(); i++) {
+            SweepTrace trace = traceList.get(i);
+            if (isRedraw) {
+                trace.drawnCount = 0;
+            }
+            drawNewData(layerCanvas, trace, i * rowHeight, rowHeight);
+        }
+        canvas.drawImage(layer, x, y);
+
+        canvas.setTextStyle(textStyle);
+        canvas.setColor(textColor);
+        int textAscent = canvas.getRenderContext().getTextMetric(textStyle).ascent();
+        for (int i = 0; i < traceList.size(); i++) {
+            String name = traceList.get(i).name;
+            if (name != null) {
+                canvas.drawString(name, x + 2, y + i * rowHeight + textAscent);
+            }
+        }
+    }
+
+    /**
+     * Draws the samples received since the previous drawing. The columns from the last drawn
+     * sample up to the new drawing point (plus the erase bar) are cleared first.
+     */
+    private void drawNewData(BCanvas canvas, SweepTrace trace, int rowY, int rowHeight) {
+        int windowSamples = trace.data.capacity();
+        long total;
+        long from;
+        int length;
+        synchronized (trace) {
+            total = trace.data.addedCount();
+            if (total < trace.drawnCount) { // data was cleared
+                trace.drawnCount = 0;
+            }
+            // the last drawn sample is taken again to connect the new line with it
+            from = Math.max(trace.drawnCount - 1, Math.max(0, total - windowSamples));
+            length = (int) (total - from);
+            if (length == 0) {
+                return;
+            }
+            if (buffer.length < length) {
+                buffer = new int[length];
+            }
+            trace.data.toArray(from, length, buffer, 0);
+        }
+        boolean isNewSweep = total - trace.drawnCount >= windowSamples;
+        int lastColumn = column(total - 1, windowSamples);
+        if (isNewSweep) {
+            canvas.setColor(backgroundColor);
+            canvas.fillRect(0, rowY, width, rowHeight);
+            clearColumns(canvas, lastColumn + 1, lastColumn + eraseBarWidth, rowY, rowHeight);
+        } else {
+            int startColumn = trace.drawnCount == 0 ? 0 : column(trace.drawnCount - 1, windowSamples) + 1;
+            int endColumn = lastColumn + eraseBarWidth;
+            if (endColumn < startColumn - 1) {
+                endColumn += width;
+            }
+            clearColumns(canvas, startColumn, endColumn, rowY, rowHeight);
+        }
+
+        canvas.setColor(trace.color);
+        double yScale = (rowHeight - 1) / (trace.yMax - trace.yMin);
+        int xPrev = column(from, windowSamples);
+        int yPrev = scaleY(buffer[0], trace, yScale, rowY, rowHeight);
+        if (length == 1) {
+            canvas.drawLine(xPrev, yPrev, xPrev, yPrev);
+        }
+        for (int i = 1; i < length; i++) {
+            int x = column(from + i, windowSamples);
+            int y = scaleY(buffer[i], trace, yScale, rowY, rowHeight);
+            if (x >= xPrev) { // the line is not connected through the sweep start
+                canvas.drawLine(xPrev, yPrev, x, y);
+            }
+            xPrev = x;
+            yPrev = y;
+        }
+        trace.drawnCount = total;
+    }
+
+    /**
+     * Clears the columns [fromColumn, toColumn]. Columns greater than the width
+     * continue from the left side
+     */
+    private void clearColumns(BCanvas canvas, int fromColumn, int toColumn, int rowY, int rowHeight) {
+        if (toColumn < fromColumn) {
+            return;
+        }
+        canvas.setColor(backgroundColor);
+        if (toColumn - fromColumn + 1 >= width) {
+            canvas.fillRect(0, rowY, width, rowHeight);
+            return;
+        }
+        if (fromColumn >= width) {
+            fromColumn -= width;
+            toColumn -= width;
+        }
+        if (toColumn < width) {
+            canvas.fillRect(fromColumn, rowY, toColumn - fromColumn + 1, rowHeight);
+        } else {
+            canvas.fillRect(fromColumn, rowY, width - fromColumn, rowHeight);
+            canvas.fillRect(0, rowY, toColumn - width + 1, rowHeight);
+        }
+    }
+
+    private int column(long sampleNumber, int windowSamples) {
+        return (int) ((sampleNumber % windowSamples) * width / windowSamples);
+    }
+
+    private static int scaleY(int value, SweepTrace trace, double yScale, int rowY, int rowHeight) {
+        int y = rowY + rowHeight - 1 - (int) ((value - trace.yMin) * yScale);
+        // clip to the trace row
+        return Math.max(rowY, Math.min(rowY + rowHeight - 1, y));
+    }
+
+    static class SweepTrace {
+        private final String name;
+        private final IntRingBuffer data;
+        private final BColor color;
+        private volatile double yMin;
+        private volatile double yMax;
+        private long drawnCount;
+
+        SweepTrace(String name, int windowSamples, double yMin, double yMax, BColor color) {
+            this.name = name;
+            this.color = color;
+            this.yMin = yMin;
+            this.yMax = yMax;
+            data = new IntRingBuffer(windowSamples);
+        }
+    }
+}
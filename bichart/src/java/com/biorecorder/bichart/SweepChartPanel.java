@@ -0,0 +1,65 @@
+package com.biorecorder.bichart;
+
+import com.biorecorder.bichart.swing.SwingCanvas;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.awt.event.ComponentAdapter;
+import java.awt.event.ComponentEvent;
+
+/**
+ * Repaints the sweep chart periodically while the panel is displayed
+ * so the data may be appended to the chart from any thread without
+ * any notifications
+ */
+public class SweepChartPanel extends JPanel {
+    private final SweepChart chart;
+    private final Timer repaintTimer;
+
+    public SweepChartPanel(SweepChart chart) {
+        this(chart, 40);
+    }
+
+    /**
+     * @param repaintPeriodMs period of the chart update in milliseconds
+     */
+    public SweepChartPanel(SweepChart chart, int repaintPeriodMs) {
+        this.chart = chart;
+        setOpaque(true);
+        repaintTimer = new Timer(repaintPeriodMs, new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                repaint();
+            }
+        });
+        addComponentListener(new ComponentAdapter() {
+            @Override
+            public void componentResized(ComponentEvent e) {
+                if (getWidth() > 0 && getHeight() > 0) {
+                    chart.setBounds(0, 0, getWidth(), getHeight());
+                    repaint();
+                }
+            }
+        });
+    }
+
+    @Override
+    public void addNotify() {
+        super.addNotify();
+        repaintTimer.start();
+    }
+
+    @Override
+    public void removeNotify() {
+        repaintTimer.stop();
+        super.removeNotify();
+    }
+
+    @Override
+    public void paintComponent(Graphics g) {
+        super.paintComponent(g);
+        chart.draw(new SwingCanvas((Graphics2D) g));
+    }
+}
@@ -46,6 +46,45 @@ class Trace {
 
     public void setData(ChartData data) {
         this.data = data;
+        sortedIndices = null;
+    }
+
+    /**
+     * Returns null if x data are sorted so that bisection may be done directly.
+     * Otherwise returns the sorted indices of x data. Indices are created "lazy"
+     * (solo when "nearest" is called) and when data grow
+     * only new rows are sorted and then merged with existing indices.
+     */
+    private int[] xSorter() {
+        int xColumnNumber = 0;
+        if (data.isSorted(xColumnNumber)) {
+            sortedIndices = null;
+            return null;
+        }
+        int size = data.size();
+        if (sortedIndices == null || sortedIndices.length > size) {
+            sortedIndices = data.sortedIndices(xColumnNumber);
+        } else if (sortedIndices.length < size) {
+            int sortedSize = sortedIndices.length;
+            int[] newIndices = data.sortedIndices(xColumnNumber, sortedSize, size - sortedSize);
+            sortedIndices = merge(sortedIndices, newIndices, xColumnNumber);
+        }
+        return sortedIndices;
+    }
+
+    private int[] merge(int[] sorter1, int[] sorter2, int columnNumber) {
+        int[] merged = new int[sorter1.length + sorter2.length];
+        int i1 = 0;
+        int i2 = 0;
+        for (int i = 0; i < merged.length; i++) {
+            if (i2 == sorter2.length || (i1 < sorter1.length &&
+                    data.value(sorter1[i1], columnNumber) <= data.value(sorter2[i2], columnNumber))) {
+                merged[i] = sorter1[i1++];
+            } else {
+                merged[i] = sorter2[i2++];
+            }
+        }
+        return merged;
     }
 
     private int nearest(double xValue) {
@@ -53,10 +92,7 @@ class Trace {
             return -1;
         }
         int xColumnNumber = 0;
-        // "lazy" sorting solo when "nearest" is called
-        if (sortedIndices == null) {
-            sortedIndices = data.sortedIndices(xColumnNumber);
-        }
+        int[] sortedIndices = xSorter();
         int nearest = data.bisect(xColumnNumber, xValue, sortedIndices);
         if (nearest >= data.size()) {
             nearest = data.size() - 1;
@@ -108,6 +144,10 @@ class Trace {
     }
 
 
+    int dataSize() {
+        return data.size();
+    }
+
     void draw(BCanvas canvas) {
         tracePainter.drawTrace(canvas, data, xAxis.getScale(), yAxis.getScale(), color);
     }
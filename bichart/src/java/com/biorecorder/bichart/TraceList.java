@@ -107,6 +107,17 @@ class TraceList {
         }
     }
 
+    /**
+     * Total size of the traces data. Used to find out that the data was appended
+     */
+    long dataSize() {
+        long size = 0;
+        for (Trace trace : traces) {
+            size += trace.dataSize();
+        }
+        return size;
+    }
+
     public void draw(BCanvas canvas) {
         for (Trace trace : traces) {
             trace.draw(canvas);
@@ -9,6 +9,7 @@ public class XYSeries implements ChartData {
     private DataTable dataTable = new DataTable("XYData");
     private GroupingApproximation groupingApproximationX = GroupingApproximation.OPEN;
     private GroupingApproximation groupingApproximationY = GroupingApproximation.AVERAGE;
+    private GroupedDataSource groupedDataSource;
 
     public XYSeries(DataTable dataTable) {
         this.dataTable = dataTable;
@@ -63,6 +64,18 @@ public class XYSeries implements ChartData {
         this.groupingApproximationY = groupingApproximationY;
     }
 
+    public GroupedDataSource getGroupedDataSource() {
+        return groupedDataSource;
+    }
+
+    /**
+     * @param groupedDataSource source of the already grouped data
+     *                          that is used instead of grouping of the data points
+     */
+    public void setGroupedDataSource(GroupedDataSource groupedDataSource) {
+        this.groupedDataSource = groupedDataSource;
+    }
+
     public double getX(int index) {
         return dataTable.value(index, 0);
     }
@@ -87,6 +100,7 @@ public class XYSeries implements ChartData {
         XYSeries view = new XYSeries(dataTable.view(from, length));
         view.groupingApproximationX = groupingApproximationX;
         view.groupingApproximationY = groupingApproximationY;
+        view.groupedDataSource = groupedDataSource;
         return view;
     }
 
@@ -136,6 +150,16 @@ public class XYSeries implements ChartData {
         return dataTable.sortedIndices(columnIndex);
     }
 
+    @Override
+    public int[] sortedIndices(int columnIndex, int from, int length) {
+        return dataTable.sortedIndices(columnIndex, from, length);
+    }
+
+    @Override
+    public boolean isSorted(int columnIndex) {
+        return dataTable.isSorted(columnIndex);
+    }
+
     @Override
     public int bisect(int columnIndex, double value, int[] sorter) {
         return dataTable.bisect(columnIndex, value, sorter);
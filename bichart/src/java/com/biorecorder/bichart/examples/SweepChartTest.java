@@ -0,0 +1,66 @@
+package com.biorecorder.bichart.examples;
+
+import com.biorecorder.bichart.SweepChart;
+import com.biorecorder.bichart.SweepChartPanel;
+import com.biorecorder.bichart.graphics.BColor;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+
+/**
+ * Live sweep chart fed by the timer imitating the data coming from the recorder
+ */
+public class SweepChartTest extends JFrame {
+    private static final int FREQUENCY = 500;
+    private static final int PERIOD_MS = 20;
+    private long sampleCount;
+
+    public SweepChartTest() {
+        int width = 700;
+        int height = 500;
+        setTitle("Test sweep chart");
+
+        SweepChart chart = new SweepChart(5); // 5 seconds window
+        chart.setEraseBarWidth(10);
+        chart.addTrace("sin 1 Hz", 1.0 / FREQUENCY, -1000, 1000, BColor.GREEN);
+        chart.addTrace("saw 0.5 Hz", 1.0 / FREQUENCY, 0, 1000, BColor.CYAN);
+        chart.addTrace("noise", 1.0 / (2 * FREQUENCY), -100, 100, BColor.YELLOW);
+
+        Timer dataTimer = new Timer(PERIOD_MS, new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                int n = FREQUENCY * PERIOD_MS / 1000;
+                int[] sin = new int[n];
+                int[] saw = new int[n];
+                int[] noise = new int[2 * n];
+                for (int i = 0; i < n; i++) {
+                    long sample = sampleCount + i;
+                    sin[i] = (int) (1000 * Math.sin(2 * Math.PI * sample / FREQUENCY));
+                    saw[i] = (int) (sample % (2 * FREQUENCY)) / 2;
+                }
+                for (int i = 0; i < noise.length; i++) {
+                    noise[i] = (int) (Math.random() * 200 - 100);
+                }
+                sampleCount += n;
+                chart.appendData(0, sin, 0, n);
+                chart.appendData(1, saw, 0, n);
+                chart.appendData(2, noise, 0, noise.length);
+            }
+        });
+
+        SweepChartPanel chartPanel = new SweepChartPanel(chart);
+        chartPanel.setPreferredSize(new Dimension(width, height));
+        add(chartPanel, BorderLayout.CENTER);
+        pack();
+        setDefaultCloseOperation(WindowConstants.EXIT_ON_CLOSE);
+        setLocationRelativeTo(null);
+        setVisible(true);
+        dataTimer.start();
+    }
+
+    public static void main(String[] args) {
+        SweepChartTest chartTest = new SweepChartTest();
+    }
+}
@@ -33,4 +33,7 @@ public interface BCanvas {
     public void fillPath(BPath path);
     public BPath getEmptyPath();
 
+    public BImage createImage(int width, int height);
+    public void drawImage(BImage image, int x, int y);
+
 }
@@ -0,0 +1,25 @@
+package com.biorecorder.bichart.graphics;
+
+
+/**
+ * Offscreen image used to cache the rendered parts of the chart
+ */
+public interface BImage {
+
+    public int getWidth();
+
+    public int getHeight();
+
+    /**
+     * Returns the canvas to draw on the image. Image content is kept so
+     * it may be redrawn partially.
+     * Canvas coordinates are the same as the image ones (0, 0 is the top left corner).
+     */
+    public BCanvas getCanvas();
+
+    /**
+     * Makes the whole image transparent
+     */
+    public void clear();
+
+}
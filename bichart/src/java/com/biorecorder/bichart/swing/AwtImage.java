@@ -0,0 +1,66 @@
+package com.biorecorder.bichart.swing;
+
+import com.biorecorder.bichart.graphics.BCanvas;
+import com.biorecorder.bichart.graphics.BImage;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+
+/**
+ * Image is created with the resolution of the device (scaleX, scaleY)
+ * so that cached drawing looks the same on HiDPI screens
+ */
+public class AwtImage implements BImage {
+    private final BufferedImage image;
+    private final int width;
+    private final int height;
+    private final double scaleX;
+    private final double scaleY;
+    private Graphics2D g2;
+
+    AwtImage(GraphicsConfiguration graphicsConfiguration, int width, int height, double scaleX, double scaleY) {
+        this.width = width;
+        this.height = height;
+        this.scaleX = scaleX;
+        this.scaleY = scaleY;
+        int imageWidth = (int) Math.ceil(width * scaleX);
+        int imageHeight = (int) Math.ceil(height * scaleY);
+        if (graphicsConfiguration != null) {
+            image = graphicsConfiguration.createCompatibleImage(imageWidth, imageHeight, Transparency.TRANSLUCENT);
+        } else {
+            image = new BufferedImage(imageWidth, imageHeight, BufferedImage.TYPE_INT_ARGB);
+        }
+    }
+
+    @Override
+    public int getWidth() {
+        return width;
+    }
+
+    @Override
+    public int getHeight() {
+        return height;
+    }
+
+    @Override
+    public BCanvas getCanvas() {
+        if (g2 != null) {
+            g2.dispose();
+        }
+        g2 = image.createGraphics();
+        g2.scale(scaleX, scaleY);
+        return new SwingCanvas(g2);
+    }
+
+    @Override
+    public void clear() {
+        Graphics2D g = image.createGraphics();
+        g.setComposite(AlphaComposite.Clear);
+        g.fillRect(0, 0, image.getWidth(), image.getHeight());
+        g.dispose();
+    }
+
+    BufferedImage getImage() {
+        return image;
+    }
+}
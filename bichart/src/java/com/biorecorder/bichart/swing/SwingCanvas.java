@@ -178,6 +178,17 @@ public class SwingCanvas implements BCanvas {
         return new AwtPath();
     }
 
+    @Override
+    public BImage createImage(int width, int height) {
+        AffineTransform transform = g2.getDeviceConfiguration().getDefaultTransform();
+        return new AwtImage(g2.getDeviceConfiguration(), width, height, transform.getScaleX(), transform.getScaleY());
+    }
+
+    @Override
+    public void drawImage(BImage image, int x, int y) {
+        g2.drawImage(((AwtImage) image).getImage(), x, y, image.getWidth(), image.getHeight(), null);
+    }
+
     @Override
     public void enableAntiAliasAndHinting() {
        /*
@@ -6,8 +6,14 @@ import com.biorecorder.bichart.Range;
 import com.biorecorder.bichart.graphics.*;
 import com.biorecorder.bichart.scales.Scale;
 
+import java.util.BitSet;
+
 /**
  * Created by galafit on 11/10/17.
+ * <p>
+ * If data has 3 columns (x, y min, y max) - grouped by
+ * {@link com.biorecorder.bichart.GroupingApproximation#ENVELOPE} - the trace is drawn
+ * as an envelope: vertical bar from min to max for every point.
  */
 public class LineTracePainter implements TracePainter {
     private LineTraceConfig traceConfig;
@@ -39,13 +45,32 @@ public class LineTracePainter implements TracePainter {
         return new BRectangle(x, y, 0, 0);
     }
 
+    private static boolean isEnvelope(ChartData data) {
+        return data.columnCount() > 2;
+    }
+
     @Override
     public Range yMinMax(ChartData data) {
+        if(isEnvelope(data)) {
+            Range minRange = data.columnMinMax(1);
+            Range maxRange = data.columnMinMax(2);
+            if(minRange == null || maxRange == null) {
+                return null;
+            }
+            return new Range(minRange.getMin(), maxRange.getMax());
+        }
         return data.columnMinMax(1);
     }
 
     @Override
     public String[] getTooltipInfo(ChartData data, int dataIndex, Scale xScale, Scale yScale) {
+        if(isEnvelope(data)) {
+            String[] info = new String[3];
+            info[0] = "x: " + xScale.formatDomainValue(data.value(dataIndex, 0));
+            info[1] = "y min: " + yScale.formatDomainValue(data.value(dataIndex, 1));
+            info[2] = "y max: " + yScale.formatDomainValue(data.value(dataIndex, 2));
+            return info;
+        }
         String[] info = new String[2];
         info[0] = "x: " + xScale.formatDomainValue(data.value(dataIndex, 0));
         info[1] = "y: " + yScale.formatDomainValue(data.value(dataIndex, 1));
@@ -67,6 +92,10 @@ public class LineTracePainter implements TracePainter {
         canvas.setStroke(traceConfig.getLineWidth(), traceConfig.getLineDashStyle());
         BColor lineColor = traceColor;
         BColor markColor = traceColor;
+        if(isEnvelope(data)) {
+            drawEnvelope(canvas, data, xScale, yScale, lineColor);
+            return;
+        }
         if(traceConfig.getMode() == LineTraceConfig.LINEAR) {
             path = drawLinearPath(canvas, xyData, xScale, yScale, lineColor, markColor);
         }
@@ -90,20 +119,31 @@ public class LineTracePainter implements TracePainter {
 
 
 
+    /**
+     * Points are decimated per pixel column (M4): for all points with the same x pixel
+     * only the first, min, max and last are added to the path. The drawn line
+     * is the same but the number of path segments is at most 4 * width.
+     * Marks are not drawn if the mark size is 0.
+     */
     private BPath drawLinearPath(BCanvas canvas, XYViewer xyData, Scale xScale, Scale yScale, BColor lineColor, BColor markColor) {
         BPath path = canvas.getEmptyPath();
         int x = (int) xScale.scale(xyData.getX(0));
         int y = (int) yScale.scale(xyData.getY(0));
         path.moveTo(x, y);
         canvas.setColor(markColor);
-        int markSize = traceConfig.getMarkSize();
-        canvas.fillOval(x - markSize / 2,y - markSize / 2, markSize, markSize);
+        PixelColumn column = new PixelColumn(canvas, path, traceConfig.getMarkSize());
+        column.start(x, y);
         for (int i = 1; i < xyData.size(); i++) {
             x = (int) xScale.scale(xyData.getX(i));
             y = (int) yScale.scale(xyData.getY(i));
-            path.lineTo(x, y);
-            canvas.fillOval(x - markSize / 2,y - markSize / 2, markSize, markSize);
+            if(x == column.x) {
+                column.add(y);
+            } else {
+                column.draw();
+                column.start(x, y);
+            }
         }
+        column.draw();
         if(traceConfig.getLineWidth() > 0) {
             canvas.setColor(lineColor);
             canvas.drawPath(path);
@@ -119,13 +159,17 @@ public class LineTracePainter implements TracePainter {
         path.moveTo(x, y);
         canvas.setColor(markColor);
         int pointRadius = traceConfig.getMarkSize()/ 2;
-        canvas.fillOval(x - pointRadius, y - pointRadius, 2 * pointRadius,2 * pointRadius);
+        if(pointRadius > 0) {
+            canvas.fillOval(x - pointRadius, y - pointRadius, 2 * pointRadius,2 * pointRadius);
+        }
         for (int i = 1; i < xyData.size(); i++) {
             x = (int) xScale.scale(xyData.getX(i));
             path.lineTo(x, y);
             y = (int) yScale.scale(xyData.getY(i));
             path.lineTo(x, y);
-            canvas.fillOval(x - pointRadius,y - pointRadius, 2 * pointRadius,2 * pointRadius);
+            if(pointRadius > 0) {
+                canvas.fillOval(x - pointRadius,y - pointRadius, 2 * pointRadius,2 * pointRadius);
+            }
         }
         canvas.setColor(lineColor);
         canvas.drawPath(path);
@@ -136,7 +180,9 @@ public class LineTracePainter implements TracePainter {
         int x = (int) xScale.scale(xyData.getX(0));
         int y = (int) yScale.scale(xyData.getY(0));
         int pointRadius = traceConfig.getMarkSize() / 2;
-        canvas.fillOval(x - pointRadius, y - pointRadius, 2 * pointRadius,2 * pointRadius);
+        if(pointRadius > 0) {
+            canvas.fillOval(x - pointRadius, y - pointRadius, 2 * pointRadius,2 * pointRadius);
+        }
         VerticalLine vLine = new VerticalLine(y);
         for (int i = 1; i < xyData.size(); i++) {
             int x_prev = x;
@@ -152,11 +198,44 @@ public class LineTracePainter implements TracePainter {
             // draw vertical line
             canvas.drawLine(x, vLine.min, x, vLine.max);
             canvas.setColor(markColor);
-            canvas.fillOval(x - pointRadius,y - pointRadius, 2 * pointRadius,2 * pointRadius);
+            if(pointRadius > 0) {
+                canvas.fillOval(x - pointRadius,y - pointRadius, 2 * pointRadius,2 * pointRadius);
+            }
         }
         return null;
     }
 
+    /**
+     * Every point is drawn as a vertical bar from min (column 1) to max (column 2).
+     * Neighbouring bars are connected so that the line has no breaks.
+     */
+    private void drawEnvelope(BCanvas canvas, ChartData data, Scale xScale, Scale yScale, BColor lineColor) {
+        canvas.setColor(lineColor);
+        int x = (int) xScale.scale(data.value(0, 0));
+        int y1 = (int) yScale.scale(data.value(0, 1));
+        int y2 = (int) yScale.scale(data.value(0, 2));
+        int top = Math.min(y1, y2);
+        int bottom = Math.max(y1, y2);
+        canvas.drawLine(x, top, x, bottom);
+        for (int i = 1; i < data.size(); i++) {
+            int xPrev = x;
+            int topPrev = top;
+            int bottomPrev = bottom;
+            x = (int) xScale.scale(data.value(i, 0));
+            y1 = (int) yScale.scale(data.value(i, 1));
+            y2 = (int) yScale.scale(data.value(i, 2));
+            top = Math.min(y1, y2);
+            bottom = Math.max(y1, y2);
+            if(x > xPrev + 1) {
+                canvas.drawLine(xPrev, (topPrev + bottomPrev) / 2, x, (top + bottom) / 2);
+                canvas.drawLine(x, top, x, bottom);
+            } else {
+                // extend the bar to touch the previous one
+                canvas.drawLine(x, Math.min(top, bottomPrev), x, Math.max(bottom, topPrev));
+            }
+        }
+    }
+
     class VerticalLine {
         int max;
         int min;
@@ -178,4 +257,84 @@ public class LineTracePainter implements TracePainter {
             }
         }
     }
+
+    /**
+     * Points of one pixel column. Keeps first, last, min and max y
+     * and the order in which min and max appeared.
+     * Marks are drawn only once for every pixel of the column.
+     */
+    static class PixelColumn {
+        private final BCanvas canvas;
+        private final BPath path;
+        private final int markSize;
+        int x;
+        private int first;
+        private int last;
+        private int min;
+        private int max;
+        private boolean isMinFirst;
+        private int lastDrawnY;
+        // pixels (relative to the first y) where marks are already drawn
+        private final BitSet markedPixels = new BitSet();
+
+        PixelColumn(BCanvas canvas, BPath path, int markSize) {
+            this.canvas = canvas;
+            this.path = path;
+            this.markSize = markSize;
+        }
+
+        void start(int x, int y) {
+            this.x = x;
+            first = last = min = max = y;
+            isMinFirst = true;
+            if (markSize > 0) {
+                markedPixels.clear();
+                drawMark(y);
+            }
+        }
+
+        void add(int y) {
+            if (y < min) {
+                min = y;
+                isMinFirst = false;
+            }
+            if (y > max) {
+                max = y;
+                isMinFirst = true;
+            }
+            last = y;
+            if (markSize > 0) {
+                drawMark(y);
+            }
+        }
+
+        private void drawMark(int y) {
+            int dy = y - first;
+            int pixel = dy >= 0 ? 2 * dy : -2 * dy - 1;
+            if (!markedPixels.get(pixel)) {
+                markedPixels.set(pixel);
+                canvas.fillOval(x - markSize / 2, y - markSize / 2, markSize, markSize);
+            }
+        }
+
+        void draw() {
+            lineTo(first, true);
+            if (isMinFirst) {
+                lineTo(min, false);
+                lineTo(max, false);
+            } else {
+                lineTo(max, false);
+                lineTo(min, false);
+            }
+            lineTo(last, false);
+        }
+
+        private void lineTo(int y, boolean isFirst) {
+            if (!isFirst && y == lastDrawnY) {
+                return;
+            }
+            path.lineTo(x, y);
+            lastDrawnY = y;
+        }
+    }
 }
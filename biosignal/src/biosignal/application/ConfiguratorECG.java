@@ -2,12 +2,18 @@ package biosignal.application;
 
 import biosignal.filter.*;
 import biosignal.filter.pipe.FilterPipe;
+import com.biorecorder.bichart.GroupedDataSource;
 import com.biorecorder.bichart.GroupingApproximation;
+import com.biorecorder.datalyb.datatable.ColumnStorage;
 
+import java.io.File;
 import java.util.HashMap;
 import java.util.Map;
 
 public class ConfiguratorECG implements Configurator{
+    // full rate channels are kept in the memory-mapped spill files
+    // so long recordings neither grow the heap nor hit the direct memory limit
+    private static final File SPILL_DIRECTORY = new File(System.getProperty("java.io.tmpdir"));
     private int[] chartDataChannels1 = new int[0];
     private int[] chartDataChannels2 = new int[0];
     private int[] navigatorDataChannels = new int[0];
@@ -23,19 +29,39 @@ public class ConfiguratorECG implements Configurator{
         int stepMs = 10;
 
         FilterPipe ecgFilterPipe = new FilterPipe(startTime, ecgSampleStepMs);
+        // detectors run in their own thread and do not delay the raw ecg
+        ecgFilterPipe.setParallelExecutionEnabled(true);
         signalToPipeFilter.put(ecgSignal, ecgFilterPipe);
 
-        XYData ecg = ecgFilterPipe.accumulateData();
-        dataStore.addDataChannel("ecg", ecg, GroupingApproximation.HIGH);
+        if(providerConfig.isLive()) {
+            // live data are shown by the sweep chart and are not accumulated
+            ecgFilterPipe.addYReceiver(dataStore.addLiveChannel("ecg", ecgSampleStepMs));
+            ecgFilterPipe.then(new DerivateFilter(ecgSampleRate, stepMs)).then(new PeakFilter()).
+                    newBranch(0, new QRSFilter(ecgSampleRate)).
+                    addYReceiver(1, dataStore.addLiveChannel("ecg QRS", ecgSampleStepMs));
+            chartDataChannels1 = new int[0];
+            chartDataChannels2 = new int[0];
+            navigatorDataChannels = new int[0];
+            return signalToPipeFilter;
+        }
 
+        ColumnStorage signalStorage = dataStore.addColumnStorage(ColumnStorage.mapped(SPILL_DIRECTORY));
+        XYData ecg = ecgFilterPipe.accumulateData(signalStorage);
+        // zoomed out ecg is taken from the file index (if available) instead of grouping all samples
+        GroupedDataSource ecgGroupedDataSource = providerConfig.signalGroupedDataSource(ecgSignal, startTime, ecgSampleStepMs);
+        dataStore.addDataChannel("ecg", ecg, GroupingApproximation.ENVELOPE, ecgGroupedDataSource);
+
+        // every detector takes the output of the previous one.
+        // Each of them is a separate branch so in the parallel mode they work
+        // in their own threads as a pipeline
         XYData ecgDeriv = ecgFilterPipe.then(new DerivateFilter(ecgSampleRate, stepMs)).
-                then(new PeakFilter()).accumulateData();
+                then(new PeakFilter()).accumulateData(signalStorage);
         dataStore.addDataChannel("ecg derivate", ecgDeriv, GroupingApproximation.HIGH);
 
-        XYData ecgQRS = ecgFilterPipe.then(new QRSFilter(ecgSampleRate)).accumulateData();
+        XYData ecgQRS = ecgFilterPipe.newBranch(0, new QRSFilter(ecgSampleRate)).accumulateData(1, signalStorage);
         dataStore.addDataChannel("ecg QRS", ecgQRS, GroupingApproximation.HIGH);
 
-        XYData ecgRhythm = ecgFilterPipe.then(new RhythmBiFilter()).accumulateData();
+        XYData ecgRhythm = ecgFilterPipe.newBranch(1, new RhythmBiFilter()).accumulateData(2);
         dataStore.addDataChannel("ecg Rhythm", ecgRhythm, GroupingApproximation.HIGH);
 
         /*int accSignal = 1;
@@ -49,6 +75,10 @@ public class ConfiguratorECG implements Configurator{
         chartDataChannels1 = new int[] {0, 1, 2};
         chartDataChannels2 = new int[] {3};
         navigatorDataChannels = new int[] {3};
+        if(ecgGroupedDataSource != null) {
+            // whole ecg in the navigator costs only the index reading
+            navigatorDataChannels = new int[] {3, 0};
+        }
 
         return signalToPipeFilter;
     }
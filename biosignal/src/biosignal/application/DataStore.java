@@ -1,7 +1,9 @@
 package biosignal.application;
 
 import biosignal.filter.XYData;
+import com.biorecorder.bichart.GroupedDataSource;
 import com.biorecorder.bichart.GroupingApproximation;
+import com.biorecorder.datalyb.datatable.ColumnStorage;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -9,11 +11,23 @@ import java.util.List;
 public class DataStore {
     private List<XYData> dataList = new ArrayList();
     private List<GroupingApproximation> dataGroupingApproximations = new ArrayList();
+    private List<GroupedDataSource> dataGroupedDataSources = new ArrayList();
+    private List<LiveChannel> liveChannels = new ArrayList();
+    private List<ColumnStorage> columnStorages = new ArrayList();
 
     public void addDataChannel(String name, XYData xyData, GroupingApproximation groupingApproximation) {
+        addDataChannel(name, xyData, groupingApproximation, null);
+    }
+
+    /**
+     * @param groupedDataSource source of the already grouped data (may be null)
+     *                          used by the charts instead of grouping all data points
+     */
+    public void addDataChannel(String name, XYData xyData, GroupingApproximation groupingApproximation, GroupedDataSource groupedDataSource) {
         xyData.setName(name);
         dataList.add(xyData);
         dataGroupingApproximations.add(groupingApproximation);
+        dataGroupedDataSources.add(groupedDataSource);
     }
 
     public XYData getData(int channel) {
@@ -24,7 +38,47 @@ public class DataStore {
         return dataGroupingApproximations.get(channel);
     }
 
+    public GroupedDataSource getDataGroupedDataSource(int channel) {
+        return dataGroupedDataSources.get(channel);
+    }
+
     public int dataChannelCount() {
         return dataList.size();
     }
+
+    /**
+     * @return the new live channel. The pipe branch that should be shown live
+     * must pass its values to that channel
+     */
+    public LiveChannel addLiveChannel(String name, double sampleStepMs) {
+        LiveChannel liveChannel = new LiveChannel(name, sampleStepMs);
+        liveChannels.add(liveChannel);
+        return liveChannel;
+    }
+
+    public LiveChannel getLiveChannel(int channel) {
+        return liveChannels.get(channel);
+    }
+
+    public int liveChannelCount() {
+        return liveChannels.size();
+    }
+
+    /**
+     * The storage will be released together with the data store
+     */
+    public ColumnStorage addColumnStorage(ColumnStorage columnStorage) {
+        columnStorages.add(columnStorage);
+        return columnStorage;
+    }
+
+    /**
+     * Releases the storages of the data (deletes spill files).
+     * Data of the store must not be used after that
+     */
+    public void release() {
+        for (ColumnStorage columnStorage : columnStorages) {
+            columnStorage.release();
+        }
+    }
 }
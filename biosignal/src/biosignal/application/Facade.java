@@ -2,6 +2,7 @@ package biosignal.application;
 
 import biosignal.filter.XYData;
 import com.biorecorder.bdfrecorder.gui.RecorderViewModel;
+import com.biorecorder.bichart.GroupedDataSource;
 import com.biorecorder.bichart.GroupingApproximation;
 
 import java.io.File;
@@ -22,6 +23,15 @@ public interface Facade {
 
     GroupingApproximation getDataGroupingApproximation(int channel);
 
+    /**
+     * @return source of the already grouped data of the channel or null
+     */
+    GroupedDataSource getDataGroupedDataSource(int channel);
+
+    int liveChannelCount();
+
+    LiveChannel getLiveChannel(int channel);
+
     int[] getChartDataChannels1();
 
     int[] getChartDataChannels2();
@@ -30,6 +40,13 @@ public interface Facade {
 
     boolean isDateTime();
 
+    /**
+     * Releases the data of the previous provider configurations.
+     * Must be called when these data are not shown any more
+     * (the charts created for them are disposed)
+     */
+    void releasePreviousData();
+
     void finish();
 
    // void setFullReadInterval();
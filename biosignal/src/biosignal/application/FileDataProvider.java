@@ -1,31 +1,53 @@
 package biosignal.application;
 
+import com.biorecorder.bichart.GroupedDataSource;
+import com.biorecorder.bichart.XYSeries;
+import com.biorecorder.datalyb.datatable.DataTable;
+import com.biorecorder.datalyb.datatable.DoubleColumn;
+import com.biorecorder.datalyb.datatable.IntColumn;
 import com.biorecorder.edflib.DataHeader;
-import com.biorecorder.edflib.EdfReader;
+import com.biorecorder.edflib.EdfPyramid;
+import com.biorecorder.edflib.MappedEdfReader;
 import com.biorecorder.edflib.HeaderRecord;
+import com.biorecorder.edflib.PyramidData;
 
 import java.io.*;
 import java.nio.channels.FileChannel;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 
 public class FileDataProvider implements DataProvider {
+    private static final int READ_BLOCK_SAMPLES = 1 << 16;
     private File edfFile;
     private List<DataListener>[] dataListeners;
     private List<ProviderConfigListener> providerConfigListeners = new ArrayList<>(1);
-    private EdfReader edfReader;
+    private MappedEdfReader edfReader;
     private long readStartMs; // Время начала чтения в мСек. Отсчитывается от старта записи
     private long readEndMs; // Время конца чтения в мСек. Отсчитывается от старта записи
     private DataHeader header;
+    private Future<EdfPyramid> pyramidFuture;
+    private List<DataAppendListener> pyramidReadyListeners = new CopyOnWriteArrayList<>();
 
     public FileDataProvider(File edfFile) {
         this.edfFile = edfFile;
         try {
-            edfReader = new EdfReader(edfFile);
+            edfReader = new MappedEdfReader(edfFile);
         } catch (Throwable e) {
             e.printStackTrace();
         }
+        // min/max index of the file. Built and saved on the first opening
+        pyramidFuture = EdfPyramid.loadOrBuildInBackground(edfFile, new Runnable() {
+            @Override
+            public void run() {
+                for (DataAppendListener l : pyramidReadyListeners) {
+                    l.onDataAppend();
+                }
+            }
+        });
         header = edfReader.getHeader();
         // Print some header info from original file
         System.out.println("---------------< edfHeader >----------------");
@@ -50,29 +72,32 @@ public class FileDataProvider implements DataProvider {
 
     }
 
+    /**
+     * Signals are read by blocks so the whole signal is never kept in one array
+     */
     private void read() {
+        int[] data = new int[READ_BLOCK_SAMPLES];
         for (int i = 0; i < dataListeners.length; i++) {
             List<DataListener> signalListeners = dataListeners[i];
             if(signalListeners.size() > 0) {
                 long startPos = timeMsToPosition(i, readStartMs);
                 long endPos = timeMsToPosition(i, readEndMs);
-                int samplesToRead = (int) (endPos - startPos);
-                int[] data = new int[samplesToRead];
                 edfReader.setSamplePosition(i, startPos);
-                try {
-                    int readSamples = edfReader.readSamples(i, samplesToRead, data);
+                for (long pos = startPos; pos < endPos; pos += READ_BLOCK_SAMPLES) {
+                    int samplesToRead = (int) Math.min(READ_BLOCK_SAMPLES, endPos - pos);
+                    int readSamples = 0;
+                    try {
+                        readSamples = edfReader.readSamples(i, samplesToRead, data);
+                    } catch (IOException e) {
+                        e.printStackTrace();
+                    }
+                    for (int j = 0; j < signalListeners.size(); j++) {
+                        DataListener l = signalListeners.get(j);
+                        l.receiveData(data, 0, readSamples);
+                    }
                     if (readSamples < samplesToRead) {
-                        int[] data1 = new int[readSamples];
-                        System.arraycopy(data, 0, data1, 0, readSamples);
-                        data = data1;
+                        break;
                     }
-                } catch (IOException e) {
-                    e.printStackTrace();
-                }
-
-                for (int j = 0; j < signalListeners.size(); j++) {
-                    DataListener l = signalListeners.get(j);
-                    l.receiveData(data, 0, data.length);
                 }
             }
         }
@@ -113,12 +138,83 @@ public class FileDataProvider implements DataProvider {
             public long getRecordingTimeMs() {
                 return readEndMs - readStartMs;
             }
+
+            @Override
+            public GroupedDataSource signalGroupedDataSource(int signal, double startValue, double step) {
+                return pyramidDataSource(signal, startValue, step);
+            }
         };
         for (ProviderConfigListener providerConfigListener : providerConfigListeners) {
             providerConfigListener.receiveConfig(config);
         }
     }
 
+    /**
+     * Listener is notified (in the pyramid building thread) when the min/max index
+     * of the file is ready, so its grouped data sources start giving data.
+     * If the index is ready before the listener is added it is not notified
+     */
+    public void addPyramidReadyListener(DataAppendListener l) {
+        pyramidReadyListeners.add(l);
+    }
+
+    /**
+     * Grouped data are taken from the pyramid only if there are at least
+     * base bucket size samples per point, otherwise the samples
+     * themselves give better resolution and can be grouped quickly
+     */
+    private GroupedDataSource pyramidDataSource(int signal, double startValue, double step) {
+        return new GroupedDataSource() {
+            @Override
+            public XYSeries getGroupedData(double xMin, double xMax, int maxPoints) {
+                EdfPyramid pyramid = getPyramid();
+                if(pyramid == null) {
+                    return null;
+                }
+                long startPos = timeMsToPosition(signal, readStartMs);
+                long endPos = timeMsToPosition(signal, readEndMs);
+                long fromSample = Math.max(startPos, startPos + (long) Math.floor((xMin - startValue) / step));
+                long toSample = Math.min(endPos, startPos + (long) Math.ceil((xMax - startValue) / step) + 1);
+                if(toSample - fromSample < (long) maxPoints * pyramid.getBaseBucketSize()) {
+                    return null;
+                }
+                PyramidData data = pyramid.getData(signal, fromSample, toSample, maxPoints);
+                if(data == null) {
+                    return null;
+                }
+                DoubleColumn xColumn = new DoubleColumn("x");
+                IntColumn minColumn = new IntColumn("y min");
+                IntColumn maxColumn = new IntColumn("y max");
+                for (int i = 0; i < data.size(); i++) {
+                    xColumn.append(startValue + step * (data.getBucketStartSample(i) - startPos));
+                    minColumn.append(data.getMin(i));
+                    maxColumn.append(data.getMax(i));
+                }
+                return new XYSeries(new DataTable("pyramid", xColumn, minColumn, maxColumn));
+            }
+        };
+    }
+
+    /**
+     * The pyramid is built in background when the file is opened for the first time
+     * (or read from the index file) and we do not wait for it
+     *
+     * @return the pyramid of the file or null if it is not ready yet or can not be built
+     */
+    private EdfPyramid getPyramid() {
+        if(!pyramidFuture.isDone()) {
+            return null;
+        }
+        try {
+            return pyramidFuture.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            // the file is shown without the index
+        }
+        return null;
+    }
+
     @Override
     public void addDataListener(int signal, DataListener dataListener) {
         if (signal < dataListeners.length) {
@@ -5,16 +5,30 @@ import com.biorecorder.edflib.EdfReader;
 import com.biorecorder.edflib.HeaderRecord;
 
 import java.io.*;
+import java.nio.ByteBuffer;
 import java.nio.channels.FileChannel;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Date;
+import java.util.Deque;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
 import java.util.concurrent.Future;
 import java.util.concurrent.ThreadFactory;
 
+/**
+ * Reads the file only once: contiguous ranges (chunks) of data records
+ * are decoded in parallel on ForkJoinPool, every chunk is demultiplexed
+ * to per signal arrays. Decoded chunks are delivered to the listeners
+ * by the provider thread strictly in the file order.
+ */
 public class FileDataProviderParallel implements DataProvider{
+    private static final int CHUNK_SIZE_BYTES = 1024 * 1024;
     private File edfFile;
     private List<DataListener>[] dataListeners;
     private List<ProviderConfigListener> providerConfigListeners = new ArrayList<>(1);
@@ -24,6 +38,7 @@ public class FileDataProviderParallel implements DataProvider{
     private DataHeader header;
     private volatile boolean isStopped;
     private final ExecutorService singleThreadExecutor;
+    private final ForkJoinPool decodingPool;
     private volatile Future executorFuture;
 
     public FileDataProviderParallel(File edfFile) {
@@ -54,6 +69,15 @@ public class FileDataProviderParallel implements DataProvider{
             }
         };
         singleThreadExecutor = Executors.newSingleThreadExecutor(namedThreadFactory);
+        ForkJoinPool.ForkJoinWorkerThreadFactory decodingThreadFactory = new ForkJoinPool.ForkJoinWorkerThreadFactory() {
+            @Override
+            public ForkJoinWorkerThread newThread(ForkJoinPool pool) {
+                ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+                thread.setName("«EDF decoding» thread");
+                return thread;
+            }
+        };
+        decodingPool = new ForkJoinPool(Runtime.getRuntime().availableProcessors(), decodingThreadFactory, null, false);
     }
 
 
@@ -79,6 +103,7 @@ public class FileDataProviderParallel implements DataProvider{
     @Override
     public void finish() {
         stop();
+        decodingPool.shutdownNow();
         try {
             edfReader.close();
         } catch (IOException e) {
@@ -146,42 +171,139 @@ public class FileDataProviderParallel implements DataProvider{
     }
 
     private void read() {
-        int readPortion = 100000; //samples
-        for (int i = 0; i < dataListeners.length; i++) {
-            boolean endFile = false;
-            List<DataListener> signalListeners = dataListeners[i];
-            if(signalListeners.size() > 0) {
-                long startPos = timeMsToPosition(i, readStartMs);
-                long endPos = timeMsToPosition(i, readEndMs);
-                int n = (int) (endPos - startPos);
-                int samplesToRead = Math.min(n, readPortion);
-                int totalReadSamples = 0;
-                int[] data = new int[samplesToRead];
-                edfReader.setSamplePosition(i, startPos);
-                while (!isStopped && !endFile && totalReadSamples < n) {
-                    try {
-                        int readSamples = edfReader.readSamples(i, samplesToRead, data);
-                        if (readSamples < samplesToRead) {
-                            int[] data1 = new int[readSamples];
-                            System.arraycopy(data, 0, data1, 0, readSamples);
-                            data = data1;
-                            endFile = true;
+        DataHeader readHeader = new DataHeader(header);
+        int signals = readHeader.numberOfSignals();
+        long[] startPositions = new long[signals];
+        long[] endPositions = new long[signals];
+        boolean[] isSignalRead = new boolean[signals];
+        long startRecord = Long.MAX_VALUE;
+        long endRecord = 0;
+        for (int i = 0; i < signals; i++) {
+            int samplesInRecord = readHeader.getNumberOfSamplesInEachDataRecord(i);
+            if(dataListeners[i].size() > 0 && samplesInRecord > 0) {
+                isSignalRead[i] = true;
+                startPositions[i] = timeMsToPosition(i, readStartMs);
+                endPositions[i] = timeMsToPosition(i, readEndMs);
+                startRecord = Math.min(startRecord, startPositions[i] / samplesInRecord);
+                endRecord = Math.max(endRecord, (endPositions[i] + samplesInRecord - 1) / samplesInRecord);
+            }
+        }
+        endRecord = Math.min(endRecord, edfReader.numberOfRecords());
+        if(startRecord >= endRecord) {
+            return;
+        }
+        int recordSizeInBytes = readHeader.getRecordSize() * readHeader.getNumberOfBytesPerSample();
+        int recordsInChunk = Math.max(1, CHUNK_SIZE_BYTES / recordSizeInBytes);
+        // decoded but not yet delivered chunks are limited to save memory
+        int maxChunksInProgress = 2 * decodingPool.getParallelism();
+
+        RandomAccessFile file = null;
+        Deque<Future<int[][]>> chunksInProgress = new ArrayDeque<>();
+        try {
+            file = new RandomAccessFile(edfFile, "r");
+            FileChannel fileChannel = file.getChannel();
+            long nextChunkStart = startRecord;
+            while (!isStopped && (nextChunkStart < endRecord || !chunksInProgress.isEmpty())) {
+                while (nextChunkStart < endRecord && chunksInProgress.size() < maxChunksInProgress) {
+                    int records = (int) Math.min(recordsInChunk, endRecord - nextChunkStart);
+                    ChunkDecoder chunkDecoder = new ChunkDecoder(fileChannel, readHeader, nextChunkStart, records,
+                            isSignalRead, startPositions, endPositions);
+                    chunksInProgress.add(decodingPool.submit(chunkDecoder));
+                    nextChunkStart += records;
+                }
+                int[][] chunkData = chunksInProgress.poll().get();
+                for (int i = 0; i < signals; i++) {
+                    int[] data = chunkData[i];
+                    if(data != null && data.length > 0) {
+                        List<DataListener> signalListeners = dataListeners[i];
+                        for (int j = 0; j < signalListeners.size(); j++) {
+                            signalListeners.get(j).receiveData(data, 0, data.length);
                         }
-                        totalReadSamples += readSamples;
-                    } catch (IOException e) {
-                        e.printStackTrace();
                     }
-                    for (int j = 0; j < signalListeners.size(); j++) {
-                        DataListener l = signalListeners.get(j);
-                        l.receiveData(data, 0, data.length);
+                }
+            }
+        } catch (InterruptedException e) {
+            // reading was stopped
+        } catch (ExecutionException e) {
+            e.getCause().printStackTrace();
+        } catch (IOException e) {
+            e.printStackTrace();
+        } finally {
+            for (Future<int[][]> chunk : chunksInProgress) {
+                chunk.cancel(true);
+            }
+            if(file != null) {
+                try {
+                    file.close();
+                } catch (IOException e) {
+                    e.printStackTrace();
+                }
+            }
+        }
+    }
+
+    /**
+     * Reads the given data records and returns for every signal to be read
+     * its samples (belonging to the read interval) from that records
+     */
+    static class ChunkDecoder implements Callable<int[][]> {
+        private final FileChannel fileChannel;
+        private final DataHeader header;
+        private final long startRecord;
+        private final int numberOfRecords;
+        private final boolean[] isSignalRead;
+        private final long[] startPositions;
+        private final long[] endPositions;
+
+        ChunkDecoder(FileChannel fileChannel, DataHeader header, long startRecord, int numberOfRecords,
+                     boolean[] isSignalRead, long[] startPositions, long[] endPositions) {
+            this.fileChannel = fileChannel;
+            this.header = header;
+            this.startRecord = startRecord;
+            this.numberOfRecords = numberOfRecords;
+            this.isSignalRead = isSignalRead;
+            this.startPositions = startPositions;
+            this.endPositions = endPositions;
+        }
+
+        @Override
+        public int[][] call() throws IOException {
+            int bytesPerSample = header.getNumberOfBytesPerSample();
+            int recordSizeInBytes = header.getRecordSize() * bytesPerSample;
+            byte[] bytes = new byte[numberOfRecords * recordSizeInBytes];
+            ByteBuffer byteBuffer = ByteBuffer.wrap(bytes);
+            long position = header.getNumberOfBytesInHeaderRecord() + startRecord * recordSizeInBytes;
+            while (byteBuffer.hasRemaining()) {
+                // positional reading may be done by several threads simultaneously
+                int readBytes = fileChannel.read(byteBuffer, position + byteBuffer.position());
+                if(readBytes < 0) {
+                    throw new EOFException();
+                }
+            }
+
+            int[][] signalsData = new int[isSignalRead.length][];
+            for (int signal = 0; signal < isSignalRead.length; signal++) {
+                if(!isSignalRead[signal]) {
+                    continue;
+                }
+                int samplesInRecord = header.getNumberOfSamplesInEachDataRecord(signal);
+                int signalOffsetInBytes = header.getSignalOffsetInDataRecord(signal) * bytesPerSample;
+                long chunkFirstSample = startRecord * samplesInRecord;
+                long first = Math.max(startPositions[signal], chunkFirstSample);
+                long end = Math.min(endPositions[signal], chunkFirstSample + (long) numberOfRecords * samplesInRecord);
+                int[] data = new int[(int) Math.max(0, end - first)];
+                for (int record = 0; record < numberOfRecords; record++) {
+                    long recordFirstSample = chunkFirstSample + (long) record * samplesInRecord;
+                    long from = Math.max(first, recordFirstSample);
+                    long till = Math.min(end, recordFirstSample + samplesInRecord);
+                    if(till > from) {
+                        int byteOffset = record * recordSizeInBytes + signalOffsetInBytes + (int) (from - recordFirstSample) * bytesPerSample;
+                        header.littleEndianBytesToIntArray(bytes, byteOffset, data, (int) (from - first), (int) (till - from));
                     }
-                   /* try {
-                        Thread.sleep(10);
-                    } catch (InterruptedException e) {
-                        e.printStackTrace();
-                    }*/
                 }
+                signalsData[signal] = data;
             }
+            return signalsData;
         }
     }
 
@@ -0,0 +1,48 @@
+package biosignal.application;
+
+import biosignal.filter.pipe.YReceiver;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Channel of the live data. Values of the pipe branch are passed to the receivers
+ * (for example to the sweep chart) as they come and are not accumulated,
+ * so memory does not grow however long the recording lasts.
+ */
+public class LiveChannel implements YReceiver {
+    private final String name;
+    private final double sampleStepMs;
+    private final List<YReceiver> receivers = new CopyOnWriteArrayList<>();
+
+    public LiveChannel(String name, double sampleStepMs) {
+        this.name = name;
+        this.sampleStepMs = sampleStepMs;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public double getSampleStepMs() {
+        return sampleStepMs;
+    }
+
+    public void addReceiver(YReceiver receiver) {
+        receivers.add(receiver);
+    }
+
+    @Override
+    public void put(int value) {
+        for (YReceiver receiver : receivers) {
+            receiver.put(value);
+        }
+    }
+
+    @Override
+    public void put(int[] values, int from, int length) {
+        for (YReceiver receiver : receivers) {
+            receiver.put(values, from, length);
+        }
+    }
+}
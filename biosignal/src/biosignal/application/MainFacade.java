@@ -3,6 +3,7 @@ package biosignal.application;
 import biosignal.filter.XYData;
 import biosignal.filter.pipe.FilterPipe;
 import com.biorecorder.bdfrecorder.gui.RecorderViewModel;
+import com.biorecorder.bichart.GroupedDataSource;
 import com.biorecorder.bichart.GroupingApproximation;
 
 import java.io.File;
@@ -14,12 +15,15 @@ public class MainFacade implements Facade {
     public static final String[] FILE_EXTENSIONS = {"bdf", "edf"};
     private DataProvider dataProvider = new NullDataProvider();
     private DataStore dataStore;
+    // data of the previous configurations are released by the gui when they are not shown any more
+    private final List<DataStore> previousDataStores = new ArrayList<>(1);
     private Configurator configurator;
     private List<DataAppendListener> dataAppendListeners = new ArrayList<>(1);
     private List<ProviderConfigListener> configListeners = new ArrayList<>(1);
     private final boolean isDateTime; // true - time; false - indexes
     private int numberOfSignalsWithListeners;
     private int dataCount;
+    private Map<Integer, FilterPipe> signalToPipeFilter;
 
 
     public MainFacade(Configurator configurator, boolean isDateTime) {
@@ -39,6 +43,13 @@ public class MainFacade implements Facade {
             FileDataProvider fileDataProvider = new FileDataProvider(file);
             dataProvider = fileDataProvider;
             configureDataProvide(dataProvider);
+            // charts take zoomed out data from the file index as soon as it is built
+            fileDataProvider.addPyramidReadyListener(new DataAppendListener() {
+                @Override
+                public void onDataAppend() {
+                    notifyDataAppendListeners();
+                }
+            });
             fileDataProvider.start();
         }
 
@@ -57,6 +68,11 @@ public class MainFacade implements Facade {
         dataProvider1.addConfigListener(new ProviderConfigListener() {
             @Override
             public void receiveConfig(ProviderConfig providerConfig1) {
+                if(dataStore != null) {
+                    synchronized (previousDataStores) {
+                        previousDataStores.add(dataStore);
+                    }
+                }
                 dataStore = new DataStore();
 
                 ProviderConfig providerConfig = providerConfig1;
@@ -81,12 +97,31 @@ public class MainFacade implements Facade {
                         public long getRecordingTimeMs() {
                             return providerConfig1.getRecordingTimeMs();
                         }
+
+                        @Override
+                        public boolean isLive() {
+                            return providerConfig1.isLive();
+                        }
+
+                        @Override
+                        public GroupedDataSource signalGroupedDataSource(int signal, double startValue, double step) {
+                            return providerConfig1.signalGroupedDataSource(signal, startValue, step);
+                        }
                     };
                 }
-                Map<Integer, FilterPipe> signalToPipeFilter = configurator.configDataStore(providerConfig, dataStore);
+                stopFilterPipes();
+                signalToPipeFilter = configurator.configDataStore(providerConfig, dataStore);
                 numberOfSignalsWithListeners = signalToPipeFilter.keySet().size();
                 for (Integer signal : signalToPipeFilter.keySet()) {
                     FilterPipe fp = signalToPipeFilter.get(signal);
+                    // branches processed in parallel threads give their results
+                    // when they catch up, so the raw data are shown without waiting for them
+                    fp.addProcessedListener(new DataAppendListener() {
+                        @Override
+                        public void onDataAppend() {
+                            notifyDataAppendListeners();
+                        }
+                    });
                     dataProvider1.addDataListener(signal, new DataListener() {
                         @Override
                         public void receiveData(int[] data, int from, int length) {
@@ -94,9 +129,7 @@ public class MainFacade implements Facade {
                             fp.receiveData(data, from, length);
                             // to avoid multiple notifications
                             if(dataCount % numberOfSignalsWithListeners == 0) {
-                                for (DataAppendListener l : dataAppendListeners) {
-                                    l.onDataAppend();
-                                }
+                                notifyDataAppendListeners();
                             }
                         }
                     });
@@ -108,6 +141,12 @@ public class MainFacade implements Facade {
         });
     }
 
+    private void notifyDataAppendListeners() {
+        for (DataAppendListener l : dataAppendListeners) {
+            l.onDataAppend();
+        }
+    }
+
     @Override
     public String[] getFileExtensions() {
         return FILE_EXTENSIONS;
@@ -153,11 +192,53 @@ public class MainFacade implements Facade {
         return dataStore.getDataGroupingApproximation(channel);
     }
 
+    @Override
+    public GroupedDataSource getDataGroupedDataSource(int channel) {
+        return dataStore.getDataGroupedDataSource(channel);
+    }
+
+    @Override
+    public int liveChannelCount() {
+        return dataStore.liveChannelCount();
+    }
+
+    @Override
+    public LiveChannel getLiveChannel(int channel) {
+        return dataStore.getLiveChannel(channel);
+    }
+
+    @Override
+    public void releasePreviousData() {
+        synchronized (previousDataStores) {
+            for (DataStore previousDataStore : previousDataStores) {
+                previousDataStore.release();
+            }
+            previousDataStores.clear();
+        }
+    }
+
+    /**
+     * Stops the data provider and the filter pipes and releases all data.
+     * The charts showing the data must be disposed before
+     */
     @Override
     public void finish() {
         if( dataProvider!= null) {
             dataProvider.finish();
         }
+        stopFilterPipes();
+        releasePreviousData();
+        if(dataStore != null) {
+            dataStore.release();
+        }
+    }
+
+    private void stopFilterPipes() {
+        if(signalToPipeFilter != null) {
+            for (FilterPipe pipe : signalToPipeFilter.values()) {
+                pipe.stop();
+            }
+        }
     }
 
 
@@ -1,8 +1,29 @@
 package biosignal.application;
 
+import com.biorecorder.bichart.GroupedDataSource;
+
 public interface ProviderConfig {
     int signalsCount();
     double signalSampleRate(int signal);
     long getRecordingStartTimeMs();
     long getRecordingTimeMs();
+
+    /**
+     * @return true if the data come from the recorder in real time
+     */
+    default boolean isLive() {
+        return false;
+    }
+
+    /**
+     * Source of the min and max values of consecutive groups of the signal samples
+     * (for example taken from the index of the file), so the charts showing
+     * the zoomed out signal do not group all its samples.
+     * Grouped data have the columns x, y min, y max where x of the sample number n
+     * is startValue + step * n. The source may give no data till it is ready
+     * @return the source or null if the provider can not give it
+     */
+    default GroupedDataSource signalGroupedDataSource(int signal, double startValue, double step) {
+        return null;
+    }
 }
@@ -81,6 +81,11 @@ public class RecorderDataProvider implements DataProvider{
                 int recordDuration = 9; // hours
                 return recordDuration * TimeInterval.HOUR_1.toMilliseconds();
             }
+
+            @Override
+            public boolean isLive() {
+                return true;
+            }
         };
         for (ProviderConfigListener providerConfigListener : providerConfigListeners) {
             providerConfigListener.receiveConfig(config);
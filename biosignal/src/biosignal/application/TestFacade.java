@@ -3,6 +3,7 @@ package biosignal.application;
 import biosignal.filter.XYData;
 import biosignal.filter.pipe.FilterPipe;
 import com.biorecorder.bdfrecorder.gui.RecorderViewModel;
+import com.biorecorder.bichart.GroupedDataSource;
 import com.biorecorder.bichart.GroupingApproximation;
 
 import java.io.File;
@@ -148,6 +149,26 @@ public class TestFacade implements Facade {
         return dataStore.getDataGroupingApproximation(channel);
     }
 
+    @Override
+    public GroupedDataSource getDataGroupedDataSource(int channel) {
+        return dataStore.getDataGroupedDataSource(channel);
+    }
+
+    @Override
+    public int liveChannelCount() {
+        return dataStore.liveChannelCount();
+    }
+
+    @Override
+    public LiveChannel getLiveChannel(int channel) {
+        return dataStore.getLiveChannel(channel);
+    }
+
+    @Override
+    public void releasePreviousData() {
+        // data store is created once and never replaced
+    }
+
     @Override
     public void finish() {
         if( dataProvider!= null) {
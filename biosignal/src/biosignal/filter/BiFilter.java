@@ -9,4 +9,26 @@ BiFilter {
     boolean apply(double x, int y);
     double getX();
     int getY();
+
+    /**
+     * Filters the whole block of points in place. Ready results are written
+     * to the beginning of the block (starting from the index "from")
+     * in the order they are obtained.
+     * Filters that are able to process data in bulk should override this
+     * method. By default points are passed one by one to {@link #apply(double, int)}
+     *
+     * @return number of ready results
+     */
+    default int apply(double[] xValues, int[] yValues, int from, int length) {
+        int end = from + length;
+        int resultIndex = from;
+        for (int i = from; i < end; i++) {
+            if (apply(xValues[i], yValues[i])) {
+                xValues[resultIndex] = getX();
+                yValues[resultIndex] = getY();
+                resultIndex++;
+            }
+        }
+        return resultIndex - from;
+    }
 }
@@ -24,6 +24,18 @@ public class BiFilterChain implements BiFilter {
         return true;
     }
 
+    @Override
+    public int apply(double[] xValues, int[] yValues, int from, int length) {
+        int resultLength = length;
+        for (BiFilter f : filters) {
+            if (resultLength == 0) {
+                break;
+            }
+            resultLength = f.apply(xValues, yValues, from, resultLength);
+        }
+        return resultLength;
+    }
+
     @Override
     public double getX() {
         return resultX;
@@ -100,6 +100,26 @@ public class CircularFifoBuffer {
         }
         return true;
     }
+    /**
+     * Adds the given element to the full buffer instead of
+     * the least recently inserted one.
+     *
+     * @return the removed (least recently inserted) element
+     * @throws IllegalStateException if the buffer is not full
+     */
+    public int replace(int element) {
+        if (!full) {
+            throw new IllegalStateException("The buffer is not full");
+        }
+        int removed = elements[end];
+        elements[end++] = element;
+        if (end >= maxElements) {
+            end = 0;
+        }
+        start = end;
+        return removed;
+    }
+
     /**
      * Returns the least recently inserted element in this buffer.
      *
@@ -23,4 +23,17 @@ public class DerivateFilter implements Filter {
         }
         return result;
     }
+
+    @Override
+    public void apply(int[] values, int from, int length) {
+        int end = from + length;
+        int i = from;
+        for (; i < end && !buffer.isFull(); i++) {
+            values[i] = apply(values[i]);
+        }
+        for (; i < end; i++) {
+            int value = values[i];
+            values[i] = value - buffer.replace(value);
+        }
+    }
 }
@@ -2,4 +2,20 @@ package biosignal.filter;
 
 public interface Filter {
     int apply(int value);
+
+    /**
+     * Filters the whole block of values in place.
+     * Filters that are able to process data in bulk should override this
+     * method. By default values are passed one by one to {@link #apply(int)}
+     *
+     * @param values array containing the values to filter. Filtered values are written to it
+     * @param from index of the first value in the array
+     * @param length number of values
+     */
+    default void apply(int[] values, int from, int length) {
+        int end = from + length;
+        for (int i = from; i < end; i++) {
+            values[i] = apply(values[i]);
+        }
+    }
 }
@@ -15,4 +15,11 @@ public class FilterChain implements Filter {
         }
         return result;
     }
+
+    @Override
+    public void apply(int[] values, int from, int length) {
+        for (Filter filter : filters) {
+            filter.apply(values, from, length);
+        }
+    }
 }
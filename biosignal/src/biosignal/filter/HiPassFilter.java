@@ -28,6 +28,21 @@ public class HiPassFilter implements Filter {
         return 0;
     }
 
+    @Override
+    public void apply(int[] values, int from, int length) {
+        int end = from + length;
+        int i = from;
+        for (; i < end && !buffer.isFull(); i++) {
+            values[i] = apply(values[i]);
+        }
+        int bufferSize = buffer.maxSize();
+        for (; i < end; i++) {
+            int value = values[i];
+            sum = sum + value - buffer.replace(value);
+            values[i] = value - (int) (sum / bufferSize);
+        }
+    }
+
     // Test
     public static void main(String[] args) {
         int bufferSize = 3;
@@ -53,6 +68,14 @@ public class HiPassFilter implements Filter {
                 throw new RuntimeException("filtered value not equal expected value");
             }
         }
+        // block filtering should give the same result
+        int[] block = dataIn.clone();
+        new HiPassFilter(bufferSize).apply(block, 0, block.length);
+        for (int i = 0; i < dataOut.length; i++) {
+            if(block[i] != dataOut[i]) {
+                throw new RuntimeException("block filtered value not equal expected value");
+            }
+        }
         System.out.println("Test is ok!");
     }
 }
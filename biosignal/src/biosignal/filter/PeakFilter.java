@@ -13,4 +13,12 @@ public class PeakFilter implements Filter{
         return 0;
     }
 
+    @Override
+    public void apply(int[] values, int from, int length) {
+        int end = from + length;
+        for (int i = from; i < end; i++) {
+            int v = -values[i];
+            values[i] = (v > noiseMax || v < -noiseMax) ? v : 0;
+        }
+    }
 }
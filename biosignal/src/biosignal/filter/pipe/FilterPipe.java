@@ -1,16 +1,45 @@
 package biosignal.filter.pipe;
 
+import biosignal.application.DataAppendListener;
 import biosignal.application.DataListener;
 import biosignal.filter.BiFilter;
 import biosignal.filter.Filter;
 import biosignal.filter.XYData;
+import com.biorecorder.datalyb.datatable.ColumnStorage;
 
 import java.util.ArrayList;
 import java.util.List;
-
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Chain of filters with branches. By default data are processed in the thread
+ * that calls {@link #receiveData(int[], int, int)}.
+ * <p>
+ * In the parallel mode every branch (the chain started from the input
+ * or by newBranch) is processed in its own thread. Data blocks go to the branch
+ * through the bounded queue in the order they were received, so
+ * the accumulated data are the same as in the single thread mode.
+ * Data accumulated from the input (raw signal) are still appended
+ * at once in the calling thread. Parallel branches inform the
+ * processed listeners every time they catch up with the input.
+ */
 public class FilterPipe {
+    private static final int QUEUE_CAPACITY = 64; // data blocks
     private YPipe input;
     private List<Pipe> outputList = new ArrayList<>();
+    private boolean isParallelExecutionEnabled;
+    private List<PipeWorker> workers = new ArrayList<>(0);
+    private final Object inputLock = new Object();
+    private boolean isStopped;
+    private List<DataAppendListener> processedListeners = new CopyOnWriteArrayList<>();
+    private final Runnable workerProcessedListener = new Runnable() {
+        @Override
+        public void run() {
+            for (DataAppendListener l : processedListeners) {
+                l.onDataAppend();
+            }
+        }
+    };
 
     public FilterPipe() {
         this(0, 1);
@@ -29,17 +58,83 @@ public class FilterPipe {
         outputList.add(input);
     }
 
+    /**
+     * Data are passed through the pipe by blocks: every filter processes
+     * the whole block before passing it further
+     */
     public void receiveData(int[] data, int from, int length) {
-        int end = from + length;
-        for (int i = from; i < end; i++) {
-            input.put(data[i]);
+        synchronized (inputLock) {
+            if (!isStopped) {
+                input.put(data, from, length);
+            }
+        }
+    }
+
+    /**
+     * Enables or disables processing of every branch in its own thread.
+     * Influences only the branches added after this call.
+     */
+    public FilterPipe setParallelExecutionEnabled(boolean isParallelExecutionEnabled) {
+        this.isParallelExecutionEnabled = isParallelExecutionEnabled;
+        return this;
+    }
+
+    /**
+     * In the parallel mode waits until all the data received till now
+     * are processed by all branches
+     */
+    public void awaitProcessed() throws InterruptedException {
+        // upstream workers are always created before the downstream ones
+        for (PipeWorker worker : workers) {
+            worker.awaitProcessed();
+        }
+    }
+
+    /**
+     * The listener is informed (in the branch thread) every time
+     * a parallel branch has processed all the data received till now.
+     * Not called in the single thread mode
+     */
+    public void addProcessedListener(DataAppendListener l) {
+        processedListeners.add(l);
+    }
+
+    /**
+     * Stops the threads of the parallel branches and waits until they exit
+     * and until the data being received in the calling thread are appended,
+     * so after return the pipe does not append data any more.
+     * Data received after that are not processed
+     */
+    public void stop() {
+        // all workers are asked to stop first: an upstream worker waiting
+        // for the place in the queue of the downstream one then exits at once
+        // and so does the input thread waiting for the place in the first queue
+        for (PipeWorker worker : workers) {
+            worker.stop();
+        }
+        synchronized (inputLock) {
+            isStopped = true;
+        }
+        boolean isInterrupted = false;
+        for (PipeWorker worker : workers) {
+            while (true) {
+                try {
+                    worker.awaitTermination();
+                    break;
+                } catch (InterruptedException e) {
+                    isInterrupted = true;
+                }
+            }
+        }
+        if (isInterrupted) {
+            Thread.currentThread().interrupt();
         }
     }
 
     public FilterPipe then(int branchNumber, Filter f) {
         Pipe output = outputList.get(branchNumber);
         YPipe newOutput = new YPipe(input.getStartValue(), input.getStep(), f);
-        output.addYReceiver(newOutput);
+        connect(output, newOutput, output == input);
         outputList.set(branchNumber, newOutput);
         return this;
     }
@@ -47,7 +142,7 @@ public class FilterPipe {
     public FilterPipe then(int branchNumber, BiFilter f) {
         Pipe output = outputList.get(branchNumber);
         XYPipe newOutput = new XYPipe(f);
-        output.addXYReceiver(newOutput);
+        connect(output, newOutput, output == input);
         outputList.set(branchNumber, newOutput);
         return this;
     }
@@ -63,7 +158,7 @@ public class FilterPipe {
     public FilterPipe newBranch(int branchNumber, Filter f) {
         Pipe output = outputList.get(branchNumber);
         YPipe newOutput = new YPipe(input.getStartValue(), input.getStep(), f);
-        output.addYReceiver(newOutput);
+        connect(output, newOutput, true);
         outputList.add(branchNumber + 1, newOutput);
         return this;
     }
@@ -71,10 +166,34 @@ public class FilterPipe {
     public FilterPipe newBranch(int branchNumber, BiFilter f) {
         Pipe output = outputList.get(branchNumber);
         XYPipe newOutput = new XYPipe(f);
-        output.addXYReceiver(newOutput);
+        connect(output, newOutput, true);
         outputList.add(branchNumber + 1, newOutput);
         return this;
     }
+
+    /**
+     * @param isBranchStart true if the new pipe starts a branch
+     *                      (and so has to be run in its own thread in the parallel mode)
+     */
+    private void connect(Pipe output, YPipe newOutput, boolean isBranchStart) {
+        if (isParallelExecutionEnabled && isBranchStart) {
+            PipeWorker worker = new PipeWorker((YReceiver) newOutput, QUEUE_CAPACITY, workerProcessedListener);
+            workers.add(worker);
+            output.addYReceiver(worker);
+        } else {
+            output.addYReceiver(newOutput);
+        }
+    }
+
+    private void connect(Pipe output, XYPipe newOutput, boolean isBranchStart) {
+        if (isParallelExecutionEnabled && isBranchStart) {
+            PipeWorker worker = new PipeWorker((XYReceiver) newOutput, QUEUE_CAPACITY, workerProcessedListener);
+            workers.add(worker);
+            output.addXYReceiver(worker);
+        } else {
+            output.addXYReceiver(newOutput);
+        }
+    }
     public FilterPipe newBranch(Filter f) {
         return newBranch(outputList.size() - 1, f);
     }
@@ -83,12 +202,38 @@ public class FilterPipe {
         return newBranch(outputList.size() - 1, f);
     }
 
+    /**
+     * Output values of the branch will be passed to the receiver
+     * (for example to the live sweep chart) without accumulation.
+     * The branch must end with a Filter (XY branches do not have y receivers)
+     */
+    public FilterPipe addYReceiver(int branchNumber, YReceiver receiver) {
+        outputList.get(branchNumber).addYReceiver(receiver);
+        return this;
+    }
+
+    public FilterPipe addYReceiver(YReceiver receiver) {
+        return addYReceiver(outputList.size() - 1, receiver);
+    }
+
     public XYData accumulateData(int branchNumber) {
-        return outputList.get(branchNumber).enableDataAccumulation();
+        return accumulateData(branchNumber, ColumnStorage.heap());
     }
 
     public XYData accumulateData() {
         return accumulateData(outputList.size() - 1);
     }
 
+    /**
+     * @param columnStorage where accumulated data will be stored.
+     *                      Off-heap storage permits to keep long recordings without heap growth
+     */
+    public XYData accumulateData(int branchNumber, ColumnStorage columnStorage) {
+        return outputList.get(branchNumber).enableDataAccumulation(columnStorage);
+    }
+
+    public XYData accumulateData(ColumnStorage columnStorage) {
+        return accumulateData(outputList.size() - 1, columnStorage);
+    }
+
 }
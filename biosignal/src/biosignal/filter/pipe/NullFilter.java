@@ -7,4 +7,9 @@ public class NullFilter implements Filter {
     public int apply(int value) {
         return value;
     }
+
+    @Override
+    public void apply(int[] values, int from, int length) {
+        // values stay unchanged
+    }
 }
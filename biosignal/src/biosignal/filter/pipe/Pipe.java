@@ -1,9 +1,10 @@
 package biosignal.filter.pipe;
 
 import biosignal.filter.XYData;
+import com.biorecorder.datalyb.datatable.ColumnStorage;
 
 interface Pipe {
     void addYReceiver(YReceiver yReceiver);
     void addXYReceiver(XYReceiver XYReceiver);
-    XYData enableDataAccumulation();
+    XYData enableDataAccumulation(ColumnStorage columnStorage);
 }
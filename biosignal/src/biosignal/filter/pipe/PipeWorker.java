@@ -0,0 +1,179 @@
+package biosignal.filter.pipe;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Passes data blocks to the receiver (the first pipe of a branch) in its own thread.
+ * Blocks are copied to the bounded queue (one producer, one consumer) and
+ * processed strictly in the order they were received, so the branch
+ * results are the same as in the single thread mode. If the queue is full
+ * the producer waits (till the worker is stopped), so a slow branch can not eat all the memory.
+ * Every time the worker processes all received blocks it informs the given listener.
+ */
+class PipeWorker implements YReceiver, XYReceiver {
+    private static final long OFFER_TIMEOUT_MS = 100;
+    private final YReceiver yReceiver;
+    private final XYReceiver xyReceiver;
+    private final BlockingQueue<Block> queue;
+    // processed blocks are reused to avoid allocation for every block
+    private final BlockingQueue<Block> freeBlocks;
+    private final Thread thread;
+    private final Runnable processedListener;
+    private volatile long putCount; // changed only by the producer thread
+    private long processedCount; // guarded by this
+    private volatile boolean isStopped;
+
+    PipeWorker(YReceiver yReceiver, int queueCapacity, Runnable processedListener) {
+        this(yReceiver, null, queueCapacity, processedListener);
+    }
+
+    PipeWorker(XYReceiver xyReceiver, int queueCapacity, Runnable processedListener) {
+        this(null, xyReceiver, queueCapacity, processedListener);
+    }
+
+    private PipeWorker(YReceiver yReceiver, XYReceiver xyReceiver, int queueCapacity, Runnable processedListener) {
+        this.yReceiver = yReceiver;
+        this.xyReceiver = xyReceiver;
+        this.processedListener = processedListener;
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        freeBlocks = new ArrayBlockingQueue<>(queueCapacity + 1);
+        thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                processBlocks();
+            }
+        }, "«Filter pipe» thread");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @Override
+    public void put(int value) {
+        Block block = getFreeBlock(1, false);
+        block.yValues[0] = value;
+        block.length = 1;
+        enqueue(block);
+    }
+
+    @Override
+    public void put(double x, int y) {
+        Block block = getFreeBlock(1, true);
+        block.xValues[0] = x;
+        block.yValues[0] = y;
+        block.length = 1;
+        enqueue(block);
+    }
+
+    @Override
+    public void put(int[] values, int from, int length) {
+        Block block = getFreeBlock(length, false);
+        System.arraycopy(values, from, block.yValues, 0, length);
+        block.length = length;
+        enqueue(block);
+    }
+
+    @Override
+    public void put(double[] xValues, int[] yValues, int from, int length) {
+        Block block = getFreeBlock(length, true);
+        System.arraycopy(xValues, from, block.xValues, 0, length);
+        System.arraycopy(yValues, from, block.yValues, 0, length);
+        block.length = length;
+        enqueue(block);
+    }
+
+    /**
+     * Waits until all blocks received till now are processed
+     */
+    synchronized void awaitProcessed() throws InterruptedException {
+        while (processedCount < putCount && !isStopped) {
+            wait();
+        }
+    }
+
+    /**
+     * Asks the worker to stop. Blocks received after that are not processed.
+     * Use {@link #awaitTermination()} to wait until the block being processed is finished
+     */
+    void stop() {
+        isStopped = true;
+        thread.interrupt();
+        synchronized (this) {
+            notifyAll();
+        }
+    }
+
+    /**
+     * Waits until the worker thread exits (after {@link #stop()}),
+     * so its receiver is not used any more
+     */
+    void awaitTermination() throws InterruptedException {
+        if (Thread.currentThread() != thread) {
+            thread.join();
+        }
+    }
+
+    private Block getFreeBlock(int length, boolean isXY) {
+        Block block = freeBlocks.poll();
+        if (block == null || block.yValues.length < length) {
+            block = new Block(length);
+        }
+        if (isXY && (block.xValues == null || block.xValues.length < block.yValues.length)) {
+            block.xValues = new double[block.yValues.length];
+        }
+        return block;
+    }
+
+    private void enqueue(Block block) {
+        try {
+            // the worker may be stopped while the producer waits for the free place in the queue
+            while (!isStopped) {
+                if (queue.offer(block, OFFER_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+                    putCount++;
+                    return;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void processBlocks() {
+        while (!isStopped) {
+            Block block;
+            try {
+                block = queue.take();
+            } catch (InterruptedException e) {
+                break;
+            }
+            try {
+                if (yReceiver != null) {
+                    yReceiver.put(block.yValues, 0, block.length);
+                } else {
+                    xyReceiver.put(block.xValues, block.yValues, 0, block.length);
+                }
+            } catch (Throwable e) {
+                e.printStackTrace();
+            }
+            freeBlocks.offer(block);
+            synchronized (this) {
+                processedCount++;
+                notifyAll();
+            }
+            if (queue.isEmpty() && !isStopped) {
+                processedListener.run();
+            }
+        }
+    }
+
+    static class Block {
+        private double[] xValues;
+        private final int[] yValues;
+        private int length;
+
+        Block(int capacity) {
+            yValues = new int[capacity];
+        }
+    }
+}
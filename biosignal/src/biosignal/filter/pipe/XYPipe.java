@@ -3,6 +3,7 @@ package biosignal.filter.pipe;
 import biosignal.filter.BiFilter;
 import biosignal.filter.BiFilterChain;
 import biosignal.filter.XYData;
+import com.biorecorder.datalyb.datatable.ColumnStorage;
 import com.biorecorder.datalyb.datatable.DoubleColumn;
 import com.biorecorder.datalyb.datatable.IntColumn;
 
@@ -12,6 +13,8 @@ import java.util.List;
 public class XYPipe implements XYReceiver, Pipe {
     private BiFilter biFilter;
     private List<XYReceiver> XYReceivers = new ArrayList<>(1);
+    private double[] xBuffer = new double[0];
+    private int[] yBuffer = new int[0];
 
     public XYPipe(BiFilter... filters) {
         this.biFilter = new BiFilterChain(filters);
@@ -32,8 +35,8 @@ public class XYPipe implements XYReceiver, Pipe {
      * @return XYValues where data will be stored
      */
     @Override
-    public XYData enableDataAccumulation() {
-        DataSink dataSink = new DataSink();
+    public XYData enableDataAccumulation(ColumnStorage columnStorage) {
+        DataSink dataSink = new DataSink(columnStorage);
         XYReceivers.add(dataSink);
         return dataSink.getXYData();
     }
@@ -49,14 +52,34 @@ public class XYPipe implements XYReceiver, Pipe {
         }
     }
 
+    /**
+     * Filters the block of points and passes ready results to the receivers
+     * as a whole block. Given values are not changed.
+     */
+    @Override
+    public void put(double[] xValues, int[] yValues, int from, int length) {
+        if (xBuffer.length < length) {
+            xBuffer = new double[length];
+            yBuffer = new int[length];
+        }
+        System.arraycopy(xValues, from, xBuffer, 0, length);
+        System.arraycopy(yValues, from, yBuffer, 0, length);
+        int resultLength = biFilter.apply(xBuffer, yBuffer, 0, length);
+        if (resultLength > 0) {
+            for (XYReceiver receiver : XYReceivers) {
+                receiver.put(xBuffer, yBuffer, 0, resultLength);
+            }
+        }
+    }
+
     static class DataSink implements XYReceiver {
         private DoubleColumn xData;
         private IntColumn yData;
         private XYData xyData;
 
-        public DataSink() {
-            xData = new DoubleColumn("x");
-            yData = new IntColumn("y");
+        public DataSink(ColumnStorage columnStorage) {
+            xData = columnStorage.doubleColumn("x");
+            yData = columnStorage.intColumn("y");
             xyData = new XYData("XYData", xData, yData);
         }
 
@@ -69,6 +92,12 @@ public class XYPipe implements XYReceiver, Pipe {
             yData.append(y);
             xData.append(x);
         }
+
+        @Override
+        public void put(double[] xValues, int[] yValues, int from, int length) {
+            yData.append(yValues, from, length);
+            xData.append(xValues, from, length);
+        }
     }
 
 }
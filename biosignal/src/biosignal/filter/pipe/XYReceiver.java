@@ -2,4 +2,17 @@ package biosignal.filter.pipe;
 
 public interface XYReceiver {
     void put(double x, int y);
+
+    /**
+     * Receives the whole block of points at once. The receiver must not
+     * change the given arrays (they may be passed to other receivers).
+     * Receivers that are able to process data in bulk should override this
+     * method. By default points are passed one by one to {@link #put(double, int)}
+     */
+    default void put(double[] xValues, int[] yValues, int from, int length) {
+        int end = from + length;
+        for (int i = from; i < end; i++) {
+            put(xValues[i], yValues[i]);
+        }
+    }
 }
@@ -3,6 +3,7 @@ package biosignal.filter.pipe;
 import biosignal.filter.Filter;
 import biosignal.filter.FilterChain;
 import biosignal.filter.XYData;
+import com.biorecorder.datalyb.datatable.ColumnStorage;
 import com.biorecorder.datalyb.datatable.IntColumn;
 import com.biorecorder.datalyb.datatable.RegularColumn;
 
@@ -10,12 +11,16 @@ import java.util.ArrayList;
 import java.util.List;
 
 public class YPipe implements YReceiver, Pipe {
+    // long data blocks are processed by parts so that buffers stay small
+    private static final int BLOCK_SIZE = 4096;
     private double startValue;
     private double step;
     private Filter filter;
     private List<YReceiver> yReceivers = new ArrayList<>(1);
     private List<XYReceiver> xyReceivers = new ArrayList<>(1);
     private int counter;
+    private int[] yBuffer = new int[0];
+    private double[] xBuffer = new double[0];
 
     public YPipe(double startValue, double step, Filter... filters) {
         this.startValue = startValue;
@@ -45,8 +50,8 @@ public class YPipe implements YReceiver, Pipe {
      * @return XYValues where data will be stored
      */
     @Override
-    public XYData enableDataAccumulation() {
-        YSink dataSink = new YSink(startValue, step);
+    public XYData enableDataAccumulation(ColumnStorage columnStorage) {
+        YSink dataSink = new YSink(startValue, step, columnStorage);
         yReceivers.add(dataSink);
         return dataSink.getXYData();
     }
@@ -63,11 +68,44 @@ public class YPipe implements YReceiver, Pipe {
         counter++;
     }
 
+    /**
+     * Filters the block of values and passes the result to the receivers
+     * as whole blocks. Given values are not changed.
+     */
+    @Override
+    public void put(int[] values, int from, int length) {
+        int end = from + length;
+        for (int blockFrom = from; blockFrom < end; blockFrom += BLOCK_SIZE) {
+            int blockLength = Math.min(BLOCK_SIZE, end - blockFrom);
+            if (yBuffer.length < blockLength) {
+                yBuffer = new int[blockLength];
+            }
+            System.arraycopy(values, blockFrom, yBuffer, 0, blockLength);
+            filter.apply(yBuffer, 0, blockLength);
+            for (YReceiver yReceiver : yReceivers) {
+                yReceiver.put(yBuffer, 0, blockLength);
+            }
+            if (xyReceivers.size() > 0) {
+                if (xBuffer.length < blockLength) {
+                    xBuffer = new double[blockLength];
+                }
+                for (int i = 0; i < blockLength; i++) {
+                    xBuffer[i] = startValue + step * (counter + i);
+                }
+                for (XYReceiver xyReceiver : xyReceivers) {
+                    xyReceiver.put(xBuffer, yBuffer, 0, blockLength);
+                }
+            }
+            counter += blockLength;
+        }
+    }
+
     static class YSink implements YReceiver {
         private XYData xyData;
-        private IntColumn yData = new IntColumn("y");
+        private IntColumn yData;
 
-        public YSink(double startValue, double step) {
+        public YSink(double startValue, double step, ColumnStorage columnStorage) {
+            yData = columnStorage.intColumn("y");
             RegularColumn xData = new RegularColumn("x", startValue, step);
             xyData = new XYData("XYData", xData, yData);
         }
@@ -80,5 +118,10 @@ public class YPipe implements YReceiver, Pipe {
         public void put(int value) {
             yData.append(value);
         }
+
+        @Override
+        public void put(int[] values, int from, int length) {
+            yData.append(values, from, length);
+        }
     }
 }
@@ -2,4 +2,17 @@ package biosignal.filter.pipe;
 
 public interface YReceiver {
     void put(int value);
+
+    /**
+     * Receives the whole block of values at once. The receiver must not
+     * change the given array (it may be passed to other receivers).
+     * Receivers that are able to process data in bulk should override this
+     * method. By default values are passed one by one to {@link #put(int)}
+     */
+    default void put(int[] values, int from, int length) {
+        int end = from + length;
+        for (int i = from; i < end; i++) {
+            put(values[i]);
+        }
+    }
 }
@@ -30,7 +30,11 @@ public class BiChartPanel extends JPanel {
     }
 
     public void addChartTrace(String name, XYData data, GroupingApproximation groupingApproximation, TracePainter tracePainter, boolean isXOpposite,  boolean isYOpposite) {
-        biChart.addChartTrace(name, convertData(data, groupingApproximation), tracePainter, isXOpposite, isYOpposite);
+        addChartTrace(name, data, groupingApproximation, null, tracePainter, isXOpposite, isYOpposite);
+    }
+
+    public void addChartTrace(String name, XYData data, GroupingApproximation groupingApproximation, GroupedDataSource groupedDataSource, TracePainter tracePainter, boolean isXOpposite,  boolean isYOpposite) {
+        biChart.addChartTrace(name, convertData(data, groupingApproximation, groupedDataSource), tracePainter, isXOpposite, isYOpposite);
     }
 
     public void addNavigatorStack() {
@@ -38,7 +42,11 @@ public class BiChartPanel extends JPanel {
     }
 
     public void addNavigatorTrace(String name, XYData data, GroupingApproximation groupingApproximation,TracePainter tracePainter) {
-        biChart.addNavigatorTrace(name, convertData(data, groupingApproximation), tracePainter);
+        addNavigatorTrace(name, data, groupingApproximation, null, tracePainter);
+    }
+
+    public void addNavigatorTrace(String name, XYData data, GroupingApproximation groupingApproximation, GroupedDataSource groupedDataSource, TracePainter tracePainter) {
+        biChart.addNavigatorTrace(name, convertData(data, groupingApproximation, groupedDataSource), tracePainter);
     }
 
     public double[] getChartXRange() {
@@ -53,10 +61,11 @@ public class BiChartPanel extends JPanel {
     }
 
 
-    private XYSeries convertData(XYData xyData, GroupingApproximation groupingApproximation) {
+    private XYSeries convertData(XYData xyData, GroupingApproximation groupingApproximation, GroupedDataSource groupedDataSource) {
         DataTable dt = xyData.getDataTable();
         XYSeries xySeries = new XYSeries(dt);
         xySeries.setGroupingApproximationY(groupingApproximation);
+        xySeries.setGroupedDataSource(groupedDataSource);
         return xySeries;
     }
 
@@ -70,6 +79,14 @@ public class BiChartPanel extends JPanel {
         biChart.dataAppended();
     }
 
+    /**
+     * Stops the data processing of the chart. Called in the EDT when the panel
+     * is removed, so the shown data may be released after return
+     */
+    public void dispose() {
+        biChart.dispose();
+    }
+
     public void autoScale() {
         biChart.autoScaleX();
         biChart.autoScaleChartY();
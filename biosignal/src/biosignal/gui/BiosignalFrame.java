@@ -2,14 +2,19 @@ package biosignal.gui;
 
 import biosignal.application.DataAppendListener;
 import biosignal.application.Facade;
+import biosignal.application.LiveChannel;
 import biosignal.application.ProviderConfig;
 import biosignal.application.ProviderConfigListener;
 import biosignal.filter.XYData;
 import com.biorecorder.bdfrecorder.gui.RecorderView;
 import com.biorecorder.bichart.GroupingApproximation;
 import com.biorecorder.bichart.ProcessingConfig;
+import com.biorecorder.bichart.SweepChart;
+import com.biorecorder.bichart.SweepChartPanel;
+import com.biorecorder.bichart.graphics.BColor;
 import com.biorecorder.bichart.traces.LineTraceConfig;
 import com.biorecorder.bichart.traces.LineTracePainter;
+import com.biorecorder.bichart.traces.TracePainter;
 import com.biorecorder.bichart.traces.VerticalLinePainter;
 import com.biorecorder.datalyb.time.TimeInterval;
 
@@ -29,8 +34,12 @@ public class BiosignalFrame extends JFrame {
 
     private static final int HEIGHT_START = 1000; // Высота фрейма
     public static final int WIDTH_START = 1800;  // Ширина фрейма
+    private static final int SWEEP_WINDOW_MS = 5000;
+    private static final int SWEEP_ERASE_BAR_WIDTH = 10;
+    private static final BColor[] SWEEP_COLORS = {BColor.GREEN, BColor.YELLOW, BColor.CYAN, BColor.MAGENTA};
     private final Facade facade;
     private BiChartPanel chartPanel;
+    private SweepChartPanel sweepPanel; // shown instead of chartPanel during live recording
     private long startTimeMs = 0;
     private long endTimeMs = 1000;
     private RecorderView recorderPanel;
@@ -108,8 +117,11 @@ public class BiosignalFrame extends JFrame {
         facade.addDataAppendListener(new DataAppendListener() {
             @Override
             public void onDataAppend() {
-                chartPanel.dataAppended();
-                chartPanel.repaint();
+                // sweep panel is repainted by its own timer
+                if(sweepPanel == null) {
+                    chartPanel.dataAppended();
+                    chartPanel.repaint();
+                }
             }
         });
        // addKeyListener(new LetterKeyListener());
@@ -119,6 +131,9 @@ public class BiosignalFrame extends JFrame {
     }
 
     private void close() {
+        if(sweepPanel == null) {
+            chartPanel.dispose();
+        }
         facade.finish();
         if(recorderPanel != null) {
             recorderPanel.close();
@@ -129,6 +144,7 @@ public class BiosignalFrame extends JFrame {
     private static BiChartPanel createChartPanel(Facade facade, ProcessingConfig processingConfig) {
         if(processingConfig == null) {
            processingConfig = new ProcessingConfig();
+           processingConfig.setAsyncProcessingEnabled(true);
         }
 
         boolean isTimeXAxis = facade.isDateTime(); // XAxis: false - index; true - time
@@ -150,7 +166,7 @@ public class BiosignalFrame extends JFrame {
             LineTraceConfig lineConfig = new LineTraceConfig();
             lineConfig.setLineWidth(1);
             lineConfig.setMarkSize(3);
-            chartPanel.addChartTrace(xyData.getName(), xyData, grApprox, new LineTracePainter(lineConfig), isXOpposite, isYOpposite);
+            chartPanel.addChartTrace(xyData.getName(), xyData, grApprox, facade.getDataGroupedDataSource(channel), new LineTracePainter(lineConfig), isXOpposite, isYOpposite);
         }
 
         for (int i = 0; i < chartDataChannels2.length; i++) {
@@ -162,7 +178,7 @@ public class BiosignalFrame extends JFrame {
             LineTraceConfig lineConfig = new LineTraceConfig();
             lineConfig.setLineWidth(1);
             lineConfig.setMarkSize(3);
-            chartPanel.addChartTrace(xyData.getName(), xyData, grApprox, new LineTracePainter(lineConfig), isXOpposite, isYOpposite);
+            chartPanel.addChartTrace(xyData.getName(), xyData, grApprox, facade.getDataGroupedDataSource(channel), new LineTracePainter(lineConfig), isXOpposite, isYOpposite);
         }
         for (int i = 0; i < navDataChannels.length; i++) {
             int channel = navDataChannels[i];
@@ -171,7 +187,9 @@ public class BiosignalFrame extends JFrame {
             if (i > 0) {
                 chartPanel.addNavigatorStack();
             }
-            chartPanel.addNavigatorTrace(xyData.getName(), xyData, grApprox, new VerticalLinePainter());
+            // envelope (min and max columns) is drawn by the line painter
+            TracePainter tracePainter = grApprox == GroupingApproximation.ENVELOPE ? new LineTracePainter() : new VerticalLinePainter();
+            chartPanel.addNavigatorTrace(xyData.getName(), xyData, grApprox, facade.getDataGroupedDataSource(channel), tracePainter);
         }
         return chartPanel;
     }
@@ -195,11 +213,22 @@ public class BiosignalFrame extends JFrame {
     }
 
     private void updateChartPanel(ProviderConfig providerConfig) {
-        getContentPane().remove(chartPanel);
-        int width = chartPanel.getWidth();
-        int height = chartPanel.getHeight();
+        Component currentPanel = sweepPanel != null ? sweepPanel : chartPanel;
+        getContentPane().remove(currentPanel);
+        disposeAndReleaseData(sweepPanel != null ? null : chartPanel);
+        int width = currentPanel.getWidth();
+        int height = currentPanel.getHeight();
+        if(providerConfig.isLive() && facade.liveChannelCount() > 0) {
+            sweepPanel = createSweepPanel(facade);
+            sweepPanel.setPreferredSize(new Dimension(width, height));
+            add(sweepPanel);
+            revalidate();
+            return;
+        }
+        sweepPanel = null;
         long groupingInterval = providerConfig.getRecordingTimeMs() / width;
         ProcessingConfig processingConfig = new ProcessingConfig();
+        processingConfig.setAsyncProcessingEnabled(true);
         processingConfig.setGroupingIntervals(groupingInterval);
         processingConfig.setGroupingTimeIntervals(TimeInterval.getUpper(groupingInterval, true));
         chartPanel = createChartPanel(facade, processingConfig);
@@ -208,6 +237,37 @@ public class BiosignalFrame extends JFrame {
         revalidate();
     }
 
+    /**
+     * The removed chart may still be painted or process its data asynchronously,
+     * so its data are released in the EDT after the chart processing is stopped
+     */
+    private void disposeAndReleaseData(BiChartPanel removedChartPanel) {
+        SwingUtilities.invokeLater(new Runnable() {
+            @Override
+            public void run() {
+                if(removedChartPanel != null) {
+                    removedChartPanel.dispose();
+                }
+                facade.releasePreviousData();
+            }
+        });
+    }
+
+    /**
+     * Live data are shown by the sweep chart: only the last window of every
+     * channel is kept so memory does not grow during the recording
+     */
+    private static SweepChartPanel createSweepPanel(Facade facade) {
+        SweepChart sweepChart = new SweepChart(SWEEP_WINDOW_MS);
+        sweepChart.setEraseBarWidth(SWEEP_ERASE_BAR_WIDTH);
+        for (int i = 0; i < facade.liveChannelCount(); i++) {
+            LiveChannel liveChannel = facade.getLiveChannel(i);
+            // y range is fitted to the data by the receiver
+            int trace = sweepChart.addTrace(liveChannel.getName(), liveChannel.getSampleStepMs(), 0, 1, SWEEP_COLORS[i % SWEEP_COLORS.length]);
+            liveChannel.addReceiver(new SweepTraceReceiver(sweepChart, trace, liveChannel.getSampleStepMs()));
+        }
+        return new SweepChartPanel(sweepChart);
+    }
 
 
  /*   class LetterKeyListener extends KeyAdapter {
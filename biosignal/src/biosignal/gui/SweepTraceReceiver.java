@@ -0,0 +1,75 @@
+package biosignal.gui;
+
+import biosignal.filter.pipe.YReceiver;
+import com.biorecorder.bichart.SweepChart;
+
+/**
+ * Passes the live data to the trace of the sweep chart.
+ * Y range of the trace is taken from the first data and then
+ * at the end of every sweep is fitted to the data of that sweep
+ * if they go out of the range or occupy only a small part of it.
+ */
+class SweepTraceReceiver implements YReceiver {
+    private final SweepChart chart;
+    private final int trace;
+    private final int windowSamples;
+    private boolean isRangeSet;
+    private int yMin;
+    private int yMax;
+    private int sweepMin = Integer.MAX_VALUE;
+    private int sweepMax = Integer.MIN_VALUE;
+    private int sweepCount;
+
+    SweepTraceReceiver(SweepChart chart, int trace, double sampleStep) {
+        this.chart = chart;
+        this.trace = trace;
+        windowSamples = Math.max(2, (int) Math.round(chart.getWindowLength() / sampleStep));
+    }
+
+    @Override
+    public void put(int value) {
+        chart.appendData(trace, value);
+        addToSweep(value);
+        if (!isRangeSet || sweepCount == windowSamples) {
+            fitRange();
+        }
+    }
+
+    @Override
+    public void put(int[] values, int from, int length) {
+        chart.appendData(trace, values, from, length);
+        int end = from + length;
+        for (int i = from; i < end; i++) {
+            addToSweep(values[i]);
+            if (sweepCount == windowSamples) {
+                fitRange();
+            }
+        }
+        if (!isRangeSet && sweepCount > 0) {
+            fitRange();
+        }
+    }
+
+    private void addToSweep(int value) {
+        sweepMin = Math.min(sweepMin, value);
+        sweepMax = Math.max(sweepMax, value);
+        sweepCount++;
+    }
+
+    private void fitRange() {
+        long range = (long) yMax - yMin;
+        long sweepRange = (long) sweepMax - sweepMin;
+        if (!isRangeSet || sweepMin < yMin || sweepMax > yMax || sweepRange * 4 < range) {
+            int margin = (int) (sweepRange / 10) + 1;
+            yMin = sweepMin - margin;
+            yMax = sweepMax + margin;
+            chart.setYMinMax(trace, yMin, yMax);
+            isRangeSet = true;
+        }
+        if (sweepCount == windowSamples) {
+            sweepMin = Integer.MAX_VALUE;
+            sweepMax = Integer.MIN_VALUE;
+            sweepCount = 0;
+        }
+    }
+}
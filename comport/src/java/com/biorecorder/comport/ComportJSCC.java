@@ -144,9 +144,8 @@ public class ComportJSCC implements SerialPortEventListener, Comport {
             try {
                 byte[] buffer = serialPort.readBytes();
                // System.out.println("\nbuffer length "+buffer.length);
-                for (int i = 0; i < buffer.length; i++) {
-                    comportListener.onByteReceived((buffer[i]));
-                    //System.out.println(buffer[i]);
+                if(buffer != null) {
+                    comportListener.onBytesReceived(buffer, 0, buffer.length);
                 }
             } catch (SerialPortException ex) {
                 String errMsg = "Error during receiving serial port data: " + ex.getMessage();
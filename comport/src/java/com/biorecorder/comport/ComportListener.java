@@ -2,4 +2,20 @@ package com.biorecorder.comport;
 
 public interface ComportListener {
     public void onByteReceived(byte inByte);
+
+    /**
+     * Receives the whole chunk of bytes read from the port at once.
+     * Listeners that are able to decode data in bulk should override this
+     * method. By default bytes are passed one by one to {@link #onByteReceived(byte)}
+     *
+     * @param buffer array containing received bytes
+     * @param offset index of the first received byte in the array
+     * @param length number of received bytes
+     */
+    public default void onBytesReceived(byte[] buffer, int offset, int length) {
+        int end = offset + length;
+        for (int i = offset; i < end; i++) {
+            onByteReceived(buffer[i]);
+        }
+    }
 }
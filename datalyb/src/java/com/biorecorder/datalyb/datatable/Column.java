@@ -25,6 +25,11 @@ public interface Column {
      * @return array of indexes representing sorted view of the underlying data
      */
     int[] sort(int from, int length, boolean isParallel);
+
+    /**
+     * @return true if the column data are sorted in ascending (non-decreasing) order
+     */
+    boolean isSorted();
     int bisect(double value, int from, int length);
     int bisectLeft(double value, int from, int length);
     int bisectRight(double value, int from, int length);
@@ -0,0 +1,124 @@
+package com.biorecorder.datalyb.datatable;
+
+import com.biorecorder.datalyb.list.OffHeapDoubleList;
+import com.biorecorder.datalyb.list.OffHeapIntList;
+import com.biorecorder.datalyb.list.SegmentedDoubleArrayList;
+import com.biorecorder.datalyb.list.SegmentedIntArrayList;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Defines where the data of new growable int and double columns will be stored:
+ * <ul>
+ *     <li>heap - in array lists in the java heap (default)</li>
+ *     <li>segmented - in chunks of arrays in the java heap</li>
+ *     <li>direct - in chunks of direct ByteBuffers outside of the java heap</li>
+ *     <li>mapped - in chunks of the memory-mapped temporary spill files</li>
+ * </ul>
+ * Segmented and off-heap columns grow chunk by chunk without copying the data.
+ * Off-heap columns in addition do not increase the heap usage,
+ * so they are suitable for long recordings. The size of the direct storage
+ * is limited by MaxDirectMemorySize while the mapped one is limited only by the disk.
+ * <p>
+ * Every mapped storage remembers the columns it created so their
+ * spill files may be deleted at once by {@link #release()}.
+ */
+public class ColumnStorage {
+    private static final ColumnStorage HEAP = new ColumnStorage(Type.HEAP, null);
+    private static final ColumnStorage SEGMENTED = new ColumnStorage(Type.SEGMENTED, null);
+    private static final ColumnStorage DIRECT = new ColumnStorage(Type.DIRECT, null);
+
+    private final Type type;
+    private final File spillDirectory;
+    private final List<OffHeapIntList> mappedIntLists = new ArrayList<>();
+    private final List<OffHeapDoubleList> mappedDoubleLists = new ArrayList<>();
+
+    private ColumnStorage(Type type, File spillDirectory) {
+        this.type = type;
+        this.spillDirectory = spillDirectory;
+    }
+
+    public static ColumnStorage heap() {
+        return HEAP;
+    }
+
+    public static ColumnStorage segmented() {
+        return SEGMENTED;
+    }
+
+    public static ColumnStorage direct() {
+        return DIRECT;
+    }
+
+    /**
+     * @param spillDirectory directory where temporary spill files will be created
+     */
+    public static ColumnStorage mapped(File spillDirectory) {
+        if (spillDirectory == null) {
+            throw new IllegalArgumentException("Spill directory is null");
+        }
+        return new ColumnStorage(Type.MAPPED, spillDirectory);
+    }
+
+    public boolean isOffHeap() {
+        return type == Type.DIRECT || type == Type.MAPPED;
+    }
+
+    public IntColumn intColumn(String name) {
+        switch (type) {
+            case SEGMENTED:
+                return new IntColumn(name, new SegmentedIntArrayList());
+            case DIRECT:
+                return new IntColumn(name, new OffHeapIntList());
+            case MAPPED:
+                OffHeapIntList intList = new OffHeapIntList(spillDirectory);
+                synchronized (this) {
+                    mappedIntLists.add(intList);
+                }
+                return new IntColumn(name, intList);
+            default:
+                return new IntColumn(name);
+        }
+    }
+
+    public DoubleColumn doubleColumn(String name) {
+        switch (type) {
+            case SEGMENTED:
+                return new DoubleColumn(name, new SegmentedDoubleArrayList());
+            case DIRECT:
+                return new DoubleColumn(name, new OffHeapDoubleList());
+            case MAPPED:
+                OffHeapDoubleList doubleList = new OffHeapDoubleList(spillDirectory);
+                synchronized (this) {
+                    mappedDoubleLists.add(doubleList);
+                }
+                return new DoubleColumn(name, doubleList);
+            default:
+                return new DoubleColumn(name);
+        }
+    }
+
+    /**
+     * Removes the data of all columns created by the mapped storage
+     * and deletes their spill files. Columns may be used further
+     * but their new data will be released by the next call.
+     * Does nothing for other storage types (their memory is freed by the garbage collector).
+     */
+    public synchronized void release() {
+        for (OffHeapIntList list : mappedIntLists) {
+            list.release();
+        }
+        for (OffHeapDoubleList list : mappedDoubleLists) {
+            list.release();
+        }
+    }
+
+    enum Type {
+        HEAP,
+        SEGMENTED,
+        DIRECT,
+        MAPPED
+    }
+}
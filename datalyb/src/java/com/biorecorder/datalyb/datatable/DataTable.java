@@ -7,6 +7,7 @@ public class DataTable {
     private String name;
     private List<Column> columns = new ArrayList<>();
     private volatile int size = 0;
+    private ColumnStorage columnStorage = ColumnStorage.heap();
 
     public DataTable(String name) {
         this.name = name;
@@ -62,6 +63,38 @@ public class DataTable {
     }
 
 
+    /**
+     * Storage used for columns created by
+     * {@link #addIntColumn(String)} and {@link #addDoubleColumn(String)}
+     */
+    public void setColumnStorage(ColumnStorage columnStorage) {
+        this.columnStorage = columnStorage;
+    }
+
+    public ColumnStorage getColumnStorage() {
+        return columnStorage;
+    }
+
+    /**
+     * Creates a new growable int column in the table column storage
+     * and adds it to the table
+     */
+    public IntColumn addIntColumn(String name) {
+        IntColumn column = columnStorage.intColumn(name);
+        addColumns(column);
+        return column;
+    }
+
+    /**
+     * Creates a new growable double column in the table column storage
+     * and adds it to the table
+     */
+    public DoubleColumn addDoubleColumn(String name) {
+        DoubleColumn column = columnStorage.doubleColumn(name);
+        addColumns(column);
+        return column;
+    }
+
     public Column getColumn(int index) {
         return columns.get(index);
     }
@@ -98,11 +131,24 @@ public class DataTable {
      */
     public int bisect(int columnNumber, double value, int[] sorter) {
         Column column = columns.get(columnNumber);
-        if (sorter != null) {
-            column = column.view(sorter);
+        if (sorter == null) {
+            return column.bisect(value, 0, size);
+        }
+        // binary search directly through the sorter (without creating the column view)
+        int low = 0;
+        int high = Math.min(size, sorter.length) - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            double midValue = column.value(sorter[mid]);
+            if (midValue < value) {
+                low = mid + 1;
+            } else if (midValue > value) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
         }
-        int length1 = rowCount();
-        return column.bisect(value, 0, size);
+        return low;
     }
 
     public int bisectLeft(int columnNumber, double value) {
@@ -144,8 +190,23 @@ public class DataTable {
      * @return array of sorted rows (indices) for the given column.
      */
     public int[] sortedIndices(int sortColumnNumber) {
+        return sortedIndices(sortColumnNumber, 0, size);
+    }
+
+    /**
+     * Returns sorted row numbers (indices) only for the given rows range
+     */
+    public int[] sortedIndices(int sortColumnNumber, int from, int length) {
         boolean isParallel = false;
-        return columns.get(sortColumnNumber).sort( 0, size, isParallel);
+        return columns.get(sortColumnNumber).sort(from, length, isParallel);
+    }
+
+    /**
+     * @return true if the given column data are sorted in ascending (non-decreasing) order.
+     * For growing columns the check is incremental and takes O(number of new rows)
+     */
+    public boolean isSorted(int columnNumber) {
+        return columns.get(columnNumber).isSorted();
     }
 
     public DataTable view(int[] rowOrder) {
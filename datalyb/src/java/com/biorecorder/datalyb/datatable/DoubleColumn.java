@@ -1,6 +1,8 @@
 package com.biorecorder.datalyb.datatable;
 
 import com.biorecorder.datalyb.list.DoubleArrayList;
+import com.biorecorder.datalyb.list.OffHeapDoubleList;
+import com.biorecorder.datalyb.list.SegmentedDoubleArrayList;
 import com.biorecorder.datalyb.series.DoubleSeries;
 import com.biorecorder.datalyb.series.IntSeries;
 import com.biorecorder.datalyb.series.SeriesUtils;
@@ -10,6 +12,8 @@ import java.util.Arrays;
 public class DoubleColumn implements Column {
     private BaseType type = BaseType.DOUBLE;
     private String name;
+    // number of the first elements that are known to be sorted
+    private int sortedPrefixSize;
     EditableDoubleSeries data;
 
     public DoubleColumn(String name, EditableDoubleSeries data) {
@@ -35,6 +39,22 @@ public class DoubleColumn implements Column {
         this(name, new ArrayListWrapperDouble(new DoubleArrayList(data)));
     }
 
+    /**
+     * Underlying column data will be saved to the given segmented list
+     * (that grows without copying) and may be change by using column methods (add, set).
+     **/
+    public DoubleColumn(String name, SegmentedDoubleArrayList data) {
+        this(name, new SegmentedListWrapperDouble(data));
+    }
+
+    /**
+     * Underlying column data will be stored outside of the java heap
+     * in the given list and may be change by using column methods (add, set).
+     **/
+    public DoubleColumn(String name, OffHeapDoubleList data) {
+        this(name, new OffHeapListWrapperDouble(data));
+    }
+
     /**
      * Underlying column data will be saved to inner DoubleArrayList
      * and may be change by using column methods (add, set).
@@ -46,10 +66,14 @@ public class DoubleColumn implements Column {
     @Override
     public void clear() throws UnsupportedOperationException {
         data.clear();
+        sortedPrefixSize = 0;
     }
 
     public void set(int index, double value) throws UnsupportedOperationException {
         data.set(index, value);
+        if(index < sortedPrefixSize) {
+            sortedPrefixSize = index;
+        }
     }
 
     public void append(double value) throws UnsupportedOperationException {
@@ -60,6 +84,10 @@ public class DoubleColumn implements Column {
         data.add(values);
     }
 
+    public void append(double[] values, int from, int length) throws UnsupportedOperationException {
+        data.add(values, from, length);
+    }
+
     @Override
     public Column append(int from, int length, Column colToAppend, int colToAppendFrom, int colToAppendLength) throws IllegalArgumentException {
         checkBounds(from, length, size());
@@ -199,6 +227,25 @@ public class DoubleColumn implements Column {
         return SeriesUtils.bisectRight(data, value, from, length);
     }
 
+    /**
+     * Checks whether the column data are sorted in ascending (non-decreasing) order.
+     * Only the elements added after the previous check are examined
+     * so for the growing column every check takes O(number of new elements).
+     */
+    @Override
+    public boolean isSorted() {
+        int size = data.size();
+        int i = Math.max(1, sortedPrefixSize);
+        for (; i < size; i++) {
+            if(Double.compare(data.get(i - 1), data.get(i)) > 0) {
+                sortedPrefixSize = i;
+                return false;
+            }
+        }
+        sortedPrefixSize = size;
+        return true;
+    }
+
     private static void checkBounds(int from, int length, int size) throws IndexOutOfBoundsException {
         if(from < 0 || length < 0 || from + length > size) {
             String msg = "from: " + from + ", length: " + length + ", size: " + size;
@@ -209,6 +256,7 @@ public class DoubleColumn implements Column {
     public interface EditableDoubleSeries extends DoubleSeries {
         void add(double value) throws UnsupportedOperationException;
         void add(double[] values) throws UnsupportedOperationException;
+        void add(double[] values, int from, int length) throws UnsupportedOperationException;
         void set(int index, double value) throws UnsupportedOperationException;
         double[] toArray(int from, int length) throws UnsupportedOperationException;
         void clear() throws UnsupportedOperationException;
@@ -241,6 +289,11 @@ public class DoubleColumn implements Column {
             throw new UnsupportedOperationException();
         }
 
+        @Override
+        public void add(double[] values, int from, int length) throws UnsupportedOperationException {
+            throw new UnsupportedOperationException();
+        }
+
         @Override
         public void set(int index, double value) throws UnsupportedOperationException {
             throw new UnsupportedOperationException();
@@ -274,6 +327,11 @@ public class DoubleColumn implements Column {
             doubleArrayList.add(values);
         }
 
+        @Override
+        public void add(double[] values, int from, int length) throws UnsupportedOperationException {
+            doubleArrayList.add(values, from, length);
+        }
+
         @Override
         public void set(int index, double value) throws UnsupportedOperationException {
             doubleArrayList.set(index, value);
@@ -299,5 +357,100 @@ public class DoubleColumn implements Column {
             doubleArrayList.clear();
         }
     }
-}
 
+    static class OffHeapListWrapperDouble implements EditableDoubleSeries {
+        private final OffHeapDoubleList list;
+
+        public OffHeapListWrapperDouble(OffHeapDoubleList list) {
+            this.list = list;
+        }
+
+        @Override
+        public void add(double value) throws UnsupportedOperationException {
+            list.add(value);
+        }
+
+        @Override
+        public void add(double... values) throws UnsupportedOperationException {
+            list.add(values);
+        }
+
+        @Override
+        public void add(double[] values, int from, int length) throws UnsupportedOperationException {
+            list.add(values, from, length);
+        }
+
+        @Override
+        public void set(int index, double value) throws UnsupportedOperationException {
+            list.set(index, value);
+        }
+
+        @Override
+        public double[] toArray(int from, int length) throws UnsupportedOperationException {
+            return list.toArray(from, length);
+        }
+
+        @Override
+        public int size() {
+            return list.size();
+        }
+
+        @Override
+        public double get(int index) {
+            return list.get(index);
+        }
+
+        @Override
+        public void clear() throws UnsupportedOperationException {
+            list.clear();
+        }
+    }
+
+    static class SegmentedListWrapperDouble implements EditableDoubleSeries {
+        private final SegmentedDoubleArrayList list;
+
+        public SegmentedListWrapperDouble(SegmentedDoubleArrayList list) {
+            this.list = list;
+        }
+
+        @Override
+        public void add(double value) throws UnsupportedOperationException {
+            list.add(value);
+        }
+
+        @Override
+        public void add(double... values) throws UnsupportedOperationException {
+            list.add(values);
+        }
+
+        @Override
+        public void add(double[] values, int from, int length) throws UnsupportedOperationException {
+            list.add(values, from, length);
+        }
+
+        @Override
+        public void set(int index, double value) throws UnsupportedOperationException {
+            list.set(index, value);
+        }
+
+        @Override
+        public double[] toArray(int from, int length) throws UnsupportedOperationException {
+            return list.toArray(from, length);
+        }
+
+        @Override
+        public int size() {
+            return list.size();
+        }
+
+        @Override
+        public double get(int index) {
+            return list.get(index);
+        }
+
+        @Override
+        public void clear() throws UnsupportedOperationException {
+            list.clear();
+        }
+    }
+}
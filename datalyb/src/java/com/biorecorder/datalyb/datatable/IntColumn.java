@@ -1,6 +1,8 @@
 package com.biorecorder.datalyb.datatable;
 
 import com.biorecorder.datalyb.list.IntArrayList;
+import com.biorecorder.datalyb.list.OffHeapIntList;
+import com.biorecorder.datalyb.list.SegmentedIntArrayList;
 import com.biorecorder.datalyb.series.IntSeries;
 import com.biorecorder.datalyb.series.SeriesUtils;
 
@@ -9,6 +11,8 @@ import java.util.Arrays;
 public class IntColumn implements Column {
     private BaseType type = BaseType.INT;
     private String name;
+    // number of the first elements that are known to be sorted
+    private int sortedPrefixSize;
     private EditableIntSeries data;
 
     public IntColumn(String name, EditableIntSeries data) {
@@ -34,6 +38,22 @@ public class IntColumn implements Column {
         this(name, new ArrayListWrapperInt(new IntArrayList(data)));
     }
 
+    /**
+     * Underlying column data will be saved to the given segmented list
+     * (that grows without copying) and may be change by using column methods (add, set).
+     **/
+    public IntColumn(String name, SegmentedIntArrayList data) {
+        this(name, new SegmentedListWrapperInt(data));
+    }
+
+    /**
+     * Underlying column data will be stored outside of the java heap
+     * in the given list and may be change by using column methods (add, set).
+     **/
+    public IntColumn(String name, OffHeapIntList data) {
+        this(name, new OffHeapListWrapperInt(data));
+    }
+
     /**
      * Underlying column data will be saved to inner IntArrayList
      * and may be change by using column methods (add, set).
@@ -49,10 +69,14 @@ public class IntColumn implements Column {
     @Override
     public void clear() throws UnsupportedOperationException {
         data.clear();
+        sortedPrefixSize = 0;
     }
 
     public void set(int index, int value) throws UnsupportedOperationException {
         data.set(index, value);
+        if(index < sortedPrefixSize) {
+            sortedPrefixSize = index;
+        }
     }
 
     public void append(int value) throws UnsupportedOperationException {
@@ -63,6 +87,10 @@ public class IntColumn implements Column {
         data.add(values);
     }
 
+    public void append(int[] values, int from, int length) throws UnsupportedOperationException {
+        data.add(values, from, length);
+    }
+
     @Override
     public Column append(int from, int length, Column colToAppend, int colToAppendFrom, int colToAppendLength) throws IllegalArgumentException {
         checkBounds(from, length, size());
@@ -202,6 +230,25 @@ public class IntColumn implements Column {
         return SeriesUtils.bisectRight(data, double2int(value), from, length);
     }
 
+    /**
+     * Checks whether the column data are sorted in ascending (non-decreasing) order.
+     * Only the elements added after the previous check are examined
+     * so for the growing column every check takes O(number of new elements).
+     */
+    @Override
+    public boolean isSorted() {
+        int size = data.size();
+        int i = Math.max(1, sortedPrefixSize);
+        for (; i < size; i++) {
+            if(data.get(i - 1) > data.get(i)) {
+                sortedPrefixSize = i;
+                return false;
+            }
+        }
+        sortedPrefixSize = size;
+        return true;
+    }
+
     private static int double2int(double d) {
         long l =  (long)(d);
         if(l > Integer.MAX_VALUE) {
@@ -223,6 +270,7 @@ public class IntColumn implements Column {
     interface EditableIntSeries extends IntSeries {
         void add(int value) throws UnsupportedOperationException;
         void add(int[] values) throws UnsupportedOperationException;
+        void add(int[] values, int from, int length) throws UnsupportedOperationException;
         void set(int index, int value) throws UnsupportedOperationException;
         int[] toArray(int from, int length) throws UnsupportedOperationException;
         void clear() throws UnsupportedOperationException;
@@ -255,6 +303,11 @@ public class IntColumn implements Column {
             throw new UnsupportedOperationException();
         }
 
+        @Override
+        public void add(int[] values, int from, int length) throws UnsupportedOperationException {
+            throw new UnsupportedOperationException();
+        }
+
         @Override
         public void set(int index, int value) throws UnsupportedOperationException {
             throw new UnsupportedOperationException();
@@ -288,6 +341,11 @@ public class IntColumn implements Column {
             intArrayList.add(values);
         }
 
+        @Override
+        public void add(int[] values, int from, int length) throws UnsupportedOperationException {
+            intArrayList.add(values, from, length);
+        }
+
         @Override
         public void set(int index, int value) throws UnsupportedOperationException {
             intArrayList.set(index, value);
@@ -313,4 +371,100 @@ public class IntColumn implements Column {
             intArrayList.clear();
         }
     }
+
+    static class OffHeapListWrapperInt implements EditableIntSeries {
+        private final OffHeapIntList list;
+
+        public OffHeapListWrapperInt(OffHeapIntList list) {
+            this.list = list;
+        }
+
+        @Override
+        public void add(int value) throws UnsupportedOperationException {
+            list.add(value);
+        }
+
+        @Override
+        public void add(int... values) throws UnsupportedOperationException {
+            list.add(values);
+        }
+
+        @Override
+        public void add(int[] values, int from, int length) throws UnsupportedOperationException {
+            list.add(values, from, length);
+        }
+
+        @Override
+        public void set(int index, int value) throws UnsupportedOperationException {
+            list.set(index, value);
+        }
+
+        @Override
+        public int[] toArray(int from, int length) throws UnsupportedOperationException {
+            return list.toArray(from, length);
+        }
+
+        @Override
+        public int size() {
+            return list.size();
+        }
+
+        @Override
+        public int get(int index) {
+            return list.get(index);
+        }
+
+        @Override
+        public void clear() throws UnsupportedOperationException {
+            list.clear();
+        }
+    }
+
+    static class SegmentedListWrapperInt implements EditableIntSeries {
+        private final SegmentedIntArrayList list;
+
+        public SegmentedListWrapperInt(SegmentedIntArrayList list) {
+            this.list = list;
+        }
+
+        @Override
+        public void add(int value) throws UnsupportedOperationException {
+            list.add(value);
+        }
+
+        @Override
+        public void add(int... values) throws UnsupportedOperationException {
+            list.add(values);
+        }
+
+        @Override
+        public void add(int[] values, int from, int length) throws UnsupportedOperationException {
+            list.add(values, from, length);
+        }
+
+        @Override
+        public void set(int index, int value) throws UnsupportedOperationException {
+            list.set(index, value);
+        }
+
+        @Override
+        public int[] toArray(int from, int length) throws UnsupportedOperationException {
+            return list.toArray(from, length);
+        }
+
+        @Override
+        public int size() {
+            return list.size();
+        }
+
+        @Override
+        public int get(int index) {
+            return list.get(index);
+        }
+
+        @Override
+        public void clear() throws UnsupportedOperationException {
+            list.clear();
+        }
+    }
 }
@@ -25,6 +25,13 @@ public class RegularColumn extends DoubleColumn {
         return step;
     }
 
+    /**
+     * Changes the number of column elements. Permits to grow the column in place
+     */
+    public void setSize(int size) {
+        ((RegularDoubleSeries) data).size(size);
+    }
+
 
     @Override
     public Column append(int from, int length, Column colToAppend, int colToAppendFrom, int colToAppendLength) throws IllegalArgumentException {
@@ -84,6 +91,11 @@ public class RegularColumn extends DoubleColumn {
         return new RegularColumn(name(), value(from), step, length);
     }
 
+    @Override
+    public boolean isSorted() {
+        return step >= 0;
+    }
+
     @Override
     public int[] sort(int from, int length, boolean isParallel) {
         return null;
@@ -127,6 +139,12 @@ public class RegularColumn extends DoubleColumn {
             throw new UnsupportedOperationException(errMsg);
         }
 
+        @Override
+        public void add(double[] values, int from, int length) throws UnsupportedOperationException {
+            String errMsg = "Regular column do not support add operation";
+            throw new UnsupportedOperationException(errMsg);
+        }
+
         @Override
         public void set(int index, double value) throws UnsupportedOperationException {
             String errMsg = "Regular column do not support set operation";
@@ -4,6 +4,7 @@ import com.biorecorder.datalyb.datatable.Column;
 
 interface AggPipe {
     void agg(int index);
+    void agg(int from, int till);
     void push();
     Column resultantCol();
     void setColumnToAgg(Column columnToAgg) throws IllegalArgumentException;
@@ -3,24 +3,46 @@ package com.biorecorder.datalyb.datatable.aggregation;
 import com.biorecorder.datalyb.datatable.BaseType;
 import com.biorecorder.datalyb.datatable.Column;
 import com.biorecorder.datalyb.datatable.RegularColumn;
-import com.biorecorder.datalyb.series.IntSeries;
 
+/**
+ * Aggregation of one column by the given aggregating functions.
+ * All functions are calculated in one pass over the column data
+ * and every function gives its own resultant column. So for example
+ * Min and Max together give paired min/max (envelope) columns.
+ */
 public class Aggregation {
     private RegularColumn rc;
-    private AggFunction aggFunction;
-    private AggPipe pipe;
+    private RegularColumn[] resultantRegularColumns;
+    private AggFunction[] aggFunctions;
+    private AggPipe[] pipes;
     private int aggSampleCount;
     private int pointsInGroup;
 
-    public Aggregation(AggFunction aggFunction) {
-        this.aggFunction = aggFunction;
+    public Aggregation(AggFunction... aggFunctions) {
+        if(aggFunctions.length == 0) {
+            throw new IllegalArgumentException("At least one aggregating function must be specified");
+        }
+        this.aggFunctions = aggFunctions;
+    }
+
+    public int functionCount() {
+        return aggFunctions.length;
     }
 
-    public RegularColumn aggregate(RegularColumn columnToAgg, int pointsInGroup, int from, int length) throws IllegalArgumentException{
+    /**
+     * Resultant regular columns are created only once and
+     * then their size is changed in place
+     */
+    public RegularColumn[] aggregate(RegularColumn columnToAgg, int pointsInGroup, int from, int length) throws IllegalArgumentException{
         if(rc == null) {
             rc = new RegularColumn(columnToAgg.name(), columnToAgg.value(from), columnToAgg.step());
             this.pointsInGroup = pointsInGroup;
             aggSampleCount = 0;
+            resultantRegularColumns = new RegularColumn[aggFunctions.length];
+            for (int i = 0; i < aggFunctions.length; i++) {
+                String name1 = rc.name() + "_" + aggFunctions[i].name();
+                resultantRegularColumns[i] = new RegularColumn(name1, aggFunctions[i].getAggregatedRegularColumnStart(rc, pointsInGroup) ,rc.step() * pointsInGroup , 0);
+            }
         }
         if(this.pointsInGroup != pointsInGroup) {
             throw new IllegalArgumentException("Points in group: " + pointsInGroup +", expected: "+ this.pointsInGroup);
@@ -28,11 +50,10 @@ public class Aggregation {
         if(rc.step() != columnToAgg.step()) {
             throw new IllegalArgumentException("RegularColumn step: " + columnToAgg.step() +", expected: "+ rc.step());
         }
-        if(rc.value(aggSampleCount) != columnToAgg.value(from)) {
+        if(length > 0 && rc.value(aggSampleCount) != columnToAgg.value(from)) {
             throw new IllegalArgumentException("RegularColumn startValue: " + columnToAgg.value(from) +", expected: "+ rc.value(aggSampleCount));
         }
         aggSampleCount += length;
-        String name1 = rc.name() + "_" + aggFunction.name();
         int resampledSize = aggSampleCount / pointsInGroup;
         if(aggSampleCount % pointsInGroup == 0) {
             resampledSize--;
@@ -40,43 +61,90 @@ public class Aggregation {
         if(resampledSize < 0) {
             resampledSize = 0;
         }
-        return new RegularColumn(name1, aggFunction.getAggregatedRegularColumnStart(rc, pointsInGroup) ,rc.step() * pointsInGroup , resampledSize);
+        for (RegularColumn resultantRegularColumn : resultantRegularColumns) {
+            resultantRegularColumn.setSize(resampledSize);
+        }
+        return resultantRegularColumns;
     }
 
-    public Column aggregate(Column columnToAgg, IntSeries groups, int from, int length) {
-        if(pipe == null) {
-            BaseType colType = columnToAgg.type();
-            if(aggFunction.outType(colType) == colType) {
-                switch (colType) {
-                    case INT:
-                        pipe = new IntAggPipe(aggFunction);
-                        break;
-                    default:
-                        pipe = new DoubleAggPipe(aggFunction);
-                        break;
-                }
-            } else {
-                pipe = new DoubleAggPipe(aggFunction);
-            }
+    /**
+     * Includes the last complete group of the regular column aggregation
+     * to the resultant columns
+     * (see {@link #aggregate(RegularColumn, int, int, int)})
+     */
+    public void closeRegularGroup() {
+        if (resultantRegularColumns == null) {
+            return;
         }
-        pipe.setColumnToAgg(columnToAgg);
-        int groupCounter = 0;
-        int groupStart = columnToAgg.size() + 1;
-        if(groups.size() > 0) {
-            groupStart = groups.get(groupCounter);
+        for (RegularColumn resultantRegularColumn : resultantRegularColumns) {
+            resultantRegularColumn.setSize(aggSampleCount / pointsInGroup);
         }
-        int till = from + length;
+    }
+
+    /**
+     * Adds the elements of the given column range [from, till)
+     * to the current (open) group
+     */
+    public void agg(Column columnToAgg, int from, int till) {
+        if(pipes == null) {
+            pipes = createPipes(columnToAgg);
+        }
+        if(pipes.length == 1) {
+            AggPipe pipe = pipes[0];
+            pipe.setColumnToAgg(columnToAgg);
+            pipe.agg(from, till);
+            pipe.removeColumnToAgg();
+            return;
+        }
+        for (AggPipe pipe : pipes) {
+            pipe.setColumnToAgg(columnToAgg);
+        }
+        // one pass over the data for all functions
         for (int i = from; i < till; i++) {
-            if(i == groupStart) {
-                pipe.push();
-                groupCounter++;
-                if(groupCounter < groups.size()) {
-                    groupStart = groups.get(groupCounter);
-                }
+            for (AggPipe pipe : pipes) {
+                pipe.agg(i);
             }
-            pipe.agg(i);
         }
-        pipe.removeColumnToAgg();
-        return pipe.resultantCol();
+        for (AggPipe pipe : pipes) {
+            pipe.removeColumnToAgg();
+        }
+    }
+
+    /**
+     * Closes the current group: appends its aggregated values to
+     * the resultant columns and starts a new group
+     */
+    public void push() {
+        for (AggPipe pipe : pipes) {
+            pipe.push();
+        }
+    }
+
+    public Column[] resultantColumns(Column columnToAgg) {
+        if(pipes == null) {
+            pipes = createPipes(columnToAgg);
+        }
+        Column[] resultantColumns = new Column[pipes.length];
+        for (int i = 0; i < pipes.length; i++) {
+            resultantColumns[i] = pipes[i].resultantCol();
+        }
+        return resultantColumns;
+    }
+
+    private AggPipe[] createPipes(Column columnToAgg) {
+        AggPipe[] pipes = new AggPipe[aggFunctions.length];
+        for (int i = 0; i < aggFunctions.length; i++) {
+            pipes[i] = createPipe(columnToAgg, aggFunctions[i]);
+        }
+        return pipes;
+    }
+
+    private static AggPipe createPipe(Column columnToAgg, AggFunction aggFunction) {
+        BaseType colType = columnToAgg.type();
+        String name = columnToAgg.name() + "_" + aggFunction.name();
+        if(aggFunction.outType(colType) == colType && colType == BaseType.INT) {
+            return new IntAggPipe(aggFunction, name);
+        }
+        return new DoubleAggPipe(aggFunction, name);
     }
 }
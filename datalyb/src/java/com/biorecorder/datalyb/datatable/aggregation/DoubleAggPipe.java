@@ -7,8 +7,9 @@ public class DoubleAggPipe implements AggPipe {
     private Column columnToAgg;
     private DoubleColumn resultantColumn;
 
-    public DoubleAggPipe(AggFunction aggFunction) {
+    public DoubleAggPipe(AggFunction aggFunction, String resultantColumnName) {
         this.aggFunction = aggFunction;
+        resultantColumn = new DoubleColumn(resultantColumnName);
     }
 
     @Override
@@ -16,6 +17,13 @@ public class DoubleAggPipe implements AggPipe {
         aggFunction.addDouble(columnToAgg.value(index));
     }
 
+    @Override
+    public void agg(int from, int till) {
+        for (int i = from; i < till; i++) {
+            aggFunction.addDouble(columnToAgg.value(i));
+        }
+    }
+
     @Override
     public void push() {
         resultantColumn.append(aggFunction.getDouble());
@@ -29,9 +37,6 @@ public class DoubleAggPipe implements AggPipe {
 
     @Override
     public void setColumnToAgg(Column columnToAgg) throws IllegalArgumentException {
-        if(resultantColumn == null) {
-            resultantColumn = new DoubleColumn(columnToAgg.name() + "_" + aggFunction.name());
-        }
         this.columnToAgg =  columnToAgg;
     }
 
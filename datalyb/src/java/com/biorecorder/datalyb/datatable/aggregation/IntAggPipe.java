@@ -7,8 +7,9 @@ public class IntAggPipe implements AggPipe {
     private IntColumn columnToAgg;
     private IntColumn resultantColumn;
 
-    public IntAggPipe(AggFunction aggFunction) {
+    public IntAggPipe(AggFunction aggFunction, String resultantColumnName) {
         this.aggFunction = aggFunction;
+        resultantColumn = new IntColumn(resultantColumnName);
     }
 
     @Override
@@ -16,6 +17,13 @@ public class IntAggPipe implements AggPipe {
         aggFunction.addInt(columnToAgg.intValue(index));
     }
 
+    @Override
+    public void agg(int from, int till) {
+        for (int i = from; i < till; i++) {
+            aggFunction.addInt(columnToAgg.intValue(i));
+        }
+    }
+
     @Override
     public void push() {
         resultantColumn.append(aggFunction.getInt());
@@ -32,9 +40,6 @@ public class IntAggPipe implements AggPipe {
         if(columnToAgg.type() != BaseType.INT) {
             throw new IllegalArgumentException("Column to aggregate must be IntColumn! Column type = " + columnToAgg.type());
         }
-        if(resultantColumn == null) {
-            resultantColumn = new IntColumn(columnToAgg.name() + "_"+aggFunction.name());
-        }
         this.columnToAgg = (IntColumn) columnToAgg;
     }
 
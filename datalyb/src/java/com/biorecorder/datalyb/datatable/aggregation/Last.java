@@ -0,0 +1,48 @@
+package com.biorecorder.datalyb.datatable.aggregation;
+
+import com.biorecorder.datalyb.datatable.BaseType;
+import com.biorecorder.datalyb.datatable.RegularColumn;
+
+public class Last implements AggFunction {
+    private String name = "LAST";
+    private int lastInt;
+    private double lastDouble;
+
+    @Override
+    public void addInt(int value) {
+        lastInt = value;
+    }
+
+    @Override
+    public void addDouble(double value) {
+        lastDouble = value;
+    }
+    @Override
+    public String name() {
+        return name;
+    }
+    @Override
+    public int getInt() {
+        return lastInt;
+    }
+
+    @Override
+    public double getDouble() {
+        return lastDouble;
+    }
+
+    @Override
+    public void reset() {
+        // do nothing. Every new value overrides the previous one
+    }
+
+    @Override
+    public BaseType outType(BaseType inType) {
+        return inType;
+    }
+
+    @Override
+    public double getAggregatedRegularColumnStart(RegularColumn columnToAgg, int pointsInGroup) {
+        return columnToAgg.startValue() + columnToAgg.step() * (pointsInGroup - 1);
+    }
+}
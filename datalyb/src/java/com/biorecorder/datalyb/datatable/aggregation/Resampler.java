@@ -1,11 +1,8 @@
 package com.biorecorder.datalyb.datatable.aggregation;
 
 import com.biorecorder.datalyb.datatable.*;
-import com.biorecorder.datalyb.series.IntSeries;
 import com.biorecorder.datalyb.time.TimeInterval;
-import com.biorecorder.datalyb.list.IntArrayList;
 
-import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -46,10 +43,13 @@ import java.util.Map;
  * Implementation implies that the data is sorted!!!
  */
 public class Resampler {
-    private Map<Integer, Aggregation[]> columnsToAgg = new HashMap<>();
+    private Map<Integer, Aggregation> columnsToAgg = new HashMap<>();
     private DataTable resultantTable;
-    private AggFunction defaultAggFunction = new First();
     private Binning binning;
+    // aggregations of all columns in the order of columns
+    private Aggregation[] aggregations;
+    private boolean[] isRegularAggregations;
+    private boolean isGroupOpen;
 
 
     private Resampler(Binning binning) {
@@ -75,45 +75,115 @@ public class Resampler {
         return new Resampler(binning);
     }
 
+    /**
+     * Column aggregations must be set before the first resampling.
+     * All given functions are calculated in one pass and every function
+     * gives its own resultant column (for example Min and Max give
+     * paired min/max envelope columns).
+     */
     public void setColumnAggregations(int column, AggFunction... aggFunctions) {
-        Aggregation[] aggregations = new Aggregation[aggFunctions.length];
-        for (int i = 0; i < aggregations.length; i++) {
-            aggregations[i] = new Aggregation(aggFunctions[i]);
-        }
-
-        columnsToAgg.put(column, aggregations);
+        columnsToAgg.put(column, new Aggregation(aggFunctions));
     }
 
     public DataTable resampleAndAppend(DataTable tableToResample) {
         return resampleAndAppend(tableToResample, 0, tableToResample.rowCount());
     }
 
+    /**
+     * Resamples the given part of the table and appends the result to the resultant table.
+     * Resultant columns are created only once (on the first call) and then grow in place.
+     * The last (still open) group is not added to the resultant table
+     * but its aggregation state is kept, so every call takes O(length) time
+     * and data that was already resampled is never processed again.
+     */
     public DataTable resampleAndAppend(DataTable tableToResample, int from, int length) throws IndexOutOfBoundsException {
         checkBounds(from, length, tableToResample.rowCount());
-        if(resultantTable == null) {
+        boolean isFirstResampling = resultantTable == null;
+        if (isFirstResampling) {
             resultantTable = new DataTable(tableToResample.getName());
+            createAggregations(tableToResample);
         }
-        IntSeries groups = binning.group(tableToResample.getColumn(0), from, length);
-        for (int i = 0; i < tableToResample.columnCount(); i++) {
-            Aggregation[] aggregations = columnsToAgg.get(i);
-            if (aggregations == null) {
-                aggregations = new Aggregation[1];
-                aggregations[0] = new Aggregation(defaultAggFunction);
-                columnsToAgg.put(i, aggregations);
+        int till = from + length;
+        Column groupingColumn = tableToResample.getColumn(0);
+        int groupStart = from;
+        while (groupStart < till) {
+            int groupEnd = binning.groupEnd(groupingColumn, groupStart, till);
+            for (int i = 0; i < aggregations.length; i++) {
+                if (!isRegularAggregations[i]) {
+                    aggregations[i].agg(tableToResample.getColumn(i), groupStart, groupEnd);
+                }
             }
-            Column col = tableToResample.getColumn(i);
-            for (int j = 0; j < aggregations.length; j++) {
-                if (binning.isEqualPoints() && col instanceof RegularColumn) {
-                    RegularColumn rc = (RegularColumn) col;
-                    resultantTable.addColumns(aggregations[j].aggregate(rc, binning.pointsInGroup(), from, length));
-                } else {
-                    resultantTable.addColumns(aggregations[j].aggregate(col, groups, from, length));
+            if (groupEnd < till) { // new group starts
+                for (int i = 0; i < aggregations.length; i++) {
+                    if (!isRegularAggregations[i]) {
+                        aggregations[i].push();
+                    }
                 }
             }
+            groupStart = groupEnd;
+        }
+        if (length > 0) {
+            isGroupOpen = true;
+        }
+
+        for (int i = 0; i < aggregations.length; i++) {
+            Column col = tableToResample.getColumn(i);
+            Column[] resultantColumns;
+            if (isRegularAggregations[i]) {
+                resultantColumns = aggregations[i].aggregate((RegularColumn) col, binning.pointsInGroup(), from, length);
+            } else {
+                resultantColumns = aggregations[i].resultantColumns(col);
+            }
+            if (isFirstResampling) {
+                resultantTable.addColumns(resultantColumns);
+            }
+        }
+        resultantTable.updateSize();
+        return resultantTable;
+    }
+
+    /**
+     * Closes the last (open) group and appends it to the resultant table.
+     * Used when it is known that no more data belong to that group
+     * (for example the data block ends at the group border).
+     * The next resampled data start the new group.
+     * <p>
+     * For equal points binning only the complete group may be closed.
+     *
+     * @throws IllegalStateException if the group of equal points binning is not complete
+     */
+    public DataTable closeGroup() throws IllegalStateException {
+        if (!isGroupOpen) {
+            return resultantTable;
+        }
+        binning.closeGroup();
+        for (int i = 0; i < aggregations.length; i++) {
+            if (isRegularAggregations[i]) {
+                aggregations[i].closeRegularGroup();
+            } else {
+                aggregations[i].push();
+            }
         }
+        isGroupOpen = false;
+        resultantTable.updateSize();
         return resultantTable;
     }
 
+    private void createAggregations(DataTable tableToResample) {
+        int columnCount = tableToResample.columnCount();
+        aggregations = new Aggregation[columnCount];
+        isRegularAggregations = new boolean[columnCount];
+        for (int i = 0; i < columnCount; i++) {
+            Aggregation aggregation = columnsToAgg.get(i);
+            if (aggregation == null) {
+                aggregation = new Aggregation(new First());
+                columnsToAgg.put(i, aggregation);
+            }
+            aggregations[i] = aggregation;
+            isRegularAggregations[i] = binning.isEqualPoints() && tableToResample.getColumn(i) instanceof RegularColumn;
+        }
+    }
+
     private static void checkBounds(int from, int length, int size) throws IndexOutOfBoundsException {
         if(from < 0 || length < 0 || from + length > size) {
             String msg = "from: " + from + ", length: " + length + ", size: " + size;
@@ -122,11 +192,24 @@ public class Resampler {
     }
 
     interface Binning {
-        IntSeries group(Column col, int from, int length);
+        /**
+         * Finds where the current (open) group ends.
+         * If the returned index is less than till, the element with that index
+         * is the first element of the next group and the binning switches to that group.
+         *
+         * @return index of the first element of the next group
+         * or till if all elements from the given range belong to the current group
+         */
+        int groupEnd(Column col, int from, int till);
 
         boolean isEqualPoints();
 
         int pointsInGroup();
+
+        /**
+         * Finishes the current group. The next element starts the new group
+         */
+        void closeGroup() throws IllegalStateException;
     }
 
     static class EqualIntervalBinning implements Binning {
@@ -148,36 +231,26 @@ public class Resampler {
         }
 
         @Override
-        public IntSeries group(Column column, int from, int length) {
-            IntArrayList groupStarts = new IntArrayList();
-            if (length > 0) {
-                if (currentGroupInterval == null) {
-                    currentGroupInterval = intervalProvider.getContaining(column.value(from));
-                }
-                int till = from + length;
-                for (int i = from; i < till; i++) {
-                    double data = column.value(i);
-                    if (!currentGroupInterval.contains(data)) {
-                        groupStarts.add(i);
-                        currentGroupInterval = intervalProvider.getNext(); // main scenario
-                        if (!currentGroupInterval.contains(data)) { // rare situation
-                            currentGroupInterval = intervalProvider.getContaining(data);
-                        }
+        public void closeGroup() {
+            currentGroupInterval = null;
+        }
+
+        @Override
+        public int groupEnd(Column column, int from, int till) {
+            if (from < till && currentGroupInterval == null) {
+                currentGroupInterval = intervalProvider.getContaining(column.value(from));
+            }
+            for (int i = from; i < till; i++) {
+                double data = column.value(i);
+                if (!currentGroupInterval.contains(data)) {
+                    currentGroupInterval = intervalProvider.getNext(); // main scenario
+                    if (!currentGroupInterval.contains(data)) { // rare situation
+                        currentGroupInterval = intervalProvider.getContaining(data);
                     }
+                    return i;
                 }
             }
-            IntSeries groupStartsSeq = new IntSeries() {
-                @Override
-                public int size() {
-                    return groupStarts.size();
-                }
-
-                @Override
-                public int get(int index) {
-                    return groupStarts.get(index);
-                }
-            };
-            return groupStartsSeq;
+            return till;
         }
     }
 
@@ -200,38 +273,24 @@ public class Resampler {
         }
 
         @Override
-        public IntSeries group(Column column, int from, int length) {
-            final int firstGroupPoints = pointsInGroup - pointsAdded;
-            final int numberOfGroups;
-            if (firstGroupPoints > length) {
-                pointsAdded += length;
-                numberOfGroups = 0;
-            } else {
-                int groups = 1;
-                groups += (length - firstGroupPoints) / pointsInGroup;
-                int lastGroupPoints = (length - firstGroupPoints) % pointsInGroup;
-                if (lastGroupPoints == 0) {
-                    groups--;
-                    lastGroupPoints = pointsInGroup;
-                }
-                numberOfGroups = groups;
-                pointsAdded = lastGroupPoints;
+        public void closeGroup() throws IllegalStateException {
+            if (pointsAdded != pointsInGroup) {
+                String errMsg = "Group is not complete. Points in group: " + pointsAdded + ", expected: " + pointsInGroup;
+                throw new IllegalStateException(errMsg);
             }
-            return new IntSeries() {
-                @Override
-                public int size() {
-                    return numberOfGroups;
-                }
+            pointsAdded = 0;
+        }
 
-                @Override
-                public int get(int index) {
-                    if (index == 0) {
-                        return firstGroupPoints + from;
-                    } else {
-                        return firstGroupPoints + pointsInGroup * index + from;
-                    }
-                }
-            };
+        @Override
+        public int groupEnd(Column column, int from, int till) {
+            // full group is closed only when the next point arrives
+            int groupEnd = from + pointsInGroup - pointsAdded;
+            if (groupEnd < till) {
+                pointsAdded = 0;
+                return groupEnd;
+            }
+            pointsAdded += till - from;
+            return till;
         }
     }
 
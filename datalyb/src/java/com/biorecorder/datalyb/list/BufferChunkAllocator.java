@@ -0,0 +1,74 @@
+package com.biorecorder.datalyb.list;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+
+/**
+ * Allocates fixed size chunks of memory outside of the java heap.
+ * Chunks are either direct ByteBuffers or consecutive regions
+ * of the temporary spill file mapped to memory. The spill file
+ * is created in the given directory at the first allocation
+ * and is deleted by {@link #close()} (or on exit).
+ */
+class BufferChunkAllocator {
+    private final File spillDirectory;
+    private File spillFile;
+    private FileChannel spillChannel;
+    private long spillFileSize;
+
+    /**
+     * @param spillDirectory directory for the spill file.
+     *                       If null chunks will be allocated as direct ByteBuffers
+     */
+    BufferChunkAllocator(File spillDirectory) {
+        this.spillDirectory = spillDirectory;
+    }
+
+    boolean isMapped() {
+        return spillDirectory != null;
+    }
+
+    ByteBuffer allocate(int bytes) throws UncheckedIOException {
+        if (spillDirectory == null) {
+            return ByteBuffer.allocateDirect(bytes).order(ByteOrder.nativeOrder());
+        }
+        try {
+            if (spillChannel == null) {
+                spillFile = File.createTempFile("datalyb", ".spill", spillDirectory);
+                spillFile.deleteOnExit();
+                spillChannel = new RandomAccessFile(spillFile, "rw").getChannel();
+            }
+            ByteBuffer chunk = spillChannel.map(FileChannel.MapMode.READ_WRITE, spillFileSize, bytes);
+            spillFileSize += bytes;
+            return chunk.order(ByteOrder.nativeOrder());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Closes and deletes the spill file. Already allocated chunks must not be used
+     * after that (memory of the mapped chunks is freed when they are garbage collected).
+     * The next allocation creates a new spill file.
+     */
+    void close() {
+        if (spillChannel == null) {
+            return;
+        }
+        try {
+            spillChannel.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        // on systems that do not permit to delete the mapped file it will be deleted on exit
+        spillFile.delete();
+        spillChannel = null;
+        spillFile = null;
+        spillFileSize = 0;
+    }
+}
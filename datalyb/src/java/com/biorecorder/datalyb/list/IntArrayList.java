@@ -102,6 +102,16 @@ public class IntArrayList {
         size += numNew;
     }
 
+    /**
+     * Adds <tt>length</tt> values from the array starting at <tt>from</tt>
+     * to the end of the list.
+     */
+    public void add(int[] values, int from, int length) {
+        ensureCapacity(size + length);  // Increments modCount
+        System.arraycopy(values, from, data, size, length);
+        size += length;
+    }
+
     /**
      * Inserts all of the elements from the given array into the
      * list, starting at the given position.  Shifts the element
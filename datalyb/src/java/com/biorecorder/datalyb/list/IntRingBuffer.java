@@ -0,0 +1,142 @@
+package com.biorecorder.datalyb.list;
+
+/**
+ * Fixed capacity ring buffer of int primitives. When the buffer is full
+ * every new value overwrites the oldest one, so memory does not grow
+ * however long the data are added.
+ * <p>
+ * Besides the index in the buffer (0 - the oldest value) every value
+ * has its "absolute" index - the number of values added before it.
+ */
+public class IntRingBuffer {
+    private final int[] data;
+    private int head; // where the next value will be written
+    private int size;
+    private long addedCount;
+
+    public IntRingBuffer(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Illegal Capacity: " + capacity);
+        }
+        data = new int[capacity];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int capacity() {
+        return data.length;
+    }
+
+    /**
+     * Total number of values added to the buffer
+     */
+    public long addedCount() {
+        return addedCount;
+    }
+
+    /**
+     * Absolute index of the oldest value in the buffer
+     */
+    public long firstIndex() {
+        return addedCount - size;
+    }
+
+    public void add(int value) {
+        data[head] = value;
+        head++;
+        if (head == data.length) {
+            head = 0;
+        }
+        if (size < data.length) {
+            size++;
+        }
+        addedCount++;
+    }
+
+    public void add(int[] values, int from, int length) {
+        addedCount += length;
+        if (length > data.length) {
+            // only the last values stay in the buffer
+            from += length - data.length;
+            length = data.length;
+        }
+        int firstPart = Math.min(length, data.length - head);
+        System.arraycopy(values, from, data, head, firstPart);
+        System.arraycopy(values, from + firstPart, data, 0, length - firstPart);
+        head = (head + length) % data.length;
+        size = Math.min(data.length, size + length);
+    }
+
+    /**
+     * @param index  0 - the oldest value in the buffer
+     */
+    public int get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        int position = head - size + index;
+        if (position < 0) {
+            position += data.length;
+        }
+        return data[position];
+    }
+
+    /**
+     * Copies values with the given absolute indexes to the array
+     *
+     * @throws IndexOutOfBoundsException if the values are not in the buffer any more
+     */
+    public void toArray(long absoluteFrom, int length, int[] dest, int destFrom) throws IndexOutOfBoundsException {
+        if (absoluteFrom < firstIndex() || absoluteFrom + length > addedCount) {
+            throw new IndexOutOfBoundsException("from: " + absoluteFrom + ", length: " + length +
+                    ", buffer values: [" + firstIndex() + ", " + addedCount + ")");
+        }
+        int position = (int) ((absoluteFrom - firstIndex() + head - size + data.length) % data.length);
+        int firstPart = Math.min(length, data.length - position);
+        System.arraycopy(data, position, dest, destFrom, firstPart);
+        System.arraycopy(data, 0, dest, destFrom + firstPart, length - firstPart);
+    }
+
+    public void clear() {
+        head = 0;
+        size = 0;
+        addedCount = 0;
+    }
+
+    /**
+     * Unit Test. Usage Example.
+     */
+    public static void main(String[] args) {
+        IntRingBuffer buffer = new IntRingBuffer(5);
+        boolean isTestOk = true;
+        int value = 0;
+        java.util.Random random = new java.util.Random(1);
+        for (int i = 0; i < 100; i++) {
+            int length = random.nextInt(8);
+            int[] values = new int[length + 2];
+            for (int j = 0; j < length; j++) {
+                values[j + 1] = value++;
+            }
+            if (length == 1) {
+                buffer.add(values[1]);
+            } else {
+                buffer.add(values, 1, length);
+            }
+            int expectedSize = Math.min(value, buffer.capacity());
+            if (buffer.size() != expectedSize || buffer.addedCount() != value) {
+                isTestOk = false;
+            }
+            int[] dest = new int[buffer.size()];
+            buffer.toArray(buffer.firstIndex(), buffer.size(), dest, 0);
+            for (int j = 0; j < buffer.size(); j++) {
+                int expectedValue = value - expectedSize + j;
+                if (buffer.get(j) != expectedValue || dest[j] != expectedValue) {
+                    isTestOk = false;
+                }
+            }
+        }
+        System.out.println("Is test ok: " + isTestOk);
+    }
+}
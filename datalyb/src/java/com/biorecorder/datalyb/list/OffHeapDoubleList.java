@@ -0,0 +1,167 @@
+package com.biorecorder.datalyb.list;
+
+import java.io.File;
+import java.io.UncheckedIOException;
+import java.nio.DoubleBuffer;
+
+/**
+ * A growable list of double primitives stored outside of the java heap -
+ * in direct ByteBuffers or in the memory-mapped spill file.
+ * <p>
+ * Data are kept in fixed size chunks so the list grows without
+ * copying already added elements and the heap usage does not depend on the list size.
+ * <p>
+ * One thread may add elements while other threads read already added ones.
+ */
+public class OffHeapDoubleList {
+    private static final int CHUNK_SHIFT = 18; // 256K elements in every chunk
+    private static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+    private final BufferChunkAllocator allocator;
+    private DoubleBuffer[] chunks = new DoubleBuffer[8];
+    private int chunkCount;
+    private volatile int size;
+
+    /**
+     * Creates the list stored in direct ByteBuffers
+     */
+    public OffHeapDoubleList() {
+        allocator = new BufferChunkAllocator(null);
+    }
+
+    /**
+     * Creates the list stored in the memory-mapped temporary file
+     * in the given directory. The file is deleted by {@link #release()} or on exit.
+     */
+    public OffHeapDoubleList(File spillDirectory) {
+        if (spillDirectory == null) {
+            throw new IllegalArgumentException("Spill directory is null");
+        }
+        allocator = new BufferChunkAllocator(spillDirectory);
+    }
+
+    public boolean isMapped() {
+        return allocator.isMapped();
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public double get(int index) {
+        rangeCheck(index);
+        return chunks[index >>> CHUNK_SHIFT].get(index & CHUNK_MASK);
+    }
+
+    public void set(int index, double value) {
+        rangeCheck(index);
+        chunks[index >>> CHUNK_SHIFT].put(index & CHUNK_MASK, value);
+    }
+
+    /**
+     * Removes all elements. Already allocated chunks are kept and will be reused.
+     */
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * Removes all elements and frees the chunks. Spill file of the mapped list
+     * is closed and deleted. The list may be used further:
+     * new chunks will be allocated when needed.
+     * Must not be called while other threads read the list.
+     */
+    public void release() {
+        size = 0;
+        chunks = new DoubleBuffer[8];
+        chunkCount = 0;
+        allocator.close();
+    }
+
+    /**
+     * Adds a new element to the end of the list
+     */
+    public void add(double value) throws UncheckedIOException {
+        int index = size;
+        ensureCapacity(index + 1);
+        chunks[index >>> CHUNK_SHIFT].put(index & CHUNK_MASK, value);
+        size = index + 1;
+    }
+
+    /**
+     * Adds the values from the array <tt>values</tt> to the end of the
+     * list, in order.
+     */
+    public void add(double[] values) throws UncheckedIOException {
+        add(values, 0, values.length);
+    }
+
+    /**
+     * Adds <tt>length</tt> values from the array starting at <tt>from</tt>
+     * to the end of the list. Values are copied chunk by chunk.
+     */
+    public void add(double[] values, int from, int length) throws UncheckedIOException {
+        int index = size;
+        ensureCapacity(index + length);
+        int till = from + length;
+        while (from < till) {
+            DoubleBuffer chunk = chunks[index >>> CHUNK_SHIFT];
+            int offset = index & CHUNK_MASK;
+            int n = Math.min(CHUNK_SIZE - offset, till - from);
+            chunk.position(offset);
+            chunk.put(values, from, n);
+            from += n;
+            index += n;
+        }
+        size = index;
+    }
+
+    public double[] toArray() {
+        return toArray(0, size);
+    }
+
+    /**
+     * Copies the given range of the list to a new array chunk by chunk
+     */
+    public double[] toArray(int from, int length) throws IndexOutOfBoundsException {
+        if(from < 0 || length < 0 || from + length > size) {
+            String msg = "from: " + from + ", length: " + length + ", size: " + size;
+            throw new IndexOutOfBoundsException(msg);
+        }
+        double[] dest = new double[length];
+        int destPos = 0;
+        while (destPos < length) {
+            // duplicate not to change position of the chunk used by writing thread
+            DoubleBuffer chunk = chunks[from >>> CHUNK_SHIFT].duplicate();
+            int offset = from & CHUNK_MASK;
+            int n = Math.min(CHUNK_SIZE - offset, length - destPos);
+            chunk.position(offset);
+            chunk.get(dest, destPos, n);
+            from += n;
+            destPos += n;
+        }
+        return dest;
+    }
+
+    private void ensureCapacity(int minCapacity) {
+        if(minCapacity < 0) { // overflow
+            throw new OutOfMemoryError();
+        }
+        while (minCapacity > chunkCount << CHUNK_SHIFT) {
+            if(chunkCount == chunks.length) {
+                // only chunk references are copied
+                DoubleBuffer[] tmp = new DoubleBuffer[chunks.length * 2];
+                System.arraycopy(chunks, 0, tmp, 0, chunkCount);
+                chunks = tmp;
+            }
+            chunks[chunkCount] = allocator.allocate(CHUNK_SIZE * Double.BYTES).asDoubleBuffer();
+            chunkCount++;
+        }
+    }
+
+    private void rangeCheck(int index) {
+        if (index >= size || index < 0)
+            throw new IndexOutOfBoundsException("Index: "+index+", Size: "+size);
+    }
+}
@@ -0,0 +1,159 @@
+package com.biorecorder.datalyb.list;
+
+/**
+ * A growable list of double primitives stored in fixed size chunks (segments).
+ * <p>
+ * Unlike {@link DoubleArrayList} the list never reallocates and copies
+ * already added data: when the last chunk is full a new one is added.
+ * So append takes O(1) time, growing does not need extra memory for the copy
+ * and random access is O(1) by shift and mask.
+ */
+public class SegmentedDoubleArrayList {
+    private static final int CHUNK_SHIFT = 14; // 16K elements in every chunk
+    private static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+    private double[][] chunks = new double[8][];
+    private int chunkCount;
+    private int size;
+
+    public SegmentedDoubleArrayList() {
+    }
+
+    public SegmentedDoubleArrayList(double[] source) {
+        add(source);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public double get(int index) {
+        rangeCheck(index);
+        return chunks[index >>> CHUNK_SHIFT][index & CHUNK_MASK];
+    }
+
+    public void set(int index, double value) {
+        rangeCheck(index);
+        chunks[index >>> CHUNK_SHIFT][index & CHUNK_MASK] = value;
+    }
+
+    /**
+     * Removes all elements. Already allocated chunks are kept and will be reused.
+     */
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * Adds a new element to the end of the list
+     */
+    public void add(double value) {
+        int offset = size & CHUNK_MASK;
+        if (offset == 0) {
+            ensureCapacity(size + 1);
+        }
+        chunks[size >>> CHUNK_SHIFT][offset] = value;
+        size++;
+    }
+
+    /**
+     * Adds the values from the array <tt>values</tt> to the end of the
+     * list, in order.
+     */
+    public void add(double[] values) {
+        add(values, 0, values.length);
+    }
+
+    /**
+     * Adds <tt>length</tt> values from the array starting at <tt>from</tt>
+     * to the end of the list. Values are copied chunk by chunk.
+     */
+    public void add(double[] values, int from, int length) {
+        ensureCapacity(size + length);
+        int till = from + length;
+        while (from < till) {
+            int offset = size & CHUNK_MASK;
+            int n = Math.min(CHUNK_SIZE - offset, till - from);
+            System.arraycopy(values, from, chunks[size >>> CHUNK_SHIFT], offset, n);
+            from += n;
+            size += n;
+        }
+    }
+
+    public double[] toArray() {
+        return toArray(0, size);
+    }
+
+    /**
+     * Copies the given range of the list to a new array chunk by chunk
+     */
+    public double[] toArray(int from, int length) throws IndexOutOfBoundsException {
+        if(from < 0 || length < 0 || from + length > size) {
+            String msg = "from: " + from + ", length: " + length + ", size: " + size;
+            throw new IndexOutOfBoundsException(msg);
+        }
+        double[] dest = new double[length];
+        int destPos = 0;
+        while (destPos < length) {
+            int offset = from & CHUNK_MASK;
+            int n = Math.min(CHUNK_SIZE - offset, length - destPos);
+            System.arraycopy(chunks[from >>> CHUNK_SHIFT], offset, dest, destPos, n);
+            from += n;
+            destPos += n;
+        }
+        return dest;
+    }
+
+    private void ensureCapacity(int minCapacity) {
+        if(minCapacity < 0) { // overflow
+            throw new OutOfMemoryError();
+        }
+        while (minCapacity > chunkCount << CHUNK_SHIFT) {
+            if(chunkCount == chunks.length) {
+                // only chunk references are copied
+                double[][] tmp = new double[chunks.length * 2][];
+                System.arraycopy(chunks, 0, tmp, 0, chunkCount);
+                chunks = tmp;
+            }
+            chunks[chunkCount] = new double[CHUNK_SIZE];
+            chunkCount++;
+        }
+    }
+
+    private void rangeCheck(int index) {
+        if (index >= size || index < 0)
+            throw new IndexOutOfBoundsException("Index: "+index+", Size: "+size);
+    }
+
+    /**
+     * Unit Test. Compares the list with DoubleArrayList
+     */
+    public static void main(String[] args) {
+        java.util.Random random = new java.util.Random(1);
+        SegmentedDoubleArrayList segmentedList = new SegmentedDoubleArrayList();
+        DoubleArrayList arrayList = new DoubleArrayList();
+        for (int i = 0; i < 1000; i++) {
+            if(random.nextBoolean()) {
+                double value = random.nextDouble();
+                segmentedList.add(value);
+                arrayList.add(value);
+            } else {
+                double[] values = new double[random.nextInt(3 * CHUNK_SIZE / 2)];
+                for (int j = 0; j < values.length; j++) {
+                    values[j] = random.nextDouble();
+                }
+                segmentedList.add(values, 0, values.length);
+                arrayList.add(values);
+            }
+        }
+        boolean isTestOk = segmentedList.size() == arrayList.size();
+        for (int i = 0; i < arrayList.size() && isTestOk; i++) {
+            isTestOk = segmentedList.get(i) == arrayList.get(i);
+        }
+        int from = CHUNK_SIZE - 10;
+        int length = 2 * CHUNK_SIZE + 20;
+        isTestOk = isTestOk && java.util.Arrays.equals(segmentedList.toArray(from, length), arrayList.toArray(from, length));
+        System.out.println("Is test ok: " + isTestOk);
+    }
+}
@@ -14,7 +14,8 @@ public class BufferedEdfReader {
 
     private EdfPosition edfPosition;
     private byte[] buffer;
-    private int offset;
+    private int[] samples; // decoded buffer
+    private int offset; // in samples
     private int samplesInBuffer;
 
     public BufferedEdfReader(File file, int bufferSizeInSamples) throws FileNotFoundException, HeaderException, IOException {
@@ -23,6 +24,7 @@ public class BufferedEdfReader {
         fileInputStream = new RandomAccessFile(file, "r");
         header = headerRecord.getHeaderInfo();
         buffer = new byte[bufferSizeInSamples * header.getNumberOfBytesPerSample()];
+        samples = new int[bufferSizeInSamples];
         edfPosition = new EdfPosition(header);
     }
 
@@ -32,12 +34,14 @@ public class BufferedEdfReader {
             fileInputStream.seek(position);
         }
         offset = 0;
-        samplesInBuffer = fileInputStream.read(buffer) / header.getNumberOfBytesPerSample();
+        samplesInBuffer = Math.max(0, fileInputStream.read(buffer)) / header.getNumberOfBytesPerSample();
+        // decode the whole buffer at once
+        header.littleEndianBytesToIntArray(buffer, 0, samples, 0, samplesInBuffer);
         return samplesInBuffer;
     }
 
     private void clearBuffer() {
-        offset = buffer.length;
+        offset = samplesInBuffer;
     }
 
     private boolean isBufferEmpty() {
@@ -53,8 +57,8 @@ public class BufferedEdfReader {
                 throw new EOFException("End of file");
             }
         }
-        int value = header.littleEndianBytesToInt(buffer, offset);
-        offset += header.getNumberOfBytesPerSample();
+        int value = samples[offset];
+        offset++;
         edfPosition.next();
         return value;
     }
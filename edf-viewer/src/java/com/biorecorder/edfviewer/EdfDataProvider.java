@@ -1,21 +1,39 @@
 package com.biorecorder.edfviewer;
 
 import com.biorecorder.filters.digitalfilter.IntDigitalFilter;
+import com.biorecorder.filters.digitalfilter.IntFilterChain;
 import com.biorecorder.edflib.DataHeader;
+import com.biorecorder.edflib.EdfPyramid;
 import com.biorecorder.edflib.HeaderException;
+import com.biorecorder.edflib.PyramidData;
 
 import java.io.EOFException;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 
 public class EdfDataProvider {
     BufferedEdfReader edfReader;
     SignalListener[] signalListeners;
+    private final Future<EdfPyramid> pyramidFuture;
 
     public EdfDataProvider(File file, int bufferSize) throws FileNotFoundException, HeaderException, IOException {
+        this(file, bufferSize, null);
+    }
+
+    /**
+     * @param pyramidReadyListener (may be null) is run (not in the calling thread)
+     *                             when the pyramid of the file is read or built,
+     *                             so long intervals may be requested again
+     *                             by {@link #provideData(long, long, int)}
+     */
+    public EdfDataProvider(File file, int bufferSize, Runnable pyramidReadyListener) throws FileNotFoundException, HeaderException, IOException {
         edfReader = new BufferedEdfReader(file, bufferSize);
         signalListeners = new SignalListener[edfReader.getNumberOfSignals()];
+        // for big files the pyramid is read (or built) while the first data are provided
+        pyramidFuture = EdfPyramid.loadOrBuildInBackground(file, pyramidReadyListener);
     }
 
     public void close() throws IOException {
@@ -79,6 +97,78 @@ public class EdfDataProvider {
     }
 
 
+    /**
+     * Provides to every signal listener the given time interval to be shown
+     * by maxPoints points. If the interval contains much more samples,
+     * min and max (physical) values of every group of samples are provided
+     * (by turns) instead of samples. They are taken from the pyramid
+     * of the file (see {@link EdfPyramid}) so time does not depend on the interval length.
+     * Filters are not applied to such values.
+     * <p>
+     * If the pyramid is not ready yet or the interval contains not so many samples
+     * the data are provided as usual by {@link #provideData(long, long)}
+     */
+    public void provideData(long startTimeMs, long endTimeMs, int maxPoints) throws IllegalArgumentException, IOException {
+        if(startTimeMs > endTimeMs) {
+            throw new IllegalArgumentException("startTime: " + startTimeMs + " > " + "endTime: " + endTimeMs);
+        }
+        EdfPyramid pyramid = getPyramid();
+        if(pyramid == null) {
+            provideData(startTimeMs, endTimeMs);
+            return;
+        }
+        DataHeader header = edfReader.getHeader();
+        // every bucket gives 2 points: min and max
+        int maxBuckets = Math.max(1, maxPoints / 2);
+        PyramidData[] signalsData = new PyramidData[signalListeners.length];
+        for (int i = 0; i < signalListeners.length; i++) {
+            if(signalListeners[i] != null) {
+                double sampleFrequency = header.getSampleFrequency(i);
+                long fromSample = (long) (startTimeMs * sampleFrequency / 1000);
+                long toSample = (long) (endTimeMs * sampleFrequency / 1000);
+                // with less samples per point the samples themselves are better and quick enough
+                if(toSample - fromSample < (long) maxBuckets * pyramid.getBaseBucketSize()) {
+                    provideData(startTimeMs, endTimeMs);
+                    return;
+                }
+                signalsData[i] = pyramid.getData(i, fromSample, toSample, maxBuckets);
+                if(signalsData[i] == null) {
+                    provideData(startTimeMs, endTimeMs);
+                    return;
+                }
+            }
+        }
+        for (int i = 0; i < signalListeners.length; i++) {
+            SignalListener signalListener = signalListeners[i];
+            PyramidData data = signalsData[i];
+            if(signalListener != null) {
+                signalListener.onStart();
+                for (int j = 0; j < data.size(); j++) {
+                    signalListener.send(header.digitalValueToPhysical(i, data.getMin(j)));
+                    signalListener.send(header.digitalValueToPhysical(i, data.getMax(j)));
+                }
+                signalListener.onFinish();
+            }
+        }
+    }
+
+    /**
+     * @return the pyramid of the file or null if it is not ready yet or can not be built
+     */
+    private EdfPyramid getPyramid() {
+        if(!pyramidFuture.isDone()) {
+            return null;
+        }
+        try {
+            return pyramidFuture.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            e.printStackTrace();
+        }
+        return null;
+    }
+
     private void stopProviding(SignalManager[] signalsListeners) {
         for (int i = 0; i < signalsListeners.length; i++) {
             SignalManager listener = signalsListeners[i];
@@ -96,10 +186,7 @@ public class EdfDataProvider {
         public SignalListener(DataListener l, IntDigitalFilter[] filters) {
             this.l = l;
             this.filters = filters;
-            filterLength = 1;
-            for (int i = 0; i < filters.length; i++) {
-                filterLength *= filters[i].getFilterLength();
-            }
+            filterLength = new IntFilterChain(filters).getFilterLength();
         }
 
         public int filter(int data) {
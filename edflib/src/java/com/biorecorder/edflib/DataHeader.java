@@ -87,6 +87,7 @@ public class DataHeader {
         for (int i = 0; i < recordsHeader.numberOfSignals(); i++) {
             signals.add(new Signal(recordsHeader.signals.get(i)));
         }
+        signalsOffsetInDataRecord.addAll(recordsHeader.signalsOffsetInDataRecord);
         numberOfBytesInHeaderRecord = recordsHeader.numberOfBytesInHeaderRecord;
 
     }
@@ -285,6 +286,45 @@ public class DataHeader {
         return EndianBitConverter.littleEndianBytesToInt(byteArray, offset, versionFormat.getNumberOfBytesPerSample());
     }
 
+    /**
+     * Converts n samples (2 or 3 LITTLE_ENDIAN ordered bytes each depending on the format version)
+     * to digital (int) values.
+     *
+     * @param byteArray   array with the samples bytes
+     * @param offset      the offset within the byte array of the first byte to be converted
+     * @param intArray    array to write resultant digital values
+     * @param intOffset   the offset within the int array of the first value to be written
+     * @param n           number of samples to convert
+     */
+    public void littleEndianBytesToIntArray(byte[] byteArray, int offset, int[] intArray, int intOffset, int n) {
+        EndianBitConverter.littleEndianByteArrayToIntArray(byteArray, offset, intArray, intOffset, n, versionFormat.getNumberOfBytesPerSample());
+    }
+
+    /**
+     * Converts n samples belonging to the given signal directly
+     * to their physical values using the signal gain and offset.
+     *
+     * @param signalNumber number of the signal(channel). Numeration starts from 0
+     * @param byteArray    array with the samples bytes
+     * @param offset       the offset within the byte array of the first byte to be converted
+     * @param physArray    array to write resultant physical values
+     * @param physOffset   the offset within the physArray of the first value to be written
+     * @param n            number of samples to convert
+     */
+    public void littleEndianBytesToPhysicalArray(int signalNumber, byte[] byteArray, int offset, double[] physArray, int physOffset, int n) {
+        Signal signal = signals.get(signalNumber);
+        EndianBitConverter.littleEndianByteArrayToPhysical(byteArray, offset, physArray, physOffset, n, versionFormat.getNumberOfBytesPerSample(), signal.getGain(), signal.getOffset());
+    }
+
+    /**
+     * The same as {@link #littleEndianBytesToPhysicalArray(int, byte[], int, double[], int, int)}
+     * but physical values are written to float array
+     */
+    public void littleEndianBytesToPhysicalArray(int signalNumber, byte[] byteArray, int offset, float[] physArray, int physOffset, int n) {
+        Signal signal = signals.get(signalNumber);
+        EndianBitConverter.littleEndianByteArrayToPhysical(byteArray, offset, physArray, physOffset, n, versionFormat.getNumberOfBytesPerSample(), signal.getGain(), signal.getOffset());
+    }
+
     /*****************************************************************
      *                   Signals Info                                *
      *****************************************************************/
@@ -4,10 +4,10 @@ import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.nio.channels.FileChannel;
 import java.text.SimpleDateFormat;
 import java.util.Date;
-import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * EdfWriter permits to write digital or physical samples
@@ -31,6 +31,16 @@ import java.util.concurrent.atomic.AtomicLong;
  * to 2 LITTLE_ENDIAN ordered bytes (16 bits) for EDF files or
  * to 3 LITTLE_ENDIAN ordered bytes (24 bits) for BDF files
  * and in this form written to the file.
+ * <p>
+ * By default data are written to the file directly in the thread calling
+ * writing methods. In asynchronous mode (see {@link #enableAsyncWriting(int, int, int, int)})
+ * samples are only encoded in the calling thread to a big reusable buffer
+ * while writing to the file is done by a separate thread in big portions
+ * (group commits). That mode is preferable for long recordings on slow disks.
+ * <p>
+ * Optionally (see {@link #enablePyramid()}) the min/max/mean pyramid of the signals
+ * is built while writing and saved to the sidecar file on closing
+ * (see {@link EdfPyramid}).
  */
 public class EdfFileWriter implements DataRecordStream {
     private final String CLOSED_MSG = "File was closed. Data can not be written";
@@ -38,15 +48,29 @@ public class EdfFileWriter implements DataRecordStream {
     private final String RECORD_INCOMPLETE = "Last data record is incomplete. Incorrect use of method: writeSamples/writePhysicalSamples.";
     private static final int MAX_RECORD_NUMBER = 100000000; // possible edf record number is 8 digits => 99999999
 
-    private DataHeader header;
+    public static final int DEFAULT_COMMIT_SIZE_BYTES = 1024 * 1024;
+    public static final int DEFAULT_COMMIT_PERIOD_MS = 1000;
+    public static final int DEFAULT_HEADER_UPDATE_PERIOD_MS = 10 * 1000;
+    public static final int DEFAULT_NUMBER_OF_BUFFERS = 4;
+
+    private volatile DataHeader header;
     private final File file;
     private volatile boolean isClosed = false;
-    private volatile boolean isWriting = false;
     private volatile long sampleCount;
 
     private final FileOutputStream fileOutputStream;
     private int recordSize; // helper field to avoid unnecessary calculations
     private int currentSignal;
+    private byte[] byteArray = new byte[0]; // reusable buffer for synchronous writing
+
+    private boolean isAsync;
+    private int commitSizeBytes;
+    private int commitPeriodMs;
+    private int headerUpdatePeriodMs;
+    private int numberOfBuffers;
+    private volatile GroupCommitWriter groupCommitWriter;
+    private int pyramidBaseBucketSize; // 0 - pyramid is disabled
+    private volatile EdfPyramid pyramid;
 
     public EdfFileWriter(File file) throws FileNotFoundException {
         this.file = file;
@@ -77,6 +101,84 @@ public class EdfFileWriter implements DataRecordStream {
         return file;
     }
 
+    /**
+     * Switches on asynchronous writing with default parameters
+     *
+     * @throws IllegalStateException if some data were already written
+     */
+    public void enableAsyncWriting() throws IllegalStateException {
+        enableAsyncWriting(DEFAULT_COMMIT_SIZE_BYTES, DEFAULT_COMMIT_PERIOD_MS, DEFAULT_HEADER_UPDATE_PERIOD_MS, DEFAULT_NUMBER_OF_BUFFERS);
+    }
+
+    /**
+     * Switches on asynchronous writing. Samples will be accumulated in memory buffers
+     * and written to the file by a separate thread when a buffer contains
+     * commitSizeBytes or commitPeriodMs has elapsed since the last writing.
+     * The header is rewritten every headerUpdatePeriodMs with the current number
+     * of data records so the file stays readable even if the recording is
+     * interrupted abnormally.
+     *
+     * @param commitSizeBytes      size of data (in bytes) written to the file by one operation
+     * @param commitPeriodMs       max time data may stay in memory before writing
+     * @param headerUpdatePeriodMs period of the header rewriting
+     * @param numberOfBuffers      number of buffers (at least 2). When all of them are waiting
+     *                             to be written the calling thread waits
+     * @throws IllegalStateException if some data were already written
+     */
+    public synchronized void enableAsyncWriting(int commitSizeBytes, int commitPeriodMs, int headerUpdatePeriodMs, int numberOfBuffers) throws IllegalStateException {
+        if(sampleCount > 0) {
+            String errMsg = "Writing mode can not be changed after data writing started";
+            throw new IllegalStateException(errMsg);
+        }
+        isAsync = true;
+        this.commitSizeBytes = commitSizeBytes;
+        this.commitPeriodMs = commitPeriodMs;
+        this.headerUpdatePeriodMs = headerUpdatePeriodMs;
+        this.numberOfBuffers = numberOfBuffers;
+    }
+
+    /**
+     * Switches on building of the min/max/mean pyramid with default base bucket size
+     *
+     * @throws IllegalStateException if some data were already written
+     */
+    public void enablePyramid() throws IllegalStateException {
+        enablePyramid(EdfPyramid.DEFAULT_BASE_BUCKET_SIZE);
+    }
+
+    /**
+     * Switches on building of the min/max/mean pyramid of the written samples.
+     * The pyramid is saved to the file {@link EdfPyramid#getPyramidFile(File)}
+     * when this writer is closed.
+     *
+     * @param baseBucketSize number of samples in every bucket of the pyramid level 0
+     * @throws IllegalStateException if some data were already written
+     * @throws IllegalArgumentException if baseBucketSize < 1
+     */
+    public synchronized void enablePyramid(int baseBucketSize) throws IllegalStateException, IllegalArgumentException {
+        if(sampleCount > 0) {
+            String errMsg = "Pyramid can not be enabled after data writing started";
+            throw new IllegalStateException(errMsg);
+        }
+        if(baseBucketSize < 1) {
+            String errMsg = "Base bucket size = " + baseBucketSize + ". Expected >= 1";
+            throw new IllegalArgumentException(errMsg);
+        }
+        pyramidBaseBucketSize = baseBucketSize;
+    }
+
+    /**
+     * Gets the pyramid of already written samples.
+     * It permits to show the data of the file being recorded at any scale
+     * without reading the file.
+     *
+     * @return the pyramid or null if pyramid building is disabled
+     * or no data were written yet
+     */
+    public EdfPyramid getPyramid() {
+        return pyramid;
+    }
+
     @Override
     public void setHeader(DataHeader header) throws IllegalArgumentException {
         if(this.header != null) {
@@ -136,6 +238,9 @@ public class EdfFileWriter implements DataRecordStream {
             }
         }
         writeDataToFile(digitalSamples, sn);
+        if(pyramid != null) {
+            pyramid.addSamples(currentSignal, digitalSamples, 0, sn);
+        }
         currentSignal++;
         if(currentSignal == header.numberOfSignals()) {
             currentSignal = 0;
@@ -179,6 +284,9 @@ public class EdfFileWriter implements DataRecordStream {
             }
         }
         writeDataToFile(digitalDataRecord, recordSize);
+        if(pyramid != null) {
+            pyramid.addDataRecord(digitalDataRecord, 0);
+        }
     }
 
 
@@ -245,19 +353,15 @@ public class EdfFileWriter implements DataRecordStream {
      * @throws IORuntimeException  if an I/O  occurs
      */
     @Override
-    public void close() throws IORuntimeException {
+    public synchronized void close() throws IORuntimeException {
         if(isClosed) {
             return;
         }
         isClosed = true;
-        while(isWriting) {
-            try {
-                Thread.sleep(100);
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-            }
-        }
         try {
+            if(groupCommitWriter != null) {
+                groupCommitWriter.close();
+            }
             writeHeaderToFile();
         } finally {
             try {
@@ -266,6 +370,14 @@ public class EdfFileWriter implements DataRecordStream {
                 throw new IORuntimeException(e);
             }
         }
+        if(pyramid != null) {
+            try {
+                // written after the data file so it is not considered out of date
+                pyramid.save(EdfPyramid.getPyramidFile(file));
+            } catch (IOException e) {
+                throw new IORuntimeException(e);
+            }
+        }
     }
 
     /**
@@ -292,31 +404,116 @@ public class EdfFileWriter implements DataRecordStream {
         return isClosed;
     }
 
-    private void writeDataToFile(int[] samples, int length) throws IllegalStateException, IORuntimeException {
-        isWriting = true;
+    /**
+     * Asynchronous mode only.
+     * Gets the number of filled buffers waiting to be written to the file
+     */
+    public int getWritingQueueDepth() {
+        GroupCommitWriter writer = groupCommitWriter;
+        return writer == null ? 0 : writer.getQueueDepth();
+    }
+
+    /**
+     * Asynchronous mode only.
+     * Gets the max number of filled buffers that were waiting to be written simultaneously
+     */
+    public int getMaxWritingQueueDepth() {
+        GroupCommitWriter writer = groupCommitWriter;
+        return writer == null ? 0 : writer.getMaxQueueDepth();
+    }
+
+    /**
+     * Asynchronous mode only.
+     * Gets how many times writing methods had to wait because all buffers
+     * were waiting to be written (disk is too slow)
+     */
+    public long getNumberOfWaitsForFreeBuffer() {
+        GroupCommitWriter writer = groupCommitWriter;
+        return writer == null ? 0 : writer.getWaitsForFreeBuffer();
+    }
+
+    /**
+     * Asynchronous mode only.
+     * Gets the number of group commits (buffers written to the file)
+     */
+    public long getNumberOfCommits() {
+        GroupCommitWriter writer = groupCommitWriter;
+        return writer == null ? 0 : writer.getCommitsCount();
+    }
+
+    /**
+     * Asynchronous mode only.
+     * Gets the time of the last buffer writing in milliseconds
+     */
+    public double getLastFlushLatencyMs() {
+        GroupCommitWriter writer = groupCommitWriter;
+        return writer == null ? 0 : writer.getLastFlushLatencyMs();
+    }
+
+    /**
+     * Asynchronous mode only.
+     * Gets the max time of buffer writing in milliseconds
+     */
+    public double getMaxFlushLatencyMs() {
+        GroupCommitWriter writer = groupCommitWriter;
+        return writer == null ? 0 : writer.getMaxFlushLatencyMs();
+    }
+
+    /**
+     * Asynchronous mode only.
+     * Gets the average time of buffer writing in milliseconds
+     */
+    public double getAverageFlushLatencyMs() {
+        GroupCommitWriter writer = groupCommitWriter;
+        return writer == null ? 0 : writer.getAverageFlushLatencyMs();
+    }
+
+    private synchronized void writeDataToFile(int[] samples, int length) throws IllegalStateException, IORuntimeException {
         if(isClosed) {
-            isWriting = false;
             throw new IllegalStateException(CLOSED_MSG);
         }
-        try{
-            if(sampleCount == 0) {
-                long firstRecordTime = System.currentTimeMillis();
-                if(header.getRecordingStartTimeMs() <= 0) {
-                    header.setRecordingStartTimeMs(firstRecordTime);
-                }
-                writeHeaderToFile();
+        int numberOfBytesPerSample = header.getNumberOfBytesPerSample();
+        if(sampleCount == 0) {
+            long firstRecordTime = System.currentTimeMillis();
+            if(header.getRecordingStartTimeMs() <= 0) {
+                header.setRecordingStartTimeMs(firstRecordTime);
             }
-            sampleCount += length;
-            int numberOfBytesPerSample = header.getNumberOfBytesPerSample();
-            byte[] byteArray = new byte[numberOfBytesPerSample * length];
-            EndianBitConverter.intArrayToLittleEndianByteArray(samples, 0, byteArray, 0, length, numberOfBytesPerSample);
-            try {
-                fileOutputStream.write(byteArray);
-            } catch (IOException e) {
-                throw new IORuntimeException(e);
+            if(pyramidBaseBucketSize > 0) {
+                pyramid = new EdfPyramid(header, pyramidBaseBucketSize);
             }
-        } finally {
-            isWriting = false;
+            if(isAsync) {
+                // the header is written by the writer thread before the first data
+                int bufferSize = Math.max(commitSizeBytes, recordSize * numberOfBytesPerSample);
+                groupCommitWriter = new GroupCommitWriter(fileOutputStream.getChannel(), new GroupCommitWriter.HeaderProvider() {
+                    @Override
+                    public byte[] getHeaderBytes(long writtenDataBytes) {
+                        DataHeader headerCopy = new DataHeader(header);
+                        long recordSizeInBytes = (long) headerCopy.getRecordSize() * headerCopy.getNumberOfBytesPerSample();
+                        int numberOfWrittenRecords = (int) (writtenDataBytes / recordSizeInBytes);
+                        if(numberOfWrittenRecords > 0 && numberOfWrittenRecords < MAX_RECORD_NUMBER) {
+                            headerCopy.setNumberOfDataRecords(numberOfWrittenRecords);
+                        }
+                        return new HeaderRecord(headerCopy).getBytes();
+                    }
+                }, bufferSize, numberOfBuffers, commitSizeBytes, commitPeriodMs, headerUpdatePeriodMs);
+            } else {
+                writeHeaderToFile();
+            }
+        }
+        sampleCount += length;
+        if(groupCommitWriter != null) {
+            groupCommitWriter.write(samples, 0, length, numberOfBytesPerSample);
+            return;
+        }
+        int byteLength = numberOfBytesPerSample * length;
+        if(byteArray.length < byteLength) {
+            byteArray = new byte[byteLength];
+        }
+        EndianBitConverter.intArrayToLittleEndianByteArray(samples, 0, byteArray, 0, length, numberOfBytesPerSample);
+        try {
+            fileOutputStream.write(byteArray, 0, byteLength);
+        } catch (IOException e) {
+            throw new IORuntimeException(e);
         }
     }
 
@@ -328,8 +525,17 @@ public class EdfFileWriter implements DataRecordStream {
 
         FileChannel fileChannel = fileOutputStream.getChannel();
         try {
-            fileChannel.position(0);
-            fileOutputStream.write(new HeaderRecord(header).getBytes());
+            if(groupCommitWriter != null) {
+                // positional writing does not change the channel position
+                ByteBuffer headerBuffer = ByteBuffer.wrap(new HeaderRecord(header).getBytes());
+                long position = 0;
+                while (headerBuffer.hasRemaining()) {
+                    position += fileChannel.write(headerBuffer, position);
+                }
+            } else {
+                fileChannel.position(0);
+                fileOutputStream.write(new HeaderRecord(header).getBytes());
+            }
         } catch (IOException e) {
             throw new IORuntimeException(e);
         }
@@ -0,0 +1,573 @@
+package com.biorecorder.edflib;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+
+/**
+ * Multi-resolution min/max/mean index (pyramid) of the signals of EDF/BDF file.
+ * <p>
+ * Level 0 of every signal contains min, max and mean of every
+ * baseBucketSize consecutive samples. Every next level groups
+ * {@link #DECIMATION} buckets of the previous one.
+ * So to show the whole recording (or any part of it) on the screen
+ * it is enough to take the level with the number of buckets
+ * close to the number of pixels instead of reading and grouping all samples.
+ * <p>
+ * The pyramid is stored in the «sidecar» file next to the EDF/BDF file
+ * (see {@link #getPyramidFile(File)}). It may be built incrementally
+ * while the file is written (see {@link EdfFileWriter#enablePyramid()})
+ * or for already existing file (see {@link #loadOrBuild(File)}).
+ * <p>
+ * Only complete buckets are available for reading,
+ * so the tail of the signal shorter than one bucket is not represented
+ * on every level.
+ * <p>
+ * This class is thread safe.
+ */
+public class EdfPyramid {
+    public static final String FILE_EXTENSION = "pyr";
+    public static final int DECIMATION = 4;
+    public static final int DEFAULT_BASE_BUCKET_SIZE = 64;
+
+    private static final int FORMAT_ID = 0x45445059; // "EDPY"
+    private static final int FORMAT_VERSION = 1;
+    private static final int RECORDS_TO_READ = 100;
+
+    private final int baseBucketSize;
+    private final int[] samplesInRecord;
+    private final SignalPyramid[] signalPyramids;
+
+    public EdfPyramid(DataHeader header) {
+        this(header, DEFAULT_BASE_BUCKET_SIZE);
+    }
+
+    /**
+     * @param header         header of EDF/BDF file
+     * @param baseBucketSize number of samples in every bucket of level 0
+     * @throws IllegalArgumentException if baseBucketSize < 1
+     */
+    public EdfPyramid(DataHeader header, int baseBucketSize) throws IllegalArgumentException {
+        if (baseBucketSize < 1) {
+            String errMsg = "Base bucket size = " + baseBucketSize + ". Expected >= 1";
+            throw new IllegalArgumentException(errMsg);
+        }
+        this.baseBucketSize = baseBucketSize;
+        samplesInRecord = new int[header.numberOfSignals()];
+        signalPyramids = new SignalPyramid[header.numberOfSignals()];
+        for (int i = 0; i < samplesInRecord.length; i++) {
+            samplesInRecord[i] = header.getNumberOfSamplesInEachDataRecord(i);
+            signalPyramids[i] = new SignalPyramid(baseBucketSize);
+        }
+    }
+
+    private EdfPyramid(int baseBucketSize, int[] samplesInRecord, SignalPyramid[] signalPyramids) {
+        this.baseBucketSize = baseBucketSize;
+        this.samplesInRecord = samplesInRecord;
+        this.signalPyramids = signalPyramids;
+    }
+
+    /**
+     * Gets the sidecar file where the pyramid of the given EDF/BDF file is stored
+     */
+    public static File getPyramidFile(File edfFile) {
+        return new File(edfFile.getPath() + "." + FILE_EXTENSION);
+    }
+
+    /**
+     * Reads the pyramid of the given EDF/BDF file from its sidecar file
+     *
+     * @return the pyramid or null if the sidecar file does not exist
+     * or does not correspond to the current state of EDF/BDF file
+     * @throws IOException if an I/O error occurs
+     */
+    public static EdfPyramid read(File edfFile) throws IOException {
+        File pyramidFile = getPyramidFile(edfFile);
+        if (!pyramidFile.exists() || pyramidFile.lastModified() < edfFile.lastModified()) {
+            return null;
+        }
+        HeaderRecord headerRecord;
+        try {
+            headerRecord = new HeaderRecord(edfFile);
+        } catch (HeaderException e) {
+            return null;
+        }
+        DataHeader header = headerRecord.getHeaderInfo();
+        long recordSizeInBytes = (long) header.getRecordSize() * header.getNumberOfBytesPerSample();
+        long numberOfRecords = 0;
+        if (recordSizeInBytes > 0) {
+            numberOfRecords = (edfFile.length() - headerRecord.getNumberOfBytesInHeaderRecord()) / recordSizeInBytes;
+        }
+
+        DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(pyramidFile)));
+        try {
+            if (in.readInt() != FORMAT_ID || in.readInt() != FORMAT_VERSION) {
+                return null;
+            }
+            int storedNumberOfRecords = in.readInt();
+            int decimation = in.readInt();
+            int baseBucketSize = in.readInt();
+            int numberOfSignals = in.readInt();
+            if (storedNumberOfRecords != numberOfRecords || decimation != DECIMATION
+                    || numberOfSignals != header.numberOfSignals()) {
+                return null;
+            }
+            int[] samplesInRecord = new int[numberOfSignals];
+            SignalPyramid[] signalPyramids = new SignalPyramid[numberOfSignals];
+            for (int i = 0; i < numberOfSignals; i++) {
+                samplesInRecord[i] = in.readInt();
+                if (samplesInRecord[i] != header.getNumberOfSamplesInEachDataRecord(i)) {
+                    return null;
+                }
+                signalPyramids[i] = SignalPyramid.read(in);
+            }
+            return new EdfPyramid(baseBucketSize, samplesInRecord, signalPyramids);
+        } finally {
+            in.close();
+        }
+    }
+
+    /**
+     * Builds the pyramid for the given EDF/BDF file reading all its data records
+     *
+     * @throws HeaderException if the the file is not valid EDF/BDF file
+     * @throws IOException     if an I/O error occurs
+     */
+    public static EdfPyramid build(File edfFile) throws HeaderException, IOException {
+        MappedEdfReader reader = new MappedEdfReader(edfFile);
+        try {
+            DataHeader header = reader.getHeader();
+            EdfPyramid pyramid = new EdfPyramid(header);
+            int recordSize = header.getRecordSize();
+            int[] buffer = new int[recordSize * RECORDS_TO_READ];
+            int readRecords;
+            while ((readRecords = reader.readDataRecords(RECORDS_TO_READ, buffer)) > 0) {
+                for (int i = 0; i < readRecords; i++) {
+                    pyramid.addDataRecord(buffer, i * recordSize);
+                }
+            }
+            return pyramid;
+        } finally {
+            reader.close();
+        }
+    }
+
+    /**
+     * Reads the pyramid of the given EDF/BDF file from its sidecar file.
+     * If the sidecar file does not exist or is out of date the pyramid is built
+     * and saved to the sidecar file. If saving fails the built pyramid is returned anyway.
+     *
+     * @throws HeaderException if the the file is not valid EDF/BDF file
+     * @throws IOException     if an I/O error occurs
+     */
+    public static EdfPyramid loadOrBuild(File edfFile) throws HeaderException, IOException {
+        EdfPyramid pyramid = null;
+        try {
+            pyramid = read(edfFile);
+        } catch (IOException e) {
+            // corrupted sidecar file will be rewritten
+        }
+        if (pyramid == null) {
+            pyramid = build(edfFile);
+            try {
+                pyramid.save(getPyramidFile(edfFile));
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+        return pyramid;
+    }
+
+    /**
+     * The same as {@link #loadOrBuild(File)} but is done in a separate thread
+     */
+    public static Future<EdfPyramid> loadOrBuildInBackground(final File edfFile) {
+        return loadOrBuildInBackground(edfFile, null);
+    }
+
+    /**
+     * The same as {@link #loadOrBuild(File)} but is done in a separate thread
+     *
+     * @param readyListener (may be null) is run in that thread when the returned future
+     *                      is done (also if building fails), so the pyramid
+     *                      may be taken without waiting
+     */
+    public static Future<EdfPyramid> loadOrBuildInBackground(final File edfFile, final Runnable readyListener) {
+        FutureTask<EdfPyramid> task = new FutureTask<EdfPyramid>(new Callable<EdfPyramid>() {
+            @Override
+            public EdfPyramid call() throws Exception {
+                return loadOrBuild(edfFile);
+            }
+        }) {
+            @Override
+            protected void done() {
+                if (readyListener != null) {
+                    readyListener.run();
+                }
+            }
+        };
+        Thread thread = new Thread(task, "«Edf pyramid building» thread");
+        thread.setDaemon(true);
+        thread.start();
+        return task;
+    }
+
+    /**
+     * Adds samples belonging to the given signal
+     */
+    public synchronized void addSamples(int signal, int[] samples, int offset, int length) {
+        signalPyramids[signal].add(samples, offset, length);
+    }
+
+    /**
+     * Adds the entire data record containing samples from all signals
+     * starting with n_0 samples of signal 0, n_1 samples of signal 1, n_2 samples of signal 2, etc.
+     */
+    public synchronized void addDataRecord(int[] dataRecord, int offset) {
+        for (int i = 0; i < signalPyramids.length; i++) {
+            signalPyramids[i].add(dataRecord, offset, samplesInRecord[i]);
+            offset += samplesInRecord[i];
+        }
+    }
+
+    public int numberOfSignals() {
+        return signalPyramids.length;
+    }
+
+    public int getBaseBucketSize() {
+        return baseBucketSize;
+    }
+
+    public synchronized int getNumberOfLevels(int signal) {
+        return signalPyramids[signal].levels.size();
+    }
+
+    /**
+     * Gets the number of samples of the given signal added to the pyramid
+     */
+    public synchronized long getNumberOfSamples(int signal) {
+        return signalPyramids[signal].sampleCount;
+    }
+
+    /**
+     * Gets the number of complete data records added to the pyramid
+     */
+    public synchronized int getNumberOfDataRecords() {
+        long numberOfRecords = Long.MAX_VALUE;
+        for (int i = 0; i < signalPyramids.length; i++) {
+            if (samplesInRecord[i] > 0) {
+                numberOfRecords = Math.min(numberOfRecords, signalPyramids[i].sampleCount / samplesInRecord[i]);
+            }
+        }
+        if (numberOfRecords == Long.MAX_VALUE) {
+            return 0;
+        }
+        return (int) numberOfRecords;
+    }
+
+    /**
+     * Gets the min/max/mean values of the samples of the given signal
+     * from the most detailed level that has no more than maxPoints buckets
+     * in the given interval (or from the coarsest level if there is no such level).
+     * Time of the method does not depend on the number of samples
+     * in the interval and is proportional to maxPoints.
+     *
+     * @param signal     signal number
+     * @param fromSample number of the first sample of the interval (inclusive)
+     * @param toSample   number of the last sample of the interval (exclusive)
+     * @param maxPoints  desired max number of buckets
+     * @return min/max/mean values of the buckets covering the interval or
+     * null if the interval contains no more than maxPoints samples
+     * (so it is better to read the samples themselves) or contains no complete buckets
+     */
+    public synchronized PyramidData getData(int signal, long fromSample, long toSample, int maxPoints) {
+        return signalPyramids[signal].getData(fromSample, toSample, Math.max(1, maxPoints));
+    }
+
+    /**
+     * Writes the pyramid to the given file
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    public synchronized void save(File pyramidFile) throws IOException {
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(pyramidFile)));
+        try {
+            out.writeInt(FORMAT_ID);
+            out.writeInt(FORMAT_VERSION);
+            out.writeInt(getNumberOfDataRecords());
+            out.writeInt(DECIMATION);
+            out.writeInt(baseBucketSize);
+            out.writeInt(signalPyramids.length);
+            for (int i = 0; i < signalPyramids.length; i++) {
+                out.writeInt(samplesInRecord[i]);
+                signalPyramids[i].write(out);
+            }
+        } finally {
+            out.close();
+        }
+    }
+
+    static class SignalPyramid {
+        private final List<Level> levels;
+        private long sampleCount;
+
+        SignalPyramid(int baseBucketSize) {
+            levels = new ArrayList<Level>();
+            levels.add(new Level(baseBucketSize, baseBucketSize));
+        }
+
+        private SignalPyramid(List<Level> levels, long sampleCount) {
+            this.levels = levels;
+            this.sampleCount = sampleCount;
+        }
+
+        void add(int[] samples, int offset, int length) {
+            Level baseLevel = levels.get(0);
+            int end = offset + length;
+            for (int i = offset; i < end; i++) {
+                int value = samples[i];
+                if (baseLevel.add(value, value, value)) {
+                    bucketCompleted(0);
+                }
+            }
+            sampleCount += length;
+        }
+
+        private void bucketCompleted(int levelNumber) {
+            Level level = levels.get(levelNumber);
+            if (levelNumber == levels.size() - 1) {
+                if (level.bucketSize > Integer.MAX_VALUE / DECIMATION) {
+                    return;
+                }
+                levels.add(new Level(level.bucketSize * DECIMATION, DECIMATION));
+            }
+            int last = level.size - 1;
+            if (levels.get(levelNumber + 1).add(level.min[last], level.max[last], level.lastBucketSum)) {
+                bucketCompleted(levelNumber + 1);
+            }
+        }
+
+        PyramidData getData(long fromSample, long toSample, int maxPoints) {
+            fromSample = Math.max(0, fromSample);
+            toSample = Math.min(toSample, sampleCount);
+            if (toSample - fromSample <= maxPoints) {
+                return null;
+            }
+            Level level = levels.get(0);
+            for (Level l : levels) {
+                if (l.size == 0) {
+                    break;
+                }
+                level = l;
+                long bucketsInInterval = (toSample - 1) / l.bucketSize - fromSample / l.bucketSize + 1;
+                if (bucketsInInterval <= maxPoints) {
+                    break;
+                }
+            }
+            long firstBucket = fromSample / level.bucketSize;
+            long lastBucket = Math.min((toSample - 1) / level.bucketSize, level.size - 1);
+            if (lastBucket < firstBucket) {
+                return null;
+            }
+            int n = (int) (lastBucket - firstBucket + 1);
+            int[] min = new int[n];
+            int[] max = new int[n];
+            int[] mean = new int[n];
+            System.arraycopy(level.min, (int) firstBucket, min, 0, n);
+            System.arraycopy(level.max, (int) firstBucket, max, 0, n);
+            System.arraycopy(level.mean, (int) firstBucket, mean, 0, n);
+            return new PyramidData(level.bucketSize, firstBucket * level.bucketSize, min, max, mean);
+        }
+
+        void write(DataOutputStream out) throws IOException {
+            out.writeLong(sampleCount);
+            out.writeInt(levels.size());
+            for (Level level : levels) {
+                level.write(out);
+            }
+        }
+
+        static SignalPyramid read(DataInputStream in) throws IOException {
+            long sampleCount = in.readLong();
+            int numberOfLevels = in.readInt();
+            List<Level> levels = new ArrayList<Level>(numberOfLevels);
+            for (int i = 0; i < numberOfLevels; i++) {
+                levels.add(Level.read(in));
+            }
+            return new SignalPyramid(levels, sampleCount);
+        }
+    }
+
+    static class Level {
+        private final int bucketSize; // in samples
+        private final int groupSize; // number of values (samples or lower level buckets) in one bucket
+        private int[] min;
+        private int[] max;
+        private int[] mean;
+        private int size;
+        private long lastBucketSum;
+
+        // incomplete bucket
+        private int groupMin = Integer.MAX_VALUE;
+        private int groupMax = Integer.MIN_VALUE;
+        private long groupSum;
+        private int groupCount;
+
+        Level(int bucketSize, int groupSize) {
+            this(bucketSize, groupSize, 16);
+        }
+
+        private Level(int bucketSize, int groupSize, int capacity) {
+            this.bucketSize = bucketSize;
+            this.groupSize = groupSize;
+            min = new int[capacity];
+            max = new int[capacity];
+            mean = new int[capacity];
+        }
+
+        /**
+         * @return true if the bucket was completed
+         */
+        boolean add(int valueMin, int valueMax, long valueSum) {
+            if (valueMin < groupMin) {
+                groupMin = valueMin;
+            }
+            if (valueMax > groupMax) {
+                groupMax = valueMax;
+            }
+            groupSum += valueSum;
+            groupCount++;
+            if (groupCount < groupSize) {
+                return false;
+            }
+            if (size == min.length) {
+                int capacity = size + (size >> 1) + 16;
+                min = copyOf(min, capacity);
+                max = copyOf(max, capacity);
+                mean = copyOf(mean, capacity);
+            }
+            min[size] = groupMin;
+            max[size] = groupMax;
+            mean[size] = (int) Math.round((double) groupSum / bucketSize);
+            size++;
+            lastBucketSum = groupSum;
+            groupMin = Integer.MAX_VALUE;
+            groupMax = Integer.MIN_VALUE;
+            groupSum = 0;
+            groupCount = 0;
+            return true;
+        }
+
+        void write(DataOutputStream out) throws IOException {
+            out.writeInt(bucketSize);
+            out.writeInt(groupSize);
+            out.writeInt(size);
+            out.writeLong(lastBucketSum);
+            out.writeInt(groupMin);
+            out.writeInt(groupMax);
+            out.writeLong(groupSum);
+            out.writeInt(groupCount);
+            for (int i = 0; i < size; i++) {
+                out.writeInt(min[i]);
+                out.writeInt(max[i]);
+                out.writeInt(mean[i]);
+            }
+        }
+
+        static Level read(DataInputStream in) throws IOException {
+            int bucketSize = in.readInt();
+            int groupSize = in.readInt();
+            int size = in.readInt();
+            Level level = new Level(bucketSize, groupSize, size + 16);
+            level.size = size;
+            level.lastBucketSum = in.readLong();
+            level.groupMin = in.readInt();
+            level.groupMax = in.readInt();
+            level.groupSum = in.readLong();
+            level.groupCount = in.readInt();
+            for (int i = 0; i < size; i++) {
+                level.min[i] = in.readInt();
+                level.max[i] = in.readInt();
+                level.mean[i] = in.readInt();
+            }
+            return level;
+        }
+
+        private static int[] copyOf(int[] array, int length) {
+            int[] copy = new int[length];
+            System.arraycopy(array, 0, copy, 0, Math.min(array.length, length));
+            return copy;
+        }
+    }
+
+    /**
+     * Unit Test. Checks that pyramid values coincide with
+     * min/max/mean calculated directly from the samples and
+     * that the pyramid read from the sidecar file is the same as the built one
+     */
+    public static void main(String[] args) {
+        String filename = "ekg.bdf";
+        File dir = new File(System.getProperty("user.dir"), "records");
+        File edfFile = new File(dir, filename);
+        try {
+            long time = System.currentTimeMillis();
+            EdfPyramid pyramid = build(edfFile);
+            System.out.println("Pyramid building time: " + (System.currentTimeMillis() - time) + " ms");
+            File pyramidFile = File.createTempFile("test", "." + FILE_EXTENSION);
+            pyramidFile.deleteOnExit();
+            pyramid.save(pyramidFile);
+            DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(pyramidFile)));
+            in.skipBytes(24); // format id, version, records, decimation, bucket size, signals
+
+            MappedEdfReader reader = new MappedEdfReader(edfFile);
+            for (int signal = 0; signal < pyramid.numberOfSignals(); signal++) {
+                in.readInt();
+                SignalPyramid signalPyramid = SignalPyramid.read(in);
+                int n = (int) reader.numberOfSamples(signal);
+                int[] samples = new int[n];
+                reader.readSamples(signal, n, samples);
+                for (int maxPoints = 10; maxPoints < n; maxPoints *= 7) {
+                    int from = n / 5;
+                    PyramidData data = pyramid.getData(signal, from, n, maxPoints);
+                    PyramidData readData = signalPyramid.getData(from, n, maxPoints);
+                    if (data == null) {
+                        continue;
+                    }
+                    for (int i = 0; i < data.size(); i++) {
+                        int start = (int) data.getBucketStartSample(i);
+                        int min = Integer.MAX_VALUE;
+                        int max = Integer.MIN_VALUE;
+                        long sum = 0;
+                        for (int j = start; j < start + data.getBucketSize(); j++) {
+                            min = Math.min(min, samples[j]);
+                            max = Math.max(max, samples[j]);
+                            sum += samples[j];
+                        }
+                        int mean = (int) Math.round((double) sum / data.getBucketSize());
+                        if (data.getMin(i) != min || data.getMax(i) != max || data.getMean(i) != mean) {
+                            throw new RuntimeException("Signal " + signal + ", bucket size " + data.getBucketSize() + ", bucket " + i + ": wrong values");
+                        }
+                        if (readData.getMin(i) != min || readData.getMax(i) != max || readData.getMean(i) != mean) {
+                            throw new RuntimeException("Signal " + signal + ", bucket size " + data.getBucketSize() + ", bucket " + i + ": saved values are different");
+                        }
+                    }
+                }
+            }
+            in.close();
+            reader.close();
+            System.out.println("Test is done!");
+        } catch (Throwable e) {
+            e.printStackTrace();
+        }
+    }
+}
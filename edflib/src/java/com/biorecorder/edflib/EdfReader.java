@@ -175,15 +175,14 @@ public class EdfReader {
         int sampleCount = 0;
         while (totalReadBytes < n * bytesPerSample) {
             int readBytes = fileInputStream.read(byteData, 0, bytesToRead);
-            for (int offset = 0; offset < readBytes; offset += bytesPerSample) {
-                if (physBuffer != null) {
-                    physBuffer[sampleCount] = header.digitalValueToPhysical(signal, EndianBitConverter.littleEndianBytesToInt(byteData, offset, bytesPerSample));
-                }
-                if (digBuffer != null) {
-                    digBuffer[sampleCount] = EndianBitConverter.littleEndianBytesToInt(byteData, offset, bytesPerSample);
-                }
-                sampleCount++;
+            int readSamples = Math.max(0, readBytes) / bytesPerSample;
+            if (physBuffer != null) {
+                header.littleEndianBytesToPhysicalArray(signal, byteData, 0, physBuffer, sampleCount, readSamples);
+            }
+            if (digBuffer != null) {
+                header.littleEndianBytesToIntArray(byteData, 0, digBuffer, sampleCount, readSamples);
             }
+            sampleCount += readSamples;
 
             totalReadBytes += readBytes;
             if (readBytes < bytesToRead) { // end of file
@@ -226,11 +225,7 @@ public class EdfReader {
         }
         int readRecords = readBytes / (recordSize * bytesPerSample);
         recordPosition += readRecords;
-        int sampleCount = 0;
-        for (int offset = 0; offset < readBytes; offset += bytesPerSample) {
-            buffer[sampleCount] = EndianBitConverter.littleEndianBytesToInt(byteData, offset, bytesPerSample);
-            sampleCount++;
-        }
+        header.littleEndianBytesToIntArray(byteData, 0, buffer, 0, readBytes / bytesPerSample);
         return readRecords;
     }
 
@@ -158,6 +158,9 @@ class EndianBitConverter {
      * Convert specified number of elements from int array (starting from intArrayOffset position)
      * to LITTLE_ENDIAN bytes and write resultant bytes to the given byte array
      * (starting from byteArrayOffset position).
+     * <p>
+     * 3 and 2 bytes conversions (BDF and EDF) are done by specialised loops
+     * without creating intermediate arrays.
      *
      * @param intArray            int array which elements should be  converted to bytes
      * @param intArrayOffset      the calculateOffset within the int array of the first int to be converted
@@ -168,11 +171,182 @@ class EndianBitConverter {
      */
 
     public static void intArrayToLittleEndianByteArray(int[] intArray, int intArrayOffset, byte[] byteArray, int byteArrayOffset, int length, int numberOfBytesPerInt) {
-        for (int i = 0; i < length; i++) {
-            System.arraycopy(intToLittleEndianBytes(intArray[intArrayOffset + i], numberOfBytesPerInt), 0, byteArray, i * numberOfBytesPerInt + byteArrayOffset, numberOfBytesPerInt);
+        switch (numberOfBytesPerInt) {
+            case 3:
+                intArrayToLittleEndian3Bytes(intArray, intArrayOffset, byteArray, byteArrayOffset, length);
+                break;
+            case 2:
+                intArrayToLittleEndian2Bytes(intArray, intArrayOffset, byteArray, byteArrayOffset, length);
+                break;
+            default:
+                for (int i = 0; i < length; i++) {
+                    System.arraycopy(intToLittleEndianBytes(intArray[intArrayOffset + i], numberOfBytesPerInt), 0, byteArray, i * numberOfBytesPerInt + byteArrayOffset, numberOfBytesPerInt);
+                }
+        }
+    }
+
+    /**
+     * Convert specified number of bytes from LITTLE_ENDIAN ordered byte array
+     * (starting from byteArrayOffset position) to java integers
+     * and write them to the given int array (starting from intArrayOffset position).
+     * <p>
+     * 3 and 2 bytes conversions (BDF and EDF) are done by specialised unrolled loops.
+     *
+     * @param byteArray           byte array (LITTLE_ENDIAN ordered) to be converted
+     * @param byteArrayOffset     the offset within the byte array of the first byte to be converted
+     * @param intArray            int array to write resultant ints
+     * @param intArrayOffset      the offset within the int array of the first int to be written
+     * @param length              number of resultant ints
+     * @param numberOfBytesPerInt number of bytes per every int. Can be: 4, 3, 2 or 1.
+     */
+    public static void littleEndianByteArrayToIntArray(byte[] byteArray, int byteArrayOffset, int[] intArray, int intArrayOffset, int length, int numberOfBytesPerInt) {
+        switch (numberOfBytesPerInt) {
+            case 3:
+                littleEndian3BytesToIntArray(byteArray, byteArrayOffset, intArray, intArrayOffset, length);
+                break;
+            case 2:
+                littleEndian2BytesToIntArray(byteArray, byteArrayOffset, intArray, intArrayOffset, length);
+                break;
+            default:
+                for (int i = 0; i < length; i++) {
+                    intArray[intArrayOffset + i] = littleEndianBytesToInt(byteArray, byteArrayOffset + i * numberOfBytesPerInt, numberOfBytesPerInt);
+                }
+        }
+    }
+
+    /**
+     * Convert specified number of bytes from LITTLE_ENDIAN ordered byte array
+     * (starting from byteArrayOffset position) to digital values and then to
+     * physical ones: physValue = (digValue + signalOffset) * gain.
+     * Resultant values are written to the given double array
+     * (starting from doubleArrayOffset position).
+     *
+     * @param byteArray           byte array (LITTLE_ENDIAN ordered) to be converted
+     * @param byteArrayOffset     the offset within the byte array of the first byte to be converted
+     * @param doubleArray         array to write resultant physical values
+     * @param doubleArrayOffset   the offset within the double array of the first value to be written
+     * @param length              number of resultant values
+     * @param numberOfBytesPerInt number of bytes per every digital value. Can be: 4, 3, 2 or 1.
+     * @param gain                signal gain
+     * @param signalOffset        signal offset
+     */
+    public static void littleEndianByteArrayToPhysical(byte[] byteArray, int byteArrayOffset, double[] doubleArray, int doubleArrayOffset, int length, int numberOfBytesPerInt, double gain, int signalOffset) {
+        int end = doubleArrayOffset + length;
+        int b = byteArrayOffset;
+        switch (numberOfBytesPerInt) {
+            case 3:
+                for (int i = doubleArrayOffset; i < end; i++) {
+                    int digValue = (byteArray[b + 2] << 16) | (byteArray[b + 1] & 0xFF) << 8 | (byteArray[b] & 0xFF);
+                    doubleArray[i] = (digValue + signalOffset) * gain;
+                    b += 3;
+                }
+                break;
+            case 2:
+                for (int i = doubleArrayOffset; i < end; i++) {
+                    int digValue = (byteArray[b + 1] << 8) | (byteArray[b] & 0xFF);
+                    doubleArray[i] = (digValue + signalOffset) * gain;
+                    b += 2;
+                }
+                break;
+            default:
+                for (int i = doubleArrayOffset; i < end; i++) {
+                    doubleArray[i] = (littleEndianBytesToInt(byteArray, b, numberOfBytesPerInt) + signalOffset) * gain;
+                    b += numberOfBytesPerInt;
+                }
+        }
+    }
+
+    /**
+     * The same as {@link #littleEndianByteArrayToPhysical(byte[], int, double[], int, int, int, double, int)}
+     * but resultant physical values are written to float array
+     */
+    public static void littleEndianByteArrayToPhysical(byte[] byteArray, int byteArrayOffset, float[] floatArray, int floatArrayOffset, int length, int numberOfBytesPerInt, double gain, int signalOffset) {
+        int end = floatArrayOffset + length;
+        int b = byteArrayOffset;
+        float gainF = (float) gain;
+        switch (numberOfBytesPerInt) {
+            case 3:
+                for (int i = floatArrayOffset; i < end; i++) {
+                    int digValue = (byteArray[b + 2] << 16) | (byteArray[b + 1] & 0xFF) << 8 | (byteArray[b] & 0xFF);
+                    floatArray[i] = (digValue + signalOffset) * gainF;
+                    b += 3;
+                }
+                break;
+            case 2:
+                for (int i = floatArrayOffset; i < end; i++) {
+                    int digValue = (byteArray[b + 1] << 8) | (byteArray[b] & 0xFF);
+                    floatArray[i] = (digValue + signalOffset) * gainF;
+                    b += 2;
+                }
+                break;
+            default:
+                for (int i = floatArrayOffset; i < end; i++) {
+                    floatArray[i] = (littleEndianBytesToInt(byteArray, b, numberOfBytesPerInt) + signalOffset) * gainF;
+                    b += numberOfBytesPerInt;
+                }
+        }
+    }
+
+    private static void littleEndian3BytesToIntArray(byte[] byteArray, int byteArrayOffset, int[] intArray, int intArrayOffset, int length) {
+        int b = byteArrayOffset;
+        int i = intArrayOffset;
+        int end = intArrayOffset + length;
+        // unrolled by 4 ints (12 bytes)
+        int unrolledEnd = end - 3;
+        for (; i < unrolledEnd; i += 4) {
+            intArray[i] = (byteArray[b + 2] << 16) | (byteArray[b + 1] & 0xFF) << 8 | (byteArray[b] & 0xFF);
+            intArray[i + 1] = (byteArray[b + 5] << 16) | (byteArray[b + 4] & 0xFF) << 8 | (byteArray[b + 3] & 0xFF);
+            intArray[i + 2] = (byteArray[b + 8] << 16) | (byteArray[b + 7] & 0xFF) << 8 | (byteArray[b + 6] & 0xFF);
+            intArray[i + 3] = (byteArray[b + 11] << 16) | (byteArray[b + 10] & 0xFF) << 8 | (byteArray[b + 9] & 0xFF);
+            b += 12;
+        }
+        for (; i < end; i++) {
+            intArray[i] = (byteArray[b + 2] << 16) | (byteArray[b + 1] & 0xFF) << 8 | (byteArray[b] & 0xFF);
+            b += 3;
+        }
+    }
+
+    private static void littleEndian2BytesToIntArray(byte[] byteArray, int byteArrayOffset, int[] intArray, int intArrayOffset, int length) {
+        int b = byteArrayOffset;
+        int i = intArrayOffset;
+        int end = intArrayOffset + length;
+        // unrolled by 4 ints (8 bytes)
+        int unrolledEnd = end - 3;
+        for (; i < unrolledEnd; i += 4) {
+            intArray[i] = (byteArray[b + 1] << 8) | (byteArray[b] & 0xFF);
+            intArray[i + 1] = (byteArray[b + 3] << 8) | (byteArray[b + 2] & 0xFF);
+            intArray[i + 2] = (byteArray[b + 5] << 8) | (byteArray[b + 4] & 0xFF);
+            intArray[i + 3] = (byteArray[b + 7] << 8) | (byteArray[b + 6] & 0xFF);
+            b += 8;
+        }
+        for (; i < end; i++) {
+            intArray[i] = (byteArray[b + 1] << 8) | (byteArray[b] & 0xFF);
+            b += 2;
+        }
+    }
+
+    private static void intArrayToLittleEndian3Bytes(int[] intArray, int intArrayOffset, byte[] byteArray, int byteArrayOffset, int length) {
+        int b = byteArrayOffset;
+        int end = intArrayOffset + length;
+        for (int i = intArrayOffset; i < end; i++) {
+            int value = intArray[i];
+            byteArray[b] = (byte) value;
+            byteArray[b + 1] = (byte) (value >>> 8);
+            byteArray[b + 2] = (byte) (value >>> 16);
+            b += 3;
         }
     }
 
+    private static void intArrayToLittleEndian2Bytes(int[] intArray, int intArrayOffset, byte[] byteArray, int byteArrayOffset, int length) {
+        int b = byteArrayOffset;
+        int end = intArrayOffset + length;
+        for (int i = intArrayOffset; i < end; i++) {
+            int value = intArray[i];
+            byteArray[b] = (byte) value;
+            byteArray[b + 1] = (byte) (value >>> 8);
+            b += 2;
+        }
+    }
 
     /**
      * Convert specified number of elements from int array to LITTLE_ENDIAN ordered byte array.
@@ -0,0 +1,139 @@
+package com.biorecorder.edflib;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+/**
+ * Benchmark comparing per-sample decoding/encoding
+ * (EndianBitConverter.littleEndianBytesToInt called for every sample)
+ * with the bulk array conversions.
+ * <p>
+ * Data section of every bdf/edf file from the "records" directory
+ * is decoded many times by both ways. Run from the project root directory.
+ */
+public class EndianBitConverterBenchmark {
+    private static final int WARMUP_ITERATIONS = 200;
+    private static final int ITERATIONS = 1000;
+
+    private static void decodePerSample(byte[] bytes, int offset, int[] result, int n, int bytesPerSample) {
+        for (int i = 0; i < n; i++) {
+            result[i] = EndianBitConverter.littleEndianBytesToInt(bytes, offset + i * bytesPerSample, bytesPerSample);
+        }
+    }
+
+    private static void decodePhysicalPerSample(DataHeader header, byte[] bytes, int offset, double[] result, int n) {
+        int bytesPerSample = header.getNumberOfBytesPerSample();
+        for (int i = 0; i < n; i++) {
+            result[i] = header.digitalValueToPhysical(0, header.littleEndianBytesToInt(bytes, offset + i * bytesPerSample));
+        }
+    }
+
+    private static void encodePerSample(int[] ints, byte[] result, int n, int bytesPerSample) {
+        for (int i = 0; i < n; i++) {
+            System.arraycopy(EndianBitConverter.intToLittleEndianBytes(ints[i], bytesPerSample), 0, result, i * bytesPerSample, bytesPerSample);
+        }
+    }
+
+    private static double samplesPerSecond(long timeNs, int samples) {
+        return samples * (double) ITERATIONS / (timeNs / 1.0e9);
+    }
+
+    private static void benchmark(File file) throws Exception {
+        HeaderRecord headerRecord = new HeaderRecord(file);
+        DataHeader header = headerRecord.getHeaderInfo();
+        byte[] fileBytes = Files.readAllBytes(file.toPath());
+        int offset = headerRecord.getNumberOfBytesInHeaderRecord();
+        int bytesPerSample = header.getNumberOfBytesPerSample();
+        int n = (fileBytes.length - offset) / bytesPerSample;
+        int[] ints = new int[n];
+        int[] ints1 = new int[n];
+        double[] doubles = new double[n];
+        double[] doubles1 = new double[n];
+        byte[] bytes = new byte[n * bytesPerSample];
+        byte[] bytes1 = new byte[n * bytesPerSample];
+
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            decodePerSample(fileBytes, offset, ints, n, bytesPerSample);
+            EndianBitConverter.littleEndianByteArrayToIntArray(fileBytes, offset, ints1, 0, n, bytesPerSample);
+            decodePhysicalPerSample(header, fileBytes, offset, doubles, n);
+            header.littleEndianBytesToPhysicalArray(0, fileBytes, offset, doubles1, 0, n);
+            encodePerSample(ints, bytes, n, bytesPerSample);
+            EndianBitConverter.intArrayToLittleEndianByteArray(ints, 0, bytes1, 0, n, bytesPerSample);
+        }
+
+        long time = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            decodePerSample(fileBytes, offset, ints, n, bytesPerSample);
+        }
+        long decodePerSampleTime = System.nanoTime() - time;
+
+        time = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            EndianBitConverter.littleEndianByteArrayToIntArray(fileBytes, offset, ints1, 0, n, bytesPerSample);
+        }
+        long decodeBulkTime = System.nanoTime() - time;
+
+        time = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            decodePhysicalPerSample(header, fileBytes, offset, doubles, n);
+        }
+        long physPerSampleTime = System.nanoTime() - time;
+
+        time = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            header.littleEndianBytesToPhysicalArray(0, fileBytes, offset, doubles1, 0, n);
+        }
+        long physBulkTime = System.nanoTime() - time;
+
+        time = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            encodePerSample(ints, bytes, n, bytesPerSample);
+        }
+        long encodePerSampleTime = System.nanoTime() - time;
+
+        time = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            EndianBitConverter.intArrayToLittleEndianByteArray(ints, 0, bytes1, 0, n, bytesPerSample);
+        }
+        long encodeBulkTime = System.nanoTime() - time;
+
+        for (int i = 0; i < n; i++) {
+            if (ints[i] != ints1[i] || doubles[i] != doubles1[i]) {
+                throw new RuntimeException("Sample " + i + ": bulk and per sample results are different");
+            }
+        }
+        for (int i = 0; i < bytes.length; i++) {
+            if (bytes[i] != bytes1[i]) {
+                throw new RuntimeException("Byte " + i + ": bulk and per sample results are different");
+            }
+        }
+
+        System.out.println(file.getName() + ", " + n + " samples, " + bytesPerSample + " bytes per sample");
+        System.out.printf("  decode to int:     per sample %.1f, bulk %.1f Msamples/s%n",
+                samplesPerSecond(decodePerSampleTime, n) / 1e6, samplesPerSecond(decodeBulkTime, n) / 1e6);
+        System.out.printf("  decode to double:  per sample %.1f, bulk %.1f Msamples/s%n",
+                samplesPerSecond(physPerSampleTime, n) / 1e6, samplesPerSecond(physBulkTime, n) / 1e6);
+        System.out.printf("  encode from int:   per sample %.1f, bulk %.1f Msamples/s%n",
+                samplesPerSecond(encodePerSampleTime, n) / 1e6, samplesPerSecond(encodeBulkTime, n) / 1e6);
+    }
+
+    public static void main(String[] args) throws IOException {
+        File dir = new File(System.getProperty("user.dir"), "records");
+        File[] files = dir.listFiles();
+        if (files == null) {
+            System.out.println("Directory not found: " + dir);
+            return;
+        }
+        for (File file : files) {
+            String name = file.getName().toLowerCase();
+            if (name.endsWith(".bdf") || name.endsWith(".edf")) {
+                try {
+                    benchmark(file);
+                } catch (Exception ex) {
+                    System.out.println(file.getName() + ": " + ex.getMessage());
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,293 @@
+package com.biorecorder.edflib;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Helper class for asynchronous writing of EDF/BDF data.
+ * <p>
+ * Samples are encoded (in the caller thread) into a big reusable buffer.
+ * When the buffer is filled up to «commit size» or «commit period» has elapsed
+ * it is passed to the writer thread that writes the whole buffer
+ * to the file through FileChannel by one operation (group commit)
+ * and returns the buffer to the pool of free buffers.
+ * If the disk is so slow that all buffers are waiting to be written
+ * the caller thread waits for a free one.
+ * <p>
+ * Writer thread also periodically rewrites the file header
+ * with the current number of data records so that the file stays readable
+ * even if the recording is interrupted abnormally.
+ */
+class GroupCommitWriter {
+    private static final ByteBuffer STOP_MARKER = ByteBuffer.allocate(0);
+
+    private final FileChannel fileChannel;
+    private final HeaderProvider headerProvider;
+    private final int commitSizeBytes;
+    private final int commitPeriodMs;
+    private final int headerUpdatePeriodMs;
+    private final BlockingQueue<ByteBuffer> filledBuffers;
+    private final BlockingQueue<ByteBuffer> freeBuffers;
+    private final Thread writerThread;
+    // buffer being filled by the caller thread. Guarded by "this"
+    private ByteBuffer fillBuffer;
+    private long lastCommitTime;
+
+    // accessed only from the writer thread
+    private long dataPosition = -1;
+    private volatile long writtenDataBytes;
+    private long lastHeaderUpdateTime;
+
+    private volatile IOException writingException;
+    private volatile long commitsCount;
+    private volatile long lastFlushLatencyNs;
+    private volatile long maxFlushLatencyNs;
+    private volatile long totalFlushLatencyNs;
+    private volatile int maxQueueDepth;
+    private volatile long waitsForFreeBuffer;
+
+    /**
+     * @param fileChannel          channel to write data
+     * @param headerProvider       gives the header bytes with the given number of data records
+     * @param bufferSize           size of every buffer in bytes. Must be >= commitSizeBytes
+     * @param numberOfBuffers      number of buffers. At least 2
+     * @param commitSizeBytes      buffer is committed as soon as it contains so many bytes
+     * @param commitPeriodMs       not empty buffer is committed if it was not committed during that time
+     * @param headerUpdatePeriodMs period of the header rewriting
+     */
+    GroupCommitWriter(FileChannel fileChannel, HeaderProvider headerProvider, int bufferSize, int numberOfBuffers,
+                      int commitSizeBytes, int commitPeriodMs, int headerUpdatePeriodMs) {
+        this.fileChannel = fileChannel;
+        this.headerProvider = headerProvider;
+        this.commitSizeBytes = commitSizeBytes;
+        this.commitPeriodMs = commitPeriodMs;
+        this.headerUpdatePeriodMs = headerUpdatePeriodMs;
+        numberOfBuffers = Math.max(2, numberOfBuffers);
+        filledBuffers = new ArrayBlockingQueue<ByteBuffer>(numberOfBuffers + 1);
+        freeBuffers = new ArrayBlockingQueue<ByteBuffer>(numberOfBuffers);
+        fillBuffer = ByteBuffer.allocate(bufferSize);
+        for (int i = 1; i < numberOfBuffers; i++) {
+            freeBuffers.add(ByteBuffer.allocate(bufferSize));
+        }
+        lastCommitTime = System.currentTimeMillis();
+        writerThread = new Thread(new WritingTask(), "«Edf file writing» thread");
+        writerThread.start();
+    }
+
+    /**
+     * Encodes given samples to the buffer. Called from the caller thread.
+     */
+    synchronized void write(int[] samples, int offset, int length, int numberOfBytesPerSample) throws IORuntimeException {
+        checkException();
+        int byteLength = length * numberOfBytesPerSample;
+        if (fillBuffer.remaining() < byteLength) {
+            commit();
+        }
+        EndianBitConverter.intArrayToLittleEndianByteArray(samples, offset, fillBuffer.array(), fillBuffer.position(), length, numberOfBytesPerSample);
+        fillBuffer.position(fillBuffer.position() + byteLength);
+        if (fillBuffer.position() >= commitSizeBytes) {
+            commit();
+        }
+    }
+
+    /**
+     * Writes all buffered data, stops the writer thread and
+     * writes the final header
+     */
+    void close() throws IORuntimeException {
+        synchronized (this) {
+            if (fillBuffer.position() > 0) {
+                commit();
+            }
+            putToQueue(STOP_MARKER);
+        }
+        boolean isInterrupted = false;
+        while (writerThread.isAlive()) {
+            try {
+                writerThread.join();
+            } catch (InterruptedException e) {
+                isInterrupted = true;
+            }
+        }
+        if (isInterrupted) {
+            Thread.currentThread().interrupt();
+        }
+        checkException();
+    }
+
+    /**
+     * Number of data bytes already written to the file
+     */
+    long getWrittenDataBytes() {
+        return writtenDataBytes;
+    }
+
+    /**
+     * Number of filled buffers waiting to be written
+     */
+    int getQueueDepth() {
+        return filledBuffers.size();
+    }
+
+    int getMaxQueueDepth() {
+        return maxQueueDepth;
+    }
+
+    /**
+     * How many times the caller thread had to wait because
+     * all buffers were waiting to be written
+     */
+    long getWaitsForFreeBuffer() {
+        return waitsForFreeBuffer;
+    }
+
+    long getCommitsCount() {
+        return commitsCount;
+    }
+
+    double getLastFlushLatencyMs() {
+        return lastFlushLatencyNs / 1.0e6;
+    }
+
+    double getMaxFlushLatencyMs() {
+        return maxFlushLatencyNs / 1.0e6;
+    }
+
+    double getAverageFlushLatencyMs() {
+        long commits = commitsCount;
+        if (commits == 0) {
+            return 0;
+        }
+        return totalFlushLatencyNs / (commits * 1.0e6);
+    }
+
+    // must be called holding the lock
+    private void commit() {
+        if (fillBuffer.position() == 0) {
+            return;
+        }
+        ByteBuffer buffer = freeBuffers.poll();
+        if (buffer == null) {
+            waitsForFreeBuffer++;
+            while (buffer == null) {
+                checkException();
+                try {
+                    buffer = freeBuffers.poll(commitPeriodMs, TimeUnit.MILLISECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IORuntimeException(e);
+                }
+            }
+        }
+        putToQueue(fillBuffer);
+        fillBuffer = buffer;
+        lastCommitTime = System.currentTimeMillis();
+    }
+
+    /**
+     * Called by the writer thread when no buffer came during commit period
+     */
+    private synchronized void commitIfExpired() {
+        if (fillBuffer.position() > 0 && System.currentTimeMillis() - lastCommitTime >= commitPeriodMs
+                && freeBuffers.size() > 0) {
+            commit();
+        }
+    }
+
+    private void putToQueue(ByteBuffer buffer) {
+        // the queue can always hold all buffers plus the stop marker
+        filledBuffers.add(buffer);
+        int depth = filledBuffers.size();
+        if (depth > maxQueueDepth) {
+            maxQueueDepth = depth;
+        }
+    }
+
+    private void checkException() throws IORuntimeException {
+        if (writingException != null) {
+            throw new IORuntimeException(writingException);
+        }
+    }
+
+    private void writeBuffer(ByteBuffer buffer) throws IOException {
+        if (dataPosition < 0) {
+            dataPosition = writeHeader();
+        }
+        long startTime = System.nanoTime();
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            dataPosition += fileChannel.write(buffer, dataPosition);
+        }
+        long latency = System.nanoTime() - startTime;
+        writtenDataBytes += buffer.limit();
+        buffer.clear();
+
+        lastFlushLatencyNs = latency;
+        totalFlushLatencyNs += latency;
+        if (latency > maxFlushLatencyNs) {
+            maxFlushLatencyNs = latency;
+        }
+        commitsCount++;
+    }
+
+    /**
+     * @return number of bytes in the header
+     */
+    private int writeHeader() throws IOException {
+        ByteBuffer headerBuffer = ByteBuffer.wrap(headerProvider.getHeaderBytes(writtenDataBytes));
+        int headerLength = headerBuffer.remaining();
+        long position = 0;
+        while (headerBuffer.hasRemaining()) {
+            position += fileChannel.write(headerBuffer, position);
+        }
+        lastHeaderUpdateTime = System.currentTimeMillis();
+        return headerLength;
+    }
+
+    class WritingTask implements Runnable {
+        @Override
+        public void run() {
+            while (true) {
+                ByteBuffer buffer;
+                try {
+                    buffer = filledBuffers.poll(commitPeriodMs, TimeUnit.MILLISECONDS);
+                } catch (InterruptedException e) {
+                    // writer must not lose data so the thread is stopped only by STOP_MARKER
+                    continue;
+                }
+                if (buffer == null) {
+                    commitIfExpired();
+                    continue;
+                }
+                if (buffer == STOP_MARKER) {
+                    break;
+                }
+                try {
+                    if (writingException == null) {
+                        writeBuffer(buffer);
+                        if (System.currentTimeMillis() - lastHeaderUpdateTime >= headerUpdatePeriodMs) {
+                            writeHeader();
+                        }
+                    }
+                } catch (IOException e) {
+                    writingException = e;
+                } finally {
+                    buffer.clear();
+                    freeBuffers.add(buffer);
+                }
+            }
+        }
+    }
+
+    interface HeaderProvider {
+        /**
+         * @param writtenDataBytes number of data bytes already written to the file
+         * @return header bytes
+         */
+        byte[] getHeaderBytes(long writtenDataBytes);
+    }
+}
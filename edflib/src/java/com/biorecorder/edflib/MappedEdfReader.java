@@ -0,0 +1,419 @@
+package com.biorecorder.edflib;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Permits to read data samples from EDF or BDF file like {@link EdfReader}
+ * but instead of "seek and copy" reading the data section of the file
+ * is mapped to memory (MappedByteBuffer) and samples are decoded
+ * directly from it to the given int[] or double[] arrays.
+ * So reading of big files (several GB) does not create any
+ * intermediate arrays and random access to any signal and time is cheap.
+ * <p>
+ * Files bigger than 2 GB are mapped by chunks. Every chunk contains
+ * the whole number of data records so samples belonging to one signal
+ * in a data record are never split between two chunks.
+ * Chunks are mapped lazily (when they are read for the first time).
+ * <p>
+ * This class is NOT thread safe!
+ */
+public class MappedEdfReader {
+    private static final long MAX_CHUNK_SIZE_BYTES = 256 * 1024 * 1024;
+
+    private final DataHeader header;
+    private final File file;
+    private final RandomAccessFile randomAccessFile;
+    private final FileChannel fileChannel;
+    private final long[] samplesPositionList;
+    private long recordPosition = 0;
+    private final int recordSize;
+    private final int recordSizeInBytes;
+    private final int bytesPerSample;
+    private final int numberOfBytesInHeaderRecord;
+    private final int recordsInChunk;
+    private final int[] signalOffsetInRecord; // in samples
+    private MappedByteBuffer[] chunks = new MappedByteBuffer[0];
+
+    /**
+     * Creates MappedEdfReader to read data from the file represented by the specified
+     * File object.
+     *
+     * @param file Edf or Bdf file to be opened for reading
+     * @throws FileNotFoundException if the file does not exist,
+     *                               is a directory rather than a regular file,
+     *                               or for some other reason cannot be opened for reading.
+     * @throws HeaderException       if the the file is not valid EDF/BDF file
+     *                               due to some errors in its header record
+     * @throws IOException           if an I/O error occurs
+     */
+    public MappedEdfReader(File file) throws FileNotFoundException, HeaderException, IOException {
+        this.file = file;
+        HeaderRecord headerRecord = new HeaderRecord(file);
+        header = headerRecord.getHeaderInfo();
+        numberOfBytesInHeaderRecord = headerRecord.getNumberOfBytesInHeaderRecord();
+        randomAccessFile = new RandomAccessFile(file, "r");
+        fileChannel = randomAccessFile.getChannel();
+        samplesPositionList = new long[header.numberOfSignals()];
+        recordSize = header.getRecordSize();
+        bytesPerSample = header.getNumberOfBytesPerSample();
+        recordSizeInBytes = recordSize * bytesPerSample;
+        recordsInChunk = (int) Math.max(1, MAX_CHUNK_SIZE_BYTES / Math.max(1, recordSizeInBytes));
+        signalOffsetInRecord = new int[header.numberOfSignals()];
+        for (int i = 0; i < signalOffsetInRecord.length; i++) {
+            signalOffsetInRecord[i] = header.getSignalOffsetInDataRecord(i);
+        }
+    }
+
+    /**
+     * Set the sample position indicator of the given channel (signal)
+     * to the given new position. The position is measured in samples.
+     * <p>
+     * Note that every signal has it's own independent sample position indicator and
+     * setSamplePosition() affects only one of them.
+     *
+     * @param signalNumber channel (signal) number whose sample position we change. Numbering starts from 0!
+     * @param newPosition  the new sample position, a non-negative integer counting
+     *                     the number of samples belonging to the specified
+     *                     channel from the beginning of the file
+     */
+    public void setSamplePosition(int signalNumber, long newPosition) {
+        samplesPositionList[signalNumber] = newPosition;
+    }
+
+    /**
+     * Set the sample position indicator of the given channel (signal)
+     * to the sample that was recording at the given time.
+     *
+     * @param signalNumber channel (signal) number whose sample position we change. Numbering starts from 0!
+     * @param timeMs       absolute time in milliseconds (like {@link DataHeader#getRecordingStartTimeMs()})
+     */
+    public void setSamplePositionByTime(int signalNumber, long timeMs) {
+        int record = header.getRecord(timeMs);
+        if (record < 0) {
+            samplesPositionList[signalNumber] = 0;
+            return;
+        }
+        samplesPositionList[signalNumber] = (long) record * header.getNumberOfSamplesInEachDataRecord(signalNumber)
+                + header.getSampleInRecord(signalNumber, timeMs);
+    }
+
+    /**
+     * Return the current sample position  of the given channel (signal).
+     * The position is measured in samples.
+     *
+     * @param signalNumber channel (signal) number whose position we want to get. Numbering starts from 0!
+     * @return current sample position, a non-negative integer counting
+     * the number of samples belonging to the given
+     * channel from the beginning of the file
+     */
+    public long getSamplePosition(int signalNumber) {
+        return samplesPositionList[signalNumber];
+    }
+
+    /**
+     * Return the current data record position.
+     * The position is measured in DataRecords.
+     *
+     * @return current DataRecord position, a non-negative integer counting
+     * the number of DataRecords from the beginning of the file
+     */
+    public long getRecordPosition() {
+        return recordPosition;
+    }
+
+    /**
+     * Set the DataRecords position indicator to the given new position.
+     * The position is measured in DataRecords.
+     * Methods: {@link #readDataRecords(int, int[])}
+     * will start reading from the specified position.
+     *
+     * @param newPosition the new position, a non-negative integer counting
+     *                    the number of data records from the beginning of the file
+     */
+    public void setRecordPosition(long newPosition) {
+        recordPosition = newPosition;
+    }
+
+    /**
+     * Puts DataRecord position indicator and sample position indicators of all signals to 0.
+     */
+    public void reset() {
+        recordPosition = 0;
+        for (int i = 0; i < samplesPositionList.length; i++) {
+            samplesPositionList[i] = 0;
+        }
+    }
+
+    /**
+     * Read n samples belonging to the  signal
+     * starting from the current sample position indicator.
+     * The values are the "raw" digital (integer) values.
+     * <p>
+     * The sample position indicator of that channel will be increased
+     * with the amount of samples read (this can be less than n or zero!)
+     *
+     * @param signal channel (signal) number whose samples must be read. Numbering starts from 0!
+     * @param n      number of samples to read
+     * @return the amount of really read samples that can be less than n or zero
+     * @throws IOException if an I/O error occurs
+     */
+    public int readSamples(int signal, int n, int[] buffer) throws IOException {
+        return readSamples(signal, n, buffer, 0);
+    }
+
+    /**
+     * The same as {@link #readSamples(int, int, int[])} but read samples are written
+     * to the buffer starting from the given offset
+     */
+    public int readSamples(int signal, int n, int[] buffer, int offset) throws IOException {
+        return readSamples(signal, n, buffer, null, offset);
+    }
+
+    /**
+     * Read n samples belonging to the  signal
+     * starting from the current sample position indicator.
+     * Converts the read samples
+     * to their physical values (e.g. microVolts, beats per minute, etc).
+     * <p>
+     * The sample position indicator of that channel will be increased
+     * with the amount of samples read (this can be less than n or zero!)
+     *
+     * @param signal channel (signal) number whose samples must be read. Numbering starts from 0!
+     * @param n      number of samples to read
+     * @return the amount of really read samples that can be less than n or zero
+     * @throws IOException if an I/O error occurs
+     */
+    public int readPhysicalSamples(int signal, int n, double[] buffer) throws IOException {
+        return readPhysicalSamples(signal, n, buffer, 0);
+    }
+
+    /**
+     * The same as {@link #readPhysicalSamples(int, int, double[])} but read samples are written
+     * to the buffer starting from the given offset
+     */
+    public int readPhysicalSamples(int signal, int n, double[] buffer, int offset) throws IOException {
+        return readSamples(signal, n, null, buffer, offset);
+    }
+
+    private int readSamples(int signal, int n, int[] digBuffer, double[] physBuffer, int bufferOffset) throws IOException {
+        int samplesPerRecord = header.getNumberOfSamplesInEachDataRecord(signal);
+        long position = samplesPositionList[signal];
+        long availableSamples = numberOfRecords() * samplesPerRecord - position;
+        int samplesToRead = (int) Math.max(0, Math.min(n, availableSamples));
+        double gain = header.getSignalGain(signal);
+        int offset = header.getSignalOffset(signal);
+
+        long record = position / samplesPerRecord;
+        int sampleInRecord = (int) (position % samplesPerRecord);
+        int readSamples = 0;
+        while (readSamples < samplesToRead) {
+            int samples = Math.min(samplesPerRecord - sampleInRecord, samplesToRead - readSamples);
+            MappedByteBuffer chunk = getChunk((int) (record / recordsInChunk));
+            int bytePosition = (int) (record % recordsInChunk) * recordSizeInBytes
+                    + (signalOffsetInRecord[signal] + sampleInRecord) * bytesPerSample;
+            int to = bufferOffset + readSamples;
+            if (digBuffer != null) {
+                decode(chunk, bytePosition, digBuffer, to, samples);
+            } else {
+                decodePhysical(chunk, bytePosition, physBuffer, to, samples, gain, offset);
+            }
+            readSamples += samples;
+            sampleInRecord = 0;
+            record++;
+        }
+        samplesPositionList[signal] += readSamples;
+        return readSamples;
+    }
+
+    /**
+     * Read n data records
+     * starting from the current record position indicator.
+     * The values are the "raw" digital (integer) values.
+     * <p>
+     * The record position indicator will be increased with the amount of data records
+     * read (this can be less than n or zero!)
+     *
+     * @param buffer array where read data will be stored
+     * @param n      number of "data records" to read
+     * @return the total number of data records read into the buffer,
+     * or -1 if there is no more data because the end of the stream has been reached
+     * @throws IOException if an I/O error occurs
+     */
+    public int readDataRecords(int n, int[] buffer) throws IOException {
+        long available = availableRecords();
+        if (available <= 0) {
+            return -1;
+        }
+        int recordsToRead = (int) Math.min(n, available);
+        for (int i = 0; i < recordsToRead; i++) {
+            long record = recordPosition + i;
+            MappedByteBuffer chunk = getChunk((int) (record / recordsInChunk));
+            int bytePosition = (int) (record % recordsInChunk) * recordSizeInBytes;
+            decode(chunk, bytePosition, buffer, i * recordSize, recordSize);
+        }
+        recordPosition += recordsToRead;
+        return recordsToRead;
+    }
+
+    /**
+     * Return the information from the file header stored in the HeaderConfig object
+     *
+     * @return the object containing EDF/BDF header information
+     */
+    public DataHeader getHeader() {
+        return header;
+    }
+
+    /**
+     * Get the number of data records available for reading (from the current data record position).
+     * <br>availableDataRecords() = numberOfRecords() - getDataRecordPosition();
+     *
+     * @return number of available for reading data records
+     */
+    public long availableRecords() {
+        return numberOfRecords() - recordPosition;
+    }
+
+    /**
+     * Get the number of samples of the given signal available for reading
+     * (from the current sample position set for that signal)
+     *
+     * @return number of samples of the given signal available for reading
+     */
+    public long availableSamples(int signalNumber) {
+        return numberOfSamples(signalNumber) - samplesPositionList[signalNumber];
+    }
+
+    /**
+     * Calculate and get the total number of  data records in the file.
+     *
+     * @return total number of DataRecords in the file
+     */
+    public long numberOfRecords() {
+        return (file.length() - numberOfBytesInHeaderRecord) / recordSizeInBytes;
+    }
+
+    /**
+     * Calculate and get the total number of samples of the given signal
+     * in the file.
+     *
+     * @return total number of samples of the given signal in the file
+     */
+    public long numberOfSamples(int signalNumber) {
+        return numberOfRecords() * header.getNumberOfSamplesInEachDataRecord(signalNumber);
+    }
+
+    /**
+     * Close this reader and releases any system resources associated with
+     * it. Note that mapped memory is released only when the
+     * mapped buffers are garbage collected.
+     *
+     * @throws IOException if an I/O  occurs
+     */
+    public void close() throws IOException {
+        chunks = new MappedByteBuffer[0];
+        randomAccessFile.close();
+    }
+
+    /**
+     * Maps the chunk if it was not mapped yet or if the file has grown
+     * since the chunk was mapped
+     */
+    private MappedByteBuffer getChunk(int chunkNumber) throws IOException {
+        if (chunkNumber >= chunks.length) {
+            MappedByteBuffer[] chunks1 = new MappedByteBuffer[chunkNumber + 1];
+            System.arraycopy(chunks, 0, chunks1, 0, chunks.length);
+            chunks = chunks1;
+        }
+        long chunkStart = numberOfBytesInHeaderRecord + (long) chunkNumber * recordsInChunk * recordSizeInBytes;
+        long chunkRecords = Math.min(recordsInChunk, numberOfRecords() - (long) chunkNumber * recordsInChunk);
+        long chunkSize = chunkRecords * recordSizeInBytes;
+        MappedByteBuffer chunk = chunks[chunkNumber];
+        if (chunk == null || chunk.capacity() < chunkSize) {
+            chunk = fileChannel.map(FileChannel.MapMode.READ_ONLY, chunkStart, chunkSize);
+            chunk.order(ByteOrder.LITTLE_ENDIAN);
+            chunks[chunkNumber] = chunk;
+        }
+        return chunk;
+    }
+
+    private void decode(MappedByteBuffer chunk, int bytePosition, int[] buffer, int offset, int n) {
+        int end = offset + n;
+        if (bytesPerSample == 3) {
+            for (int i = offset; i < end; i++) {
+                buffer[i] = (chunk.get(bytePosition + 2) << 16) | (chunk.get(bytePosition + 1) & 0xFF) << 8 | (chunk.get(bytePosition) & 0xFF);
+                bytePosition += 3;
+            }
+        } else {
+            for (int i = offset; i < end; i++) {
+                buffer[i] = chunk.getShort(bytePosition);
+                bytePosition += 2;
+            }
+        }
+    }
+
+    private void decodePhysical(MappedByteBuffer chunk, int bytePosition, double[] buffer, int offset, int n, double gain, int signalOffset) {
+        int end = offset + n;
+        if (bytesPerSample == 3) {
+            for (int i = offset; i < end; i++) {
+                int digValue = (chunk.get(bytePosition + 2) << 16) | (chunk.get(bytePosition + 1) & 0xFF) << 8 | (chunk.get(bytePosition) & 0xFF);
+                buffer[i] = (digValue + signalOffset) * gain;
+                bytePosition += 3;
+            }
+        } else {
+            for (int i = offset; i < end; i++) {
+                buffer[i] = (chunk.getShort(bytePosition) + signalOffset) * gain;
+                bytePosition += 2;
+            }
+        }
+    }
+
+    /**
+     * Unit Test. Checks that samples read by MappedEdfReader.readSamples()
+     * coincide with the samples read by EdfReader.readDataRecords()
+     */
+    public static void main(String[] args) {
+        String filename = "ekg.bdf";
+        File dir = new File(System.getProperty("user.dir"), "records");
+        File edfFile = new File(dir, filename);
+        try {
+            EdfReader edfReader = new EdfReader(edfFile);
+            MappedEdfReader mappedReader = new MappedEdfReader(edfFile);
+            DataHeader header = mappedReader.getHeader();
+            int recordSize = header.getRecordSize();
+            int numberOfRecords = (int) edfReader.numberOfRecords();
+            int[] records = new int[recordSize * numberOfRecords];
+            edfReader.readDataRecords(numberOfRecords, records);
+            for (int signal = 0; signal < header.numberOfSignals(); signal++) {
+                int samplesInRecord = header.getNumberOfSamplesInEachDataRecord(signal);
+                int signalOffset = header.getSignalOffsetInDataRecord(signal);
+                int n = (int) mappedReader.numberOfSamples(signal);
+                int start = n / 3 + 1;
+                int[] samples = new int[n];
+                mappedReader.setSamplePosition(signal, start);
+                int read = mappedReader.readSamples(signal, n, samples);
+                if (read != n - start) {
+                    throw new RuntimeException("Signal " + signal + ": read samples " + read + ", expected " + (n - start));
+                }
+                for (int i = 0; i < read; i++) {
+                    int position = start + i;
+                    int expected = records[(position / samplesInRecord) * recordSize + signalOffset + position % samplesInRecord];
+                    if (samples[i] != expected) {
+                        throw new RuntimeException("Signal " + signal + ", sample " + i + ": " + samples[i] + " expected " + expected);
+                    }
+                }
+            }
+            edfReader.close();
+            mappedReader.close();
+            System.out.println("Test is done!");
+        } catch (Throwable e) {
+            e.printStackTrace();
+        }
+    }
+}
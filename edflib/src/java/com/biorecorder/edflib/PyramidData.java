@@ -0,0 +1,60 @@
+package com.biorecorder.edflib;
+
+/**
+ * Min/max/mean values of consecutive groups (buckets) of signal samples
+ * taken from one level of the {@link EdfPyramid}.
+ * All values are digital (as they are stored in the file).
+ * Use {@link DataHeader#digitalValueToPhysical(int, int)} to get physical ones.
+ */
+public class PyramidData {
+    private final int bucketSize;
+    private final long startSample;
+    private final int[] min;
+    private final int[] max;
+    private final int[] mean;
+
+    PyramidData(int bucketSize, long startSample, int[] min, int[] max, int[] mean) {
+        this.bucketSize = bucketSize;
+        this.startSample = startSample;
+        this.min = min;
+        this.max = max;
+        this.mean = mean;
+    }
+
+    /**
+     * Number of signal samples in every bucket
+     */
+    public int getBucketSize() {
+        return bucketSize;
+    }
+
+    /**
+     * Number of the first sample of the first bucket
+     */
+    public long getStartSample() {
+        return startSample;
+    }
+
+    /**
+     * Number of the first sample of the given bucket
+     */
+    public long getBucketStartSample(int bucket) {
+        return startSample + (long) bucket * bucketSize;
+    }
+
+    public int size() {
+        return min.length;
+    }
+
+    public int getMin(int bucket) {
+        return min[bucket];
+    }
+
+    public int getMax(int bucket) {
+        return max[bucket];
+    }
+
+    public int getMean(int bucket) {
+        return mean[bucket];
+    }
+}
@@ -17,6 +17,8 @@ import java.util.Map;
 public class SignalFilter extends FilterRecordStream {
     private Map<Integer, List<NamedFilter>> signalsToFilters = new HashMap<Integer, List<NamedFilter>>();
     private int[] offsets; // gain and offsets to convert dig value to phys one
+    // filters of every signal (null if the signal has no filters) compiled at setHeader()
+    private IntDigitalFilter[][] signalsFilterChains = new IntDigitalFilter[0][];
     public SignalFilter(com.biorecorder.edflib.DataRecordStream outStream) {
         super(outStream);
     }
@@ -28,6 +30,17 @@ public class SignalFilter extends FilterRecordStream {
         for (int i = 0; i < offsets.length; i++) {
             offsets[i] = header.getSignalOffset(i);
         }
+        signalsFilterChains = new IntDigitalFilter[header.numberOfSignals()][];
+        for (int i = 0; i < signalsFilterChains.length; i++) {
+            List<NamedFilter> signalFilters = signalsToFilters.get(i);
+            if(signalFilters != null && !signalFilters.isEmpty()) {
+                IntDigitalFilter[] filterChain = new IntDigitalFilter[signalFilters.size()];
+                for (int j = 0; j < filterChain.length; j++) {
+                    filterChain[j] = signalFilters.get(j).filter;
+                }
+                signalsFilterChains[i] = filterChain;
+            }
+        }
     }
 
     /**
@@ -76,17 +89,21 @@ public class SignalFilter extends FilterRecordStream {
     @Override
     public void writeDataRecord(int[] inputRecord)  {
         int signalStart = 0;
-        for (int signalNumber = 0; signalNumber < inConfig.numberOfSignals(); signalNumber++) {
+        for (int signalNumber = 0; signalNumber < signalsFilterChains.length; signalNumber++) {
             int signalSamples = inConfig.getNumberOfSamplesInEachDataRecord(signalNumber);
-            List<NamedFilter> signalFilters = signalsToFilters.get(signalNumber);
-            if(signalFilters != null) {
-                for (int i = 0; i < signalSamples; i++) {
-                    // for filtering we use (digValue + offset) that is proportional physValue !!!
-                    int digValue = inputRecord[signalStart + i] + offsets[signalNumber];
-                    for (IntDigitalFilter filter : signalFilters) {
-                        digValue = filter.filteredValue(digValue);
-                    }
-                    outRecord[signalStart + i] = (int)(digValue - offsets[signalNumber]);
+            IntDigitalFilter[] filterChain = signalsFilterChains[signalNumber];
+            if(filterChain != null) {
+                // for filtering we use (digValue + offset) that is proportional physValue !!!
+                int offset = offsets[signalNumber];
+                int signalEnd = signalStart + signalSamples;
+                for (int i = signalStart; i < signalEnd; i++) {
+                    outRecord[i] = inputRecord[i] + offset;
+                }
+                for (IntDigitalFilter filter : filterChain) {
+                    filter.filter(outRecord, signalStart, outRecord, signalStart, signalSamples);
+                }
+                for (int i = signalStart; i < signalEnd; i++) {
+                    outRecord[i] -= offset;
                 }
             } else {
                 System.arraycopy(inputRecord, signalStart, outRecord, signalStart, signalSamples);
@@ -115,6 +132,11 @@ public class SignalFilter extends FilterRecordStream {
             return filter.filteredValue(inputValue);
         }
 
+        @Override
+        public void filter(int[] in, int inOff, int[] out, int outOff, int n) {
+            filter.filter(in, inOff, out, outOff, n);
+        }
+
         public String getFilterName() {
             return filterName;
         }
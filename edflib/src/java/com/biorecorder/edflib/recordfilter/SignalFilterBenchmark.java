@@ -0,0 +1,182 @@
+package com.biorecorder.edflib.recordfilter;
+
+import com.biorecorder.edflib.DataHeader;
+import com.biorecorder.edflib.DataRecordStream;
+import com.biorecorder.edflib.FormatVersion;
+import com.biorecorder.filters.digitalfilter.IntDigitalFilter;
+import com.biorecorder.filters.digitalfilter.IntHiPass;
+import com.biorecorder.filters.digitalfilter.IntMovingAverage;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Benchmark comparing per sample filtering of data records
+ * (filters are looked up in the HashMap for every signal of every record and
+ * filteredValue() is called for every sample through the filter wrapper)
+ * with SignalFilter that applies precompiled filter chains to
+ * the whole blocks of samples.
+ * <p>
+ * Typical recorder setup: 8 signals, 500 samples per record,
+ * 3 filters (hi pass, moving average, hi pass) for every signal.
+ */
+public class SignalFilterBenchmark {
+    private static final int NUMBER_OF_SIGNALS = 8;
+    private static final int SAMPLES_IN_RECORD = 500;
+    private static final int NUMBER_OF_RECORDS = 2000;
+    private static final int WARMUP_ITERATIONS = 5;
+    private static final int ITERATIONS = 10;
+
+    private static void addFilters(int signal, Map<Integer, List<IntDigitalFilter>> signalsToFilters, SignalFilter signalFilter) {
+        IntDigitalFilter[] filters = {new IntHiPass(SAMPLES_IN_RECORD), new IntMovingAverage(10), new IntHiPass(50)};
+        if(signalsToFilters != null) {
+            List<IntDigitalFilter> signalFilters = new ArrayList<IntDigitalFilter>();
+            for (IntDigitalFilter filter : filters) {
+                signalFilters.add(new FilterWrapper(filter));
+            }
+            signalsToFilters.put(signal, signalFilters);
+        }
+        if(signalFilter != null) {
+            for (IntDigitalFilter filter : filters) {
+                signalFilter.addSignalFilter(signal, filter, "filter");
+            }
+        }
+    }
+
+    private static long runPerSample(DataHeader header, int[][] records, int[][] result) {
+        Map<Integer, List<IntDigitalFilter>> signalsToFilters = new HashMap<Integer, List<IntDigitalFilter>>();
+        for (int signal = 0; signal < NUMBER_OF_SIGNALS; signal++) {
+            addFilters(signal, signalsToFilters, null);
+        }
+        int recordSize = header.getRecordSize();
+        int[] outRecord = new int[recordSize];
+        long time = System.nanoTime();
+        for (int r = 0; r < records.length; r++) {
+            int[] inputRecord = records[r];
+            int signalStart = 0;
+            for (int signalNumber = 0; signalNumber < header.numberOfSignals(); signalNumber++) {
+                int signalSamples = header.getNumberOfSamplesInEachDataRecord(signalNumber);
+                List<IntDigitalFilter> signalFilters = signalsToFilters.get(signalNumber);
+                int offset = header.getSignalOffset(signalNumber);
+                for (int i = 0; i < signalSamples; i++) {
+                    int digValue = inputRecord[signalStart + i] + offset;
+                    for (IntDigitalFilter filter : signalFilters) {
+                        digValue = filter.filteredValue(digValue);
+                    }
+                    outRecord[signalStart + i] = digValue - offset;
+                }
+                signalStart += signalSamples;
+            }
+            if(result != null) {
+                System.arraycopy(outRecord, 0, result[r], 0, recordSize);
+            }
+        }
+        return System.nanoTime() - time;
+    }
+
+    private static long runSignalFilter(DataHeader header, int[][] records, int[][] result) {
+        ResultStream resultStream = new ResultStream(result);
+        SignalFilter signalFilter = new SignalFilter(resultStream);
+        for (int signal = 0; signal < NUMBER_OF_SIGNALS; signal++) {
+            addFilters(signal, null, signalFilter);
+        }
+        signalFilter.setHeader(header);
+        long time = System.nanoTime();
+        for (int r = 0; r < records.length; r++) {
+            signalFilter.writeDataRecord(records[r]);
+        }
+        return System.nanoTime() - time;
+    }
+
+    private static double samplesPerSecond(long timeNs, long samples) {
+        return samples / (timeNs / 1.0e9);
+    }
+
+    public static void main(String[] args) {
+        DataHeader header = new DataHeader(FormatVersion.BDF_24BIT);
+        for (int signal = 0; signal < NUMBER_OF_SIGNALS; signal++) {
+            header.addSignal(SAMPLES_IN_RECORD);
+        }
+        int recordSize = header.getRecordSize();
+        Random random = new Random(1);
+        int[][] records = new int[NUMBER_OF_RECORDS][recordSize];
+        for (int[] record : records) {
+            for (int i = 0; i < recordSize; i++) {
+                record[i] = random.nextInt(1 << 24) - (1 << 23);
+            }
+        }
+        int[][] perSampleResult = new int[NUMBER_OF_RECORDS][recordSize];
+        int[][] signalFilterResult = new int[NUMBER_OF_RECORDS][recordSize];
+        runPerSample(header, records, perSampleResult);
+        runSignalFilter(header, records, signalFilterResult);
+        for (int r = 0; r < NUMBER_OF_RECORDS; r++) {
+            if(!Arrays.equals(perSampleResult[r], signalFilterResult[r])) {
+                throw new RuntimeException("Record " + r + ": per sample and block results are different");
+            }
+        }
+
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            runPerSample(header, records, null);
+            runSignalFilter(header, records, null);
+        }
+        long perSampleTime = 0;
+        long signalFilterTime = 0;
+        for (int i = 0; i < ITERATIONS; i++) {
+            perSampleTime += runPerSample(header, records, null);
+            signalFilterTime += runSignalFilter(header, records, null);
+        }
+        long samples = (long) ITERATIONS * NUMBER_OF_RECORDS * recordSize;
+        System.out.println(NUMBER_OF_SIGNALS + " signals, " + SAMPLES_IN_RECORD + " samples in record, 3 filters per signal");
+        System.out.printf("  per sample:    %.1f Msamples/s%n", samplesPerSecond(perSampleTime, samples) / 1e6);
+        System.out.printf("  signal filter: %.1f Msamples/s%n", samplesPerSecond(signalFilterTime, samples) / 1e6);
+    }
+
+    static class FilterWrapper implements IntDigitalFilter {
+        private final IntDigitalFilter filter;
+
+        FilterWrapper(IntDigitalFilter filter) {
+            this.filter = filter;
+        }
+
+        @Override
+        public int filteredValue(int inputValue) {
+            return filter.filteredValue(inputValue);
+        }
+
+        @Override
+        public int getFilterLength() {
+            return filter.getFilterLength();
+        }
+    }
+
+    static class ResultStream implements DataRecordStream {
+        private final int[][] result;
+        private int recordCount;
+
+        ResultStream(int[][] result) {
+            this.result = result;
+        }
+
+        @Override
+        public void setHeader(DataHeader header) {
+            // do nothing
+        }
+
+        @Override
+        public void writeDataRecord(int[] dataRecord) {
+            if(result != null) {
+                System.arraycopy(dataRecord, 0, result[recordCount], 0, dataRecord.length);
+            }
+            recordCount++;
+        }
+
+        @Override
+        public void close() {
+            // do nothing
+        }
+    }
+}
@@ -0,0 +1,422 @@
+package com.biorecorder.edflib.recordfilter;
+
+import com.biorecorder.edflib.DataHeader;
+import com.biorecorder.edflib.DataRecordStream;
+import com.biorecorder.edflib.FormatVersion;
+import com.biorecorder.filters.digitalfilter.IntDigitalFilter;
+import com.biorecorder.filters.digitalfilter.IntDigitalFilterFactory;
+import com.biorecorder.filters.digitalfilter.IntFilterChain;
+import com.biorecorder.filters.digitalfilter.IntIirFilter;
+import com.biorecorder.filters.digitalfilter.IntMovingAverage;
+import com.biorecorder.filters.digitalfilter.ZeroPhaseFilter;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Offline (file processing) analog of {@link SignalFilter}: applies filters
+ * to the signals without phase distortion (see {@link ZeroPhaseFilter}).
+ * Incoming records are accumulated by chunks, every chunk is split to signals
+ * and the signals are filtered in parallel. Filtered samples are joined
+ * back to the records. Output records are delayed
+ * (by the filter overlap) and the rest of them are sent at close().
+ * <p>
+ * Memory does not depend on the length of the recording.
+ * Typical usage: read records from the file and write them to this filter
+ * wrapping EdfFileWriter.
+ */
+public class ZeroPhaseSignalFilter extends FilterRecordStream {
+    private static final int RECORDS_IN_CHUNK = 100;
+    private final Map<Integer, List<NamedFilterFactory>> signalsToFilters = new HashMap<Integer, List<NamedFilterFactory>>();
+    private int numberOfThreads = Runtime.getRuntime().availableProcessors();
+    private ExecutorService executor;
+    private SignalState[] signalStates = new SignalState[0];
+    private int recordsInChunk;
+
+    public ZeroPhaseSignalFilter(DataRecordStream outStream) {
+        super(outStream);
+    }
+
+    /**
+     * Indicates that the filter created by the given factory should be applied to the samples
+     * belonging to the given signal. This method can be called only
+     * before setHeader()!
+     */
+    public void addSignalFilter(int signalNumber, IntDigitalFilterFactory filterFactory, String filterName) {
+        List<NamedFilterFactory> signalFilters = signalsToFilters.get(signalNumber);
+        if(signalFilters == null) {
+            signalFilters = new ArrayList<NamedFilterFactory>();
+            signalsToFilters.put(signalNumber, signalFilters);
+        }
+        signalFilters.add(new NamedFilterFactory(filterFactory, filterName));
+    }
+
+    /**
+     * This method can be called only before setHeader()!
+     *
+     * @param numberOfThreads number of threads to filter signals in parallel
+     */
+    public void setNumberOfThreads(int numberOfThreads) throws IllegalArgumentException {
+        if(numberOfThreads < 1) {
+            throw new IllegalArgumentException("Number of threads must be > 0: " + numberOfThreads);
+        }
+        this.numberOfThreads = numberOfThreads;
+    }
+
+    public String getSignalFiltersName(int signalNumber) {
+        StringBuilder name = new StringBuilder("");
+        List<NamedFilterFactory> signalFilters = signalsToFilters.get(signalNumber);
+        if(signalFilters != null) {
+            for (NamedFilterFactory filter : signalFilters) {
+                name.append(filter.filterName).append(";");
+            }
+        }
+        return name.toString();
+    }
+
+    @Override
+    public void setHeader(DataHeader header) {
+        super.setHeader(header);
+        signalStates = new SignalState[header.numberOfSignals()];
+        int filteredSignals = 0;
+        for (int i = 0; i < signalStates.length; i++) {
+            List<NamedFilterFactory> signalFilters = signalsToFilters.get(i);
+            ZeroPhaseFilter zeroPhaseFilter = null;
+            if(signalFilters != null && !signalFilters.isEmpty()) {
+                zeroPhaseFilter = new ZeroPhaseFilter(new ChainFactory(signalFilters));
+                filteredSignals++;
+            }
+            signalStates[i] = new SignalState(zeroPhaseFilter, header.getNumberOfSamplesInEachDataRecord(i), header.getSignalOffset(i));
+        }
+        int threads = Math.min(numberOfThreads, filteredSignals);
+        if(threads > 1) {
+            ThreadFactory namedThreadFactory = new ThreadFactory() {
+                public Thread newThread(Runnable r) {
+                    Thread thread = new Thread(r, "«Zero phase filter» thread");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            };
+            executor = Executors.newFixedThreadPool(threads, namedThreadFactory);
+        }
+    }
+
+    @Override
+    public DataHeader getOutConfig() {
+        DataHeader outConfig = new DataHeader(inConfig);
+        for (int i = 0; i < outConfig.numberOfSignals(); i++) {
+            String prefilter = getSignalFiltersName(i);
+            if(inConfig.getPrefiltering(i) != null && ! inConfig.getPrefiltering(i).isEmpty()) {
+                prefilter = inConfig.getPrefiltering(i) + ";" +getSignalFiltersName(i);
+            }
+            outConfig.setPrefiltering(i, prefilter);
+        }
+        return outConfig;
+    }
+
+    @Override
+    public void writeDataRecord(int[] inputRecord) {
+        int signalStart = 0;
+        for (SignalState signalState : signalStates) {
+            signalState.addRecordSamples(inputRecord, signalStart, recordsInChunk);
+            signalStart += signalState.samplesInRecord;
+        }
+        recordsInChunk++;
+        if(recordsInChunk == RECORDS_IN_CHUNK) {
+            filterChunk(false);
+        }
+    }
+
+    /**
+     * Filters the rest of the data and sends the remaining records
+     */
+    @Override
+    public void close() {
+        filterChunk(true);
+        if(executor != null) {
+            executor.shutdown();
+        }
+        super.close();
+    }
+
+    private void filterChunk(final boolean isLast) {
+        List<Callable<Void>> tasks = new ArrayList<Callable<Void>>(signalStates.length);
+        for (final SignalState signalState : signalStates) {
+            if(signalState.zeroPhaseFilter != null) {
+                final int chunkSamples = recordsInChunk * signalState.samplesInRecord;
+                tasks.add(new Callable<Void>() {
+                    @Override
+                    public Void call() {
+                        signalState.filter(chunkSamples, isLast);
+                        return null;
+                    }
+                });
+            }
+        }
+        if(executor == null) {
+            for (Callable<Void> task : tasks) {
+                try {
+                    task.call();
+                } catch (Exception e) {
+                    throw new RuntimeException(e);
+                }
+            }
+        } else {
+            try {
+                for (Future<Void> future : executor.invokeAll(tasks)) {
+                    future.get();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException(e);
+            } catch (ExecutionException e) {
+                throw new RuntimeException(e.getCause());
+            }
+        }
+        recordsInChunk = 0;
+        sendReadyRecords();
+    }
+
+    /**
+     * Sends records for which all signals are already filtered
+     */
+    private void sendReadyRecords() {
+        while (true) {
+            for (SignalState signalState : signalStates) {
+                if(signalState.output.size() < signalState.samplesInRecord) {
+                    return;
+                }
+            }
+            int signalStart = 0;
+            for (SignalState signalState : signalStates) {
+                signalState.output.take(outRecord, signalStart, signalState.samplesInRecord);
+                signalStart += signalState.samplesInRecord;
+            }
+            sendData(outRecord);
+        }
+    }
+
+    class NamedFilterFactory {
+        private final IntDigitalFilterFactory filterFactory;
+        private final String filterName;
+
+        public NamedFilterFactory(IntDigitalFilterFactory filterFactory, String filterName) {
+            this.filterFactory = filterFactory;
+            this.filterName = filterName;
+        }
+    }
+
+    static class ChainFactory implements IntDigitalFilterFactory {
+        private final IntDigitalFilterFactory[] factories;
+
+        ChainFactory(List<NamedFilterFactory> namedFactories) {
+            factories = new IntDigitalFilterFactory[namedFactories.size()];
+            for (int i = 0; i < factories.length; i++) {
+                factories[i] = namedFactories.get(i).filterFactory;
+            }
+        }
+
+        @Override
+        public IntDigitalFilter createFilter() {
+            IntDigitalFilter[] filters = new IntDigitalFilter[factories.length];
+            for (int i = 0; i < filters.length; i++) {
+                filters[i] = factories[i].createFilter();
+            }
+            return new IntFilterChain(filters);
+        }
+    }
+
+    static class SignalState implements ZeroPhaseFilter.DataSink {
+        private final ZeroPhaseFilter zeroPhaseFilter; // null if the signal is not filtered
+        private final int samplesInRecord;
+        private final int offset; // to filter (digValue + offset) that is proportional physValue
+        private final int[] chunk;
+        private final SampleQueue output = new SampleQueue();
+
+        SignalState(ZeroPhaseFilter zeroPhaseFilter, int samplesInRecord, int offset) {
+            this.zeroPhaseFilter = zeroPhaseFilter;
+            this.samplesInRecord = samplesInRecord;
+            this.offset = offset;
+            chunk = zeroPhaseFilter == null ? null : new int[samplesInRecord * RECORDS_IN_CHUNK];
+        }
+
+        void addRecordSamples(int[] record, int signalStart, int recordNumberInChunk) {
+            if(zeroPhaseFilter == null) {
+                output.add(record, signalStart, samplesInRecord);
+                return;
+            }
+            int chunkStart = recordNumberInChunk * samplesInRecord;
+            for (int i = 0; i < samplesInRecord; i++) {
+                chunk[chunkStart + i] = record[signalStart + i] + offset;
+            }
+        }
+
+        void filter(int chunkSamples, boolean isLast) {
+            zeroPhaseFilter.put(chunk, 0, chunkSamples, this);
+            if(isLast) {
+                zeroPhaseFilter.finish(this);
+            }
+        }
+
+        @Override
+        public void put(int[] values, int from, int length) {
+            output.add(values, from, length);
+            output.subtractFromLast(length, offset);
+        }
+    }
+
+    /**
+     * FIFO of samples
+     */
+    static class SampleQueue {
+        private int[] values = new int[1024];
+        private int start;
+        private int end;
+
+        int size() {
+            return end - start;
+        }
+
+        void add(int[] data, int from, int length) {
+            if(end + length > values.length) {
+                int size = size();
+                if(size + length > values.length) {
+                    int[] newValues = new int[Math.max(values.length * 2, size + length)];
+                    System.arraycopy(values, start, newValues, 0, size);
+                    values = newValues;
+                } else {
+                    System.arraycopy(values, start, values, 0, size);
+                }
+                start = 0;
+                end = size;
+            }
+            System.arraycopy(data, from, values, end, length);
+            end += length;
+        }
+
+        void subtractFromLast(int length, int value) {
+            for (int i = end - length; i < end; i++) {
+                values[i] -= value;
+            }
+        }
+
+        void take(int[] dest, int destFrom, int length) {
+            System.arraycopy(values, start, dest, destFrom, length);
+            start += length;
+        }
+    }
+
+    /**
+     * Unit Test. Usage Example.
+     */
+    public static void main(String[] args) {
+        final int sampleRate = 500;
+        int numberOfRecords = 1234;
+        DataHeader header = new DataHeader(FormatVersion.BDF_24BIT);
+        header.addSignal(sampleRate);
+        header.addSignal(10);
+        header.addSignal(sampleRate);
+        header.addSignal(sampleRate);
+        int[][] signals = new int[header.numberOfSignals()][];
+        for (int i = 0; i < signals.length; i++) {
+            signals[i] = new int[header.getNumberOfSamplesInEachDataRecord(i) * numberOfRecords];
+        }
+        java.util.Random random = new java.util.Random(1);
+        for (int i = 0; i < signals.length; i++) {
+            for (int j = 0; j < signals[i].length; j++) {
+                signals[i][j] = (int) (10000 * Math.sin(j * 0.05 * (i + 1))) + random.nextInt(1000);
+            }
+        }
+
+        IntDigitalFilterFactory notch = new IntDigitalFilterFactory() {
+            @Override
+            public IntDigitalFilter createFilter() {
+                return IntIirFilter.notch(sampleRate, 50, 30);
+            }
+        };
+        IntDigitalFilterFactory bandPass = new IntDigitalFilterFactory() {
+            @Override
+            public IntDigitalFilter createFilter() {
+                return IntIirFilter.bandPass(sampleRate, 0.5, 40, 2);
+            }
+        };
+        IntDigitalFilterFactory movingAverage = new IntDigitalFilterFactory() {
+            @Override
+            public IntDigitalFilter createFilter() {
+                return new IntMovingAverage(5);
+            }
+        };
+        // expected: every signal filtered at once
+        final int[][] expected = new int[signals.length][];
+        for (int i = 0; i < signals.length; i++) {
+            expected[i] = signals[i].clone();
+        }
+        ZeroPhaseFilter.filter(new IntDigitalFilterFactory() {
+            @Override
+            public IntDigitalFilter createFilter() {
+                return new IntFilterChain(IntIirFilter.bandPass(sampleRate, 0.5, 40, 2), IntIirFilter.notch(sampleRate, 50, 30));
+            }
+        }, expected[0], 0, expected[0].length);
+        ZeroPhaseFilter.filter(movingAverage, expected[3], 0, expected[3].length);
+
+        final int[] receivedRecords = new int[1];
+        final boolean[] isTestOk = {true};
+        final int[] recordSamples = new int[signals.length];
+        for (int i = 0; i < signals.length; i++) {
+            recordSamples[i] = header.getNumberOfSamplesInEachDataRecord(i);
+        }
+        DataRecordStream resultStream = new DataRecordStream() {
+            @Override
+            public void setHeader(DataHeader header) {
+                // do nothing
+            }
+
+            @Override
+            public void writeDataRecord(int[] dataRecord) {
+                int signalStart = 0;
+                for (int i = 0; i < recordSamples.length; i++) {
+                    for (int j = 0; j < recordSamples[i]; j++) {
+                        int expectedValue = expected[i][receivedRecords[0] * recordSamples[i] + j];
+                        // IIR filters give error <= 1 at the chunk borders
+                        if(Math.abs(dataRecord[signalStart + j] - expectedValue) > 1) {
+                            isTestOk[0] = false;
+                        }
+                    }
+                    signalStart += recordSamples[i];
+                }
+                receivedRecords[0]++;
+            }
+
+            @Override
+            public void close() {
+                // do nothing
+            }
+        };
+
+        ZeroPhaseSignalFilter zeroPhaseSignalFilter = new ZeroPhaseSignalFilter(resultStream);
+        zeroPhaseSignalFilter.addSignalFilter(0, bandPass, "BandPass:0.5-40Hz");
+        zeroPhaseSignalFilter.addSignalFilter(0, notch, "Notch:50Hz");
+        zeroPhaseSignalFilter.addSignalFilter(3, movingAverage, "MovAvg:5");
+        zeroPhaseSignalFilter.setNumberOfThreads(2);
+        zeroPhaseSignalFilter.setHeader(header);
+        int[] record = new int[header.getRecordSize()];
+        for (int r = 0; r < numberOfRecords; r++) {
+            int signalStart = 0;
+            for (int i = 0; i < signals.length; i++) {
+                System.arraycopy(signals[i], r * recordSamples[i], record, signalStart, recordSamples[i]);
+                signalStart += recordSamples[i];
+            }
+            zeroPhaseSignalFilter.writeDataRecord(record);
+        }
+        zeroPhaseSignalFilter.close();
+        System.out.println("Is test ok: " + (isTestOk[0] && receivedRecords[0] == numberOfRecords));
+    }
+}
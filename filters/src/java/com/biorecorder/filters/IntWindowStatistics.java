@@ -0,0 +1,257 @@
+package com.biorecorder.filters;
+
+/**
+ * Sliding window of the last N int values that permits
+ * to get min, max, sum and sum of squares of the values in the window
+ * without scanning it.
+ * <p>
+ * Min and max are kept with the help of two monotonic deques
+ * (every value is added and removed from the deque only once) so
+ * add() takes amortised O(1) time whatever the window size.
+ * <p>
+ * Sum of squares is kept in long so for 24 bit values
+ * the window size must not exceed 2^17 values.
+ */
+public class IntWindowStatistics {
+    private final int[] values;
+    private int position; // where the next value will be written. If the window is full it is the oldest value
+    private int size;
+    private long count; // total number of added values. Used as values "index"
+    private long sum;
+    private long sumOfSquares;
+
+    private final MonotonicDeque minDeque;
+    private final MonotonicDeque maxDeque;
+
+    /**
+     * @param windowSize  the maximum number of values in the window
+     * @throws IllegalArgumentException  if the size is less than 1
+     */
+    public IntWindowStatistics(int windowSize) throws IllegalArgumentException {
+        if (windowSize <= 0) {
+            throw new IllegalArgumentException("The size must be greater than 0");
+        }
+        values = new int[windowSize];
+        minDeque = new MonotonicDeque(windowSize, true);
+        maxDeque = new MonotonicDeque(windowSize, false);
+    }
+
+    /**
+     * Adds the given value to the window. If the window is full
+     * the oldest value is removed.
+     */
+    public void add(int value) {
+        if (size == values.length) {
+            int oldest = values[position];
+            sum -= oldest;
+            sumOfSquares -= (long) oldest * oldest;
+        } else {
+            size++;
+        }
+        values[position] = value;
+        position++;
+        if (position == values.length) {
+            position = 0;
+        }
+        sum += value;
+        sumOfSquares += (long) value * value;
+
+        long oldestIndex = count - size + 1;
+        minDeque.add(count, value, oldestIndex);
+        maxDeque.add(count, value, oldestIndex);
+        count++;
+    }
+
+    /**
+     * Returns the number of values in the window.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Gets the maximum number of values in the window.
+     */
+    public int maxSize() {
+        return values.length;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean isFull() {
+        return size == values.length;
+    }
+
+    /**
+     * Removes all values from the window.
+     */
+    public void clear() {
+        position = 0;
+        size = 0;
+        sum = 0;
+        sumOfSquares = 0;
+        minDeque.clear();
+        maxDeque.clear();
+    }
+
+    /**
+     * Returns the least recently added value.
+     */
+    public int getOldest() {
+        checkNotEmpty();
+        int oldest = position - size;
+        if (oldest < 0) {
+            oldest += values.length;
+        }
+        return values[oldest];
+    }
+
+    public int getMin() {
+        checkNotEmpty();
+        return minDeque.first();
+    }
+
+    public int getMax() {
+        checkNotEmpty();
+        return maxDeque.first();
+    }
+
+    public long getSum() {
+        return sum;
+    }
+
+    public long getSumOfSquares() {
+        return sumOfSquares;
+    }
+
+    public double getMean() {
+        checkNotEmpty();
+        return (double) sum / size;
+    }
+
+    /**
+     * Root mean square of the values in the window
+     */
+    public double getRms() {
+        checkNotEmpty();
+        return Math.sqrt((double) sumOfSquares / size);
+    }
+
+    /**
+     * Population variance of the values in the window
+     */
+    public double getVariance() {
+        checkNotEmpty();
+        double mean = (double) sum / size;
+        double variance = (double) sumOfSquares / size - mean * mean;
+        // rounding errors may give small negative value
+        return Math.max(0, variance);
+    }
+
+    private void checkNotEmpty() {
+        if (size == 0) {
+            throw new IllegalStateException("The window is empty");
+        }
+    }
+
+    /**
+     * Deque (on the base of ring array) of values with their indexes
+     * where values are ascending (for min) or descending (for max)
+     * from the first to the last element. The first element is the min (max) of the window.
+     */
+    static class MonotonicDeque {
+        private final long[] indexes;
+        private final int[] values;
+        private final boolean isMin;
+        private int head;
+        private int size;
+
+        MonotonicDeque(int capacity, boolean isMin) {
+            indexes = new long[capacity];
+            values = new int[capacity];
+            this.isMin = isMin;
+        }
+
+        /**
+         * @param index       index of the added value
+         * @param value       added value
+         * @param oldestIndex index of the oldest value still in the window
+         */
+        void add(long index, int value, long oldestIndex) {
+            // values that can never become min (max) any more
+            while (size > 0) {
+                int last = head + size - 1;
+                if (last >= values.length) {
+                    last -= values.length;
+                }
+                if (isMin ? values[last] < value : values[last] > value) {
+                    break;
+                }
+                size--;
+            }
+            // values that left the window
+            while (size > 0 && indexes[head] < oldestIndex) {
+                head++;
+                if (head == values.length) {
+                    head = 0;
+                }
+                size--;
+            }
+            int tail = head + size;
+            if (tail >= values.length) {
+                tail -= values.length;
+            }
+            indexes[tail] = index;
+            values[tail] = value;
+            size++;
+        }
+
+        int first() {
+            return values[head];
+        }
+
+        void clear() {
+            head = 0;
+            size = 0;
+        }
+    }
+
+    /**
+     * Unit Test. Compares window statistics with the values
+     * calculated by direct scanning of the window
+     */
+    public static void main(String[] args) {
+        java.util.Random random = new java.util.Random(1);
+        boolean isTestOk = true;
+        for (int windowSize = 1; windowSize < 50 && isTestOk; windowSize += 7) {
+            IntWindowStatistics statistics = new IntWindowStatistics(windowSize);
+            int[] data = new int[1000];
+            for (int i = 0; i < data.length; i++) {
+                // few different values to test equal values too
+                data[i] = random.nextInt(20) - 10;
+                statistics.add(data[i]);
+                int from = Math.max(0, i - windowSize + 1);
+                int min = Integer.MAX_VALUE;
+                int max = Integer.MIN_VALUE;
+                long sum = 0;
+                long sumOfSquares = 0;
+                for (int j = from; j <= i; j++) {
+                    min = Math.min(min, data[j]);
+                    max = Math.max(max, data[j]);
+                    sum += data[j];
+                    sumOfSquares += data[j] * data[j];
+                }
+                if (statistics.getMin() != min || statistics.getMax() != max || statistics.getSum() != sum
+                        || statistics.getSumOfSquares() != sumOfSquares || statistics.getOldest() != data[from]) {
+                    System.out.println("Window " + windowSize + ", value " + i + " Error! min: " + statistics.getMin() + " expected: " + min
+                            + ", max: " + statistics.getMax() + " expected: " + max);
+                    isTestOk = false;
+                    break;
+                }
+            }
+        }
+        System.out.println("Is test ok: " + isTestOk);
+    }
+}
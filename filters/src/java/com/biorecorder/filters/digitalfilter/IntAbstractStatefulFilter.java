@@ -1,32 +1,75 @@
 package com.biorecorder.filters.digitalfilter;
 
-import com.biorecorder.filters.IntCircularFifoBuffer;
-
+/**
+ * Base class for filters which result depends on some previous input values.
+ * Previous values are stored in the circular buffer (ring).
+ * For fast block processing subclasses may work with the ring directly
+ * through {@link #buffer()}, {@link #bufferPosition()} and {@link #setBufferState(int, int)}
+ */
 public abstract class IntAbstractStatefulFilter implements IntDigitalFilter{
-    private final IntCircularFifoBuffer fifoBuffer;
+    private final int[] buffer;
+    private int size; // number of values in the buffer
+    private int position; // where the next value will be written. If the buffer is full it is the oldest value
 
     public IntAbstractStatefulFilter(int bufferSize) {
-        fifoBuffer = new IntCircularFifoBuffer(bufferSize);
+        if (bufferSize <= 0) {
+            throw new IllegalArgumentException("The size must be greater than 0");
+        }
+        buffer = new int[bufferSize];
     }
 
     protected int bufferSize() {
-        return fifoBuffer.size();
+        return size;
     }
 
     protected int bufferMaxSize() {
-        return fifoBuffer.maxSize();
+        return buffer.length;
     }
 
+    /**
+     * Adds the given value to the buffer. If the buffer is full
+     * the oldest value is removed
+     */
     protected void addToBuffer(int value) {
-        fifoBuffer.add(value);
+        buffer[position] = value;
+        position++;
+        if(position == buffer.length) {
+            position = 0;
+        }
+        if(size < buffer.length) {
+            size++;
+        }
     }
 
+    /**
+     * Returns the least recently added value
+     */
     protected int getFromBuffer() {
-        return fifoBuffer.get();
+        if (size == 0) {
+            throw new IllegalStateException("The buffer is already empty");
+        }
+        int oldest = position - size;
+        if(oldest < 0) {
+            oldest += buffer.length;
+        }
+        return buffer[oldest];
+    }
+
+    protected int[] buffer() {
+        return buffer;
+    }
+
+    protected int bufferPosition() {
+        return position;
+    }
+
+    protected void setBufferState(int size, int position) {
+        this.size = size;
+        this.position = position;
     }
 
     @Override
     public int getFilterLength() {
-        return fifoBuffer.maxSize() + 1;
+        return buffer.length + 1;
     }
 }
@@ -13,4 +13,23 @@ public interface IntDigitalFilter {
     int filteredValue(int inputValue);
 
     int getFilterLength();
+
+    /**
+     * Filters n values from the input array and writes the results to the output array.
+     * The result is the same as if filteredValue() were called for every input value
+     * but implementations may process the whole block much faster.
+     * <p>
+     * Input and output may be the same array with the same offset (filtering in place).
+     *
+     * @param in     input values
+     * @param inOff  position of the first input value
+     * @param out    array where filtered values will be written
+     * @param outOff position of the first filtered value
+     * @param n      number of values to filter
+     */
+    default void filter(int[] in, int inOff, int[] out, int outOff, int n) {
+        for (int i = 0; i < n; i++) {
+            out[outOff + i] = filteredValue(in[inOff + i]);
+        }
+    }
 }
@@ -0,0 +1,11 @@
+package com.biorecorder.filters.digitalfilter;
+
+/**
+ * Creates new filters with the same parameters.
+ * Needed when the filter must be applied to the data several times
+ * and every time should start with the fresh state
+ * (like forward and backward passes of {@link ZeroPhaseFilter})
+ */
+public interface IntDigitalFilterFactory {
+    IntDigitalFilter createFilter();
+}
@@ -0,0 +1,43 @@
+package com.biorecorder.filters.digitalfilter;
+
+/**
+ * Applies the given filters one after another.
+ * Length of the chain = sum of (filter length - 1) + 1
+ */
+public class IntFilterChain implements IntDigitalFilter {
+    private final IntDigitalFilter[] filters;
+
+    public IntFilterChain(IntDigitalFilter... filters) {
+        this.filters = filters.clone();
+    }
+
+    @Override
+    public int filteredValue(int inputValue) {
+        int result = inputValue;
+        for (IntDigitalFilter filter : filters) {
+            result = filter.filteredValue(result);
+        }
+        return result;
+    }
+
+    @Override
+    public void filter(int[] in, int inOff, int[] out, int outOff, int n) {
+        if (filters.length == 0) {
+            System.arraycopy(in, inOff, out, outOff, n);
+            return;
+        }
+        filters[0].filter(in, inOff, out, outOff, n);
+        for (int i = 1; i < filters.length; i++) {
+            filters[i].filter(out, outOff, out, outOff, n);
+        }
+    }
+
+    @Override
+    public int getFilterLength() {
+        long length = 1;
+        for (IntDigitalFilter filter : filters) {
+            length += Math.max(0, filter.getFilterLength() - 1);
+        }
+        return (int) Math.min(length, Integer.MAX_VALUE);
+    }
+}
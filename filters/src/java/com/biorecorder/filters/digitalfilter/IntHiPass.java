@@ -18,4 +18,38 @@ public class IntHiPass extends IntAbstractStatefulFilter {
         int avg = (int) (sum / bufferSize());
         return value - avg;
     }
+
+    @Override
+    public void filter(int[] in, int inOff, int[] out, int outOff, int n) {
+        int[] buffer = buffer();
+        int maxSize = buffer.length;
+        int size = bufferSize();
+        int position = bufferPosition();
+        long sum = this.sum;
+        int inEnd = inOff + n;
+        // buffer is not full yet
+        while (size < maxSize && inOff < inEnd) {
+            int value = in[inOff++];
+            sum += value;
+            buffer[position++] = value;
+            if(position == maxSize) {
+                position = 0;
+            }
+            size++;
+            out[outOff++] = value - (int) (sum / size);
+        }
+        // buffer is full: the value at the position is the oldest one
+        while (inOff < inEnd) {
+            int value = in[inOff++];
+            sum += value;
+            sum -= buffer[position];
+            buffer[position++] = value;
+            if(position == maxSize) {
+                position = 0;
+            }
+            out[outOff++] = value - (int) (sum / maxSize);
+        }
+        this.sum = sum;
+        setBufferState(size, position);
+    }
 }
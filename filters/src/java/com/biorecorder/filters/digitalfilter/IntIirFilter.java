@@ -0,0 +1,334 @@
+package com.biorecorder.filters.digitalfilter;
+
+/**
+ * Recursive (IIR) filter made as a cascade of second order sections (biquads).
+ * Every section is calculated in double in the transposed direct form II:
+ * <pre>
+ *     y = b0 * x + z1;
+ *     z1 = b1 * x - a1 * y + z2;
+ *     z2 = b2 * x - a2 * y;
+ * </pre>
+ * So the cost of every sample depends only on the number of sections
+ * (filter order) and not on the cut-off frequency, unlike moving average filters.
+ * <p>
+ * Design functions give Butterworth low, high and band pass filters
+ * (bilinear transform with frequency prewarping) and notch filter
+ * to remove the mains noise (50/60 Hz).
+ * <p>
+ * The filter state is initialized by the first value as if the input
+ * had been constant before, so the constant offset of the signal does not produce
+ * the long transient at the start.
+ */
+public class IntIirFilter implements IntDigitalFilter {
+    private static final double RESPONSE_TOLERANCE = 1.0E-4;
+    private final double[] b0;
+    private final double[] b1;
+    private final double[] b2;
+    private final double[] a1;
+    private final double[] a2;
+    private final double[] z1;
+    private final double[] z2;
+    private final int filterLength;
+    private boolean isInitialized;
+
+    /**
+     * @param sections coefficients of every section: {b0, b1, b2, a1, a2}
+     *                 (normalized so that a0 = 1)
+     */
+    public IntIirFilter(double[]... sections) throws IllegalArgumentException {
+        if (sections.length == 0) {
+            throw new IllegalArgumentException("The filter must have at least one section");
+        }
+        int n = sections.length;
+        b0 = new double[n];
+        b1 = new double[n];
+        b2 = new double[n];
+        a1 = new double[n];
+        a2 = new double[n];
+        z1 = new double[n];
+        z2 = new double[n];
+        for (int i = 0; i < n; i++) {
+            double[] section = sections[i];
+            if (section.length != 5) {
+                String errMsg = "Section must have 5 coefficients {b0, b1, b2, a1, a2}: " + section.length;
+                throw new IllegalArgumentException(errMsg);
+            }
+            b0[i] = section[0];
+            b1[i] = section[1];
+            b2[i] = section[2];
+            a1[i] = section[3];
+            a2[i] = section[4];
+        }
+        long length = 1;
+        for (int i = 0; i < n; i++) {
+            length += responseLength(a1[i], a2[i]);
+        }
+        filterLength = (int) Math.min(length, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Butterworth low pass filter
+     *
+     * @param order filter order. Every 2 orders give one section
+     */
+    public static IntIirFilter lowPass(double sampleRate, double cutOffFrequency, int order) throws IllegalArgumentException {
+        return new IntIirFilter(butterworthSections(sampleRate, cutOffFrequency, order, false));
+    }
+
+    /**
+     * Butterworth high pass filter
+     *
+     * @param order filter order. Every 2 orders give one section
+     */
+    public static IntIirFilter highPass(double sampleRate, double cutOffFrequency, int order) throws IllegalArgumentException {
+        return new IntIirFilter(butterworthSections(sampleRate, cutOffFrequency, order, true));
+    }
+
+    /**
+     * Band pass filter made as a cascade of Butterworth high pass and low pass filters
+     * of the given order. Suitable for the wide bands typical for biosignals (0.5 - 40 Hz)
+     */
+    public static IntIirFilter bandPass(double sampleRate, double lowCutOffFrequency, double highCutOffFrequency, int order) throws IllegalArgumentException {
+        if (lowCutOffFrequency >= highCutOffFrequency) {
+            String errMsg = "Low cut-off frequency must be less than the high one: " + lowCutOffFrequency + ", " + highCutOffFrequency;
+            throw new IllegalArgumentException(errMsg);
+        }
+        double[][] highPass = butterworthSections(sampleRate, lowCutOffFrequency, order, true);
+        double[][] lowPass = butterworthSections(sampleRate, highCutOffFrequency, order, false);
+        double[][] sections = new double[highPass.length + lowPass.length][];
+        System.arraycopy(highPass, 0, sections, 0, highPass.length);
+        System.arraycopy(lowPass, 0, sections, highPass.length, lowPass.length);
+        return new IntIirFilter(sections);
+    }
+
+    /**
+     * Notch (band stop) filter to remove the mains noise
+     *
+     * @param frequency       frequency to remove (50 or 60 Hz)
+     * @param qualityFactor   frequency / bandwidth. Bigger values give the narrower notch (typically 20 - 50)
+     */
+    public static IntIirFilter notch(double sampleRate, double frequency, double qualityFactor) throws IllegalArgumentException {
+        checkFrequency(sampleRate, frequency);
+        if (qualityFactor <= 0) {
+            throw new IllegalArgumentException("Quality factor must be > 0: " + qualityFactor);
+        }
+        double w0 = 2 * Math.PI * frequency / sampleRate;
+        double alpha = Math.sin(w0) / (2 * qualityFactor);
+        double cos = Math.cos(w0);
+        double a0 = 1 + alpha;
+        double[] section = {1 / a0, -2 * cos / a0, 1 / a0, -2 * cos / a0, (1 - alpha) / a0};
+        return new IntIirFilter(section);
+    }
+
+    private static double[][] butterworthSections(double sampleRate, double cutOffFrequency, int order, boolean isHighPass) throws IllegalArgumentException {
+        checkFrequency(sampleRate, cutOffFrequency);
+        if (order < 1) {
+            throw new IllegalArgumentException("Filter order must be > 0: " + order);
+        }
+        // prewarped analog frequency for the bilinear transform
+        double k = Math.tan(Math.PI * cutOffFrequency / sampleRate);
+        double kk = k * k;
+        double[][] sections = new double[(order + 1) / 2][];
+        for (int i = 0; i < order / 2; i++) {
+            // 1/Q of the pair of complex conjugated analog poles
+            double qInverse = 2 * Math.sin(Math.PI * (2 * i + 1) / (2 * order));
+            double norm = 1 / (1 + k * qInverse + kk);
+            double a1 = 2 * (kk - 1) * norm;
+            double a2 = (1 - k * qInverse + kk) * norm;
+            if (isHighPass) {
+                sections[i] = new double[] {norm, -2 * norm, norm, a1, a2};
+            } else {
+                sections[i] = new double[] {kk * norm, 2 * kk * norm, kk * norm, a1, a2};
+            }
+        }
+        if (order % 2 == 1) {
+            // the real analog pole gives the first order section
+            double norm = 1 / (1 + k);
+            double a1 = (k - 1) * norm;
+            if (isHighPass) {
+                sections[order / 2] = new double[] {norm, -norm, 0, a1, 0};
+            } else {
+                sections[order / 2] = new double[] {k * norm, k * norm, 0, a1, 0};
+            }
+        }
+        return sections;
+    }
+
+    private static void checkFrequency(double sampleRate, double frequency) throws IllegalArgumentException {
+        if (frequency <= 0 || frequency >= sampleRate / 2) {
+            String errMsg = "Frequency must be > 0 and < sampleRate / 2: " + frequency + ", sample rate: " + sampleRate;
+            throw new IllegalArgumentException(errMsg);
+        }
+    }
+
+    /**
+     * Sets the state of every section as if the input had been always equal to the given value
+     */
+    private void initState(double value) {
+        for (int i = 0; i < b0.length; i++) {
+            double gain = (b0[i] + b1[i] + b2[i]) / (1 + a1[i] + a2[i]);
+            double y = gain * value;
+            z2[i] = b2[i] * value - a2[i] * y;
+            z1[i] = y - b0[i] * value;
+            value = y;
+        }
+        isInitialized = true;
+    }
+
+    @Override
+    public int filteredValue(int inputValue) {
+        if (!isInitialized) {
+            initState(inputValue);
+        }
+        double x = inputValue;
+        for (int i = 0; i < b0.length; i++) {
+            double y = b0[i] * x + z1[i];
+            z1[i] = b1[i] * x - a1[i] * y + z2[i];
+            z2[i] = b2[i] * x - a2[i] * y;
+            x = y;
+        }
+        return (int) Math.round(x);
+    }
+
+    @Override
+    public void filter(int[] in, int inOff, int[] out, int outOff, int n) {
+        if (n > 0 && !isInitialized) {
+            initState(in[inOff]);
+        }
+        int sections = b0.length;
+        if (sections == 1) {
+            // the most common case (notch) with the state in local variables
+            double b0 = this.b0[0], b1 = this.b1[0], b2 = this.b2[0], a1 = this.a1[0], a2 = this.a2[0];
+            double z1 = this.z1[0], z2 = this.z2[0];
+            for (int i = 0; i < n; i++) {
+                double x = in[inOff + i];
+                double y = b0 * x + z1;
+                z1 = b1 * x - a1 * y + z2;
+                z2 = b2 * x - a2 * y;
+                out[outOff + i] = (int) Math.round(y);
+            }
+            this.z1[0] = z1;
+            this.z2[0] = z2;
+            return;
+        }
+        for (int i = 0; i < n; i++) {
+            double x = in[inOff + i];
+            for (int j = 0; j < sections; j++) {
+                double y = b0[j] * x + z1[j];
+                z1[j] = b1[j] * x - a1[j] * y + z2[j];
+                z2[j] = b2[j] * x - a2[j] * y;
+                x = y;
+            }
+            out[outOff + i] = (int) Math.round(x);
+        }
+    }
+
+    /**
+     * Response of the IIR filter is infinite. Here the length is the number
+     * of samples after which the impulse response of every section decays
+     * below {@link #RESPONSE_TOLERANCE} (summed over all sections) + 1
+     */
+    @Override
+    public int getFilterLength() {
+        return filterLength;
+    }
+
+    /**
+     * @return number of samples while the impulse response of the section with
+     * the given denominator is greater than {@link #RESPONSE_TOLERANCE}
+     */
+    private static int responseLength(double a1, double a2) throws IllegalArgumentException {
+        // max modulus of the roots of z^2 + a1 * z + a2
+        double discriminant = a1 * a1 - 4 * a2;
+        double poleRadius;
+        if (discriminant < 0) {
+            poleRadius = Math.sqrt(a2);
+        } else {
+            poleRadius = (Math.abs(a1) + Math.sqrt(discriminant)) / 2;
+        }
+        if (poleRadius >= 1) {
+            String errMsg = "Unstable section. Pole radius: " + poleRadius;
+            throw new IllegalArgumentException(errMsg);
+        }
+        int length = 2; // numerator order
+        if (poleRadius > 0) {
+            length += (int) Math.ceil(Math.log(RESPONSE_TOLERANCE) / Math.log(poleRadius));
+        }
+        return length;
+    }
+
+    /**
+     * Amplitude of the filtered sine wave (after the transient) divided by the input amplitude
+     */
+    private static double measureGain(IntIirFilter filter, double sampleRate, double frequency) {
+        int amplitude = 100000;
+        int n = (int) (sampleRate * 10);
+        double max = 0;
+        for (int i = 0; i < n; i++) {
+            int value = (int) Math.round(amplitude * Math.sin(2 * Math.PI * frequency * i / sampleRate));
+            int filtered = filter.filteredValue(value);
+            if (i > n / 2) {
+                max = Math.max(max, Math.abs(filtered));
+            }
+        }
+        return max / amplitude;
+    }
+
+    /**
+     * Unit Test. Usage Example.
+     */
+    public static void main(String[] args) {
+        double sampleRate = 2000;
+        boolean isTestOk = true;
+        // low pass: -3dB at the cut-off frequency, 4 order gives -80dB / decade
+        if (Math.abs(measureGain(lowPass(sampleRate, 40, 4), sampleRate, 5) - 1) > 0.01 ||
+                Math.abs(measureGain(lowPass(sampleRate, 40, 4), sampleRate, 40) - Math.sqrt(0.5)) > 0.01 ||
+                measureGain(lowPass(sampleRate, 40, 4), sampleRate, 400) > 0.0002) {
+            isTestOk = false;
+        }
+        // high pass of odd order
+        if (Math.abs(measureGain(highPass(sampleRate, 1, 3), sampleRate, 20) - 1) > 0.01 ||
+                Math.abs(measureGain(highPass(sampleRate, 1, 3), sampleRate, 1) - Math.sqrt(0.5)) > 0.01) {
+            isTestOk = false;
+        }
+        if (Math.abs(measureGain(bandPass(sampleRate, 0.5, 40, 2), sampleRate, 10) - 1) > 0.01 ||
+                measureGain(bandPass(sampleRate, 0.5, 40, 2), sampleRate, 400) > 0.02) {
+            isTestOk = false;
+        }
+        // notch removes 50 Hz and does not change 10 Hz
+        if (measureGain(notch(sampleRate, 50, 30), sampleRate, 50) > 0.001 ||
+                Math.abs(measureGain(notch(sampleRate, 50, 30), sampleRate, 10) - 1) > 0.01) {
+            isTestOk = false;
+        }
+
+        // constant offset does not produce transient
+        IntIirFilter lowPass = lowPass(sampleRate, 10, 2);
+        for (int i = 0; i < 100; i++) {
+            if (lowPass.filteredValue(500000) != 500000) {
+                isTestOk = false;
+            }
+        }
+
+        // block filtering gives the same result as filtering value by value
+        IntIirFilter[] filters = {bandPass(sampleRate, 0.5, 40, 4), notch(sampleRate, 60, 20)};
+        IntIirFilter[] blockFilters = {bandPass(sampleRate, 0.5, 40, 4), notch(sampleRate, 60, 20)};
+        java.util.Random random = new java.util.Random(1);
+        int[] data = new int[5000];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = 100000 + random.nextInt(10000);
+        }
+        for (int f = 0; f < filters.length; f++) {
+            int[] blockResult = new int[data.length];
+            for (int from = 0; from < data.length; from += 700) {
+                int n = Math.min(700, data.length - from);
+                blockFilters[f].filter(data, from, blockResult, from, n);
+            }
+            for (int i = 0; i < data.length; i++) {
+                if (filters[f].filteredValue(data[i]) != blockResult[i]) {
+                    isTestOk = false;
+                }
+            }
+        }
+        System.out.println("Is test ok: " + isTestOk);
+    }
+}
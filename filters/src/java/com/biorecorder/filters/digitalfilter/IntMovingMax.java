@@ -0,0 +1,26 @@
+package com.biorecorder.filters.digitalfilter;
+
+import com.biorecorder.filters.IntWindowStatistics;
+
+/**
+ * Moving maximum (upper envelope) filter. Returns the max of the last
+ * N values. Takes amortised O(1) time per value whatever the window size.
+ */
+public class IntMovingMax implements IntDigitalFilter {
+    private final IntWindowStatistics statistics;
+
+    public IntMovingMax(int numberOfPoints) {
+        statistics = new IntWindowStatistics(numberOfPoints);
+    }
+
+    @Override
+    public int filteredValue(int value) {
+        statistics.add(value);
+        return statistics.getMax();
+    }
+
+    @Override
+    public int getFilterLength() {
+        return statistics.maxSize() + 1;
+    }
+}
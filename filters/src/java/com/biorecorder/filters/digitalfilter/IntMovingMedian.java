@@ -0,0 +1,226 @@
+package com.biorecorder.filters.digitalfilter;
+
+/**
+ * Moving median filter. Returns the median of the last N values
+ * (for even number of values - the mean of the two middle ones).
+ * <p>
+ * Values are kept in two heaps: max-heap with the lower half of the window
+ * and min-heap with the upper half. Every heap element is the number of the
+ * window slot where the value is stored and every slot remembers its place
+ * in the heap, so the oldest value can be removed directly (without search)
+ * and every new value takes O(log N) time.
+ */
+public class IntMovingMedian implements IntDigitalFilter {
+    private final int[] values; // window ring buffer
+    private int position; // where the next value will be written. If the window is full it is the oldest value
+    private int size;
+
+    private final int[] lowHeap; // max-heap of slots with the lower half of values
+    private final int[] highHeap; // min-heap of slots with the upper half of values
+    private int lowSize;
+    private int highSize;
+    private final int[] heapIndexes; // index of the slot in its heap
+    private final boolean[] isInLowHeap;
+
+    public IntMovingMedian(int numberOfPoints) {
+        if (numberOfPoints <= 0) {
+            throw new IllegalArgumentException("The number of points must be greater than 0");
+        }
+        values = new int[numberOfPoints];
+        lowHeap = new int[numberOfPoints];
+        highHeap = new int[numberOfPoints];
+        heapIndexes = new int[numberOfPoints];
+        isInLowHeap = new boolean[numberOfPoints];
+    }
+
+    @Override
+    public int filteredValue(int value) {
+        int slot = position;
+        if (size == values.length) {
+            remove(slot);
+        } else {
+            size++;
+        }
+        values[slot] = value;
+        position++;
+        if (position == values.length) {
+            position = 0;
+        }
+        if (lowSize == 0 || value <= values[lowHeap[0]]) {
+            addToLow(slot);
+        } else {
+            addToHigh(slot);
+        }
+        balance();
+        if (lowSize > highSize) {
+            return values[lowHeap[0]];
+        }
+        return (int) (((long) values[lowHeap[0]] + values[highHeap[0]]) / 2);
+    }
+
+    @Override
+    public int getFilterLength() {
+        return values.length + 1;
+    }
+
+    /**
+     * Keeps lowSize == highSize or lowSize == highSize + 1
+     */
+    private void balance() {
+        if (lowSize > highSize + 1) {
+            int slot = lowHeap[0];
+            removeFromLow(0);
+            addToHigh(slot);
+        } else if (highSize > lowSize) {
+            int slot = highHeap[0];
+            removeFromHigh(0);
+            addToLow(slot);
+        }
+    }
+
+    private void remove(int slot) {
+        if (isInLowHeap[slot]) {
+            removeFromLow(heapIndexes[slot]);
+        } else {
+            removeFromHigh(heapIndexes[slot]);
+        }
+    }
+
+    private void addToLow(int slot) {
+        isInLowHeap[slot] = true;
+        setLow(lowSize, slot);
+        lowSize++;
+        siftUpLow(lowSize - 1);
+    }
+
+    private void addToHigh(int slot) {
+        isInLowHeap[slot] = false;
+        setHigh(highSize, slot);
+        highSize++;
+        siftUpHigh(highSize - 1);
+    }
+
+    private void removeFromLow(int index) {
+        lowSize--;
+        if (index < lowSize) {
+            setLow(index, lowHeap[lowSize]);
+            siftDownLow(index);
+            siftUpLow(index);
+        }
+    }
+
+    private void removeFromHigh(int index) {
+        highSize--;
+        if (index < highSize) {
+            setHigh(index, highHeap[highSize]);
+            siftDownHigh(index);
+            siftUpHigh(index);
+        }
+    }
+
+    private void setLow(int index, int slot) {
+        lowHeap[index] = slot;
+        heapIndexes[slot] = index;
+    }
+
+    private void setHigh(int index, int slot) {
+        highHeap[index] = slot;
+        heapIndexes[slot] = index;
+    }
+
+    private void siftUpLow(int index) {
+        int slot = lowHeap[index];
+        int value = values[slot];
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (values[lowHeap[parent]] >= value) {
+                break;
+            }
+            setLow(index, lowHeap[parent]);
+            index = parent;
+        }
+        setLow(index, slot);
+    }
+
+    private void siftDownLow(int index) {
+        int slot = lowHeap[index];
+        int value = values[slot];
+        while (true) {
+            int child = 2 * index + 1;
+            if (child >= lowSize) {
+                break;
+            }
+            if (child + 1 < lowSize && values[lowHeap[child + 1]] > values[lowHeap[child]]) {
+                child++;
+            }
+            if (values[lowHeap[child]] <= value) {
+                break;
+            }
+            setLow(index, lowHeap[child]);
+            index = child;
+        }
+        setLow(index, slot);
+    }
+
+    private void siftUpHigh(int index) {
+        int slot = highHeap[index];
+        int value = values[slot];
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (values[highHeap[parent]] <= value) {
+                break;
+            }
+            setHigh(index, highHeap[parent]);
+            index = parent;
+        }
+        setHigh(index, slot);
+    }
+
+    private void siftDownHigh(int index) {
+        int slot = highHeap[index];
+        int value = values[slot];
+        while (true) {
+            int child = 2 * index + 1;
+            if (child >= highSize) {
+                break;
+            }
+            if (child + 1 < highSize && values[highHeap[child + 1]] < values[highHeap[child]]) {
+                child++;
+            }
+            if (values[highHeap[child]] >= value) {
+                break;
+            }
+            setHigh(index, highHeap[child]);
+            index = child;
+        }
+        setHigh(index, slot);
+    }
+
+    /**
+     * Unit Test. Compares filtered values with the medians
+     * calculated by sorting of the window
+     */
+    public static void main(String[] args) {
+        java.util.Random random = new java.util.Random(1);
+        boolean isTestOk = true;
+        for (int numberOfPoints = 1; numberOfPoints < 40 && isTestOk; numberOfPoints += 3) {
+            IntMovingMedian filter = new IntMovingMedian(numberOfPoints);
+            int[] arr = new int[1000];
+            for (int i = 0; i < arr.length; i++) {
+                arr[i] = random.nextInt(30) - 15;
+                int filteredValue = filter.filteredValue(arr[i]);
+                int from = Math.max(0, i - numberOfPoints + 1);
+                int[] window = java.util.Arrays.copyOfRange(arr, from, i + 1);
+                java.util.Arrays.sort(window);
+                int middle = window.length / 2;
+                int expectedValue = window.length % 2 == 1 ? window[middle] : (window[middle - 1] + window[middle]) / 2;
+                if (filteredValue != expectedValue) {
+                    System.out.println("Window " + numberOfPoints + ", value " + i + " Error! filtered value: " + filteredValue + " Expected value " + expectedValue);
+                    isTestOk = false;
+                    break;
+                }
+            }
+        }
+        System.out.println("Is test ok: " + isTestOk);
+    }
+}
@@ -0,0 +1,26 @@
+package com.biorecorder.filters.digitalfilter;
+
+import com.biorecorder.filters.IntWindowStatistics;
+
+/**
+ * Moving minimum (lower envelope) filter. Returns the min of the last
+ * N values. Takes amortised O(1) time per value whatever the window size.
+ */
+public class IntMovingMin implements IntDigitalFilter {
+    private final IntWindowStatistics statistics;
+
+    public IntMovingMin(int numberOfPoints) {
+        statistics = new IntWindowStatistics(numberOfPoints);
+    }
+
+    @Override
+    public int filteredValue(int value) {
+        statistics.add(value);
+        return statistics.getMin();
+    }
+
+    @Override
+    public int getFilterLength() {
+        return statistics.maxSize() + 1;
+    }
+}
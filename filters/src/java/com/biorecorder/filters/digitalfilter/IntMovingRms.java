@@ -0,0 +1,67 @@
+package com.biorecorder.filters.digitalfilter;
+
+import com.biorecorder.filters.IntWindowStatistics;
+
+/**
+ * Moving RMS (root mean square) filter. Returns the RMS of the last N values.
+ * Useful to estimate the signal power (amplitude envelope) in real time.
+ * <p>
+ * Sum of squares is kept in long so for 24 bit values
+ * the number of points must not exceed 2^17.
+ */
+public class IntMovingRms implements IntDigitalFilter {
+    private final IntWindowStatistics statistics;
+
+    public IntMovingRms(int numberOfPoints) {
+        statistics = new IntWindowStatistics(numberOfPoints);
+    }
+
+    public IntMovingRms(double frequency, double windowDurationSec) {
+        this((int) (frequency * windowDurationSec));
+    }
+
+    @Override
+    public int filteredValue(int value) {
+        statistics.add(value);
+        return (int) Math.round(statistics.getRms());
+    }
+
+    @Override
+    public int getFilterLength() {
+        return statistics.maxSize() + 1;
+    }
+
+    /**
+     * Unit Test. Usage Example.
+     */
+    public static void main(String[] args) {
+        int[] arr = {3, -4, 3, -4, 0, 0, 0, 12, 5};
+        int numberOfPoints = 2;
+        IntMovingRms filter = new IntMovingRms(numberOfPoints);
+        IntMovingMax maxFilter = new IntMovingMax(numberOfPoints);
+        IntMovingMin minFilter = new IntMovingMin(numberOfPoints);
+        boolean isTestOk = true;
+        for (int i = 0; i < arr.length; i++) {
+            int from = Math.max(0, i - numberOfPoints + 1);
+            double sumOfSquares = 0;
+            int max = Integer.MIN_VALUE;
+            int min = Integer.MAX_VALUE;
+            for (int j = from; j <= i; j++) {
+                sumOfSquares += arr[j] * arr[j];
+                max = Math.max(max, arr[j]);
+                min = Math.min(min, arr[j]);
+            }
+            int expectedValue = (int) Math.round(Math.sqrt(sumOfSquares / (i - from + 1)));
+            int filteredValue = filter.filteredValue(arr[i]);
+            int filteredMax = maxFilter.filteredValue(arr[i]);
+            int filteredMin = minFilter.filteredValue(arr[i]);
+            if(filteredValue != expectedValue || filteredMax != max || filteredMin != min) {
+                System.out.println(i + " Error! filtered value: " + filteredValue + " Expected value " + expectedValue
+                        + ", max: " + filteredMax + " expected: " + max + ", min: " + filteredMin + " expected: " + min);
+                isTestOk = false;
+                break;
+            }
+        }
+        System.out.println("Is test ok: "+isTestOk);
+    }
+}
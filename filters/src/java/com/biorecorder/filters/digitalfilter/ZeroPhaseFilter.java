@@ -0,0 +1,194 @@
+package com.biorecorder.filters.digitalfilter;
+
+import java.util.Random;
+
+/**
+ * Offline zero phase filtering of the recorded data. The filter is applied
+ * forward and then backward (to the reversed data) so the phase shifts of
+ * both passes compensate each other and the filtered signal is not delayed.
+ * The amplitude response is squared.
+ * <p>
+ * Long data are processed by blocks (overlap-save): every block
+ * is filtered together with «overlap» samples before and after it
+ * and only the block part of the result is given out. So the memory does
+ * not depend on the data length and the result is the same as if
+ * the whole data were filtered at once (exactly for filters with the finite response
+ * and with the error less than 1 for IIR filters).
+ * Overlap by default is the filter length - 1.
+ * <p>
+ * Every pass uses the new filter created by the filter factory.
+ * This class is not thread safe. For parallel processing of many signals
+ * every signal should have its own ZeroPhaseFilter.
+ */
+public class ZeroPhaseFilter {
+    private static final int MIN_BLOCK_SIZE = 64 * 1024;
+    private final IntDigitalFilterFactory filterFactory;
+    private final int overlap;
+    private final int[] window; // already filtered samples (left context) + samples to be filtered
+    private final int[] work;
+    private int leftContext;
+    private int count;
+
+    public ZeroPhaseFilter(IntDigitalFilterFactory filterFactory) {
+        this(filterFactory, filterFactory.createFilter().getFilterLength() - 1, 0);
+    }
+
+    /**
+     * @param overlap   number of samples on both sides of every block
+     *                  to filter together with it
+     * @param blockSize number of samples in the block. If blockSize is 0 it is selected
+     *                  automatically: 64K or 4 * overlap if that is bigger
+     */
+    public ZeroPhaseFilter(IntDigitalFilterFactory filterFactory, int overlap, int blockSize) throws IllegalArgumentException {
+        if (overlap < 0 || blockSize < 0) {
+            String errMsg = "Overlap and block size must be >= 0: " + overlap + ", " + blockSize;
+            throw new IllegalArgumentException(errMsg);
+        }
+        if (blockSize == 0) {
+            blockSize = Math.max(MIN_BLOCK_SIZE, 4 * overlap);
+        }
+        this.filterFactory = filterFactory;
+        this.overlap = overlap;
+        window = new int[blockSize + 2 * overlap];
+        work = new int[window.length];
+    }
+
+    /**
+     * Filters the given data at once (forward and backward) in place
+     */
+    public static void filter(IntDigitalFilterFactory filterFactory, int[] data, int from, int length) {
+        filterFactory.createFilter().filter(data, from, data, from, length);
+        reverse(data, from, length);
+        filterFactory.createFilter().filter(data, from, data, from, length);
+        reverse(data, from, length);
+    }
+
+    public int getOverlap() {
+        return overlap;
+    }
+
+    /**
+     * Adds the next part of the data. Filtered data are given to the sink
+     * by blocks as soon as the samples following the block are received
+     */
+    public void put(int[] values, int from, int length, DataSink sink) {
+        while (length > 0) {
+            int n = Math.min(length, window.length - count);
+            System.arraycopy(values, from, window, count, n);
+            count += n;
+            from += n;
+            length -= n;
+            if (count == window.length) {
+                filterBlock(count - leftContext - overlap, sink);
+            }
+        }
+    }
+
+    /**
+     * Filters the rest of the data (the end of the data is reached)
+     * and prepares the filter to the new data
+     */
+    public void finish(DataSink sink) {
+        if (count > leftContext) {
+            filterBlock(count - leftContext, sink);
+        }
+        count = 0;
+        leftContext = 0;
+    }
+
+    private void filterBlock(int blockLength, DataSink sink) {
+        System.arraycopy(window, 0, work, 0, count);
+        filter(filterFactory, work, 0, count);
+        sink.put(work, leftContext, blockLength);
+        // keep the overlap before the next block
+        int filteredEnd = leftContext + blockLength;
+        int newLeftContext = Math.min(overlap, filteredEnd);
+        int shift = filteredEnd - newLeftContext;
+        System.arraycopy(window, shift, window, 0, count - shift);
+        count -= shift;
+        leftContext = newLeftContext;
+    }
+
+    private static void reverse(int[] data, int from, int length) {
+        for (int i = from, j = from + length - 1; i < j; i++, j--) {
+            int tmp = data[i];
+            data[i] = data[j];
+            data[j] = tmp;
+        }
+    }
+
+    public interface DataSink {
+        void put(int[] values, int from, int length);
+    }
+
+    /**
+     * Filters data by blocks (giving them by random parts) and compares the result
+     * with the data filtered at once
+     */
+    private static int maxBlockError(IntDigitalFilterFactory filterFactory, int[] data, int blockSize) {
+        final int[] expected = data.clone();
+        filter(filterFactory, expected, 0, expected.length);
+        ZeroPhaseFilter zeroPhaseFilter = new ZeroPhaseFilter(filterFactory, filterFactory.createFilter().getFilterLength() - 1, blockSize);
+        final int[] error = new int[2]; // received samples, max error
+        DataSink sink = new DataSink() {
+            @Override
+            public void put(int[] values, int from, int length) {
+                for (int i = 0; i < length; i++) {
+                    error[1] = Math.max(error[1], Math.abs(values[from + i] - expected[error[0]++]));
+                }
+            }
+        };
+        Random random = new Random(2);
+        for (int from = 0; from < data.length; ) {
+            int n = Math.min(data.length - from, 1 + random.nextInt(3000));
+            zeroPhaseFilter.put(data, from, n, sink);
+            from += n;
+        }
+        zeroPhaseFilter.finish(sink);
+        if (error[0] != data.length) {
+            return Integer.MAX_VALUE;
+        }
+        return error[1];
+    }
+
+    /**
+     * Unit Test. Usage Example.
+     */
+    public static void main(String[] args) {
+        final double sampleRate = 1000;
+        Random random = new Random(1);
+        int[] data = new int[200000];
+        int walk = 0;
+        for (int i = 0; i < data.length; i++) {
+            walk += random.nextInt(21) - 10;
+            data[i] = 100000 + walk + (int) (3000 * Math.sin(2 * Math.PI * 7 * i / sampleRate)) + random.nextInt(500);
+        }
+        IntDigitalFilterFactory iirFactory = new IntDigitalFilterFactory() {
+            @Override
+            public IntDigitalFilter createFilter() {
+                return new IntFilterChain(IntIirFilter.bandPass(sampleRate, 0.5, 40, 2), IntIirFilter.notch(sampleRate, 50, 30));
+            }
+        };
+        IntDigitalFilterFactory firFactory = new IntDigitalFilterFactory() {
+            @Override
+            public IntDigitalFilter createFilter() {
+                return new IntFilterChain(new IntHiPass(200), new IntMovingAverage(10));
+            }
+        };
+        boolean isTestOk = maxBlockError(iirFactory, data, 20000) <= 1 && maxBlockError(firFactory, data, 5000) == 0;
+
+        // the result of the symmetric pulse stays symmetric (no delay)
+        int center = 10000;
+        int[] pulse = new int[2 * center + 1];
+        for (int i = -50; i <= 50; i++) {
+            pulse[center + i] = 10000 * (50 - Math.abs(i));
+        }
+        filter(iirFactory, pulse, 0, pulse.length);
+        for (int i = 1; i <= center; i++) {
+            if (Math.abs(pulse[center + i] - pulse[center - i]) > 2) {
+                isTestOk = false;
+            }
+        }
+        System.out.println("Is test ok: " + isTestOk);
+    }
+}
@@ -25,4 +25,16 @@ public class FilterAlfa extends Function {
 
         }
     }
+
+    @Override
+    protected Function copyWithCachedInputs(FunctionCache cache) {
+        FilterAlfa copy = (FilterAlfa) super.copyWithCachedInputs(cache);
+        copy.alfaData = cache.cached(alfaData);
+        return copy;
+    }
+
+    @Override
+    int lastDependentIndex(int index) {
+        return lastDependentIndex(alfaData, index, 0);
+    }
 }
\ No newline at end of file
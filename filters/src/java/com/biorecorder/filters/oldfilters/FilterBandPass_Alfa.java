@@ -24,4 +24,9 @@ public class FilterBandPass_Alfa extends Function {
         }
         return sum/(bufferHalf);
     }
+
+    @Override
+    protected int lookAhead(int index) {
+        return bufferHalf + 2;
+    }
 }
\ No newline at end of file
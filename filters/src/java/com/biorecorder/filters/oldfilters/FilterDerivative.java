@@ -19,4 +19,9 @@ public class FilterDerivative extends Function {
         }
         return inputData.get(index) - inputData.get(index - 1);
     }
+
+    @Override
+    protected int lookAhead(int index) {
+        return 0;
+    }
 }
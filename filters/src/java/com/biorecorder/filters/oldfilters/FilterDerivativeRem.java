@@ -31,5 +31,10 @@ public class FilterDerivativeRem extends Function {
         return inputData.get(index) - inputData.get(index - distance_point);
         //return Math.abs(inputData.get(index)) - Math.abs(inputData.get(index - distance_point));
     }
+
+    @Override
+    protected int lookAhead(int index) {
+        return 0;
+    }
 }
 
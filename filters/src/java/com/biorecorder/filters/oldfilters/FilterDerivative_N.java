@@ -35,4 +35,8 @@ public class FilterDerivative_N extends Function {
         return y;
     }
 
+    @Override
+    protected int lookAhead(int index) {
+        return 2;
+    }
 }
\ No newline at end of file
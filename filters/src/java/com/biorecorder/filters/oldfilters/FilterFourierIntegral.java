@@ -14,13 +14,10 @@ public class FilterFourierIntegral extends Function {
 
     @Override
     public int get(int index) {
-        double frequencyStep = 1 / frequency;
-        double frequency = index * frequencyStep;
-        if(frequency < 0.1)  {
+        if(isBelowMinFrequency(index))  {
             return 0;
         }
-        double delta = frequency * 0.05;
-        int numberOfPoints = (int)(delta / frequencyStep);
+        int numberOfPoints = numberOfPoints(index);
         int result = 0;
         for( int i = Math.max(0, index - numberOfPoints); i <= Math.min(inputData.size(), index + numberOfPoints); i++ ) {
             result = result + inputData.get(i);
@@ -28,9 +25,64 @@ public class FilterFourierIntegral extends Function {
         return result;
     }
 
+    private boolean isBelowMinFrequency(int index) {
+        double frequencyStep = 1 / frequency;
+        return index * frequencyStep < 0.1;
+    }
+
+    private int numberOfPoints(int index) {
+        double frequencyStep = 1 / frequency;
+        double delta = index * frequencyStep * 0.05;
+        return (int)(delta / frequencyStep);
+    }
+
+    /**
+     * Every value is the sum of the input window, so windows sums are
+     * taken from the cumulative sums of the input calculated in one pass
+     */
+    @Override
+    protected void evaluate(int from, int length, int[] dest) {
+        int inputSize = inputData.size();
+        int inputFrom = Integer.MAX_VALUE;
+        int inputTill = 0;
+        for (int index = from; index < from + length; index++) {
+            if(!isBelowMinFrequency(index)) {
+                int numberOfPoints = numberOfPoints(index);
+                inputFrom = Math.min(inputFrom, Math.max(0, index - numberOfPoints));
+                inputTill = Math.max(inputTill, Math.min(inputSize, index + numberOfPoints) + 1);
+            }
+        }
+        if (inputFrom >= inputTill || inputTill > inputSize) {
+            // the window includes the index beyond the input
+            super.evaluate(from, length, dest);
+            return;
+        }
+        int[] input = readInput(inputFrom, inputTill);
+        // int overflow is the same as in the direct sum
+        int[] cumulativeSums = new int[input.length + 1];
+        for (int i = 0; i < input.length; i++) {
+            cumulativeSums[i + 1] = cumulativeSums[i] + input[i];
+        }
+        for (int index = from; index < from + length; index++) {
+            if(isBelowMinFrequency(index)) {
+                dest[index - from] = 0;
+            } else {
+                int numberOfPoints = numberOfPoints(index);
+                int windowFrom = Math.max(0, index - numberOfPoints);
+                int windowTill = Math.min(inputSize, index + numberOfPoints) + 1;
+                dest[index - from] = cumulativeSums[windowTill - inputFrom] - cumulativeSums[windowFrom - inputFrom];
+            }
+        }
+    }
+
     @Override
     public int size() {
         int index40hz = (int)(40 * frequency);
         return Math.min(inputData.size(), index40hz);
     }
+
+    @Override
+    protected int lookAhead(int index) {
+        return numberOfPoints(index);
+    }
 }
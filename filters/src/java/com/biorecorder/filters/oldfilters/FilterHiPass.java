@@ -31,4 +31,36 @@ public class FilterHiPass extends Function {
         }
         return inputData.get(index) - (int) (sum / (bufferSize + 1));
     }
+
+    /**
+     * Slides the sum along the data instead of recalculating it for every index
+     */
+    @Override
+    protected void evaluate(int from, int length, int[] dest) {
+        if (bufferSize == 0 || length == 0) {
+            super.evaluate(from, length, dest);
+            return;
+        }
+        int inputFrom = Math.max(0, from - bufferSize);
+        int[] input = readInput(inputFrom, from + length);
+        long sum = 0;
+        for (int i = inputFrom; i <= from; i++) {
+            sum += input[i - inputFrom];
+        }
+        for (int index = from; index < from + length; index++) {
+            if (index > from) {
+                sum += input[index - inputFrom];
+                if (index > bufferSize) {
+                    sum -= input[index - bufferSize - 1 - inputFrom];
+                }
+            }
+            int n = index <= bufferSize ? index + 1 : bufferSize + 1;
+            dest[index - from] = input[index - inputFrom] - (int) (sum / n);
+        }
+    }
+
+    @Override
+    protected int lookAhead(int index) {
+        return 0;
+    }
 }
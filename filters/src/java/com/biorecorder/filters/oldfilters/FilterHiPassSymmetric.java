@@ -51,4 +51,36 @@ public class FilterHiPassSymmetric extends Function {
         return inputData.get(index) - (int)(sum/(2*bufferSize));
     }
 
+    /**
+     * Slides the sum along the data instead of recalculating it for every index
+     */
+    @Override
+    protected void evaluate(int from, int length, int[] dest) {
+        int start = Math.max(from, bufferSize);
+        int end = Math.min(from + length, size() - bufferSize);
+        if (bufferSize == 0 || start >= end) {
+            super.evaluate(from, length, dest);
+            return;
+        }
+        for (int i = 0; i < length; i++) {
+            dest[i] = 0;
+        }
+        int inputFrom = start - bufferSize;
+        int[] input = readInput(inputFrom, end + bufferSize - 1);
+        long sum = 0;
+        for (int i = start - bufferSize; i < start + bufferSize; i++) {
+            sum += input[i - inputFrom];
+        }
+        for (int index = start; index < end; index++) {
+            if (index > start) {
+                sum += input[index + bufferSize - 1 - inputFrom] - input[index - bufferSize - 1 - inputFrom];
+            }
+            dest[index - from] = input[index - inputFrom] - (int) (sum / (2 * bufferSize));
+        }
+    }
+
+    @Override
+    protected int lookAhead(int index) {
+        return bufferSize;
+    }
 }
\ No newline at end of file
@@ -37,5 +37,11 @@ public class FilterPower extends Function {
     public int size() {
         return inputData.size() - distance;
     }
+
+    @Override
+    protected int lookAhead(int index) {
+        // size of the function is less than the input size by distance
+        return 2 * distance;
+    }
 }
 
@@ -6,7 +6,7 @@ import com.biorecorder.datalyb.series.IntSeries;
 /**
  *
  */
-public abstract class Function implements IntSeries {
+public abstract class Function implements IntSeries, Cloneable {
     protected IntSeries inputData;
 
     protected Function(IntSeries inputData) {
@@ -17,5 +17,90 @@ public abstract class Function implements IntSeries {
     public int size() {
         return inputData.size();
     }
-}
 
+    /**
+     * Calculates the values with indexes [from, from + length) to the given array.
+     * By default values are calculated one by one with {@link #get(int)}.
+     * Filters that are able to slide their window along the data
+     * (calculating the whole range in one pass) should override this method.
+     */
+    protected void evaluate(int from, int length, int[] dest) {
+        for (int i = 0; i < length; i++) {
+            dest[i] = get(from + i);
+        }
+    }
+
+    /**
+     * Creates the copy of the function that reads the input data (and other inner series)
+     * through their cached views. The function itself is not changed. Used by {@link FunctionCache}
+     */
+    protected Function copyWithCachedInputs(FunctionCache cache) {
+        Function copy;
+        try {
+            copy = (Function) clone();
+        } catch (CloneNotSupportedException e) {
+            throw new AssertionError(e);
+        }
+        copy.inputData = cache.cached(inputData);
+        return copy;
+    }
+
+    /**
+     * @return max number of the input values following the given index
+     * that the value with that index depends on (including the checks of the size).
+     * Integer.MAX_VALUE if it is unknown
+     */
+    protected int lookAhead(int index) {
+        return Integer.MAX_VALUE;
+    }
+
+    /**
+     * @return index of the last raw data value that the value with the given index
+     * depends on (through all nested functions)
+     */
+    int lastDependentIndex(int index) {
+        return lastDependentIndex(inputData, index, lookAhead(index));
+    }
+
+    /**
+     * @return size of the raw data the function is calculated from
+     */
+    int dataSize() {
+        return dataSize(inputData);
+    }
+
+    static int dataSize(IntSeries series) {
+        if (series instanceof FunctionCache.CachedSeries) {
+            series = ((FunctionCache.CachedSeries) series).getFunction();
+        }
+        if (series instanceof Function) {
+            return ((Function) series).dataSize();
+        }
+        return series.size();
+    }
+
+    static int lastDependentIndex(IntSeries series, int index, int lookAhead) {
+        long inputIndex = (long) index + lookAhead;
+        if (inputIndex >= Integer.MAX_VALUE) {
+            return Integer.MAX_VALUE;
+        }
+        if (series instanceof FunctionCache.CachedSeries) {
+            series = ((FunctionCache.CachedSeries) series).getFunction();
+        }
+        if (series instanceof Function) {
+            return ((Function) series).lastDependentIndex((int) inputIndex);
+        }
+        return (int) inputIndex;
+    }
+
+    /**
+     * Reads the input values with indexes [from, till) to the new array
+     */
+    protected int[] readInput(int from, int till) {
+        int[] values = new int[till - from];
+        for (int i = from; i < till; i++) {
+            values[i - from] = inputData.get(i);
+        }
+        return values;
+    }
+}
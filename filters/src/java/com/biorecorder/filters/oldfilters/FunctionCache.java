@@ -0,0 +1,247 @@
+package com.biorecorder.filters.oldfilters;
+
+import com.biorecorder.datalyb.series.IntSeries;
+
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Functions are lazy: every get(index) rescans the neighbourhood of the input
+ * so nested functions recalculate the same values again and again.
+ * This cache materializes function values by chunks: the whole chunk
+ * is calculated in one pass (see {@link Function#evaluate(int, int, int[])})
+ * and kept in the bounded LRU cache keyed by (function, chunk number).
+ * <p>
+ * The inputs of the cached function (and of all nested functions) are replaced
+ * by their cached views, so every function of the chain is calculated
+ * only once for every chunk and the chain is evaluated in linear time.
+ * <p>
+ * When data are appended only the chunks whose values depend on the end of
+ * the previous data (see {@link Function#lookAhead(int)}) are recalculated.
+ * The cached function itself is not changed: the cache wraps its copy
+ * (see {@link Function#copyWithCachedInputs(FunctionCache)}).
+ * Cached views are not thread safe.
+ */
+public class FunctionCache {
+    static final int CHUNK_SIZE = 4096;
+    private final int maxChunks;
+    private final LinkedHashMap<ChunkKey, Chunk> chunks = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<IntSeries, IntSeries> views = new IdentityHashMap<>();
+
+    /**
+     * 1024 chunks (16 MB)
+     */
+    public FunctionCache() {
+        this(1024);
+    }
+
+    public FunctionCache(int maxChunks) {
+        this.maxChunks = maxChunks;
+    }
+
+    /**
+     * @return cached view of the given function. Series that are not functions
+     * (raw data) are returned as they are
+     */
+    public synchronized IntSeries cached(IntSeries series) {
+        if (!(series instanceof Function)) {
+            return series;
+        }
+        IntSeries view = views.get(series);
+        if (view == null) {
+            view = new CachedSeries(((Function) series).copyWithCachedInputs(this));
+            views.put(series, view);
+        }
+        return view;
+    }
+
+    public synchronized void clear() {
+        chunks.clear();
+    }
+
+    synchronized int[] getChunk(Function function, int chunkNumber, int size, int dataSize) {
+        ChunkKey key = new ChunkKey(function, chunkNumber);
+        Chunk chunk = chunks.get(key);
+        int from = chunkNumber * CHUNK_SIZE;
+        int length = Math.min(CHUNK_SIZE, size - from);
+        if (chunk != null && chunk.values.length == length) {
+            if (chunk.dataSize == dataSize) {
+                return chunk.values;
+            }
+            // data were appended but the chunk values do not depend on the previous end of the data
+            if (dataSize > chunk.dataSize && function.lastDependentIndex(from + length - 1) < chunk.dataSize) {
+                chunk.dataSize = dataSize;
+                return chunk.values;
+            }
+        }
+        int[] values = new int[length];
+        function.evaluate(from, length, values);
+        chunks.put(key, new Chunk(values, dataSize));
+        if (chunks.size() > maxChunks) {
+            // remove the least recently used chunk
+            chunks.remove(chunks.keySet().iterator().next());
+        }
+        return values;
+    }
+
+    class CachedSeries implements IntSeries {
+        private final Function function;
+        private int[] lastChunk = new int[0];
+        private int lastChunkFrom;
+        private int lastChunkDataSize = -1;
+
+        CachedSeries(Function function) {
+            this.function = function;
+        }
+
+        Function getFunction() {
+            return function;
+        }
+
+        @Override
+        public int size() {
+            return function.size();
+        }
+
+        @Override
+        public int get(int index) {
+            int size = function.size();
+            if (index < 0 || index >= size) {
+                return function.get(index);
+            }
+            int dataSize = function.dataSize();
+            if (index < lastChunkFrom || index >= lastChunkFrom + lastChunk.length || lastChunkDataSize != dataSize) {
+                int chunkNumber = index / CHUNK_SIZE;
+                lastChunk = getChunk(function, chunkNumber, size, dataSize);
+                lastChunkFrom = chunkNumber * CHUNK_SIZE;
+                lastChunkDataSize = dataSize;
+            }
+            return lastChunk[index - lastChunkFrom];
+        }
+    }
+
+    private static IntSeries[] createFunctions(IntSeries input) {
+        return new IntSeries[] {
+                new FilterHiPass(input, 100),
+                new FilterHiPassSymmetric(input, 50),
+                new FilterLowPass(input, 30),
+                new FilterFourierIntegral(input, 50),
+                new FilterBandPass_Alfa(input),
+                new FilterDerivative_N(input, 4),
+                new FilterAlfa(input),
+                new FilterPower(new FilterLowPass(new FilterHiPass(input, 20), 5)),
+                new FilterHiPassSymmetric(new FilterLowPass(new FilterDerivative(input), 10), 40)
+        };
+    }
+
+    /**
+     * Unit Test. Usage Example.
+     */
+    public static void main(String[] args) {
+        java.util.Random random = new java.util.Random(1);
+        int[] data = new int[6 * CHUNK_SIZE + 123];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = (int) (1000 * Math.sin(i / 20.0)) + random.nextInt(200);
+        }
+        // data are "appended": only a part of them is available at first
+        final int[] dataSize = {3 * CHUNK_SIZE + 123};
+        IntSeries input = new IntSeries() {
+            @Override
+            public int size() {
+                return dataSize[0];
+            }
+
+            @Override
+            public int get(int index) {
+                return data[index];
+            }
+        };
+        IntSeries[] functionsToCache = createFunctions(input);
+        FunctionCache cache = new FunctionCache(100);
+        boolean isTestOk = true;
+        for (int k = 0; k < 2; k++) {
+            IntSeries[] functions = createFunctions(input);
+            for (int i = 0; i < functions.length; i++) {
+                IntSeries cached = cache.cached(functionsToCache[i]);
+                // backward to check the access to the different chunks
+                for (int j = cached.size() - 1; j >= 0; j--) {
+                    if (cached.get(j) != functions[i].get(j)) {
+                        isTestOk = false;
+                    }
+                }
+            }
+            dataSize[0] = data.length;
+        }
+
+        // the cached function is not changed
+        FilterLowPass lowPass = new FilterLowPass(input, 10);
+        FilterPower power = new FilterPower(lowPass);
+        cache.cached(power);
+        if (power.inputData != lowPass || lowPass.inputData != input) {
+            isTestOk = false;
+        }
+
+        // after appending only the chunks depending on the previous end of the data are recalculated
+        final int[] evaluations = new int[1];
+        Function counted = new FilterLowPass(new FilterHiPass(input, 20), 5) {
+            @Override
+            protected void evaluate(int from, int length, int[] dest) {
+                evaluations[0]++;
+                super.evaluate(from, length, dest);
+            }
+        };
+        dataSize[0] = 3 * CHUNK_SIZE;
+        IntSeries cachedCounted = cache.cached(counted);
+        for (int j = 0; j < cachedCounted.size(); j++) {
+            cachedCounted.get(j);
+        }
+        dataSize[0] = 4 * CHUNK_SIZE;
+        evaluations[0] = 0;
+        for (int j = 0; j < cachedCounted.size(); j++) {
+            cachedCounted.get(j);
+        }
+        // the last old chunk and the new one
+        if (evaluations[0] != 2) {
+            isTestOk = false;
+        }
+        System.out.println("Is test ok: " + isTestOk);
+    }
+
+    static class Chunk {
+        private final int[] values;
+        private int dataSize; // size of the raw data the chunk values are valid for
+
+        Chunk(int[] values, int dataSize) {
+            this.values = values;
+            this.dataSize = dataSize;
+        }
+    }
+
+    static class ChunkKey {
+        private final Function function;
+        private final int chunkNumber;
+
+        ChunkKey(Function function, int chunkNumber) {
+            this.function = function;
+            this.chunkNumber = chunkNumber;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof ChunkKey)) {
+                return false;
+            }
+            ChunkKey key = (ChunkKey) o;
+            return function == key.function && chunkNumber == key.chunkNumber;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * System.identityHashCode(function) + chunkNumber;
+        }
+    }
+}